@@ -0,0 +1,59 @@
+package bio.terra.cli.benchmark;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.utils.AwsConfiguration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for generating the AWS config file for a workspace, which has a few profiles for each
+ * AWS resource in the workspace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AwsConfigurationBenchmark {
+  @Param({"100", "10000"})
+  public int numResources;
+
+  @Param({"false", "true"})
+  public boolean cacheWithAwsVault;
+
+  private Workspace workspace;
+
+  @Setup
+  public void setup() {
+    List<Resource> resources =
+        Fixtures.buildResourceDescriptions(numResources).stream()
+            .map(Resource::deserializeFromWsm)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    workspace = Fixtures.buildAwsWorkspace(resources);
+  }
+
+  @Benchmark
+  public String buildAndWrite() {
+    return AwsConfiguration.builder()
+        .setWorkspace(workspace)
+        .setCacheWithAwsVault(cacheWithAwsVault)
+        .build()
+        .toString();
+  }
+}
@@ -0,0 +1,65 @@
+package bio.terra.cli.benchmark;
+
+import bio.terra.cli.businessobject.Config;
+import bio.terra.cli.businessobject.Server;
+import bio.terra.cli.businessobject.VersionCheck;
+import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.serialization.persisted.PDContext;
+import bio.terra.cli.utils.JacksonMapper;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for converting the context to and from JSON, which happens at least once for every
+ * command. This covers the same steps as reading and writing the context file, without the disk
+ * access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ContextBenchmark {
+  private Config config;
+  private Server server;
+  private Workspace workspace;
+  private VersionCheck versionCheck;
+  private byte[] serializedContext;
+
+  @Setup
+  public void setup() throws IOException {
+    config = new Config();
+    server = new Server();
+    workspace = new Workspace(Fixtures.buildGcpWorkspace());
+    versionCheck = new VersionCheck(OffsetDateTime.of(2023, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+    serializedContext = writeContext();
+  }
+
+  @Benchmark
+  public byte[] writeContext() throws IOException {
+    PDContext diskContext = new PDContext(config, server, null, workspace, versionCheck);
+    return JacksonMapper.getPrettyWriter().writeValueAsBytes(diskContext);
+  }
+
+  @Benchmark
+  public void readContext(Blackhole blackhole) throws IOException {
+    PDContext diskContext = JacksonMapper.getReader(PDContext.class).readValue(serializedContext);
+    blackhole.consume(new Config(diskContext.config));
+    blackhole.consume(new Server(diskContext.server));
+    blackhole.consume(new Workspace(diskContext.workspace));
+  }
+}
@@ -0,0 +1,163 @@
+package bio.terra.cli.benchmark;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.serialization.persisted.PDWorkspace;
+import bio.terra.cli.utils.PropertiesUtils;
+import bio.terra.workspace.model.AccessScope;
+import bio.terra.workspace.model.AwsS3StorageFolderAttributes;
+import bio.terra.workspace.model.CloningInstructionsEnum;
+import bio.terra.workspace.model.CloudPlatform;
+import bio.terra.workspace.model.ControlledResourceMetadata;
+import bio.terra.workspace.model.GcpBigQueryDatasetAttributes;
+import bio.terra.workspace.model.GcpGcsBucketAttributes;
+import bio.terra.workspace.model.GitRepoAttributes;
+import bio.terra.workspace.model.ManagedBy;
+import bio.terra.workspace.model.ResourceAttributesUnion;
+import bio.terra.workspace.model.ResourceDescription;
+import bio.terra.workspace.model.ResourceMetadata;
+import bio.terra.workspace.model.ResourceType;
+import bio.terra.workspace.model.StewardshipType;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Test data for the benchmarks. Everything is generated from a fixed seed, so that every run (and
+ * every commit being compared) works on exactly the same data.
+ */
+public class Fixtures {
+  private static final long SEED = 20230601L;
+  private static final String AWS_REGION = "us-east-1";
+  private static final String GCP_PROJECT_ID = "terra-cli-benchmark";
+
+  private Fixtures() {}
+
+  /**
+   * Build a list of resources, as returned by the WSM enumerate resources endpoint. The list cycles
+   * through the GCS bucket, BigQuery dataset, Git repo and S3 storage folder resource types, with a
+   * mix of controlled and referenced resources.
+   *
+   * @param numResources number of resources to build
+   */
+  public static List<ResourceDescription> buildResourceDescriptions(int numResources) {
+    Random random = new Random(SEED);
+    return IntStream.range(0, numResources)
+        .mapToObj(index -> buildResourceDescription(index, random))
+        .collect(Collectors.toList());
+  }
+
+  /** Build a list of Git repo resources, as returned by the WSM enumerate resources endpoint. */
+  public static List<ResourceDescription> buildGitRepoDescriptions(int numResources) {
+    Random random = new Random(SEED);
+    return IntStream.range(0, numResources)
+        .mapToObj(
+            index ->
+                new ResourceDescription()
+                    .metadata(buildMetadata(index, ResourceType.GIT_REPO, random))
+                    .resourceAttributes(
+                        new ResourceAttributesUnion()
+                            .gitRepo(
+                                new GitRepoAttributes()
+                                    .gitRepoUrl(
+                                        "https://github.com/DataBiosphere/repo-" + index))))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Build an AWS workspace that returns the given resources, instead of fetching them from WSM.
+   *
+   * @param resources resources to return from {@link Workspace#listResources}
+   */
+  public static Workspace buildAwsWorkspace(List<Resource> resources) {
+    PDWorkspace pdWorkspace =
+        new PDWorkspace.Builder()
+            .uuid(new UUID(SEED, SEED))
+            .userFacingId("benchmark-workspace")
+            .cloudPlatform(CloudPlatform.AWS)
+            .awsMajorVersion("v0.5.8")
+            .awsOrganizationId("o-benchmark")
+            .awsAccountId("123456789012")
+            .awsTenantAlias("benchmark-tenant")
+            .awsEnvironmentAlias("benchmark-env")
+            .build();
+    return new Workspace(pdWorkspace) {
+      @Override
+      public List<Resource> listResources() {
+        return resources;
+      }
+    };
+  }
+
+  /** Build a GCP workspace for writing to the context. */
+  public static PDWorkspace buildGcpWorkspace() {
+    return new PDWorkspace.Builder()
+        .uuid(new UUID(SEED, SEED))
+        .userFacingId("benchmark-workspace")
+        .cloudPlatform(CloudPlatform.GCP)
+        .googleProjectId(GCP_PROJECT_ID)
+        .build();
+  }
+
+  private static ResourceDescription buildResourceDescription(int index, Random random) {
+    String suffix = String.format("%08x", random.nextInt());
+    ResourceAttributesUnion attributes = new ResourceAttributesUnion();
+    ResourceType resourceType;
+    switch (index % 4) {
+      case 0 -> {
+        resourceType = ResourceType.GCS_BUCKET;
+        attributes.gcpGcsBucket(new GcpGcsBucketAttributes().bucketName("bucket-" + suffix));
+      }
+      case 1 -> {
+        resourceType = ResourceType.BIG_QUERY_DATASET;
+        attributes.gcpBqDataset(
+            new GcpBigQueryDatasetAttributes()
+                .projectId(GCP_PROJECT_ID)
+                .datasetId("dataset_" + suffix));
+      }
+      case 2 -> {
+        resourceType = ResourceType.GIT_REPO;
+        attributes.gitRepo(
+            new GitRepoAttributes().gitRepoUrl("https://github.com/DataBiosphere/repo-" + suffix));
+      }
+      default -> {
+        resourceType = ResourceType.AWS_S3_STORAGE_FOLDER;
+        attributes.awsS3StorageFolder(
+            new AwsS3StorageFolderAttributes().bucketName("bucket-" + suffix).prefix(suffix));
+      }
+    }
+    return new ResourceDescription()
+        .metadata(buildMetadata(index, resourceType, random))
+        .resourceAttributes(attributes);
+  }
+
+  private static ResourceMetadata buildMetadata(
+      int index, ResourceType resourceType, Random random) {
+    // S3 storage folders are always controlled, because the AWS configuration needs their region
+    boolean isControlled =
+        resourceType == ResourceType.AWS_S3_STORAGE_FOLDER || random.nextBoolean();
+    ResourceMetadata metadata =
+        new ResourceMetadata()
+            .resourceId(new UUID(random.nextLong(), random.nextLong()))
+            .name(String.format("%s_%05d", resourceType.toString().toLowerCase(), index))
+            .description("Benchmark resource " + index + " of type " + resourceType)
+            .resourceType(resourceType)
+            .stewardshipType(isControlled ? StewardshipType.CONTROLLED : StewardshipType.REFERENCED)
+            .cloningInstructions(CloningInstructionsEnum.NOTHING)
+            .properties(
+                PropertiesUtils.stringMapToProperties(
+                    Map.of("terra-workspace-folder-id", new UUID(index, index).toString())))
+            .createdBy("benchmark-user@example.com");
+    if (isControlled) {
+      metadata.controlledResourceMetadata(
+          new ControlledResourceMetadata()
+              .accessScope(AccessScope.SHARED_ACCESS)
+              .managedBy(ManagedBy.USER)
+              .region(AWS_REGION));
+    }
+    return metadata;
+  }
+}
@@ -0,0 +1,55 @@
+package bio.terra.cli.benchmark;
+
+import bio.terra.cli.app.utils.LocalProcessLauncher;
+import bio.terra.cli.utils.UserIO;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for copying the output of a LOCAL_PROCESS app command (e.g. `terra gsutil cat` of a
+ * large file) to the CLI output stream. The child process writes zeros instead of reading from the
+ * cloud, so that the benchmark measures the copy and not the network.
+ *
+ * <p>The CLI output stream is not this process' standard out, so the output is copied through this
+ * process, which is the slow path. In normal operation, the child process inherits standard out
+ * and there is no copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessOutputBenchmark {
+  @Param({"64", "1024"})
+  public int outputMegabytes;
+
+  @Setup
+  public void setup() {
+    // discard the copied output, so that the benchmarks measure the copy and not the terminal
+    PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+    UserIO.initialize(nullStream, nullStream, InputStream.nullInputStream());
+  }
+
+  @Benchmark
+  public int copyProcessOutput() {
+    LocalProcessLauncher localProcessLauncher = LocalProcessLauncher.create();
+    localProcessLauncher.launchProcessWithUserIO(
+        List.of("head", "-c", outputMegabytes + "M", "/dev/zero"), null);
+    return localProcessLauncher.waitForTerminate();
+  }
+}
@@ -0,0 +1,133 @@
+package bio.terra.cli.benchmark;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.serialization.userfacing.UFResource;
+import bio.terra.cli.utils.UserIO;
+import bio.terra.workspace.model.ResourceDescription;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the client-side work of the "terra resource list" command: converting the WSM
+ * response to the internal and user-facing objects, and printing them as a table or as JSON.
+ *
+ * <p>The user-facing objects for most resource types look up extra information from the cloud
+ * (e.g. the number of objects in a bucket), so the user-facing and printing benchmarks use Git repo
+ * resources, which don't.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ResourceBenchmark {
+  @Param({"100", "10000"})
+  public int numResources;
+
+  private List<ResourceDescription> resourceDescriptions;
+  private List<Resource> gitRepos;
+  private List<UFResource> ufGitRepos;
+
+  @Setup
+  public void setup() {
+    resourceDescriptions = Fixtures.buildResourceDescriptions(numResources);
+    gitRepos =
+        Fixtures.buildGitRepoDescriptions(numResources).stream()
+            .map(Resource::deserializeFromWsm)
+            .collect(Collectors.toList());
+    ufGitRepos = gitRepos.stream().map(Resource::serializeToCommand).collect(Collectors.toList());
+
+    // discard printed output, so that the benchmarks measure formatting and not the terminal
+    PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+    UserIO.initialize(nullStream, nullStream, InputStream.nullInputStream());
+  }
+
+  @Benchmark
+  public List<Resource> deserializeFromWsm() {
+    return resourceDescriptions.stream()
+        .map(Resource::deserializeFromWsm)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<UFResource> serializeToCommand() {
+    return gitRepos.stream().map(Resource::serializeToCommand).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public String printTable() {
+    TablePrinter<UFResource> printer = UFResourceColumns::values;
+    return printer.print(ufGitRepos);
+  }
+
+  @Benchmark
+  public void printJson() {
+    Format.printJson(ufGitRepos);
+  }
+
+  /** Same columns as the "terra resource list" command. */
+  private enum UFResourceColumns implements ColumnDefinition<UFResource> {
+    NAME("NAME", r -> r.name, 30, LEFT),
+    RESOURCE_TYPE("RESOURCE TYPE", r -> r.resourceType.toString(), 20, LEFT),
+    STEWARDSHIP_TYPE("STEWARDSHIP TYPE", r -> r.stewardshipType.toString(), 20, LEFT),
+    DESCRIPTION("DESCRIPTION", r -> r.description, 40, LEFT);
+
+    private final String columnLabel;
+    private final Function<UFResource, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    UFResourceColumns(
+        String columnLabel,
+        Function<UFResource, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<UFResource, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
@@ -4,10 +4,22 @@ import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.PassthroughException;
 import bio.terra.cli.exception.SystemException;
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +33,21 @@ public abstract class CommandRunner {
   // Only tests set this.
   @VisibleForTesting public static final String IS_TEST = "IS_TEST";
   private static final Logger logger = LoggerFactory.getLogger(CommandRunner.class);
+  // matches references to workspace resource environment variables (e.g. $TERRA_mybucket)
+  private static final Pattern TERRA_REFERENCE_PATTERN = Pattern.compile("TERRA_[A-Za-z0-9_]+");
+  // files larger than this are not scanned for references (e.g. data files passed to a tool)
+  private static final long MAX_SCANNED_FILE_SIZE = 1024 * 1024;
+  // config files that tools read from the working directory without being told to
+  private static final List<String> IMPLICIT_CONFIG_FILE_NAMES = List.of("nextflow.config");
+  // pipeline files that tools read from a directory they're given (e.g. `nextflow run dir`),
+  // including modules in sub-directories. only directories with a main script or config file are
+  // searched, so that other directories (e.g. `gsutil cp file /`) aren't walked.
+  private static final String PIPELINE_MAIN_FILE_NAME = "main.nf";
+  private static final String PIPELINE_FILE_SUFFIX = ".nf";
+  private static final int MAX_SCANNED_DIR_DEPTH = 4;
+  // matches a script line that reads in another file (e.g. `source setup.sh` or `. setup.sh`)
+  private static final Pattern SOURCED_FILE_PATTERN =
+      Pattern.compile("^\\s*(?:source|\\.)\\s+[\"']?([^\\s\"';]+)", Pattern.MULTILINE);
 
   /**
    * Utility method for concatenating a command and its arguments.
@@ -54,9 +81,105 @@ public abstract class CommandRunner {
     return Optional.empty();
   }
 
+  /**
+   * Find the workspace resource environment variables (e.g. TERRA_mybucket) that a command
+   * references. This looks in the command arguments, in any files they name (e.g. a script or a
+   * config file), in the config and Nextflow files (*.nf) in any directories they name, in config
+   * files that tools read from the working directory (e.g. nextflow.config), and in any files that
+   * the scanned scripts source.
+   *
+   * @param command the command and arguments to execute
+   * @param workingDir the directory the command will run in
+   * @return the names of the referenced environment variables
+   */
+  @VisibleForTesting
+  public static Set<String> findTerraReferences(List<String> command, Path workingDir) {
+    Set<String> references = new HashSet<>();
+    List<Path> filesToScan = new ArrayList<>();
+    IMPLICIT_CONFIG_FILE_NAMES.forEach(fileName -> filesToScan.add(workingDir.resolve(fileName)));
+    for (String token : command) {
+      addTerraReferences(token, references);
+
+      // a file may be passed as a separate argument, or as the value of an option (--config=file)
+      String fileName = token.substring(token.indexOf('=') + 1);
+      if (fileName.isEmpty()) {
+        continue;
+      }
+      try {
+        Path path = workingDir.resolve(fileName);
+        filesToScan.add(path);
+        IMPLICIT_CONFIG_FILE_NAMES.forEach(configFile -> filesToScan.add(path.resolve(configFile)));
+        filesToScan.addAll(findPipelineFiles(path));
+      } catch (RuntimeException rtEx) {
+        // not a valid path on this file system, so it's not a file
+        logger.debug("Argument is not a file path: {}", fileName);
+      }
+    }
+    // sourced files are added to the end of the list as it's scanned
+    Set<Path> scannedFiles = new HashSet<>();
+    for (int i = 0; i < filesToScan.size(); i++) {
+      Path path = filesToScan.get(i).normalize();
+      try {
+        if (Files.isRegularFile(path)
+            && Files.size(path) <= MAX_SCANNED_FILE_SIZE
+            && scannedFiles.add(path)) {
+          // read as single-byte characters, because the file may not be valid UTF-8
+          String text = Files.readString(path, StandardCharsets.ISO_8859_1);
+          addTerraReferences(text, references);
+          filesToScan.addAll(findSourcedFiles(text, path.getParent()));
+        }
+      } catch (IOException | RuntimeException ex) {
+        logger.debug("Error scanning file for workspace references: {}", path, ex);
+      }
+    }
+    return references;
+  }
+
+  /** Find the Nextflow files in a pipeline directory and its sub-directories. */
+  private static List<Path> findPipelineFiles(Path path) {
+    boolean isPipelineDir =
+        Files.isRegularFile(path.resolve(PIPELINE_MAIN_FILE_NAME))
+            || IMPLICIT_CONFIG_FILE_NAMES.stream()
+                .anyMatch(configFile -> Files.isRegularFile(path.resolve(configFile)));
+    if (!isPipelineDir) {
+      return List.of();
+    }
+    try (Stream<Path> paths = Files.walk(path, MAX_SCANNED_DIR_DEPTH)) {
+      return paths
+          .filter(file -> file.getFileName().toString().endsWith(PIPELINE_FILE_SUFFIX))
+          .toList();
+    } catch (IOException | UncheckedIOException ex) {
+      logger.debug("Error listing directory for workspace references: {}", path, ex);
+      return List.of();
+    }
+  }
+
+  /** Find the files that a script sources, relative to the script's directory. */
+  private static List<Path> findSourcedFiles(String script, @Nullable Path scriptDir) {
+    List<Path> sourcedFiles = new ArrayList<>();
+    Matcher matcher = SOURCED_FILE_PATTERN.matcher(script);
+    while (matcher.find()) {
+      try {
+        Path sourcedFile = Path.of(matcher.group(1));
+        sourcedFiles.add(scriptDir == null ? sourcedFile : scriptDir.resolve(sourcedFile));
+      } catch (RuntimeException rtEx) {
+        logger.debug("Sourced file is not a file path: {}", matcher.group(1));
+      }
+    }
+    return sourcedFiles;
+  }
+
+  /** Add any workspace resource environment variables referenced in the text to the set. */
+  private static void addTerraReferences(String text, Set<String> references) {
+    Matcher matcher = TERRA_REFERENCE_PATTERN.matcher(text);
+    while (matcher.find()) {
+      references.add(matcher.group());
+    }
+  }
+
   /**
    * Run a tool command. Passes global and workspace context information as environment variables:
-   * pet SA email, workspace GCP project, resolved workspace resources.
+   * pet SA email, workspace GCP project, resolved workspace resources that the command references.
    *
    * @param command the command and arguments to execute
    */
@@ -64,6 +187,30 @@ public abstract class CommandRunner {
     runToolCommand(command, new HashMap<>());
   }
 
+  /**
+   * Run a tool command. Passes global and workspace context information as environment variables:
+   * pet SA email, workspace GCP project, resolved workspace resources.
+   *
+   * @param command the command and arguments to execute
+   * @param allReferences true to resolve all workspace resources, false to resolve only the ones
+   *     that the command references (see {@link #findTerraReferences})
+   */
+  public void runToolCommand(List<String> command, boolean allReferences) {
+    runToolCommand(command, new HashMap<>(), allReferences);
+  }
+
+  /**
+   * Run a tool command. Passes global and workspace context information as environment variables:
+   * pet SA email, workspace GCP project, resolved workspace resources that the command references.
+   * Allows adding environment variables beyond this, as long as the names don't conflict.
+   *
+   * @param command the command and arguments to execute
+   * @param envVars a mapping of environment variable names to values
+   */
+  public void runToolCommand(List<String> command, Map<String, String> envVars) {
+    runToolCommand(command, envVars, false);
+  }
+
   /**
    * Run a tool command. Passes global and workspace context information as environment variables:
    * pet SA email, workspace GCP project, resolved workspace resources. Allows adding environment
@@ -71,17 +218,35 @@ public abstract class CommandRunner {
    *
    * @param command the command and arguments to execute
    * @param envVars a mapping of environment variable names to values
+   * @param allReferences true to resolve all workspace resources, false to resolve only the ones
+   *     that the command references (see {@link #findTerraReferences})
    * @throws SystemException if a Terra environment variable overlaps or conflicts with one passed
    *     into this method
    * @throws PassthroughException if the command returns a non-zero exit code
    */
-  public void runToolCommand(List<String> command, Map<String, String> envVars) {
+  public void runToolCommand(
+      List<String> command, Map<String, String> envVars, boolean allReferences) {
     for (String commandToken : command) {
       logger.debug("tokenized command string: {}", commandToken);
     }
 
     // add Terra global and workspace context information as environment variables
-    Map<String, String> terraEnvVars = buildMapOfTerraReferences();
+    Map<String, String> terraEnvVars;
+    if (allReferences) {
+      terraEnvVars = buildMapOfTerraReferences(null);
+    } else {
+      Set<String> references =
+          findTerraReferences(command, Path.of(System.getProperty("user.dir")));
+      logger.info(
+          "Setting only the workspace resource variables that the command references: {}. If the "
+              + "tool reads others from files that weren't scanned, run it with --all-references.",
+          references);
+      terraEnvVars = buildMapOfTerraReferences(references);
+    }
+
+    // pass the named profile through, so that tools calling back into the CLI use the same one
+    Context.getProfile()
+        .ifPresent(profile -> terraEnvVars.put(Context.PROFILE_ENV_VAR_NAME, profile));
 
     // Keep in sync with notebook instance environment variables:
     // https://github.com/DataBiosphere/terra-workspace-manager/blob/42a96e3efe78908d2969d1ac826cd84a11a16714/service/src/main/java/bio/terra/workspace/service/resource/controlled/cloud/gcp/ainotebook/post-startup.sh#L165
@@ -102,6 +267,10 @@ public abstract class CommandRunner {
     }
     envVars.putAll(terraEnvVars);
 
+    // the tool may call back into the CLI (e.g. credential_process), so make sure it sees the
+    // current context
+    Context.flush();
+
     // call the sub-class implementation of running a tool command
     int exitCode = runToolCommandImpl(wrapCommandInSetupCleanup(command), envVars);
 
@@ -136,18 +305,27 @@ public abstract class CommandRunner {
    *
    * <p>e.g. TERRA_MY_BUCKET -> gs://terra-wsm-test-9b7511ab-my-bucket
    *
+   * @param referencedEnvVars the environment variables to include, or null to include all
+   *     resources. If this is empty, then the resources are not listed at all.
    * @return a map of Terra references (name -> cloud id)
    */
-  private Map<String, String> buildMapOfTerraReferences() {
+  private Map<String, String> buildMapOfTerraReferences(@Nullable Set<String> referencedEnvVars) {
     // build a map of reference string -> resolved value
     Map<String, String> terraReferences = new HashMap<>();
+    if (referencedEnvVars != null && referencedEnvVars.isEmpty()) {
+      logger.debug("Command does not reference any workspace resources");
+      return terraReferences;
+    }
     Context.requireWorkspace()
         .listResources()
         .forEach(
             resource -> {
               String envVariable = convertToEnvironmentVariable(resource.getName());
-              terraReferences.put(envVariable, resource.resolve());
+              if (referencedEnvVars == null || referencedEnvVars.contains(envVariable)) {
+                terraReferences.put(envVariable, resource.resolve());
+              }
             });
+    logger.debug("Resolved {} workspace resource references", terraReferences.size());
 
     return terraReferences;
   }
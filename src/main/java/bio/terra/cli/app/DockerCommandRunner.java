@@ -4,11 +4,16 @@ import bio.terra.cli.app.utils.AppDefaultCredentialUtils;
 import bio.terra.cli.app.utils.DockerClientWrapper;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.PassthroughException;
+import bio.terra.cli.utils.Tracer;
+import bio.terra.cli.utils.UserIO;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,7 +31,48 @@ public class DockerCommandRunner extends CommandRunner {
   // name of the ADC file mounted on the container
   private static final String APPLICATION_DEFAULT_CREDENTIALS_FILE_NAME =
       "application_default_credentials.json";
-  private final DockerClientWrapper dockerClientWrapper = new DockerClientWrapper();
+  // the terra_init script is already copied into the Docker image
+  private static final String TERRA_INIT_COMMAND = "terra_init.sh && ";
+
+  // label on reusable containers with the global context directory of the CLI that started them,
+  // so that `terra app stop` only stops containers for this installation
+  private static final String CONTEXT_DIR_LABEL = "bio.terra.cli.context-dir";
+  private static final String REUSABLE_CONTAINER_NAME_PREFIX = "terra-app-";
+  // env var on reusable containers with the number of idle seconds before the container stops
+  private static final String IDLE_TIMEOUT_ENV_VAR = "TERRA_APP_CONTAINER_IDLE_SECONDS";
+  // directory on reusable containers that tracks running commands and when the last one finished
+  private static final String ACTIVITY_DIR = "/tmp/terra-app";
+  // file on reusable containers that exists once terra_init.sh has run in them
+  private static final String INITIALIZED_FILE = ACTIVITY_DIR + "/initialized";
+
+  // command for reusable containers. it keeps the container running until no command has been
+  // run in it for the idle timeout. each command creates a file named with its process id in the
+  // active/ directory while it runs, and files for processes that were killed are cleaned up here.
+  private static final String KEEP_ALIVE_COMMAND =
+      String.join(
+          "\n",
+          "mkdir -p " + ACTIVITY_DIR + "/active && touch " + ACTIVITY_DIR + "/last-used",
+          "while true; do",
+          "  for f in " + ACTIVITY_DIR + "/active/*; do",
+          "    [ -e \"$f\" ] && ! kill -0 \"${f##*/}\" 2>/dev/null && rm -f \"$f\"",
+          "  done",
+          "  idle=$(( $(date +%s) - $(stat -c %Y " + ACTIVITY_DIR + "/last-used) ))",
+          "  if [ -z \"$(ls -A " + ACTIVITY_DIR + "/active)\" ] \\",
+          "      && [ \"$idle\" -ge \"$" + IDLE_TIMEOUT_ENV_VAR + "\" ]; then",
+          "    exit 0",
+          "  fi",
+          "  sleep 10",
+          "done");
+
+  // wrapper for commands run in reusable containers, to record their activity
+  private static final String EXEC_COMMAND_PREFIX =
+      "touch "
+          + ACTIVITY_DIR
+          + "/active/$$; trap 'rm -f "
+          + ACTIVITY_DIR
+          + "/active/$$; touch "
+          + ACTIVITY_DIR
+          + "/last-used' EXIT; ";
 
   /**
    * Get the global context directory on the container.
@@ -51,22 +97,27 @@ public class DockerCommandRunner extends CommandRunner {
    * @return the full string of commands and arguments to execute
    */
   protected String wrapCommandInSetupCleanup(List<String> command) {
-    // the terra_init script is already copied into the Docker image
-    return "terra_init.sh && " + buildFullCommand(command);
+    return TERRA_INIT_COMMAND + buildFullCommand(command);
   }
 
   /**
-   * Run a tool command inside a new Docker container.
+   * Run a tool command inside a new Docker container, or in a reusable container if the app
+   * container TTL is set (see {@link #runToolCommandInReusableContainer}).
    *
    * <p>The terra_init.sh script that was copied into the Docker image will be run before the given
    * command.
    *
+   * <p>Each call uses its own Docker client, which tracks the container it started, so that
+   * commands can run concurrently (e.g. `terra git clone --all`).
+   *
    * @param command the full string of command and arguments to execute
    * @param envVars a mapping of environment variable names to values
    * @return process exit code
    */
   protected int runToolCommandImpl(String command, Map<String, String> envVars)
       throws PassthroughException {
+    DockerClientWrapper dockerClientWrapper = new DockerClientWrapper();
+
     // mount the global context directory and the current working directory to the container
     //  e.g. global context dir (host) $HOME/.terra -> (container) CONTAINER_HOME_DIR/.terra
     //       current working dir (host) /Users/mm/workspace123 -> (container) CONTAINER_WORKING_DIR
@@ -104,28 +155,137 @@ public class DockerCommandRunner extends CommandRunner {
       }
     }
 
-    // create and start the docker container
-    dockerClientWrapper.startContainer(
-        Context.getConfig().getDockerImageId(),
-        command,
-        CONTAINER_WORKING_DIR,
-        envVars,
-        bindMounts);
+    int appContainerTtlMinutes = Context.getConfig().getAppContainerTtlMinutes();
+    if (appContainerTtlMinutes > 0) {
+      return runToolCommandInReusableContainer(
+          dockerClientWrapper, command, envVars, bindMounts, appContainerTtlMinutes);
+    }
 
-    // read the container logs, which contains the command output, and write them to stdout
-    dockerClientWrapper.streamLogsForContainer();
+    // create and start the docker container
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "docker.startContainer")) {
+      dockerClientWrapper.startContainer(
+          Context.getConfig().getDockerImageId(),
+          command,
+          CONTAINER_WORKING_DIR,
+          envVars,
+          bindMounts,
+          UserIO.getIn());
+    }
 
-    // block until the container exits
-    Integer statusCode = dockerClientWrapper.waitForContainerToExit();
-    logger.debug("docker run status code: {}", statusCode);
+    Long exitCode;
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "docker.run")) {
+      // block until the container exits and its output has been written to stdout/err
+      Integer statusCode = dockerClientWrapper.waitForContainerToExit();
+      logger.debug("docker run status code: {}", statusCode);
 
-    // get the process exit code
-    Long exitCode = dockerClientWrapper.getProcessExitCode();
-    logger.debug("docker inspect exit code: {}", exitCode);
+      // get the process exit code
+      exitCode = dockerClientWrapper.getProcessExitCode();
+      logger.debug("docker inspect exit code: {}", exitCode);
+      span.setAttribute("exitCode", exitCode);
+    }
 
     // delete the container
-    dockerClientWrapper.deleteContainer();
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "docker.deleteContainer")) {
+      dockerClientWrapper.deleteContainer();
+    }
+
+    return exitCode.intValue();
+  }
+
+  /**
+   * Run a tool command in a container that is kept running between commands, with docker exec.
+   * This avoids the overhead of creating, starting and deleting a container for each command.
+   *
+   * <p>There is one reusable container per global context directory, workspace, image, set of bind
+   * mounts (which includes the current working directory) and TTL. The container stops itself once
+   * no command has run in it for the TTL, and `terra app stop` stops it explicitly. The environment
+   * variables, including any credentials, are passed to each command, so they're always current.
+   *
+   * <p>The terra_init.sh script only runs until it has succeeded once in the container, because it
+   * writes the workspace project to the gcloud config directory, which is mounted from the host.
+   * This is tracked in the container rather than by which process started it, because commands
+   * that start at the same time may each find the container before any of them has run the script.
+   * In that case, each of them runs it.
+   *
+   * @param dockerClientWrapper Docker client to run the command with
+   * @param command the full string of command and arguments to execute, including terra_init.sh
+   * @param envVars a mapping of environment variable names to values
+   * @param bindMounts a mapping of container mount point to the local directory being mounted
+   * @param appContainerTtlMinutes number of idle minutes before the container stops
+   * @return process exit code
+   */
+  private int runToolCommandInReusableContainer(
+      DockerClientWrapper dockerClientWrapper,
+      String command,
+      Map<String, String> envVars,
+      Map<Path, Path> bindMounts,
+      int appContainerTtlMinutes) {
+    String imageId = Context.getConfig().getDockerImageId();
+    String containerName = getReusableContainerName(imageId, bindMounts, appContainerTtlMinutes);
 
+    boolean isNewContainer;
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "docker.findContainer")) {
+      isNewContainer =
+          !dockerClientWrapper.useRunningContainer(containerName)
+              && dockerClientWrapper.startReusableContainer(
+                  imageId,
+                  containerName,
+                  Map.of(CONTEXT_DIR_LABEL, Context.getContextDir().toString()),
+                  KEEP_ALIVE_COMMAND,
+                  Map.of(IDLE_TIMEOUT_ENV_VAR, String.valueOf(appContainerTtlMinutes * 60)),
+                  bindMounts);
+      span.setAttribute("newContainer", isNewContainer);
+    }
+    String commandToExec =
+        command.startsWith(TERRA_INIT_COMMAND)
+            ? "{ [ -e "
+                + INITIALIZED_FILE
+                + " ] || { terra_init.sh && touch "
+                + INITIALIZED_FILE
+                + "; }; } && "
+                + command.substring(TERRA_INIT_COMMAND.length())
+            : command;
+
+    Long exitCode;
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "docker.exec")) {
+      exitCode =
+          dockerClientWrapper.execInContainer(
+              EXEC_COMMAND_PREFIX + commandToExec,
+              CONTAINER_WORKING_DIR,
+              envVars,
+              UserIO.getIn());
+      logger.debug("docker exec exit code: {}", exitCode);
+      span.setAttribute("exitCode", exitCode);
+    }
     return exitCode.intValue();
   }
+
+  /**
+   * Get the name of the reusable container for the current context. The name is a hash of the
+   * properties that the container can't change once it's started.
+   */
+  private static String getReusableContainerName(
+      String imageId, Map<Path, Path> bindMounts, int appContainerTtlMinutes) {
+    String containerKey =
+        String.join(
+            "|",
+            Context.getContextDir().toString(),
+            Context.requireWorkspace().getUuid().toString(),
+            imageId,
+            new TreeMap<>(bindMounts).toString(),
+            String.valueOf(appContainerTtlMinutes));
+    String containerKeyHash =
+        Hashing.sha256().hashString(containerKey, StandardCharsets.UTF_8).toString();
+    return REUSABLE_CONTAINER_NAME_PREFIX + containerKeyHash.substring(0, 16);
+  }
+
+  /**
+   * Stop and delete all reusable containers started by this CLI installation.
+   *
+   * @return the number of containers stopped
+   */
+  public int stopReusableContainers() {
+    return new DockerClientWrapper().deleteContainers(
+        Map.of(CONTEXT_DIR_LABEL, Context.getContextDir().toString()));
+  }
 }
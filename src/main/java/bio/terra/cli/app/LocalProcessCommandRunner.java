@@ -4,6 +4,7 @@ import bio.terra.cli.app.utils.AppDefaultCredentialUtils;
 import bio.terra.cli.app.utils.LocalProcessLauncher;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.PassthroughException;
+import bio.terra.cli.utils.Tracer;
 import bio.terra.workspace.model.CloudPlatform;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -95,15 +96,17 @@ public class LocalProcessCommandRunner extends CommandRunner {
 
     // launch the child process
     LocalProcessLauncher localProcessLauncher = new LocalProcessLauncher();
-    localProcessLauncher.launchProcess(processCommand, envVars);
-
-    // stream the output to stdout/err
-    localProcessLauncher.streamOutputForProcess();
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "process.launch")) {
+      localProcessLauncher.launchProcessWithUserIO(processCommand, envVars);
+    }
 
-    // block until the child process exits
-    int exitCode = localProcessLauncher.waitForTerminate();
-    logger.debug("local process exit code: {}", exitCode);
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_PROCESS, "process.run")) {
+      // block until the child process exits
+      int exitCode = localProcessLauncher.waitForTerminate();
+      logger.debug("local process exit code: {}", exitCode);
+      span.setAttribute("exitCode", exitCode);
 
-    return exitCode;
+      return exitCode;
+    }
   }
 }
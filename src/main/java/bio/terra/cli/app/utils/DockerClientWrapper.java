@@ -3,14 +3,17 @@ package bio.terra.cli.app.utils;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.jfr.DockerContainerEvent;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.ConflictException;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.AccessMode;
 import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.Container;
 import com.github.dockerjava.api.model.Frame;
 import com.github.dockerjava.api.model.HostConfig;
 import com.github.dockerjava.api.model.SELContext;
@@ -20,25 +23,48 @@ import com.github.dockerjava.core.DockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
 import com.github.dockerjava.transport.DockerHttpClient;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** This class provides utility methods for running Docker containers. */
 public class DockerClientWrapper {
   private static final Logger logger = LoggerFactory.getLogger(DockerClientWrapper.class);
+  // seconds to wait for a reusable container to stop, before killing it
+  private static final int STOP_CONTAINER_TIMEOUT_SECONDS = 5;
+  // how long to wait for a reusable container that another process created to start running
+  private static final Duration CONTAINER_START_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration CONTAINER_START_POLL_INTERVAL = Duration.ofMillis(200);
+  // container states, see https://docs.docker.com/engine/api/v1.41/#tag/Container
+  private static final String STATE_CREATED = "created";
+  private static final String STATE_RESTARTING = "restarting";
+  private static final String STATE_EXITED = "exited";
+  private static final String STATE_DEAD = "dead";
   private final DockerClient dockerClient;
   private String containerId;
+  private String imageId;
+  // writes the output of the current container to the CLI streams, if it's attached
+  private OutputFrameCallback outputCallback;
 
   public DockerClientWrapper() {
-    this.dockerClient = DockerClientWrapper.buildDockerClient();
+    this(DockerClientWrapper.buildDockerClient());
+  }
+
+  @VisibleForTesting
+  public DockerClientWrapper(DockerClient dockerClient) {
+    this.dockerClient = dockerClient;
   }
 
   /** Build the Docker client object with standard options. */
@@ -80,6 +106,7 @@ public class DockerClientWrapper {
    * @param workingDir the directory where the commmand will be executed
    * @param envVars a mapping of environment variable names to values
    * @param bindMounts a mapping of container mount point to the local directory being mounted
+   * @param stdIn stream to copy to the standard in of the command, or null for no input
    * @throws SystemException if the local directory does not exist or is not a directory
    */
   public void startContainer(
@@ -87,14 +114,276 @@ public class DockerClientWrapper {
       String command,
       String workingDir,
       Map<String, String> envVars,
+      Map<Path, Path> bindMounts,
+      @Nullable InputStream stdIn) {
+    // create the container and start it
+    CreateContainerCmd createContainerCmd =
+        dockerClient
+            .createContainerCmd(imageId)
+            .withCmd("bash", "-c", command)
+            .withEnv(buildEnvVarsList(envVars))
+            .withHostConfig(HostConfig.newHostConfig().withBinds(buildBinds(bindMounts)))
+            .withAttachStdout(true)
+            .withAttachStderr(true)
+            .withAttachStdin(stdIn != null)
+            .withStdinOpen(stdIn != null)
+            .withStdInOnce(true);
+    if (workingDir != null) {
+      createContainerCmd.withWorkingDir(workingDir);
+    }
+    createAndStartContainer(imageId, createContainerCmd, true, stdIn);
+  }
+
+  /**
+   * Start a named Docker container that can be reused by later CLI commands, with {@link
+   * #execInContainer}. The container is removed by Docker once its command exits, so the command
+   * should keep running until the container is no longer needed.
+   *
+   * <p>If another CLI process starts a container with the same name at the same time, then this
+   * method uses that container instead.
+   *
+   * <p>Note this method cannot be called concurrently, because it updates the internal state of
+   * this instance with the container id.
+   *
+   * @param imageId the id of the docker image to use for the container
+   * @param containerName the name of the container, which identifies it to later CLI commands
+   * @param labels labels to add to the container
+   * @param command the full string command to execute in a bash shell (bash -c ..cmd..)
+   * @param envVars a mapping of environment variable names to values
+   * @param bindMounts a mapping of container mount point to the local directory being mounted
+   * @return true if this method started a new container, false if it's using a container started
+   *     by another CLI process
+   * @throws SystemException if the local directory does not exist or is not a directory
+   */
+  public boolean startReusableContainer(
+      String imageId,
+      String containerName,
+      Map<String, String> labels,
+      String command,
+      Map<String, String> envVars,
       Map<Path, Path> bindMounts) {
-    // flatten the environment variables from a map, into a list of key=val strings
+    CreateContainerCmd createContainerCmd =
+        dockerClient
+            .createContainerCmd(imageId)
+            .withName(containerName)
+            .withLabels(labels)
+            .withCmd("bash", "-c", command)
+            .withEnv(buildEnvVarsList(envVars))
+            .withHostConfig(
+                HostConfig.newHostConfig()
+                    .withBinds(buildBinds(bindMounts))
+                    .withAutoRemove(true));
+    try {
+      createAndStartContainer(imageId, createContainerCmd, false, null);
+      return true;
+    } catch (ConflictException conflictEx) {
+      logger.debug("Container {} was started by another process", containerName, conflictEx);
+      if (useRunningContainer(containerName)) {
+        return false;
+      }
+      throw conflictEx;
+    }
+  }
+
+  /**
+   * Use the named container for {@link #execInContainer}, if it's running. A container that was
+   * created but not started yet (e.g. by another CLI process that's starting it right now) is
+   * waited for. A container that has exited is deleted, so that a new one can take its name.
+   *
+   * @param containerName the name of the container
+   * @return true if the container is running
+   */
+  public boolean useRunningContainer(String containerName) {
+    Instant deadline = Instant.now().plus(CONTAINER_START_TIMEOUT);
+    while (true) {
+      InspectContainerResponse container;
+      try {
+        container = dockerClient.inspectContainerCmd(containerName).exec();
+      } catch (NotFoundException nfEx) {
+        return false;
+      } catch (RuntimeException rtEx) {
+        throw wrapExceptionIfDockerConnectionFailed(rtEx);
+      }
+      InspectContainerResponse.ContainerState state = container.getState();
+      if (Boolean.TRUE.equals(state.getRunning())) {
+        containerId = container.getId();
+        imageId = container.getConfig().getImage();
+        logger.debug("reusing container id: {}", containerId);
+        return true;
+      }
+
+      String status = state.getStatus();
+      if (STATE_EXITED.equals(status) || STATE_DEAD.equals(status)) {
+        logger.debug("Container {} has exited, deleting it", containerName);
+        removeContainer(container.getId());
+        return false;
+      } else if (!STATE_CREATED.equals(status) && !STATE_RESTARTING.equals(status)) {
+        // e.g. Docker is already removing it
+        logger.debug("Container {} is not usable, status: {}", containerName, status);
+        return false;
+      } else if (Instant.now().isAfter(deadline)) {
+        throw new SystemException(
+            "Timed out waiting for container " + containerName + " to start, status: " + status);
+      }
+      logger.debug("Waiting for container {} to start, status: {}", containerName, status);
+      try {
+        Thread.sleep(CONTAINER_START_POLL_INTERVAL.toMillis());
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        throw new SystemException("Interrupted while waiting for container to start.", intEx);
+      }
+    }
+  }
+
+  /**
+   * Run a command in the current container, which must already be running, and write its output
+   * to standard out.
+   *
+   * @param command the full string command to execute in a bash shell (bash -c ..cmd..)
+   * @param workingDir the directory where the commmand will be executed
+   * @param envVars a mapping of environment variable names to values, in addition to the ones the
+   *     container was started with
+   * @param stdIn stream to copy to the standard in of the command, or null for no input
+   * @return the exit code of the command
+   */
+  public Long execInContainer(
+      String command,
+      String workingDir,
+      Map<String, String> envVars,
+      @Nullable InputStream stdIn) {
+    DockerContainerEvent containerEvent = new DockerContainerEvent();
+    containerEvent.begin();
+    try {
+      String execId =
+          dockerClient
+              .execCreateCmd(containerId)
+              .withCmd("bash", "-c", command)
+              .withEnv(buildEnvVarsList(envVars))
+              .withWorkingDir(workingDir)
+              .withAttachStdout(true)
+              .withAttachStderr(true)
+              .withAttachStdin(stdIn != null)
+              .exec()
+              .getId();
+      OutputFrameCallback execOutputCallback = new OutputFrameCallback();
+      dockerClient.execStartCmd(execId).withStdIn(stdIn).exec(execOutputCallback).awaitCompletion();
+      execOutputCallback.throwIfFailed();
+      return dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while running command in container.", intEx);
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    } finally {
+      commitContainerEvent(containerEvent, DockerContainerEvent.EXEC);
+    }
+  }
+
+  /**
+   * Delete all containers with the given labels, whether or not they're running.
+   *
+   * @param labels labels that the containers must have
+   * @return the number of containers deleted
+   */
+  public int deleteContainers(Map<String, String> labels) {
+    List<Container> containers;
+    try {
+      containers =
+          dockerClient.listContainersCmd().withShowAll(true).withLabelFilter(labels).exec();
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+    for (Container container : containers) {
+      removeContainer(container.getId());
+    }
+    return containers.size();
+  }
+
+  /** Stop and delete a container, ignoring it if it's already been deleted. */
+  private void removeContainer(String containerIdToRemove) {
+    DockerContainerEvent containerEvent = new DockerContainerEvent();
+    containerEvent.begin();
+    try {
+      dockerClient
+          .stopContainerCmd(containerIdToRemove)
+          .withTimeout(STOP_CONTAINER_TIMEOUT_SECONDS)
+          .exec();
+      dockerClient.removeContainerCmd(containerIdToRemove).withForce(true).exec();
+    } catch (NotFoundException | ConflictException ex) {
+      // the container was already deleted, or Docker is already deleting it because it was
+      // started with auto-remove
+      logger.debug("Container {} already deleted", containerIdToRemove, ex);
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    } finally {
+      containerEvent.end();
+      if (containerEvent.shouldCommit()) {
+        containerEvent.operation = DockerContainerEvent.DELETE;
+        containerEvent.containerId = containerIdToRemove;
+        containerEvent.commit();
+      }
+    }
+  }
+
+  /**
+   * Create and start the container, and set it as the current container.
+   *
+   * @param imageId the id of the docker image to use for the container
+   * @param createContainerCmd command to create the container
+   * @param attachOutput true to write the container output to the CLI streams
+   * @param stdIn stream to copy to the standard in of the container, or null for no input
+   */
+  private void createAndStartContainer(
+      String imageId,
+      CreateContainerCmd createContainerCmd,
+      boolean attachOutput,
+      @Nullable InputStream stdIn) {
+    this.imageId = imageId;
+    DockerContainerEvent containerEvent = new DockerContainerEvent();
+    containerEvent.begin();
+    try {
+      containerId = createContainerCmd.exec().getId();
+
+      // attach before starting the container, so that none of its output is missed
+      if (attachOutput) {
+        outputCallback = new OutputFrameCallback();
+        dockerClient
+            .attachContainerCmd(containerId)
+            .withStdOut(true)
+            .withStdErr(true)
+            .withFollowStream(true)
+            .withStdIn(stdIn)
+            .exec(outputCallback)
+            .awaitStarted();
+      }
+      dockerClient.startContainerCmd(containerId).exec();
+
+      logger.debug("container id: {}", containerId);
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while attaching to container.", intEx);
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    } finally {
+      commitContainerEvent(containerEvent, DockerContainerEvent.START);
+    }
+  }
+
+  /** Flatten the environment variables from a map, into a list of key=val strings. */
+  private static List<String> buildEnvVarsList(Map<String, String> envVars) {
     List<String> envVarsStr = new ArrayList<>();
     for (Map.Entry<String, String> envVar : envVars.entrySet()) {
       envVarsStr.add(envVar.getKey() + "=" + envVar.getValue());
     }
+    return envVarsStr;
+  }
 
-    // create Bind objects for each specified mount
+  /**
+   * Create Bind objects for each specified mount.
+   *
+   * @throws SystemException if the local directory does not exist or is not a directory
+   */
+  private static List<Bind> buildBinds(Map<Path, Path> bindMounts) {
     List<Bind> bindMountsObj = new ArrayList<>();
     for (Map.Entry<Path, Path> bindMount : bindMounts.entrySet()) {
       File localFileOrDirectory = bindMount.getValue().toFile();
@@ -110,48 +399,57 @@ public class DockerClientWrapper {
               AccessMode.rw,
               SELContext.shared));
     }
-
-    // create the container and start it
-    CreateContainerCmd createContainerCmd =
-        dockerClient
-            .createContainerCmd(imageId)
-            .withCmd("bash", "-c", command)
-            .withEnv(envVarsStr)
-            .withHostConfig(HostConfig.newHostConfig().withBinds(bindMountsObj))
-            .withAttachStdout(true)
-            .withAttachStderr(true);
-    if (workingDir != null) {
-      createContainerCmd.withWorkingDir(workingDir);
-    }
-    try {
-      containerId = createContainerCmd.exec().getId();
-
-      dockerClient.startContainerCmd(containerId).exec();
-
-      logger.debug("container id: {}", containerId);
-    } catch (RuntimeException rtEx) {
-      throw wrapExceptionIfDockerConnectionFailed(rtEx);
-    }
+    return bindMountsObj;
   }
 
-  /** Block until the Docker container exits, then return its status code. */
+  /**
+   * Block until the Docker container exits and all of its output has been written to the CLI
+   * streams, then return its status code.
+   */
   public Integer waitForContainerToExit() {
     WaitContainerResultCallback waitContainerResultCallback = new WaitContainerResultCallback();
+    DockerContainerEvent containerEvent = new DockerContainerEvent();
+    containerEvent.begin();
     try {
       WaitContainerResultCallback exec =
           dockerClient.waitContainerCmd(containerId).exec(waitContainerResultCallback);
-      return exec.awaitStatusCode();
+      Integer statusCode = exec.awaitStatusCode();
+      if (outputCallback != null) {
+        outputCallback.awaitCompletion();
+        outputCallback.throwIfFailed();
+      }
+      return statusCode;
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while reading container output.", intEx);
     } catch (RuntimeException rtEx) {
       throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    } finally {
+      commitContainerEvent(containerEvent, DockerContainerEvent.WAIT);
     }
   }
 
   /** Delete the Docker container. */
   public void deleteContainer() {
+    DockerContainerEvent containerEvent = new DockerContainerEvent();
+    containerEvent.begin();
     try {
       dockerClient.removeContainerCmd(containerId).exec();
     } catch (RuntimeException rtEx) {
       throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    } finally {
+      commitContainerEvent(containerEvent, DockerContainerEvent.DELETE);
+    }
+  }
+
+  /** Commit the flight recorder event for a step in the lifecycle of the current container. */
+  private void commitContainerEvent(DockerContainerEvent containerEvent, String operation) {
+    containerEvent.end();
+    if (containerEvent.shouldCommit()) {
+      containerEvent.operation = operation;
+      containerEvent.imageId = imageId;
+      containerEvent.containerId = containerId;
+      containerEvent.commit();
     }
   }
 
@@ -161,21 +459,6 @@ public class DockerClientWrapper {
     return container.getState().getExitCodeLong();
   }
 
-  /** Read the Docker container logs and write them to standard out. */
-  public void streamLogsForContainer() {
-    try {
-      dockerClient
-          .logContainerCmd(containerId)
-          .withStdOut(true)
-          .withStdErr(true)
-          .withFollowStream(true)
-          .withTailAll()
-          .exec(new LogContainerCommandCallback());
-    } catch (RuntimeException rtEx) {
-      throw wrapExceptionIfDockerConnectionFailed(rtEx);
-    }
-  }
-
   /**
    * Check if the given exception indicates that connecting to the Docker daemon failed. This
    * usually means that Docker is either not installed or not running.
@@ -207,49 +490,68 @@ public class DockerClientWrapper {
     }
   }
 
-  /** Helper class for reading Docker container logs into a string. */
-  private static class LogContainerCommandCallback extends ResultCallback.Adapter<Frame> {
-    protected final StringBuffer log = new StringBuffer();
-    protected final List<Frame> framesList = new ArrayList<>();
-
-    // these two boolean flags are useful for debugging
-    // buildSingleStringOutput = concatenate the output into a single String (be careful of very
-    // long outputs)
-    protected final boolean buildSingleStringOutput;
-    // buildFramesList = keep a list of all the output lines (frames) as they come back
-    protected final boolean buildFramesList;
-
-    public LogContainerCommandCallback() {
-      this(false, false);
-    }
+  /**
+   * Helper class for writing the output of a container or exec to the CLI streams. Docker
+   * multiplexes standard out and err into frames, which are written as raw bytes to the matching
+   * CLI stream, so binary output is not corrupted.
+   *
+   * <p>Standard out is buffered, like in a C program: it's flushed after each frame only if the CLI
+   * is running in an interactive terminal, and otherwise when the buffer is full or the output
+   * ends, so that piping large outputs to another program is fast. Standard err is not buffered.
+   */
+  private static class OutputFrameCallback extends ResultCallback.Adapter<Frame> {
+    // size of the buffer for the container standard out
+    private static final int STDOUT_BUFFER_SIZE = 64 * 1024;
 
-    public LogContainerCommandCallback(boolean buildSingleStringOutput, boolean buildFramesList) {
-      this.buildSingleStringOutput = buildSingleStringOutput;
-      this.buildFramesList = buildFramesList;
-    }
+    // PrintStreams don't throw on write errors, so they're checked in throwIfFailed instead
+    private final PrintStream cliOut = UserIO.getOut();
+    private final PrintStream stdOut =
+        new PrintStream(new BufferedOutputStream(cliOut, STDOUT_BUFFER_SIZE));
+    private final PrintStream stdErr = UserIO.getErr();
+    private final boolean isInteractive = System.console() != null;
 
     @Override
     public void onNext(Frame frame) {
-      String logStr = new String(frame.getPayload(), StandardCharsets.UTF_8);
-      PrintStream out = UserIO.getOut();
-      out.print(logStr);
-      out.flush();
-
-      if (buildSingleStringOutput) {
-        log.append(logStr);
-      }
-      if (buildFramesList) {
-        framesList.add(frame);
+      byte[] payload = frame.getPayload();
+      switch (frame.getStreamType()) {
+        case STDOUT:
+        case RAW:
+          stdOut.write(payload, 0, payload.length);
+          if (isInteractive) {
+            stdOut.flush();
+          }
+          break;
+        case STDERR:
+          stdErr.write(payload, 0, payload.length);
+          stdErr.flush();
+          break;
+        default:
+          logger.debug("Ignoring container output frame: {}", frame.getStreamType());
       }
     }
 
     @Override
-    public String toString() {
-      return log.toString();
+    public void onComplete() {
+      stdOut.flush();
+      super.onComplete();
     }
 
-    public List<Frame> getFramesList() {
-      return framesList;
+    @Override
+    public void onError(Throwable throwable) {
+      stdOut.flush();
+      super.onError(throwable);
+    }
+
+    /**
+     * Throw if writing the output failed. Call after waiting for the output to complete.
+     *
+     * @throws SystemException if writing to the CLI streams failed
+     */
+    void throwIfFailed() {
+      // check the buffer first, because that flushes it to the CLI standard out
+      if (stdOut.checkError() || cliOut.checkError() || stdErr.checkError()) {
+        throw new SystemException("Error writing container output.");
+      }
     }
   }
 }
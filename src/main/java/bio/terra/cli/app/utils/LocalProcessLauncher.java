@@ -2,21 +2,31 @@ package bio.terra.cli.app.utils;
 
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.jfr.SubprocessEvent;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /** This class provides utility methods for launching local child processes. */
 public class LocalProcessLauncher {
+  private static final Logger logger = LoggerFactory.getLogger(LocalProcessLauncher.class);
+  // size of the buffer for copying bytes between the child process and the CLI streams
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 
   private Process process;
+  // flight recorder event for the child process, from launch until it terminates
+  private SubprocessEvent subprocessEvent;
+  // threads copying the child process output to the CLI streams, which finish after the process
+  private final List<Thread> outputThreads = new ArrayList<>();
 
   public LocalProcessLauncher() {}
 
@@ -29,22 +39,28 @@ public class LocalProcessLauncher {
   }
 
   /**
-   * Helper method to stream the child process' output to the CLI console.
+   * Helper method to copy bytes from one stream to another, as they become available. The bytes
+   * are copied as-is, so binary output is not corrupted, and the destination is flushed after each
+   * read, so partial lines (e.g. prompts) show up right away.
    *
-   * @param fromStream stream reading from the child process output
-   * @param toStream stream writing to the CLI console
+   * @param fromStream stream to read from, which is closed when it's exhausted
+   * @param toStream stream to write to
+   * @param closeToStream true to close the destination stream when the source stream is exhausted
+   * @throws IOException if reading or writing fails
    */
-  private static void streamOutput(InputStream fromStream, PrintStream toStream) {
-    try (BufferedReader bufferedReader =
-        new BufferedReader(new InputStreamReader(fromStream, StandardCharsets.UTF_8))) {
-
-      String line;
-      while ((line = bufferedReader.readLine()) != null) {
-        toStream.println(line);
+  private static void copyStream(
+      InputStream fromStream, OutputStream toStream, boolean closeToStream) throws IOException {
+    try (fromStream) {
+      byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+      int numBytes;
+      while ((numBytes = fromStream.read(buffer)) != -1) {
+        toStream.write(buffer, 0, numBytes);
         toStream.flush();
       }
-    } catch (IOException ioEx) {
-      throw new SystemException("Error streaming output of child process", ioEx);
+    } finally {
+      if (closeToStream) {
+        toStream.close();
+      }
     }
   }
 
@@ -69,7 +85,71 @@ public class LocalProcessLauncher {
    */
   public void launchProcess(
       List<String> command, Map<String, String> envVars, Path workingDirectory) {
-    // build and run process from the specified working directory
+    startProcess(buildProcess(command, envVars, workingDirectory), command);
+  }
+
+  /**
+   * Executes a command in a separate process from the current working directory, connected to the
+   * CLI's standard in, out and err (see {@link UserIO}), until it terminates.
+   *
+   * <p>When the CLI streams are this process' own standard streams, which is the case except when
+   * testing, the child process inherits them, so its I/O doesn't pass through this process at all.
+   * Otherwise, the bytes are copied between the streams by background threads.
+   *
+   * @param command the command and arguments to execute
+   * @param envVars the environment variables to set or overwrite if already defined
+   */
+  public void launchProcessWithUserIO(List<String> command, Map<String, String> envVars) {
+    ProcessBuilder procBuilder = buildProcess(command, envVars, null);
+    boolean inheritOut = UserIO.isStandardOut();
+    boolean inheritErr = UserIO.isStandardErr();
+    boolean inheritIn = UserIO.isStandardIn();
+    if (inheritOut) {
+      procBuilder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+    }
+    if (inheritErr) {
+      procBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+    if (inheritIn) {
+      procBuilder.redirectInput(ProcessBuilder.Redirect.INHERIT);
+    }
+
+    // anything the CLI printed already must come before the child process output
+    UserIO.getOut().flush();
+    UserIO.getErr().flush();
+    startProcess(procBuilder, command);
+
+    // getInputStream() is confusingly named; it returns process stdout.
+    if (!inheritOut) {
+      startOutputThread(process.getInputStream(), UserIO.getOut());
+    }
+    if (!inheritErr) {
+      startOutputThread(process.getErrorStream(), UserIO.getErr());
+    }
+    if (!inheritIn) {
+      InputStream stdIn = UserIO.getIn();
+      if (stdIn == null) {
+        closeProcessInput();
+      } else {
+        // don't wait for this thread, because the child process may not read all of its input
+        Thread stdInThread =
+            new Thread(
+                () -> {
+                  try {
+                    copyStream(stdIn, process.getOutputStream(), true);
+                  } catch (IOException ioEx) {
+                    logger.debug("Stopped writing standard in to child process", ioEx);
+                  }
+                });
+        stdInThread.setDaemon(true);
+        stdInThread.start();
+      }
+    }
+  }
+
+  /** Build a process from the specified working directory, with the given environment variables. */
+  private static ProcessBuilder buildProcess(
+      List<String> command, Map<String, String> envVars, Path workingDirectory) {
     ProcessBuilder procBuilder = new ProcessBuilder(command);
     if (workingDirectory != null) {
       procBuilder.directory(workingDirectory.toFile());
@@ -78,7 +158,14 @@ public class LocalProcessLauncher {
       Map<String, String> procEnvVars = procBuilder.environment();
       procEnvVars.putAll(envVars);
     }
+    return procBuilder;
+  }
 
+  /** Start the process, and the flight recorder event for it. */
+  private void startProcess(ProcessBuilder procBuilder, List<String> command) {
+    subprocessEvent = new SubprocessEvent();
+    subprocessEvent.executable = command.get(0);
+    subprocessEvent.begin();
     try {
       process = procBuilder.start();
     } catch (IOException ioEx) {
@@ -86,23 +173,48 @@ public class LocalProcessLauncher {
     }
   }
 
-  /** Stream standard out/err from the child process to the CLI console. */
-  public void streamOutputForProcess() {
-    // getInputStream() is confusingly named; it returns process stdout (what we want).
-    Runnable streamStdOut = () -> streamOutput(process.getInputStream(), UserIO.getOut());
-    Thread stdOutThread = new Thread(streamStdOut);
-    stdOutThread.start();
+  /** Start a thread that copies output from the child process to a CLI stream. */
+  private void startOutputThread(InputStream fromStream, OutputStream toStream) {
+    Thread outputThread =
+        new Thread(
+            () -> {
+              try {
+                copyStream(fromStream, toStream, false);
+              } catch (IOException ioEx) {
+                logger.error("Error streaming output of child process", ioEx);
+              }
+            });
+    outputThread.start();
+    outputThreads.add(outputThread);
+  }
 
-    Runnable streamStdErr = () -> streamOutput(process.getErrorStream(), UserIO.getErr());
-    Thread stdErrThread = new Thread(streamStdErr);
-    stdErrThread.start();
+  /** Close the standard in of the child process, so that it reads end-of-file. */
+  private void closeProcessInput() {
+    try {
+      process.getOutputStream().close();
+    } catch (IOException ioEx) {
+      logger.debug("Error closing standard in of child process", ioEx);
+    }
   }
 
-  /** Block until the child process terminates, then return its exit code. */
+  /**
+   * Block until the child process terminates, and all of its output has been copied to the CLI
+   * streams, then return its exit code.
+   */
   public int waitForTerminate() {
     try {
-      return process.waitFor();
+      int exitCode = process.waitFor();
+      for (Thread outputThread : outputThreads) {
+        outputThread.join();
+      }
+      subprocessEvent.end();
+      if (subprocessEvent.shouldCommit()) {
+        subprocessEvent.exitCode = exitCode;
+        subprocessEvent.commit();
+      }
+      return exitCode;
     } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
       throw new SystemException("Error waiting for child process to terminate", intEx);
     }
   }
@@ -1,13 +1,12 @@
 package bio.terra.cli.app.utils.tables;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
- * Simple generic printer for object fields in rows separated by newlines and delimited by tabs.
+ * Simple generic printer for object fields in rows separated by newlines and delimited by spaces.
+ * See {@link TableRenderer} for how the columns are sized.
  *
  * @param <UF_TYPE> User-facing type to be tabularized
  */
@@ -15,10 +14,10 @@ import javax.annotation.Nullable;
 public interface TablePrinter<UF_TYPE> {
 
   /** Whitespace between columns. */
-  String FIELD_DELIMITER = "  ";
+  String FIELD_DELIMITER = TableRenderer.FIELD_DELIMITER;
 
   /** Separation between rows. */
-  String ROW_DELIMITER = "\n";
+  String ROW_DELIMITER = TableRenderer.ROW_DELIMITER;
 
   /**
    * Functional interface caller-supplied method. Returns an array of PrintableColumns. To
@@ -36,7 +35,18 @@ public interface TablePrinter<UF_TYPE> {
    * @return string representation of table suitable for printing to console
    */
   default String print(List<UF_TYPE> rowObjects) {
-    return print(rowObjects, null);
+    return print(rowObjects, null, false);
+  }
+
+  /**
+   * Print a table from a list of row objects of type T, sized to fit the terminal.
+   *
+   * @param rowObjects - list of user-facing objects to print to rows of the table.
+   * @param wide - true to print every column at its full width, instead of truncating to fit
+   * @return string representation of table suitable for printing to console
+   */
+  default String print(List<UF_TYPE> rowObjects, boolean wide) {
+    return print(rowObjects, null, wide);
   }
 
   /**
@@ -48,43 +58,21 @@ public interface TablePrinter<UF_TYPE> {
    * @return table string suitable for printing to console
    */
   default String print(List<UF_TYPE> rowObjects, @Nullable Predicate<UF_TYPE> isHighlighted) {
-    boolean includeHighlightColumn = null != isHighlighted;
-    String header = (includeHighlightColumn ? "   " : "") + printHeaderRow();
-    return header
-        + ROW_DELIMITER
-        + rowObjects.stream()
-            .map(r -> printRow(r, isHighlighted))
-            .collect(Collectors.joining(ROW_DELIMITER));
-  }
-
-  /** Fetch the column labels for each column and join them into a header row. */
-  private String printHeaderRow() {
-    return Arrays.stream(getColumnEnumValues())
-        .map(ColumnDefinition::formatLabel)
-        .collect(Collectors.joining(FIELD_DELIMITER));
+    return print(rowObjects, isHighlighted, false);
   }
 
   /**
-   * Convert an object into a row based on its corresponding TablePrintable column objects.
+   * Print the list of objects to a table, with their column labels, ordering, and field values
+   * determined by the enum array given by @Code {getColumnEnumValues}.
    *
-   * @param rowObject - object corresponding to this row
+   * @param rowObjects - list of user-facing objects to print to rows of the table.
    * @param isHighlighted - boolean-valued function to tell if a row should be highlighted
    *     (starred). null if this table type does not highlight any rows
-   * @return string for single row of the table
+   * @param wide - true to print every column at its full width, instead of truncating to fit
+   * @return table string suitable for printing to console
    */
-  private String printRow(UF_TYPE rowObject, @Nullable Predicate<UF_TYPE> isHighlighted) {
-    final String highlightColumn;
-    if (null == isHighlighted) {
-      highlightColumn = "";
-    } else if (isHighlighted.test(rowObject)) {
-      highlightColumn = " ✓ ";
-    } else {
-      highlightColumn = "   ";
-    }
-
-    return highlightColumn
-        + Arrays.stream(getColumnEnumValues())
-            .map(c -> c.formatCell(rowObject))
-            .collect(Collectors.joining(FIELD_DELIMITER));
+  default String print(
+      List<UF_TYPE> rowObjects, @Nullable Predicate<UF_TYPE> isHighlighted, boolean wide) {
+    return TableRenderer.of(getColumnEnumValues()).render(rowObjects, isHighlighted, wide);
   }
 }
@@ -0,0 +1,224 @@
+package bio.terra.cli.app.utils.tables;
+
+import com.google.api.client.util.Strings;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * Renders a list of objects as a text table. The column labels, value extractors and alignments
+ * are read from the {@link ColumnDefinition}s once, when the renderer is built, and each table is
+ * written into a single {@link StringBuilder}, padding with spaces directly instead of building a
+ * format string per cell.
+ *
+ * <p>Columns are sized to fit their content. If the table is wider than the available width, then
+ * the widest columns are shrunk, and their values truncated, until it fits. The available width is
+ * the terminal width, if the shell exports it in the COLUMNS environment variable, and otherwise
+ * the sum of the {@link ColumnDefinition#getWidth()}s. In wide mode, columns are never truncated.
+ *
+ * @param <UF_TYPE> class of user-facing object
+ */
+public class TableRenderer<UF_TYPE> {
+  /** Whitespace between columns. */
+  public static final String FIELD_DELIMITER = "  ";
+
+  /** Separation between rows. */
+  public static final String ROW_DELIMITER = "\n";
+
+  /** Environment variable that most shells set to the terminal width. */
+  private static final String TERMINAL_WIDTH_ENV_VAR = "COLUMNS";
+
+  // columns are not shrunk below this width, even if the table doesn't fit
+  private static final int MIN_COLUMN_WIDTH = 8;
+  private static final String HIGHLIGHTED_ROW_PREFIX = " ✓ ";
+  private static final String NOT_HIGHLIGHTED_ROW_PREFIX = "   ";
+
+  private final String[] labels;
+  private final Function<UF_TYPE, String>[] valueExtractors;
+  private final boolean[] isRightAligned;
+  private final int defaultTableWidth;
+
+  @SuppressWarnings("unchecked")
+  private TableRenderer(ColumnDefinition<UF_TYPE>[] columns) {
+    int numColumns = columns.length;
+    labels = new String[numColumns];
+    valueExtractors = new Function[numColumns];
+    isRightAligned = new boolean[numColumns];
+    int widthSum = 0;
+    for (int col = 0; col < numColumns; col++) {
+      labels[col] = columns[col].getLabel();
+      valueExtractors[col] = columns[col].getValueExtractor();
+      isRightAligned[col] = columns[col].getAlignment() == ColumnDefinition.Alignment.RIGHT;
+      widthSum += columns[col].getWidth();
+    }
+    defaultTableWidth = widthSum + FIELD_DELIMITER.length() * Math.max(numColumns - 1, 0);
+  }
+
+  /** Build a renderer for the given columns, in order. */
+  public static <T> TableRenderer<T> of(ColumnDefinition<T>[] columns) {
+    return new TableRenderer<>(columns);
+  }
+
+  /**
+   * Get the terminal width from the COLUMNS environment variable, if it's set. Java can't query
+   * the terminal directly, and most shells set this variable but don't export it, so it's often
+   * unset.
+   */
+  public static OptionalInt getTerminalWidth() {
+    String columns = System.getenv(TERMINAL_WIDTH_ENV_VAR);
+    if (Strings.isNullOrEmpty(columns)) {
+      return OptionalInt.empty();
+    }
+    try {
+      int width = Integer.parseInt(columns.trim());
+      return width > 0 ? OptionalInt.of(width) : OptionalInt.empty();
+    } catch (NumberFormatException nfEx) {
+      return OptionalInt.empty();
+    }
+  }
+
+  /**
+   * Render a table, sized to fit the terminal width (see class comment).
+   *
+   * @param rowObjects objects to print, one per row
+   * @param isHighlighted function to tell if a row should be highlighted (starred). null if this
+   *     table does not highlight any rows, in which case there is no space left for the highlight
+   * @param wide true to never truncate columns
+   * @return the table, with rows separated by {@link #ROW_DELIMITER} and no trailing newline
+   */
+  public String render(
+      List<UF_TYPE> rowObjects, @Nullable Predicate<UF_TYPE> isHighlighted, boolean wide) {
+    StringBuilder table = new StringBuilder();
+    render(
+        rowObjects,
+        isHighlighted,
+        wide ? OptionalInt.empty() : OptionalInt.of(getTerminalWidth().orElse(defaultTableWidth)),
+        table);
+    return table.toString();
+  }
+
+  /**
+   * Render a table into the given builder.
+   *
+   * @param rowObjects objects to print, one per row
+   * @param isHighlighted function to tell if a row should be highlighted (starred), or null
+   * @param maxTableWidth maximum width of a row, or empty to never truncate columns
+   * @param table builder to append the table to
+   */
+  public void render(
+      List<UF_TYPE> rowObjects,
+      @Nullable Predicate<UF_TYPE> isHighlighted,
+      OptionalInt maxTableWidth,
+      StringBuilder table) {
+    int numColumns = labels.length;
+    String prefixPadding = isHighlighted == null ? "" : NOT_HIGHLIGHTED_ROW_PREFIX;
+
+    // pull out all the cell values first, because the column widths depend on all of them
+    String[][] cells = new String[rowObjects.size()][];
+    int[] widths = new int[numColumns];
+    for (int col = 0; col < numColumns; col++) {
+      widths[col] = labels[col].length();
+    }
+    for (int row = 0; row < cells.length; row++) {
+      String[] rowCells = new String[numColumns];
+      for (int col = 0; col < numColumns; col++) {
+        String value = valueExtractors[col].apply(rowObjects.get(row));
+        rowCells[col] =
+            Strings.isNullOrEmpty(value) ? ColumnDefinition.EMPTY_FIELD_PLACEHOLDER : value;
+        widths[col] = Math.max(widths[col], rowCells[col].length());
+      }
+      cells[row] = rowCells;
+    }
+    if (maxTableWidth.isPresent()) {
+      shrinkToFit(widths, maxTableWidth.getAsInt() - prefixPadding.length());
+    }
+
+    int rowWidth = prefixPadding.length() + Arrays.stream(widths).sum();
+    rowWidth += FIELD_DELIMITER.length() * Math.max(numColumns - 1, 0);
+    table.ensureCapacity(table.length() + (rowWidth + ROW_DELIMITER.length()) * (cells.length + 1));
+
+    table.append(prefixPadding);
+    appendRow(table, labels, widths, false);
+    table.append(ROW_DELIMITER);
+    for (int row = 0; row < cells.length; row++) {
+      if (row > 0) {
+        table.append(ROW_DELIMITER);
+      }
+      if (isHighlighted != null) {
+        table.append(
+            isHighlighted.test(rowObjects.get(row))
+                ? HIGHLIGHTED_ROW_PREFIX
+                : NOT_HIGHLIGHTED_ROW_PREFIX);
+      }
+      appendRow(table, cells[row], widths, true);
+    }
+  }
+
+  /**
+   * Shrink the widest columns, one character at a time, until the row fits in the available width
+   * or every column is at its minimum width.
+   */
+  private static void shrinkToFit(int[] widths, int availableWidth) {
+    int excess =
+        Arrays.stream(widths).sum()
+            + FIELD_DELIMITER.length() * Math.max(widths.length - 1, 0)
+            - availableWidth;
+    while (excess > 0) {
+      int widest = 0;
+      for (int col = 1; col < widths.length; col++) {
+        if (widths[col] > widths[widest]) {
+          widest = col;
+        }
+      }
+      if (widths[widest] <= MIN_COLUMN_WIDTH) {
+        return;
+      }
+      widths[widest]--;
+      excess--;
+    }
+  }
+
+  /**
+   * Append a single row, padding and truncating each value to its column width. The last column is
+   * not padded on the right, so that rows don't end in whitespace.
+   *
+   * @param useAlignment true to use the column alignment, false to left-align (for the header)
+   */
+  private void appendRow(StringBuilder table, String[] values, int[] widths, boolean useAlignment) {
+    int lastColumn = values.length - 1;
+    for (int col = 0; col <= lastColumn; col++) {
+      if (col > 0) {
+        table.append(FIELD_DELIMITER);
+      }
+      String value = values[col];
+      int width = widths[col];
+      int valueLength = Math.min(value.length(), width);
+      int padding = width - valueLength;
+      boolean rightAlign = useAlignment && isRightAligned[col];
+      if (rightAlign) {
+        appendSpaces(table, padding);
+      }
+      if (value.length() <= width) {
+        table.append(value);
+      } else if (width > ColumnDefinition.TRUNCATION_MARK.length()) {
+        table
+            .append(value, 0, width - ColumnDefinition.TRUNCATION_MARK.length())
+            .append(ColumnDefinition.TRUNCATION_MARK);
+      } else {
+        table.append(value, 0, width);
+      }
+      if (!rightAlign && col < lastColumn) {
+        appendSpaces(table, padding);
+      }
+    }
+  }
+
+  private static void appendSpaces(StringBuilder table, int count) {
+    for (int i = 0; i < count; i++) {
+      table.append(' ');
+    }
+  }
+}
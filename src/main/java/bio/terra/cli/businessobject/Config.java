@@ -22,6 +22,9 @@ public class Config {
   // how to launch tools: docker image id or tag
   private CommandRunnerOption commandRunnerOption = CommandRunnerOption.DOCKER_CONTAINER;
   private String dockerImageId;
+  // minutes a reusable app container stays running while idle, or 0 to start a new container for
+  // each app command
+  private int appContainerTtlMinutes;
   // maximum number of resources to cache on disk for a single workspace before throwing an error
   // (corresponds to ~1MB cache size on disk)
   private int resourcesCacheSize = DEFAULT_RESOURCES_CACHE_SIZE;
@@ -36,6 +39,7 @@ public class Config {
     this.browserLaunchOption = configFromDisk.browserLaunchOption;
     this.commandRunnerOption = configFromDisk.commandRunnerOption;
     this.dockerImageId = configFromDisk.dockerImageId;
+    this.appContainerTtlMinutes = configFromDisk.appContainerTtlMinutes;
     this.resourcesCacheSize = configFromDisk.resourcesCacheSize;
     this.fileLoggingLevel = configFromDisk.fileLoggingLevel;
     this.consoleLoggingLevel = configFromDisk.consoleLoggingLevel;
@@ -71,7 +75,7 @@ public class Config {
 
   public void setBrowserLaunchOption(BrowserLaunchOption browserLaunchOption) {
     this.browserLaunchOption = browserLaunchOption;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public CommandRunnerOption getCommandRunnerOption() {
@@ -80,7 +84,7 @@ public class Config {
 
   public void setCommandRunnerOption(CommandRunnerOption commandRunnerOption) {
     this.commandRunnerOption = commandRunnerOption;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public String getDockerImageId() {
@@ -92,7 +96,16 @@ public class Config {
     if (!new DockerClientWrapper().checkImageExists(dockerImageId)) {
       logger.warn("image not found: {}", dockerImageId);
     }
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
+  }
+
+  public int getAppContainerTtlMinutes() {
+    return appContainerTtlMinutes;
+  }
+
+  public void setAppContainerTtlMinutes(int appContainerTtlMinutes) {
+    this.appContainerTtlMinutes = appContainerTtlMinutes;
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public int getResourcesCacheSize() {
@@ -101,7 +114,7 @@ public class Config {
 
   public void setResourcesCacheSize(int resourcesCacheSize) {
     this.resourcesCacheSize = resourcesCacheSize;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public Logger.LogLevel getConsoleLoggingLevel() {
@@ -110,7 +123,7 @@ public class Config {
 
   public void setConsoleLoggingLevel(Logger.LogLevel consoleLoggingLevel) {
     this.consoleLoggingLevel = consoleLoggingLevel;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public Logger.LogLevel getFileLoggingLevel() {
@@ -119,7 +132,7 @@ public class Config {
 
   public void setFileLoggingLevel(Logger.LogLevel fileLoggingLevel) {
     this.fileLoggingLevel = fileLoggingLevel;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   public Format.FormatOptions getFormat() {
@@ -128,7 +141,7 @@ public class Config {
 
   public void setFormat(Format.FormatOptions format) {
     this.format = format;
-    Context.synchronizeToDisk();
+    Context.markModified(Context.Field.CONFIG);
   }
 
   /** Options for handling the browser during the OAuth process. */
@@ -3,13 +3,23 @@ package bio.terra.cli.businessobject;
 import bio.terra.cli.app.CommandRunner;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.serialization.persisted.PDConfig;
 import bio.terra.cli.serialization.persisted.PDContext;
+import bio.terra.cli.serialization.persisted.PDServer;
+import bio.terra.cli.serialization.persisted.PDUser;
+import bio.terra.cli.serialization.persisted.PDVersionCheck;
+import bio.terra.cli.serialization.persisted.PDWorkspace;
+import bio.terra.cli.utils.FileUtils;
 import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.jfr.ContextEvent;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,10 +34,15 @@ public class Context {
   private static final Logger logger = LoggerFactory.getLogger(Context.class);
   // env var name to optionally override where the context is persisted on disk
   private static final String CONTEXT_DIR_OVERRIDE_NAME = "TERRA_CONTEXT_PARENT_DIR";
+  // env var name to optionally select a named profile (overridden by the --profile option)
+  public static final String PROFILE_ENV_VAR_NAME = "TERRA_PROFILE";
+  private static final Pattern PROFILE_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9][a-zA-Z0-9_-]*");
   // file paths related to persisting the context on disk
   private static final String CONTEXT_DIRNAME = ".terra";
   private static final String CONTEXT_FILENAME = "context.json";
+  private static final String CONTEXT_LOCK_FILENAME = "context.lock";
   private static final String LOG_FILENAME = "terra.log";
+  private static final String PROFILES_DIRNAME = "profiles";
   // singleton objects that define the current context or state
   private static Config currentConfig;
   private static Server currentServer;
@@ -39,6 +54,15 @@ public class Context {
   private static Workspace overrideWorkspace;
   // true if the current command is using an override workspace
   private static boolean useOverrideWorkspace;
+  // parts of the in-memory context that have changed since they were last read from or written to
+  // disk. only these parts are written out, so that changes made by other processes in the
+  // meantime are kept.
+  private static final Set<Field> modifiedFields = EnumSet.noneOf(Field.class);
+  // true if changes should be held in memory until the end of the command, instead of going to disk
+  // on every change. this way, multiple changes during one command result in a single write.
+  private static boolean deferWrites;
+  // named profile selected for this command execution only, via the --profile option
+  @Nullable private static String profileOverride;
 
   /**
    * Reads the context file from disk and initializes the singleton internal state classes (Config,
@@ -49,6 +73,10 @@ public class Context {
    * this function.
    */
   public static void initializeFromDisk() {
+    // don't drop any pending changes (e.g. made by an earlier step of this same command)
+    flush();
+    ContextEvent contextEvent = new ContextEvent();
+    contextEvent.begin();
     try {
       // try to read in an instance of the context file
       PDContext diskContext =
@@ -67,11 +95,22 @@ public class Context {
       // default values below. so, no need to log or throw the exception returned here.
       logger.debug("Context file not found. Re-initializing with default values");
       initializeDefaults();
+      if (getProfile().isPresent()) {
+        initializeProfileFromDefaultContext();
+      }
     } catch (IOException ioEx) {
       throw new SystemException("Error reading context file from disk.", ioEx);
+    } finally {
+      contextEvent.end();
+      if (contextEvent.shouldCommit()) {
+        contextEvent.operation = ContextEvent.READ;
+        contextEvent.file = getContextFile().toString();
+        contextEvent.commit();
+      }
     }
     overrideWorkspace = null;
     useOverrideWorkspace = false;
+    modifiedFields.clear();
   }
 
   private static void initializeDefaults() {
@@ -83,30 +122,159 @@ public class Context {
   }
 
   /**
-   * Writes the current internal state (Config, Server, User, Workspace) to the context file on
-   * disk.
+   * Seed a new named profile with the config, server and user from the default context, so that a
+   * profile shares the user's login (the credential store is shared across profiles) without
+   * sharing the workspace selection.
    */
-  public static void synchronizeToDisk() {
+  private static void initializeProfileFromDefaultContext() {
     try {
-      PDContext diskContext =
-          new PDContext(
-              currentConfig, currentServer, currentUser, currentWorkspace, currentVersionCheck);
-      JacksonMapper.writeJavaObjectToFile(getContextFile().toFile(), diskContext);
-      logger.debug("Wrote context to disk: \n{}", diskContext);
+      PDContext defaultContext =
+          JacksonMapper.readFileIntoJavaObject(
+              getContextDir().resolve(CONTEXT_FILENAME).toFile(), PDContext.class);
+      currentConfig = new Config(defaultContext.config);
+      currentServer = new Server(defaultContext.server);
+      currentUser = defaultContext.user == null ? null : new User(defaultContext.user);
+    } catch (FileNotFoundException fnfEx) {
+      // no default context either, so keep the default values
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading default context file from disk.", ioEx);
+    }
+  }
+
+  /**
+   * Hold changes to the context in memory instead of writing the context file on every change. The
+   * top-level command calls this before executing, so that a command that changes the context
+   * several times only writes it once, in {@link #endDeferredWrites()}.
+   */
+  public static void beginDeferredWrites() {
+    deferWrites = true;
+  }
+
+  /** Write any pending changes to the context file and go back to writing on every change. */
+  public static void endDeferredWrites() {
+    deferWrites = false;
+    flush();
+  }
+
+  /**
+   * Mark part of the current internal state (Config, Server, User, Workspace) as changed. If writes
+   * are being deferred, the context file is written at the next {@link #flush()}. Otherwise it is
+   * written immediately.
+   */
+  static void markModified(Field field) {
+    modifiedFields.add(field);
+    if (!deferWrites) {
+      writeToDisk();
+    }
+  }
+
+  /**
+   * Write any pending changes to the context file on disk. This is a no-op if nothing has changed
+   * since the context was last read or written. Callers that hand off to another process that may
+   * read the context (e.g. a tool command) should call this first.
+   */
+  public static void flush() {
+    if (!modifiedFields.isEmpty()) {
+      writeToDisk();
+    }
+  }
+
+  /**
+   * Writes the changed parts of the current internal state (Config, Server, User, Workspace) to the
+   * context file on disk. While holding an advisory lock on a sibling lock file, the context file
+   * is read again, the changed parts are applied to it, and it is replaced atomically. This way,
+   * concurrent CLI processes never see or produce a partially written context file, and don't
+   * undo each other's changes to other parts of the context (e.g. one process logs in while
+   * another sets the workspace).
+   */
+  private static void writeToDisk() {
+    if (currentConfig == null || currentServer == null) {
+      // nothing has been read in yet, so there's nothing to write out
+      return;
+    }
+    ContextEvent contextEvent = new ContextEvent();
+    contextEvent.begin();
+    try {
+      int numBytes =
+          FileUtils.runWithFileLock(
+              getProfileDir().resolve(CONTEXT_LOCK_FILENAME),
+              () -> {
+                byte[] serializedContext =
+                    JacksonMapper.getPrettyWriter().writeValueAsBytes(mergeWithDisk());
+                FileUtils.writeBytesToFileAtomically(getContextFile(), serializedContext);
+                return serializedContext.length;
+              });
+      modifiedFields.clear();
+      logger.debug("Wrote context to disk: {}", getContextFile());
+
+      contextEvent.end();
+      if (contextEvent.shouldCommit()) {
+        contextEvent.operation = ContextEvent.WRITE;
+        contextEvent.file = getContextFile().toString();
+        contextEvent.bytes = numBytes;
+        contextEvent.commit();
+      }
     } catch (IOException ioEx) {
       logger.error("Error persisting context to disk.", ioEx);
     }
   }
 
+  /**
+   * Build the context to write to disk: the changed parts from memory, and the rest from the
+   * context file as it is now. If the context file doesn't exist or can't be read, all of the
+   * in-memory context is used. Must be called while holding the lock on the context file.
+   */
+  private static PDContext mergeWithDisk() {
+    PDContext diskContext;
+    try {
+      diskContext =
+          JacksonMapper.readFileIntoJavaObject(getContextFile().toFile(), PDContext.class);
+    } catch (IOException ioEx) {
+      logger.debug("Context file not readable, writing all of the in-memory context.", ioEx);
+      return new PDContext(
+          currentConfig, currentServer, currentUser, currentWorkspace, currentVersionCheck);
+    }
+    return new PDContext.Builder()
+        .config(
+            modifiedFields.contains(Field.CONFIG)
+                ? new PDConfig(currentConfig)
+                : diskContext.config)
+        .server(
+            modifiedFields.contains(Field.SERVER)
+                ? new PDServer(currentServer)
+                : diskContext.server)
+        .user(
+            modifiedFields.contains(Field.USER)
+                ? (currentUser == null ? null : new PDUser(currentUser))
+                : diskContext.user)
+        .workspace(
+            modifiedFields.contains(Field.WORKSPACE)
+                ? (currentWorkspace == null ? null : new PDWorkspace(currentWorkspace))
+                : diskContext.workspace)
+        .versionCheck(
+            modifiedFields.contains(Field.VERSION_CHECK)
+                ? (currentVersionCheck == null ? null : new PDVersionCheck(currentVersionCheck))
+                : diskContext.versionCheck)
+        .build();
+  }
+
   // ====================================================
   // Directory and file names for persisting on disk
   //   - context directory parent: $HOME/ or $TERRA_CONTEXT_PARENT_DIR/
   //       - context directory: .terra/
   //           - persisted context file: context.json
+  //           - advisory lock file for writing the context: context.lock
   //           - sub-directory for log files: logs/
   //               -*.terra.log
   //           - sub-directory for Java library dependencies: lib/
   //               -*.jar
+  //           - sub-directory for named profiles: profiles/
+  //               - profile directory: <profile name>/
+  //                   - persisted context file: context.json
+  //                   - advisory lock file for writing the context: context.lock
+  //                   - sub-directory for log files: logs/
+  //
+  // The credential store and other files in the context directory are shared by all profiles.
 
   /**
    * Get the context directory.
@@ -149,7 +317,56 @@ public class Context {
    * @return absolute path to the context file
    */
   public static Path getContextFile() {
-    return getContextDir().resolve(CONTEXT_FILENAME);
+    return getProfileDir().resolve(CONTEXT_FILENAME);
+  }
+
+  /**
+   * Get the directory for the files that are specific to the current profile (context file, logs).
+   * For the default profile, this is the context directory itself.
+   *
+   * @return absolute path to the profile directory
+   */
+  public static Path getProfileDir() {
+    Optional<String> profile = getProfile();
+    return profile.isEmpty()
+        ? getContextDir()
+        : getContextDir().resolve(PROFILES_DIRNAME).resolve(profile.get());
+  }
+
+  /**
+   * Get the name of the current profile: the --profile option if specified, otherwise the
+   * TERRA_PROFILE env var.
+   *
+   * @return the profile name, or empty for the default profile
+   * @throws UserActionableException if the profile name is invalid
+   */
+  public static Optional<String> getProfile() {
+    String profile =
+        profileOverride != null ? profileOverride : System.getenv(PROFILE_ENV_VAR_NAME);
+    if (profile == null || profile.isBlank()) {
+      return Optional.empty();
+    }
+    if (!isValidProfileName(profile)) {
+      throw new UserActionableException(
+          "Invalid profile name: "
+              + profile
+              + ". Profile names may only contain letters, numbers, dashes and underscores.");
+    }
+    return Optional.of(profile);
+  }
+
+  /**
+   * Select a named profile for this command execution only, overriding the TERRA_PROFILE env var.
+   *
+   * @param profile the profile name, or null to go back to the TERRA_PROFILE env var
+   */
+  public static void setProfileOverride(@Nullable String profile) {
+    profileOverride = profile;
+  }
+
+  /** Returns true if the given string can be used as a profile name. */
+  public static boolean isValidProfileName(String profile) {
+    return PROFILE_NAME_PATTERN.matcher(profile).matches();
   }
 
   /**
@@ -158,7 +375,7 @@ public class Context {
    * @return absolute path to the log file
    */
   public static Path getLogFile() {
-    return getContextDir().resolve(LOGS_DIRNAME).resolve(LOG_FILENAME);
+    return getProfileDir().resolve(LOGS_DIRNAME).resolve(LOG_FILENAME);
   }
 
   // ====================================================
@@ -179,7 +396,7 @@ public class Context {
 
   public static void setServer(Server server) {
     currentServer = server;
-    synchronizeToDisk();
+    markModified(Field.SERVER);
   }
 
   public static Optional<User> getUser() {
@@ -188,7 +405,7 @@ public class Context {
 
   public static void setUser(User user) {
     currentUser = user;
-    synchronizeToDisk();
+    markModified(Field.USER);
   }
 
   public static User requireUser() {
@@ -208,7 +425,7 @@ public class Context {
       overrideWorkspace = workspace;
     } else {
       currentWorkspace = workspace;
-      synchronizeToDisk();
+      markModified(Field.WORKSPACE);
     }
   }
 
@@ -222,7 +439,7 @@ public class Context {
 
   public static void setVersionCheck(VersionCheck versionCheck) {
     currentVersionCheck = versionCheck;
-    synchronizeToDisk();
+    markModified(Field.VERSION_CHECK);
   }
 
   public static void useOverrideWorkspace(String userFacingId) {
@@ -235,4 +452,13 @@ public class Context {
     useOverrideWorkspace = true;
     Workspace.load(userFacingId);
   }
+
+  /** Parts of the context that are changed, and written to disk, independently. */
+  enum Field {
+    CONFIG,
+    SERVER,
+    USER,
+    WORKSPACE,
+    VERSION_CHECK
+  }
 }
@@ -0,0 +1,288 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Supplier;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the temporary credentials returned by `terra resource credentials`, in the context
+ * directory. AWS profiles call that command as their credential_process every time the AWS CLI or
+ * an SDK needs credentials, so serving them from a local file saves a WSM call each time.
+ *
+ * <p>Each entry is for a single user, server, workspace, resource, scope and duration, and is used
+ * until {@link #EXPIRY_MARGIN} before its "Expiration". Entries are encrypted with AES-GCM, with a
+ * random key that is stored next to them, readable only by the owner. This keeps credentials from
+ * being read out of backups or copies of the cache files alone. An expired entry is refreshed while
+ * holding a lock on it, so concurrent callers make a single request between them.
+ *
+ * <p>An entry can also be looked up by an alias, for callers that can only compute the cache key
+ * with a server call, e.g. from a resource name instead of its id. An alias refers to the entry
+ * that was last recorded for it, so after a resource is replaced under the same name, the alias
+ * returns the old resource's credentials until they expire.
+ *
+ * <p>Credentials without an "Expiration" are never cached. The cache is shared by all profiles,
+ * and is deleted when the user logs out.
+ */
+public class CredentialsCache {
+  private static final Logger logger = LoggerFactory.getLogger(CredentialsCache.class);
+  // cached credentials are refreshed this long before they expire
+  public static final Duration EXPIRY_MARGIN = Duration.ofMinutes(5);
+
+  // sub-directory of the context directory for the cache, the key file, and the lock file that
+  // guards creating the key
+  private static final String CACHE_DIRNAME = "credentials-cache";
+  private static final String KEY_FILENAME = "cache.key";
+  private static final String KEY_LOCK_FILENAME = "cache.lock";
+  // suffixes for the files of each entry
+  private static final String ENTRY_SUFFIX = ".enc";
+  private static final String ENTRY_LOCK_SUFFIX = ".lock";
+  // suffix for the file that records which entry an alias refers to
+  private static final String ALIAS_SUFFIX = ".alias";
+  // field of AWS credential_process output that holds the expiration time
+  private static final String EXPIRATION_FIELD = "Expiration";
+
+  private static final String CIPHER = "AES/GCM/NoPadding";
+  private static final int KEY_BYTES = 32;
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+  private static final SecureRandom random = new SecureRandom();
+
+  private CredentialsCache() {}
+
+  /**
+   * Get cached credentials that are valid for at least {@link #EXPIRY_MARGIN}. Errors reading the
+   * cache are logged and treated as a miss.
+   *
+   * @param cacheKey identifies the credentials, see {@link #getOrFetch}
+   */
+  public static Optional<JsonNode> get(String cacheKey) {
+    Path entryFile = getEntryFile(cacheKey);
+    try {
+      byte[] encrypted = Files.readAllBytes(entryFile);
+      JsonNode credentials = JacksonMapper.getMapper().readTree(decrypt(encrypted, cacheKey));
+      if (isValid(credentials)) {
+        return Optional.of(credentials);
+      }
+      logger.debug("Cached credentials are about to expire: {}", entryFile);
+    } catch (NoSuchFileException nsfEx) {
+      logger.debug("No cached credentials: {}", entryFile);
+    } catch (IOException | GeneralSecurityException ex) {
+      // e.g. the key was replaced. the entry will be overwritten with fresh credentials
+      logger.warn("Error reading cached credentials, ignoring them: {}", entryFile, ex);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Get cached credentials, or fetch and cache them if there are none that are valid for at least
+   * {@link #EXPIRY_MARGIN}. Fetching is done while holding a lock on the entry, and the cache is
+   * checked again once the lock is held, so concurrent callers wait for the first one's request
+   * instead of making their own. Errors using the cache are logged, and the credentials are fetched
+   * without it.
+   *
+   * @param cacheKey identifies the credentials, e.g. the user, server, workspace, resource, scope
+   *     and duration. It's hashed to name the entry, and authenticated along with the encrypted
+   *     credentials, so an entry can't be swapped for another.
+   * @param fetch fetches the credentials
+   * @return the credentials, as the JSON that the command prints
+   */
+  public static JsonNode getOrFetch(String cacheKey, Supplier<Object> fetch) {
+    Optional<JsonNode> cached = get(cacheKey);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    Path entryFile = getEntryFile(cacheKey);
+    try {
+      return FileUtils.runWithFileLock(
+          entryFile.resolveSibling(entryFile.getFileName() + ENTRY_LOCK_SUFFIX),
+          () -> {
+            Optional<JsonNode> refreshed = get(cacheKey);
+            if (refreshed.isPresent()) {
+              return refreshed.get();
+            }
+            JsonNode credentials = JacksonMapper.getMapper().valueToTree(fetch.get());
+            if (getExpiration(credentials).isPresent()) {
+              try {
+                FileUtils.writeBytesToFileAtomically(
+                    entryFile,
+                    encrypt(JacksonMapper.getWriter().writeValueAsBytes(credentials), cacheKey));
+              } catch (GeneralSecurityException secEx) {
+                logger.warn("Error encrypting credentials, not caching them.", secEx);
+              }
+            }
+            return credentials;
+          });
+    } catch (IOException ioEx) {
+      logger.warn("Error using the credentials cache, fetching credentials without it.", ioEx);
+      return JacksonMapper.getMapper().valueToTree(fetch.get());
+    }
+  }
+
+  /**
+   * Get cached credentials by an alias that {@link #putAlias} recorded, if they are valid for at
+   * least {@link #EXPIRY_MARGIN}. Errors reading the cache are logged and treated as a miss.
+   *
+   * @param aliasKey identifies the alias
+   */
+  public static Optional<JsonNode> getByAlias(String aliasKey) {
+    Path aliasFile = getAliasFile(aliasKey);
+    try {
+      return get(Files.readString(aliasFile, StandardCharsets.UTF_8));
+    } catch (NoSuchFileException nsfEx) {
+      logger.debug("No cached credentials alias: {}", aliasFile);
+    } catch (IOException ioEx) {
+      logger.warn("Error reading cached credentials alias, ignoring it: {}", aliasFile, ioEx);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Record that an alias refers to the entry for a cache key, replacing the entry it referred to
+   * before. Errors are logged, since the alias only saves a server call.
+   *
+   * @param aliasKey identifies the alias
+   * @param cacheKey identifies the entry, see {@link #getOrFetch}
+   */
+  public static void putAlias(String aliasKey, String cacheKey) {
+    Path aliasFile = getAliasFile(aliasKey);
+    try {
+      FileUtils.writeBytesToFileAtomically(
+          aliasFile, cacheKey.getBytes(StandardCharsets.UTF_8), false);
+    } catch (IOException ioEx) {
+      logger.warn("Error writing cached credentials alias: {}", aliasFile, ioEx);
+    }
+  }
+
+  /** Delete all cached credentials, and the key they're encrypted with. */
+  public static void clear() {
+    if (!Files.exists(getCacheDir())) {
+      return;
+    }
+    try {
+      FileUtils.delete(getCacheDir());
+    } catch (IOException ioEx) {
+      logger.warn("Error deleting the credentials cache: {}", getCacheDir(), ioEx);
+    }
+  }
+
+  /** Return true if the credentials don't expire within {@link #EXPIRY_MARGIN}. */
+  private static boolean isValid(JsonNode credentials) {
+    return getExpiration(credentials)
+        .map(expiration -> Instant.now().plus(EXPIRY_MARGIN).isBefore(expiration))
+        .orElse(false);
+  }
+
+  /** Get the expiration time of credentials, in either ISO-8601 or epoch seconds form. */
+  private static Optional<Instant> getExpiration(JsonNode credentials) {
+    JsonNode expiration = credentials.get(EXPIRATION_FIELD);
+    if (expiration == null || expiration.isNull()) {
+      return Optional.empty();
+    } else if (expiration.isNumber()) {
+      return Optional.of(Instant.ofEpochMilli((long) (expiration.asDouble() * 1000)));
+    }
+    try {
+      return Optional.of(OffsetDateTime.parse(expiration.asText()).toInstant());
+    } catch (DateTimeParseException dtpEx) {
+      logger.debug("Unexpected credentials expiration: {}", expiration.asText());
+      return Optional.empty();
+    }
+  }
+
+  private static byte[] encrypt(byte[] plaintext, String cacheKey)
+      throws IOException, GeneralSecurityException {
+    byte[] iv = new byte[IV_BYTES];
+    random.nextBytes(iv);
+    Cipher cipher = Cipher.getInstance(CIPHER);
+    cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey(), new GCMParameterSpec(TAG_BITS, iv));
+    cipher.updateAAD(cacheKey.getBytes(StandardCharsets.UTF_8));
+    return Bytes.concat(iv, cipher.doFinal(plaintext));
+  }
+
+  private static byte[] decrypt(byte[] encrypted, String cacheKey)
+      throws IOException, GeneralSecurityException {
+    if (encrypted.length < IV_BYTES) {
+      throw new GeneralSecurityException("Cached credentials are truncated.");
+    }
+    Cipher cipher = Cipher.getInstance(CIPHER);
+    cipher.init(
+        Cipher.DECRYPT_MODE,
+        new SecretKeySpec(Files.readAllBytes(getKeyFile()), "AES"),
+        new GCMParameterSpec(TAG_BITS, Arrays.copyOf(encrypted, IV_BYTES)));
+    cipher.updateAAD(cacheKey.getBytes(StandardCharsets.UTF_8));
+    return cipher.doFinal(encrypted, IV_BYTES, encrypted.length - IV_BYTES);
+  }
+
+  /**
+   * Get the key that entries are encrypted with, creating it if it doesn't exist yet. The key and
+   * cache directory are only accessible by the owner, on file systems that support it.
+   */
+  private static SecretKeySpec getOrCreateKey() throws IOException {
+    Path keyFile = getKeyFile();
+    byte[] key =
+        FileUtils.runWithFileLock(
+            getCacheDir().resolve(KEY_LOCK_FILENAME),
+            () -> {
+              if (Files.exists(keyFile)) {
+                return Files.readAllBytes(keyFile);
+              }
+              try {
+                Files.setPosixFilePermissions(
+                    getCacheDir(), PosixFilePermissions.fromString("rwx------"));
+              } catch (UnsupportedOperationException uoEx) {
+                logger.debug("Can't restrict access to {}", getCacheDir());
+              }
+              byte[] newKey = new byte[KEY_BYTES];
+              random.nextBytes(newKey);
+              // the temporary file this writes first is only readable by the owner
+              FileUtils.writeBytesToFileAtomically(keyFile, newKey);
+              return newKey;
+            });
+    return new SecretKeySpec(key, "AES");
+  }
+
+  /** Get the file for an entry, named by a hash of the cache key. */
+  private static Path getEntryFile(String cacheKey) {
+    return getCacheDir()
+        .resolve(
+            Hashing.sha256().hashString(cacheKey, StandardCharsets.UTF_8).toString()
+                + ENTRY_SUFFIX);
+  }
+
+  /** Get the file for an alias, named by a hash of the alias key. */
+  private static Path getAliasFile(String aliasKey) {
+    return getCacheDir()
+        .resolve(
+            Hashing.sha256().hashString(aliasKey, StandardCharsets.UTF_8).toString()
+                + ALIAS_SUFFIX);
+  }
+
+  private static Path getKeyFile() {
+    return getCacheDir().resolve(KEY_FILENAME);
+  }
+
+  private static Path getCacheDir() {
+    return Context.getContextDir().resolve(CACHE_DIRNAME);
+  }
+}
@@ -0,0 +1,85 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.serialization.persisted.PDEndpointMetrics;
+import bio.terra.cli.utils.LatencyHistogram;
+
+/**
+ * Internal representation of the request metrics for a single server or cloud endpoint (e.g.
+ * "WorkspaceManagerService.getWorkspace"), accumulated across commands. See {@link RequestMetrics}.
+ *
+ * <p>A call is one request made through the retry helpers, which may take several attempts. The
+ * latency histogram records the duration of each attempt, in microseconds.
+ */
+public class EndpointMetrics {
+  private final String endpoint;
+  private long calls;
+  private long attempts;
+  private long retries;
+  private long failures;
+  private final LatencyHistogram latencyMicros;
+
+  /** Build an empty instance for the given endpoint. */
+  public EndpointMetrics(String endpoint) {
+    this.endpoint = endpoint;
+    this.latencyMicros = new LatencyHistogram();
+  }
+
+  /** Build an instance of this class from the serialized format on disk. */
+  public EndpointMetrics(String endpoint, PDEndpointMetrics configFromDisk) {
+    this.endpoint = endpoint;
+    this.calls = configFromDisk.calls;
+    this.attempts = configFromDisk.attempts;
+    this.retries = configFromDisk.retries;
+    this.failures = configFromDisk.failures;
+    this.latencyMicros =
+        new LatencyHistogram(configFromDisk.latencyBuckets, configFromDisk.maxLatencyMicros);
+  }
+
+  /** Record a single attempt at a call, successful or not. */
+  public synchronized void recordAttempt(long latencyMicros) {
+    attempts++;
+    this.latencyMicros.record(latencyMicros);
+  }
+
+  /** Record a finished call, and how many times it was retried. */
+  public synchronized void recordCall(int numRetries, boolean failed) {
+    calls++;
+    retries += numRetries;
+    if (failed) {
+      failures++;
+    }
+  }
+
+  /** Add the counts from another instance for the same endpoint to this one. */
+  public synchronized void merge(EndpointMetrics other) {
+    calls += other.calls;
+    attempts += other.attempts;
+    retries += other.retries;
+    failures += other.failures;
+    latencyMicros.merge(other.latencyMicros);
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public long getCalls() {
+    return calls;
+  }
+
+  public long getAttempts() {
+    return attempts;
+  }
+
+  public long getRetries() {
+    return retries;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public LatencyHistogram getLatencyMicros() {
+    return latencyMicros;
+  }
+}
@@ -0,0 +1,177 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.PDRequestMetrics;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Singleton class for recording the latency and retries of each server and cloud request (see
+ * {@link bio.terra.cli.service.utils.HttpUtils}), and accumulating them across commands in a file
+ * in the context directory. This shows latency and retry trends on a host over many invocations,
+ * which a trace of a single command doesn't.
+ *
+ * <p>Recording is off by default, so that commands don't pay for reading and writing the file. It
+ * is turned on by setting the {@link #METRICS_ENV_VAR_NAME} environment variable to true.
+ *
+ * <p>Metrics are kept in memory while a command runs, and merged into the file once at the end of
+ * the command, under a file lock so that concurrent CLI processes don't lose each other's counts.
+ * The file is shared by all profiles.
+ */
+public class RequestMetrics {
+  private static final Logger logger = LoggerFactory.getLogger(RequestMetrics.class);
+
+  // name of the environment variable that turns on recording request metrics
+  public static final String METRICS_ENV_VAR_NAME = "TERRA_REQUEST_METRICS";
+
+  // file name for the accumulated metrics, and the lock file that guards it
+  private static final String METRICS_FILENAME = "request-metrics.json";
+  private static final String METRICS_LOCK_FILENAME = "request-metrics.lock";
+
+  // endpoint name -> metrics recorded by the current command, not yet merged into the file
+  private static final Map<String, EndpointMetrics> pendingMetrics = new ConcurrentHashMap<>();
+
+  private RequestMetrics() {}
+
+  /** Returns true if request metrics are being recorded. */
+  public static boolean isEnabled() {
+    return Boolean.parseBoolean(System.getenv(METRICS_ENV_VAR_NAME));
+  }
+
+  /**
+   * Record a single attempt at a request. This is a no-op if recording is off.
+   *
+   * @param endpoint name of the endpoint (e.g. "WorkspaceManagerService.getWorkspace")
+   * @param latencyNanos duration of the attempt, in nanoseconds
+   */
+  public static void recordAttempt(String endpoint, long latencyNanos) {
+    if (!isEnabled()) {
+      return;
+    }
+    pendingMetrics
+        .computeIfAbsent(endpoint, EndpointMetrics::new)
+        .recordAttempt(latencyNanos / 1000);
+  }
+
+  /**
+   * Record a finished request. This is a no-op if recording is off.
+   *
+   * @param endpoint name of the endpoint (e.g. "WorkspaceManagerService.getWorkspace")
+   * @param numRetries number of times the request was retried after a retryable error
+   * @param failed true if the request ultimately failed
+   */
+  public static void recordCall(String endpoint, int numRetries, boolean failed) {
+    if (!isEnabled()) {
+      return;
+    }
+    pendingMetrics.computeIfAbsent(endpoint, EndpointMetrics::new).recordCall(numRetries, failed);
+  }
+
+  /**
+   * Merge the metrics recorded by the current command into the file. Failing to write the metrics
+   * should not fail the command, so errors are only logged. The file is not synced to disk, since
+   * losing the last command's metrics in a crash doesn't matter.
+   */
+  public static void flush() {
+    if (pendingMetrics.isEmpty()) {
+      return;
+    }
+    List<EndpointMetrics> metricsToMerge = new ArrayList<>();
+    for (String endpoint : List.copyOf(pendingMetrics.keySet())) {
+      EndpointMetrics endpointMetrics = pendingMetrics.remove(endpoint);
+      if (endpointMetrics != null) {
+        metricsToMerge.add(endpointMetrics);
+      }
+    }
+    try {
+      FileUtils.runWithFileLock(
+          getLockFile(),
+          () -> {
+            Map<String, EndpointMetrics> accumulatedMetrics = readFromDisk();
+            for (EndpointMetrics endpointMetrics : metricsToMerge) {
+              accumulatedMetrics
+                  .computeIfAbsent(endpointMetrics.getEndpoint(), EndpointMetrics::new)
+                  .merge(endpointMetrics);
+            }
+            FileUtils.writeBytesToFileAtomically(
+                getMetricsFile(),
+                JacksonMapper.getWriter()
+                    .writeValueAsBytes(new PDRequestMetrics(accumulatedMetrics.values())),
+                false);
+            return null;
+          });
+    } catch (IOException ioEx) {
+      logger.warn("Error writing request metrics to disk.", ioEx);
+    }
+  }
+
+  /**
+   * Get the metrics accumulated across commands, sorted by endpoint name.
+   *
+   * @throws SystemException if the metrics file can't be read
+   */
+  public static List<EndpointMetrics> list() {
+    try {
+      List<EndpointMetrics> endpointMetrics = new ArrayList<>(readFromDisk().values());
+      endpointMetrics.sort(Comparator.comparing(EndpointMetrics::getEndpoint));
+      return endpointMetrics;
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading request metrics from disk.", ioEx);
+    }
+  }
+
+  /**
+   * Delete the metrics accumulated across commands.
+   *
+   * @throws SystemException if the metrics file can't be deleted
+   */
+  public static void reset() {
+    pendingMetrics.clear();
+    try {
+      FileUtils.runWithFileLock(getLockFile(), () -> Files.deleteIfExists(getMetricsFile()));
+    } catch (IOException ioEx) {
+      throw new SystemException("Error deleting request metrics from disk.", ioEx);
+    }
+  }
+
+  /** Read the accumulated metrics from the file, or return an empty map if there is no file. */
+  private static Map<String, EndpointMetrics> readFromDisk() throws IOException {
+    Map<String, EndpointMetrics> accumulatedMetrics = new HashMap<>();
+    try {
+      PDRequestMetrics metricsFromDisk =
+          JacksonMapper.readFileIntoJavaObject(
+              getMetricsFile().toFile(), PDRequestMetrics.class);
+      metricsFromDisk.endpoints.forEach(
+          (endpoint, endpointMetrics) ->
+              accumulatedMetrics.put(endpoint, new EndpointMetrics(endpoint, endpointMetrics)));
+    } catch (FileNotFoundException fnfEx) {
+      logger.debug("Request metrics file not found: {}", getMetricsFile());
+    } catch (JsonProcessingException jsonEx) {
+      // the metrics are only informational, so start over rather than failing every command
+      logger.warn("Request metrics file is corrupted, discarding it: {}", getMetricsFile(), jsonEx);
+    }
+    return accumulatedMetrics;
+  }
+
+  /** Get the file that holds the metrics accumulated across commands. */
+  public static Path getMetricsFile() {
+    return Context.getContextDir().resolve(METRICS_FILENAME);
+  }
+
+  private static Path getLockFile() {
+    return Context.getContextDir().resolve(METRICS_LOCK_FILENAME);
+  }
+}
@@ -108,8 +108,7 @@ public class Server {
       // read in the list of servers file
       InputStream inputStream =
           FileUtils.getResourceFileHandle(RESOURCE_DIRECTORY + "/" + ALL_SERVERS_FILENAME);
-      List<String> allServerFileNames =
-          JacksonMapper.getMapper().readValue(inputStream, List.class);
+      List<String> allServerFileNames = JacksonMapper.getReader(List.class).readValue(inputStream);
 
       // loop through the file names, reading in from JSON
       List<Server> servers = new ArrayList<>();
@@ -138,7 +137,7 @@ public class Server {
         // first check for a servers/[filename] resource on the classpath
         InputStream inputStream =
             FileUtils.getResourceFileHandle(RESOURCE_DIRECTORY + "/" + fileName);
-        server = JacksonMapper.getMapper().readValue(inputStream, PDServer.class);
+        server = JacksonMapper.getReader(PDServer.class).readValue(inputStream);
 
       } catch (FileNotFoundException fnfEx) {
         // second treat the [filename] as an absolute path
@@ -8,6 +8,7 @@ import bio.terra.cli.serialization.persisted.PDUser;
 import bio.terra.cli.service.SamService;
 import bio.terra.cli.service.utils.TerraCredentials;
 import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.jfr.CredentialRefreshEvent;
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.IdToken;
@@ -138,16 +139,26 @@ public class User {
    * are expired or do not exist on disk.
    */
   public void loadExistingCredentials() {
-    // load existing user credentials from disk
-    if (logInMode == LogInMode.APP_DEFAULT_CREDENTIALS) {
-      loadAppDefaultCredentials();
-      return;
-    }
+    CredentialRefreshEvent credentialRefreshEvent = new CredentialRefreshEvent();
+    credentialRefreshEvent.begin();
     try {
-      terraCredentials =
-          Oauth.getExistingUserCredential(USER_SCOPES, Context.getContextDir().toFile());
-    } catch (IOException | GeneralSecurityException ex) {
-      throw new SystemException("Error fetching user credentials.", ex);
+      // load existing user credentials from disk
+      if (logInMode == LogInMode.APP_DEFAULT_CREDENTIALS) {
+        loadAppDefaultCredentials();
+        return;
+      }
+      try {
+        terraCredentials =
+            Oauth.getExistingUserCredential(USER_SCOPES, Context.getContextDir().toFile());
+      } catch (IOException | GeneralSecurityException ex) {
+        throw new SystemException("Error fetching user credentials.", ex);
+      }
+    } finally {
+      credentialRefreshEvent.end();
+      if (credentialRefreshEvent.shouldCommit()) {
+        credentialRefreshEvent.logInMode = String.valueOf(logInMode);
+        credentialRefreshEvent.commit();
+      }
     }
   }
 
@@ -169,6 +180,7 @@ public class User {
   public void logout() {
     deleteOauthCredentials();
     deletePetSaEmail();
+    CredentialsCache.clear();
     Oauth.revokeToken(getTerraCredentials());
 
     // unset the current user in the global context
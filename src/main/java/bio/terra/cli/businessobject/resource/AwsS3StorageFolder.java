@@ -27,7 +27,7 @@ import org.slf4j.LoggerFactory;
  */
 public class AwsS3StorageFolder extends Resource {
   // prefix for AWS S3 Storage Folder to make a valid URL.
-  private static final String S3_BUCKET_URL_PREFIX = "s3://";
+  public static final String S3_BUCKET_URL_PREFIX = "s3://";
   private static final Logger logger = LoggerFactory.getLogger(AwsS3StorageFolder.class);
   private final String bucketName;
   private final String prefix;
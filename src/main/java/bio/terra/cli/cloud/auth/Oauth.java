@@ -343,7 +343,7 @@ public final class Oauth {
       Date expiresIn = Date.from(Instant.now().plusSeconds(tokenResponse.getLong("expires_in")));
       return new AccessToken(tokenResponse.getString("access_token"), expiresIn);
     }
-    logger.debug("POST status: " + response.getStatusText());
+    logger.debug("POST status: {}", response.getStatusText());
     return credential.getGoogleCredentials().getAccessToken();
   }
 
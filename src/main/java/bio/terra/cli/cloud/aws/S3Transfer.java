@@ -0,0 +1,563 @@
+package bio.terra.cli.cloud.aws;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.resource.AwsS3StorageFolder;
+import bio.terra.cli.cloud.storage.ByteRange;
+import bio.terra.cli.cloud.storage.Checksums;
+import bio.terra.cli.cloud.storage.PartTransfers;
+import bio.terra.cli.cloud.storage.TransferJournal;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.service.WorkspaceManagerServiceAws;
+import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.workspace.model.AwsCredentialAccessScope;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * Copies files to, from and within AWS S3 storage folders. Large files are split into parts that
+ * are transferred concurrently: downloads read ranges or parts of the object into the local file,
+ * and uploads and large copies are S3 multipart uploads.
+ *
+ * <p>Every transfer is verified with a CRC32C checksum. An interrupted download resumes from a
+ * {@link TransferJournal}. An interrupted upload resumes the incomplete multipart upload that S3
+ * keeps, and skips the parts that S3 already has with the same checksum as the file.
+ */
+public class S3Transfer {
+  private static final Logger logger = LoggerFactory.getLogger(S3Transfer.class);
+  // files at least this large are uploaded in parts
+  public static final long MULTIPART_THRESHOLD_BYTES = 64L * 1024 * 1024;
+  // minimum size of each part of a file that is split
+  private static final long MIN_PART_SIZE_BYTES = 16L * 1024 * 1024;
+  // maximum number of parts in a multipart upload
+  private static final int MAX_PARTS = 10000;
+  // largest object that can be copied in a single request
+  private static final long MAX_COPY_OBJECT_BYTES = 5L * 1024 * 1024 * 1024;
+  // maximum number of times to retry a part that fails part-way through
+  private static final int S3_MAXIMUM_RETRIES = 5;
+  // ETag of an object that was uploaded in parts, which ends in "-<number of parts>"
+  private static final Pattern MULTIPART_ETAG = Pattern.compile("^\"?[0-9a-fA-F]+-(\\d+)\"?$");
+  // Content-Range of a response: "bytes <first byte>-<last byte>/<object size>"
+  private static final Pattern CONTENT_RANGE = Pattern.compile("^bytes (\\d+)-(\\d+)/\\d+$");
+
+  private final S3Client s3Client;
+  private final ExecutorService partExecutor;
+
+  /**
+   * Constructor for a class that transfers files with S3. Any S3-compatible endpoint works.
+   *
+   * @param s3Client client with access to the buckets
+   * @param partExecutor executor to transfer the parts of large files on, see {@link
+   *     PartTransfers#runParts}
+   */
+  public S3Transfer(S3Client s3Client, ExecutorService partExecutor) {
+    this.s3Client = s3Client;
+    this.partExecutor = partExecutor;
+  }
+
+  /**
+   * Factory method for a class that transfers files to or from a storage folder in the current
+   * workspace. Credentials are fetched from WSM once, and again shortly before they expire.
+   *
+   * @param storageFolder storage folder resource
+   * @param accessScope READ_ONLY if the storage folder is only copied from, WRITE_READ otherwise
+   * @param partExecutor see {@link #S3Transfer(S3Client, ExecutorService)}
+   */
+  public static S3Transfer fromContext(
+      AwsS3StorageFolder storageFolder,
+      AwsCredentialAccessScope accessScope,
+      ExecutorService partExecutor) {
+    return new S3Transfer(
+        WorkspaceManagerServiceAws.fromContext()
+            .getS3ClientWithRefreshingCredentials(
+                Context.requireWorkspace().getUuid(), storageFolder, accessScope),
+        partExecutor);
+  }
+
+  /**
+   * Download an object to a local file, replacing the file if it exists.
+   *
+   * <p>The object is downloaded to a temporary file next to the destination, which is renamed once
+   * the checksums have been verified. An object that was uploaded in parts is downloaded part by
+   * part, and each part is verified against its own checksum. Every request is conditional on the
+   * object's ETag, so the download fails instead of mixing versions if the object is overwritten
+   * while it's in progress.
+   *
+   * @return the number of bytes downloaded
+   * @throws UserActionableException if the object does not exist
+   * @throws SystemException if a checksum of the downloaded file doesn't match the object
+   */
+  public long download(String bucket, String key, Path destination) {
+    HeadObjectResponse head = headObject(bucket, key);
+    long size = head.contentLength();
+    int numObjectParts = getNumParts(head.eTag());
+    Path partFile = PartTransfers.getPartFile(destination);
+    TransferJournal journal =
+        PartTransfers.openDownloadJournal(destination, head.eTag() + ":" + size);
+
+    // download the parts of a multipart object as they were uploaded, so that each one can be
+    // verified. otherwise, split the object into ranges
+    List<ByteRange> ranges = ByteRange.split(size, getPartSize(size));
+    int numParts = size == 0 ? 0 : numObjectParts > 1 ? numObjectParts : ranges.size();
+    logger.debug("Downloading {} in {} parts", toUrl(bucket, key), numParts);
+    try {
+      try (FileChannel channel =
+          FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        PartTransfers.runParts(
+            partExecutor,
+            numParts,
+            index -> {
+              if (journal.isComplete(index)) {
+                return;
+              }
+              GetObjectRequest.Builder request =
+                  GetObjectRequest.builder()
+                      .bucket(bucket)
+                      .key(key)
+                      .ifMatch(head.eTag())
+                      .checksumMode(ChecksumMode.ENABLED);
+              if (numObjectParts > 1) {
+                request.partNumber(index + 1);
+              } else {
+                ByteRange range = ranges.get(index);
+                request.range("bytes=" + range.offset() + "-" + (range.end() - 1));
+              }
+              callWithRetries(
+                  () -> {
+                    downloadPart(request.build(), channel);
+                    return null;
+                  },
+                  "Error downloading " + toUrl(bucket, key));
+              channel.force(false);
+              journal.markComplete(index);
+            });
+        // a previous attempt for a different version may have left a larger file
+        channel.truncate(size);
+      }
+
+      // the parts of a multipart object have already been verified
+      String objectChecksum = head.checksumCRC32C();
+      if (numObjectParts <= 1 && objectChecksum != null) {
+        String localChecksum = Checksums.toBase64(Checksums.crc32c(partFile));
+        if (!objectChecksum.equals(localChecksum)) {
+          Files.deleteIfExists(partFile);
+          journal.delete();
+          throw new SystemException(
+              String.format(
+                  "Checksum of the download (%s) doesn't match %s (%s). Run the command again.",
+                  localChecksum, toUrl(bucket, key), objectChecksum));
+        }
+      } else if (objectChecksum == null) {
+        logger.debug("{} has no CRC32C checksum to verify", toUrl(bucket, key));
+      }
+      Files.move(partFile, destination, StandardCopyOption.REPLACE_EXISTING);
+      journal.delete();
+      return size;
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing " + partFile, ioEx);
+    }
+  }
+
+  /**
+   * Download a range or part of an object into the same range of a local file, and verify it
+   * against the checksum of the part if S3 returned one.
+   */
+  private void downloadPart(GetObjectRequest request, FileChannel channel) throws IOException {
+    try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(request);
+        ReadableByteChannel reader = Channels.newChannel(response)) {
+      Matcher contentRange =
+          CONTENT_RANGE.matcher(String.valueOf(response.response().contentRange()));
+      if (!contentRange.matches()) {
+        throw new IOException("Unexpected content range: " + response.response().contentRange());
+      }
+      long offset = Long.parseLong(contentRange.group(1));
+      long end = Long.parseLong(contentRange.group(2)) + 1;
+      CRC32C crc32c = new CRC32C();
+      PartTransfers.readRange(reader, channel, new ByteRange(0, offset, end - offset), crc32c);
+
+      // the checksum of a range is not returned, and that of a whole multipart object is a
+      // checksum of checksums ("<checksum>-<number of parts>")
+      String partChecksum = response.response().checksumCRC32C();
+      String localChecksum = Checksums.toBase64((int) crc32c.getValue());
+      if (partChecksum != null
+          && !partChecksum.contains("-")
+          && !partChecksum.equals(localChecksum)) {
+        throw new IOException(
+            String.format(
+                "Checksum of the downloaded part (%s) doesn't match the object (%s)",
+                localChecksum, partChecksum));
+      }
+    }
+  }
+
+  /**
+   * Upload a local file to an object, replacing the object if it exists.
+   *
+   * <p>Files smaller than {@link #MULTIPART_THRESHOLD_BYTES} are uploaded in a single request.
+   * Larger files are uploaded as a multipart upload, resuming the latest incomplete one for the
+   * same object if there is one. S3 rejects any request whose checksum doesn't match the data.
+   *
+   * @return the number of bytes uploaded
+   * @throws SystemException if the checksum of the object doesn't match the file
+   */
+  public long upload(Path source, String bucket, String key) {
+    long size;
+    try {
+      size = Files.size(source);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading " + source, ioEx);
+    }
+
+    if (size < MULTIPART_THRESHOLD_BYTES) {
+      String checksum = Checksums.toBase64(Checksums.crc32c(source));
+      callWithRetries(
+          () ->
+              s3Client.putObject(
+                  builder ->
+                      builder
+                          .bucket(bucket)
+                          .key(key)
+                          .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)
+                          .checksumCRC32C(checksum),
+                  RequestBody.fromFile(source)),
+          "Error uploading to " + toUrl(bucket, key));
+      return size;
+    }
+
+    Optional<MultipartUpload> incompleteUpload = findIncompleteUpload(bucket, key);
+    String uploadId =
+        incompleteUpload.isPresent()
+            ? incompleteUpload.get().uploadId()
+            : callWithRetries(
+                    () ->
+                        s3Client.createMultipartUpload(
+                            builder ->
+                                builder
+                                    .bucket(bucket)
+                                    .key(key)
+                                    .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)),
+                    "Error starting the upload to " + toUrl(bucket, key))
+                .uploadId();
+    Map<Integer, Part> uploadedParts =
+        incompleteUpload.isPresent() ? listParts(bucket, key, uploadId) : Map.of();
+
+    List<ByteRange> parts = ByteRange.split(size, getPartSize(size));
+    logger.debug(
+        "Uploading {} in {} parts with upload id {} ({} parts already uploaded)",
+        source,
+        parts.size(),
+        uploadId,
+        uploadedParts.size());
+    int[] partChecksums = new int[parts.size()];
+    CompletedPart[] completedParts = new CompletedPart[parts.size()];
+    PartTransfers.runParts(
+        partExecutor,
+        parts.size(),
+        index -> {
+          ByteRange part = parts.get(index);
+          partChecksums[index] = Checksums.crc32c(source, part.offset(), part.length());
+          String checksum = Checksums.toBase64(partChecksums[index]);
+          Part uploadedPart = uploadedParts.get(index + 1);
+          if (uploadedPart != null
+              && uploadedPart.size() == part.length()
+              && checksum.equals(uploadedPart.checksumCRC32C())) {
+            completedParts[index] = toCompletedPart(index, uploadedPart.eTag(), checksum);
+            return;
+          }
+          completedParts[index] = uploadPart(source, bucket, key, uploadId, part, checksum);
+        });
+
+    CompleteMultipartUploadResponse completed =
+        callWithRetries(
+            () ->
+                s3Client.completeMultipartUpload(
+                    builder ->
+                        builder
+                            .bucket(bucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .multipartUpload(
+                                CompletedMultipartUpload.builder().parts(completedParts).build())),
+            "Error completing the upload to " + toUrl(bucket, key));
+    String checksum = Checksums.toBase64Composite(Arrays.stream(partChecksums).boxed().toList());
+    if (completed.checksumCRC32C() != null && !checksum.equals(completed.checksumCRC32C())) {
+      throw new SystemException(
+          String.format(
+              "Checksum of %s (%s) doesn't match the uploaded file (%s). Run the command again.",
+              toUrl(bucket, key), completed.checksumCRC32C(), checksum));
+    }
+    return size;
+  }
+
+  /** Upload a range of a local file as a part of a multipart upload, verified by its checksum. */
+  private CompletedPart uploadPart(
+      Path source, String bucket, String key, String uploadId, ByteRange part, String checksum) {
+    // the SDK opens a new stream for each attempt, so the part can be retried
+    RequestBody body =
+        RequestBody.fromContentProvider(
+            () -> openRange(source, part), part.length(), "application/octet-stream");
+    UploadPartResponse response =
+        callWithRetries(
+            () ->
+                s3Client.uploadPart(
+                    builder ->
+                        builder
+                            .bucket(bucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .partNumber(part.index() + 1)
+                            .contentLength(part.length())
+                            .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)
+                            .checksumCRC32C(checksum),
+                    body),
+            "Error uploading part " + part.index() + " of " + source);
+    return toCompletedPart(part.index(), response.eTag(), checksum);
+  }
+
+  /**
+   * Copy an object within S3, without downloading it. Objects larger than the limit for a single
+   * copy request are copied in parts concurrently. S3 computes the checksum of the copy.
+   *
+   * @return the number of bytes copied
+   */
+  public long copy(
+      String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) {
+    HeadObjectResponse head = headObject(sourceBucket, sourceKey);
+    long size = head.contentLength();
+    String errorMsg =
+        "Error copying "
+            + toUrl(sourceBucket, sourceKey)
+            + " to "
+            + toUrl(destinationBucket, destinationKey);
+    if (size <= MAX_COPY_OBJECT_BYTES) {
+      callWithRetries(
+          () ->
+              s3Client.copyObject(
+                  builder ->
+                      builder
+                          .sourceBucket(sourceBucket)
+                          .sourceKey(sourceKey)
+                          .destinationBucket(destinationBucket)
+                          .destinationKey(destinationKey)
+                          .copySourceIfMatch(head.eTag())
+                          .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)),
+          errorMsg);
+      return size;
+    }
+
+    String uploadId =
+        callWithRetries(
+                () ->
+                    s3Client.createMultipartUpload(
+                        builder ->
+                            builder
+                                .bucket(destinationBucket)
+                                .key(destinationKey)
+                                .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)),
+                errorMsg)
+            .uploadId();
+    List<ByteRange> parts = ByteRange.split(size, getPartSize(size));
+    CompletedPart[] completedParts = new CompletedPart[parts.size()];
+    PartTransfers.runParts(
+        partExecutor,
+        parts.size(),
+        index -> {
+          ByteRange part = parts.get(index);
+          UploadPartCopyResponse response =
+              callWithRetries(
+                  () ->
+                      s3Client.uploadPartCopy(
+                          builder ->
+                              builder
+                                  .sourceBucket(sourceBucket)
+                                  .sourceKey(sourceKey)
+                                  .destinationBucket(destinationBucket)
+                                  .destinationKey(destinationKey)
+                                  .uploadId(uploadId)
+                                  .partNumber(index + 1)
+                                  .copySourceIfMatch(head.eTag())
+                                  .copySourceRange(
+                                      "bytes=" + part.offset() + "-" + (part.end() - 1))),
+                  errorMsg);
+          completedParts[index] =
+              toCompletedPart(
+                  index,
+                  response.copyPartResult().eTag(),
+                  response.copyPartResult().checksumCRC32C());
+        });
+    callWithRetries(
+        () ->
+            s3Client.completeMultipartUpload(
+                builder ->
+                    builder
+                        .bucket(destinationBucket)
+                        .key(destinationKey)
+                        .uploadId(uploadId)
+                        .multipartUpload(
+                            CompletedMultipartUpload.builder().parts(completedParts).build())),
+        errorMsg);
+    return size;
+  }
+
+  /**
+   * Look up an object's size, ETag and checksum.
+   *
+   * @throws UserActionableException if the object does not exist
+   */
+  private HeadObjectResponse headObject(String bucket, String key) {
+    try {
+      return callWithRetries(
+          () ->
+              s3Client.headObject(
+                  builder -> builder.bucket(bucket).key(key).checksumMode(ChecksumMode.ENABLED)),
+          "Error looking up " + toUrl(bucket, key));
+    } catch (SystemException sysEx) {
+      if (sysEx.getCause() instanceof NoSuchKeyException) {
+        throw new UserActionableException("Object not found: " + toUrl(bucket, key), sysEx);
+      }
+      throw sysEx;
+    }
+  }
+
+  /**
+   * Find the latest incomplete multipart upload to an object, that was started with CRC32C
+   * checksums. Returns empty if there is none, or if the credentials can't list uploads.
+   */
+  private Optional<MultipartUpload> findIncompleteUpload(String bucket, String key) {
+    try {
+      return s3Client
+          .listMultipartUploadsPaginator(builder -> builder.bucket(bucket).prefix(key))
+          .uploads()
+          .stream()
+          .filter(upload -> upload.key().equals(key))
+          .filter(upload -> upload.checksumAlgorithm() == ChecksumAlgorithm.CRC32_C)
+          .max(Comparator.comparing(MultipartUpload::initiated));
+    } catch (S3Exception s3Ex) {
+      if (s3Ex.statusCode() != HttpStatus.SC_FORBIDDEN) {
+        throw new SystemException("Error listing the incomplete uploads to " + key, s3Ex);
+      }
+      logger.debug("Not allowed to list incomplete uploads, starting a new one", s3Ex);
+      return Optional.empty();
+    }
+  }
+
+  /** Get the parts of an incomplete multipart upload that S3 already has, by part number. */
+  private Map<Integer, Part> listParts(String bucket, String key, String uploadId) {
+    try {
+      return s3Client
+          .listPartsPaginator(builder -> builder.bucket(bucket).key(key).uploadId(uploadId))
+          .parts()
+          .stream()
+          .collect(Collectors.toMap(Part::partNumber, part -> part));
+    } catch (S3Exception s3Ex) {
+      if (s3Ex.statusCode() != HttpStatus.SC_FORBIDDEN) {
+        throw new SystemException("Error listing the uploaded parts of " + key, s3Ex);
+      }
+      logger.debug("Not allowed to list uploaded parts, uploading them all", s3Ex);
+      return Map.of();
+    }
+  }
+
+  /** Open a stream that reads a range of a local file. */
+  private static InputStream openRange(Path source, ByteRange part) {
+    try {
+      FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+      return ByteStreams.limit(
+          Channels.newInputStream(channel.position(part.offset())), part.length());
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException("Error reading " + source, ioEx);
+    }
+  }
+
+  private static CompletedPart toCompletedPart(int index, String eTag, String checksum) {
+    return CompletedPart.builder()
+        .partNumber(index + 1)
+        .eTag(eTag)
+        .checksumCRC32C(checksum)
+        .build();
+  }
+
+  /** Number of parts an object was uploaded in, from its ETag, or 1 if it wasn't split. */
+  private static int getNumParts(String eTag) {
+    Matcher matcher = MULTIPART_ETAG.matcher(eTag);
+    return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 1;
+  }
+
+  /**
+   * Size of each part of a file. Small files have a single part, and large files have no more than
+   * {@link #MAX_PARTS} parts.
+   */
+  private static long getPartSize(long size) {
+    if (size < MULTIPART_THRESHOLD_BYTES) {
+      return Math.max(size, 1);
+    }
+    return Math.max(MIN_PART_SIZE_BYTES, (size + MAX_PARTS - 1) / MAX_PARTS);
+  }
+
+  /**
+   * Call S3 with retries for I/O errors in the middle of a transfer, on top of the retries that
+   * the client makes for each request. Access errors are reported the same way as for other storage
+   * folder requests, by {@link WorkspaceManagerServiceAws#checkS3StorageFolderException}.
+   */
+  private static <T> T callWithRetries(
+      HttpUtils.SupplierWithCheckedException<T, IOException> makeRequest, String errorMsg) {
+    try {
+      return PartTransfers.callWithRetries(
+          makeRequest,
+          SdkException.class,
+          ex -> ex instanceof SdkClientException,
+          S3_MAXIMUM_RETRIES,
+          errorMsg);
+    } catch (SystemException sysEx) {
+      if (sysEx.getCause() instanceof Exception ex && !(ex instanceof NoSuchKeyException)) {
+        WorkspaceManagerServiceAws.checkS3StorageFolderException(ex);
+      }
+      throw sysEx;
+    }
+  }
+
+  private static String toUrl(String bucket, String key) {
+    return AwsS3StorageFolder.S3_BUCKET_URL_PREFIX + bucket + "/" + key;
+  }
+}
@@ -0,0 +1,327 @@
+package bio.terra.cli.cloud.compute;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook;
+import bio.terra.cli.businessobject.resource.GcpDataprocCluster;
+import bio.terra.cli.businessobject.resource.GcpNotebook;
+import bio.terra.cli.cloud.compute.InstanceClient.PendingOperation;
+import bio.terra.cli.exception.SystemException;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The notebooks and Dataproc clusters in a workspace, for working with many of them at once. Their
+ * live states are fetched concurrently, each from its own cloud API, through an {@link
+ * InstanceClient} per type of instance. The clients are kept for the life of this object, so
+ * fetching the states again (e.g. `--watch`) only calls the cloud APIs, without listing the
+ * resources or getting credentials again.
+ *
+ * <p>Starting or stopping instances requests every operation first, and then polls all the
+ * unfinished ones together every {@link #POLL_INTERVAL}, so the whole fleet takes about as long as
+ * its slowest instance.
+ */
+public class ComputeFleet implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(ComputeFleet.class);
+
+  /** Types of the resources that are compute instances. */
+  public static final Set<Resource.Type> COMPUTE_TYPES =
+      EnumSet.of(
+          Resource.Type.AI_NOTEBOOK,
+          Resource.Type.DATAPROC_CLUSTER,
+          Resource.Type.AWS_SAGEMAKER_NOTEBOOK);
+
+  // how often to check on operations that haven't finished, and how long to wait for them
+  public static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+  public static final Duration OPERATION_TIMEOUT = Duration.ofMinutes(30);
+
+  /** Operations that can be run on instances. */
+  public enum Action {
+    START(Outcome.STARTING, Outcome.STARTED),
+    STOP(Outcome.STOPPING, Outcome.STOPPED);
+
+    // outcome once the operation has been requested, and once it has finished
+    private final Outcome requestedOutcome;
+    private final Outcome finishedOutcome;
+
+    Action(Outcome requestedOutcome, Outcome finishedOutcome) {
+      this.requestedOutcome = requestedOutcome;
+      this.finishedOutcome = finishedOutcome;
+    }
+  }
+
+  /** Outcome of an operation on an instance. */
+  public enum Outcome {
+    STARTED,
+    STOPPED,
+    // requested, and not waited for
+    STARTING,
+    STOPPING,
+    // the instance was already started or stopped
+    UNCHANGED,
+    FAILED
+  }
+
+  /**
+   * Result of an operation on an instance.
+   *
+   * @param resource the instance's resource
+   * @param outcome what happened to the instance
+   * @param detail more about the outcome, e.g. the error, or null if there's nothing more to say
+   */
+  public record OperationResult(Resource resource, Outcome outcome, @Nullable String detail) {}
+
+  /**
+   * An operation that has been requested, and may not have finished.
+   *
+   * @param result result so far
+   * @param pending checks whether the operation has finished, or null if it already has
+   */
+  private record Progress(OperationResult result, @Nullable PendingOperation pending) {}
+
+  /**
+   * Live state of an instance.
+   *
+   * @param resource the instance's resource
+   * @param state state reported by the cloud, or null if it couldn't be fetched
+   * @param running true if the instance is running
+   */
+  public record InstanceState(Resource resource, @Nullable String state, boolean running) {}
+
+  private final List<Resource> instances;
+  private final Map<Resource.Type, InstanceClient> clients;
+  private final Duration pollInterval;
+  private final Clock clock;
+  private final ExecutorService executor;
+
+  /**
+   * Constructor for a fleet of instances. The caller should close it when done, which closes the
+   * clients.
+   *
+   * @param instances the instances, in the order to return their states and results in
+   * @param parallelism maximum number of instances to call the cloud for at the same time
+   * @param clients client for each type of instance
+   * @param pollInterval how often to check on operations that haven't finished
+   * @param clock clock that {@link #OPERATION_TIMEOUT} is measured with
+   */
+  @VisibleForTesting
+  public ComputeFleet(
+      List<Resource> instances,
+      int parallelism,
+      Map<Resource.Type, InstanceClient> clients,
+      Duration pollInterval,
+      Clock clock) {
+    this.instances = instances;
+    this.clients = clients;
+    this.pollInterval = pollInterval;
+    this.clock = clock;
+    this.executor =
+        Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, instances.size())));
+  }
+
+  /**
+   * Factory method for the compute instances in the current workspace, sorted by name. The caller
+   * should close it when done.
+   *
+   * @param parallelism maximum number of instances to call the cloud for at the same time
+   */
+  public static ComputeFleet fromContext(int parallelism) {
+    return fromContext(COMPUTE_TYPES, resource -> true, parallelism);
+  }
+
+  /**
+   * Factory method for some of the compute instances in the current workspace, sorted by name. The
+   * caller should close it when done.
+   *
+   * @param types types of the instances to include
+   * @param selector whether to include an instance of one of those types
+   * @param parallelism maximum number of instances to call the cloud for at the same time
+   */
+  public static ComputeFleet fromContext(
+      Set<Resource.Type> types, Predicate<Resource> selector, int parallelism) {
+    List<Resource> instances =
+        Context.requireWorkspace().listResources().stream()
+            .filter(resource -> types.contains(resource.getResourceType()))
+            .filter(selector)
+            .sorted(Comparator.comparing(Resource::getName))
+            .toList();
+    UUID workspaceId = Context.requireWorkspace().getUuid();
+    return new ComputeFleet(
+        instances,
+        parallelism,
+        Map.of(
+            Resource.Type.AI_NOTEBOOK,
+            new GcpNotebookClient(),
+            Resource.Type.DATAPROC_CLUSTER,
+            new DataprocClusterClient(workspaceId),
+            Resource.Type.AWS_SAGEMAKER_NOTEBOOK,
+            new SageMakerNotebookClient(workspaceId)),
+        POLL_INTERVAL,
+        Clock.systemUTC());
+  }
+
+  public List<Resource> getInstances() {
+    return instances;
+  }
+
+  /** Get the cloud id of an instance: the notebook instance id, or the cluster name. */
+  public static String getInstanceId(Resource instance) {
+    return switch (instance.getResourceType()) {
+      case AI_NOTEBOOK -> ((GcpNotebook) instance).getInstanceId();
+      case DATAPROC_CLUSTER -> ((GcpDataprocCluster) instance).getClusterName().name();
+      case AWS_SAGEMAKER_NOTEBOOK -> ((AwsSageMakerNotebook) instance).getInstanceName();
+      default -> throw new IllegalArgumentException(
+          "Not a compute instance: " + instance.getResourceType());
+    };
+  }
+
+  /**
+   * Fetch the live state of every instance concurrently. An instance whose state can't be fetched
+   * is logged, and returned with a null state.
+   *
+   * @return the states, in the same order as {@link #getInstances}
+   */
+  public List<InstanceState> fetchStates() {
+    return runForEach(
+        instances,
+        instance -> {
+          try {
+            String state = getClient(instance).fetchState(instance);
+            return new InstanceState(instance, state, getClient(instance).isRunning(state));
+          } catch (Exception ex) {
+            logger.error("Error fetching the state of {}", instance.getName(), ex);
+            return new InstanceState(instance, null, false);
+          }
+        });
+  }
+
+  /**
+   * Start or stop every instance. Instances that are already started or stopped are skipped, and
+   * the operations on the others are requested concurrently. Instances whose state can't be fetched
+   * are skipped and reported as failed. If {@code wait} is set, the unfinished operations are then
+   * polled together until they finish, or {@link #OPERATION_TIMEOUT} passes. An operation that
+   * fails doesn't stop the others.
+   *
+   * @param action operation to run
+   * @param wait true to wait for the operations to finish
+   * @return the results, in the same order as {@link #getInstances}
+   */
+  public List<OperationResult> run(Action action, boolean wait) {
+    List<Progress> progress = runForEach(fetchStates(), state -> request(action, state));
+    Instant deadline = clock.instant().plus(OPERATION_TIMEOUT);
+    while (wait && progress.stream().anyMatch(step -> step.pending() != null)) {
+      try {
+        Thread.sleep(pollInterval.toMillis());
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        throw new SystemException("Interrupted while waiting for instances", intEx);
+      }
+      boolean timedOut = clock.instant().isAfter(deadline);
+      progress =
+          runForEach(
+              progress, step -> step.pending() == null ? step : poll(action, step, timedOut));
+    }
+    return progress.stream().map(Progress::result).toList();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    clients.values().forEach(InstanceClient::close);
+  }
+
+  /** Run a function for every item concurrently, and return its results in order. */
+  private <T, R> List<R> runForEach(List<T> items, Function<T, R> function) {
+    List<Future<R>> futures = new ArrayList<>();
+    for (T item : items) {
+      futures.add(executor.submit(() -> function.apply(item)));
+    }
+    List<R> results = new ArrayList<>();
+    try {
+      for (Future<R> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while calling the cloud for instances", intEx);
+    } catch (ExecutionException execEx) {
+      throw new SystemException("Error calling the cloud for instances", execEx.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return results;
+  }
+
+  /** Request an operation on an instance, unless it's already in the state it would reach. */
+  private Progress request(Action action, InstanceState state) {
+    Resource instance = state.resource();
+    if (state.state() == null) {
+      // the instance may be in any state, so don't send it an operation it may not expect
+      return new Progress(
+          new OperationResult(instance, Outcome.FAILED, "state unavailable, not requested"),
+          null);
+    }
+    boolean unchanged =
+        action == Action.START ? state.running() : getClient(instance).isStopped(state.state());
+    if (unchanged) {
+      return new Progress(
+          new OperationResult(instance, Outcome.UNCHANGED, "already " + state.state()), null);
+    }
+    try {
+      PendingOperation pending = getClient(instance).request(action, instance);
+      return new Progress(new OperationResult(instance, action.requestedOutcome, null), pending);
+    } catch (Exception ex) {
+      logger.error("Error requesting {} of {}", action, instance.getName(), ex);
+      return new Progress(new OperationResult(instance, Outcome.FAILED, ex.getMessage()), null);
+    }
+  }
+
+  /** Check whether a requested operation has finished. */
+  private Progress poll(Action action, Progress step, boolean timedOut) {
+    Resource instance = step.result().resource();
+    try {
+      if (step.pending().isDone()) {
+        return new Progress(new OperationResult(instance, action.finishedOutcome, null), null);
+      }
+    } catch (Exception ex) {
+      logger.error("Error during {} of {}", action, instance.getName(), ex);
+      return new Progress(new OperationResult(instance, Outcome.FAILED, ex.getMessage()), null);
+    }
+    if (timedOut) {
+      return new Progress(
+          new OperationResult(
+              instance,
+              Outcome.FAILED,
+              "Not finished after " + OPERATION_TIMEOUT.toMinutes() + " minutes"),
+          null);
+    }
+    return step;
+  }
+
+  /** Get the client for an instance's type. */
+  private InstanceClient getClient(Resource instance) {
+    InstanceClient client = clients.get(instance.getResourceType());
+    if (client == null) {
+      throw new IllegalArgumentException("Not a compute instance: " + instance.getResourceType());
+    }
+    return client;
+  }
+}
@@ -0,0 +1,52 @@
+package bio.terra.cli.cloud.compute;
+
+import bio.terra.axonserver.model.ClusterStatus;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.service.AxonServerService;
+import com.google.common.base.Suppliers;
+import java.util.UUID;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/** Calls Axon Server for Dataproc clusters. */
+class DataprocClusterClient implements InstanceClient {
+  private static final String RUNNING_STATE = "RUNNING";
+  private static final String STOPPED_STATE = "STOPPED";
+  // state in which a cluster won't reach the state it was sent to
+  private static final String FAILED_STATE = "ERROR";
+
+  private final UUID workspaceId;
+  private final Supplier<AxonServerService> axonServer =
+      Suppliers.memoize(AxonServerService::fromContext);
+
+  DataprocClusterClient(UUID workspaceId) {
+    this.workspaceId = workspaceId;
+  }
+
+  @Override
+  @Nullable
+  public String fetchState(Resource instance) {
+    ClusterStatus status = axonServer.get().getClusterStatus(workspaceId, instance.getId());
+    return status.getStatus() == null ? null : status.getStatus().toString();
+  }
+
+  @Override
+  public boolean isRunning(@Nullable String state) {
+    return RUNNING_STATE.equals(state);
+  }
+
+  @Override
+  public boolean isStopped(@Nullable String state) {
+    return STOPPED_STATE.equals(state);
+  }
+
+  @Override
+  public PendingOperation request(ComputeFleet.Action action, Resource instance) {
+    if (action == ComputeFleet.Action.START) {
+      axonServer.get().startCluster(workspaceId, instance.getId());
+      return untilState(instance, RUNNING_STATE, FAILED_STATE);
+    }
+    axonServer.get().stopCluster(workspaceId, instance.getId());
+    return untilState(instance, STOPPED_STATE, FAILED_STATE);
+  }
+}
@@ -0,0 +1,63 @@
+package bio.terra.cli.cloud.compute;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.GcpNotebook;
+import bio.terra.cli.cloud.gcp.GoogleNotebooks;
+import bio.terra.cloudres.google.api.services.common.OperationCow;
+import bio.terra.cloudres.google.notebooks.InstanceName;
+import com.google.api.services.notebooks.v1.model.Operation;
+import com.google.common.base.Suppliers;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Calls the Notebooks API for GCP notebooks, with the pet SA credentials. The API client is created
+ * the first time it's needed, so a workspace without GCP notebooks doesn't need the credentials.
+ */
+class GcpNotebookClient implements InstanceClient {
+  private static final String RUNNING_STATE = "ACTIVE";
+  private static final String STOPPED_STATE = "STOPPED";
+
+  private final Supplier<GoogleNotebooks> notebooks =
+      Suppliers.memoize(() -> new GoogleNotebooks(Context.requireUser().getPetSACredentials()));
+
+  @Override
+  @Nullable
+  public String fetchState(Resource instance) {
+    return notebooks.get().get(getInstanceName((GcpNotebook) instance)).getState();
+  }
+
+  @Override
+  public boolean isRunning(@Nullable String state) {
+    return RUNNING_STATE.equals(state);
+  }
+
+  @Override
+  public boolean isStopped(@Nullable String state) {
+    return STOPPED_STATE.equals(state);
+  }
+
+  @Override
+  public PendingOperation request(ComputeFleet.Action action, Resource instance) {
+    InstanceName instanceName = getInstanceName((GcpNotebook) instance);
+    AtomicReference<OperationCow<Operation>> operation =
+        new AtomicReference<>(
+            action == ComputeFleet.Action.START
+                ? notebooks.get().requestStart(instanceName)
+                : notebooks.get().requestStop(instanceName));
+    return () -> {
+      operation.set(notebooks.get().pollOperation(operation.get()));
+      return operation.get().isDone();
+    };
+  }
+
+  private static InstanceName getInstanceName(GcpNotebook gcpNotebook) {
+    return InstanceName.builder()
+        .projectId(gcpNotebook.getProjectId())
+        .location(gcpNotebook.getLocation())
+        .instanceId(gcpNotebook.getInstanceId())
+        .build();
+  }
+}
@@ -0,0 +1,62 @@
+package bio.terra.cli.cloud.compute;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.exception.SystemException;
+import javax.annotation.Nullable;
+
+/**
+ * Calls the cloud API of one type of compute instance, for {@link ComputeFleet}. It's called for
+ * several instances of that type at the same time, so implementations must be thread-safe.
+ */
+public interface InstanceClient extends AutoCloseable {
+  /**
+   * Fetch the live state of an instance.
+   *
+   * @return the state reported by the cloud, or null if it didn't report one
+   */
+  @Nullable
+  String fetchState(Resource instance) throws Exception;
+
+  /** Return true if an instance in this state is running, and its machines are billed. */
+  boolean isRunning(@Nullable String state);
+
+  /** Return true if an instance in this state is stopped. */
+  boolean isStopped(@Nullable String state);
+
+  /**
+   * Request an operation on an instance, without waiting for it to finish.
+   *
+   * @return checks whether the operation has finished
+   */
+  PendingOperation request(ComputeFleet.Action action, Resource instance) throws Exception;
+
+  /** Release any clients that were created for the instances. */
+  @Override
+  default void close() {}
+
+  /**
+   * Check whether an operation has finished by polling the state of the instance.
+   *
+   * @param doneState state the instance is in once the operation has finished
+   * @param failedState state in which the instance won't reach {@code doneState}
+   */
+  default PendingOperation untilState(Resource instance, String doneState, String failedState) {
+    return () -> {
+      String state = fetchState(instance);
+      if (failedState.equals(state)) {
+        throw new SystemException(instance.getName() + " is in state " + state);
+      }
+      return doneState.equals(state);
+    };
+  }
+
+  /** Checks whether an operation has finished. */
+  @FunctionalInterface
+  interface PendingOperation {
+    /**
+     * @return true if the operation has finished
+     * @throws Exception if the operation failed
+     */
+    boolean isDone() throws Exception;
+  }
+}
@@ -0,0 +1,79 @@
+package bio.terra.cli.cloud.compute;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook;
+import bio.terra.cli.service.WorkspaceManagerServiceAws;
+import com.google.common.base.Suppliers;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import software.amazon.awssdk.services.sagemaker.SageMakerClient;
+import software.amazon.awssdk.services.sagemaker.model.NotebookInstanceStatus;
+
+/**
+ * Calls SageMaker for AWS notebooks. Credentials are per resource, so there's a SageMaker client
+ * per notebook. Each is kept until this is closed, with credentials that refresh themselves.
+ */
+class SageMakerNotebookClient implements InstanceClient {
+  private static final String RUNNING_STATE = NotebookInstanceStatus.IN_SERVICE.toString();
+  private static final String STOPPED_STATE = NotebookInstanceStatus.STOPPED.toString();
+  // state in which a notebook won't reach the state it was sent to
+  private static final String FAILED_STATE = NotebookInstanceStatus.FAILED.toString();
+
+  private final UUID workspaceId;
+  private final Supplier<WorkspaceManagerServiceAws> workspaceManagerAws =
+      Suppliers.memoize(WorkspaceManagerServiceAws::fromContext);
+  private final Map<UUID, SageMakerClient> sageMakerClients = new ConcurrentHashMap<>();
+
+  SageMakerNotebookClient(UUID workspaceId) {
+    this.workspaceId = workspaceId;
+  }
+
+  @Override
+  public String fetchState(Resource instance) {
+    AwsSageMakerNotebook awsNotebook = (AwsSageMakerNotebook) instance;
+    return workspaceManagerAws
+        .get()
+        .getSageMakerNotebookInstanceStatus(awsNotebook, getSageMakerClient(awsNotebook))
+        .toString();
+  }
+
+  @Override
+  public boolean isRunning(@Nullable String state) {
+    return RUNNING_STATE.equals(state);
+  }
+
+  @Override
+  public boolean isStopped(@Nullable String state) {
+    return STOPPED_STATE.equals(state);
+  }
+
+  @Override
+  public PendingOperation request(ComputeFleet.Action action, Resource instance) {
+    AwsSageMakerNotebook awsNotebook = (AwsSageMakerNotebook) instance;
+    SageMakerClient sageMakerClient = getSageMakerClient(awsNotebook);
+    if (action == ComputeFleet.Action.START) {
+      workspaceManagerAws.get().startSageMakerNotebook(awsNotebook, sageMakerClient);
+      return untilState(instance, RUNNING_STATE, FAILED_STATE);
+    }
+    workspaceManagerAws.get().requestStopSageMakerNotebook(awsNotebook, sageMakerClient);
+    return untilState(instance, STOPPED_STATE, FAILED_STATE);
+  }
+
+  @Override
+  public void close() {
+    sageMakerClients.values().forEach(SageMakerClient::close);
+  }
+
+  /** Get the SageMaker client for a notebook, creating it the first time. */
+  private SageMakerClient getSageMakerClient(AwsSageMakerNotebook awsNotebook) {
+    return sageMakerClients.computeIfAbsent(
+        awsNotebook.getId(),
+        id ->
+            workspaceManagerAws
+                .get()
+                .getSageMakerClientWithRefreshingCredentials(workspaceId, awsNotebook));
+  }
+}
@@ -0,0 +1,227 @@
+package bio.terra.cli.cloud.gcp;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.cloud.storage.PartTransfers;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.rpc.InvalidArgumentException;
+import com.google.api.gax.rpc.NotFoundException;
+import com.google.api.gax.rpc.PermissionDeniedException;
+import com.google.cloud.bigquery.storage.v1.BigQueryReadClient;
+import com.google.cloud.bigquery.storage.v1.BigQueryReadSettings;
+import com.google.cloud.bigquery.storage.v1.CreateReadSessionRequest;
+import com.google.cloud.bigquery.storage.v1.DataFormat;
+import com.google.cloud.bigquery.storage.v1.ReadRowsRequest;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import com.google.cloud.bigquery.storage.v1.ReadSession;
+import com.google.cloud.bigquery.storage.v1.ReadStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports BigQuery tables to local files with the Storage Read API. The table is split into up to
+ * {@code parallelism} streams by the server, which are read concurrently and written to the file
+ * as each block of rows arrives. Only one block per stream is held in memory at a time, however
+ * large the table is.
+ */
+public class BigQueryExport implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(BigQueryExport.class);
+  private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+  /** Formats that a table can be exported in. */
+  public enum FileFormat {
+    ARROW(DataFormat.ARROW, "arrow"),
+    CSV(DataFormat.AVRO, "csv");
+
+    // format the rows are read from the Storage Read API in
+    private final DataFormat dataFormat;
+    private final String extension;
+
+    FileFormat(DataFormat dataFormat, String extension) {
+      this.dataFormat = dataFormat;
+      this.extension = extension;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  private final BigQueryReadClient readClient;
+
+  private BigQueryExport(BigQueryReadClient readClient) {
+    this.readClient = readClient;
+  }
+
+  /**
+   * Factory method for a class that exports BQ tables. Uses the pet SA credentials, like {@link
+   * GoogleBigQuery#fromContextForPetSa}. The caller should close it when done.
+   */
+  public static BigQueryExport fromContextForPetSa() {
+    try {
+      BigQueryReadSettings settings =
+          BigQueryReadSettings.newBuilder()
+              .setCredentialsProvider(
+                  FixedCredentialsProvider.create(Context.requireUser().getPetSACredentials()))
+              .build();
+      return new BigQueryExport(BigQueryReadClient.create(settings));
+    } catch (IOException ioEx) {
+      throw new SystemException("Error creating the BigQuery Storage Read client.", ioEx);
+    }
+  }
+
+  /**
+   * Export a table to a local file, replacing the file if it exists. The rows are written to a
+   * temporary file next to the destination, which is renamed once every stream has been read.
+   *
+   * @param billingProjectId project to bill the read session to
+   * @param tablePath path of the table, in the form projects/{p}/datasets/{d}/tables/{t}
+   * @param columns columns to export, or empty for all of them
+   * @param rowRestriction SQL WHERE clause (without "WHERE") that the exported rows must match
+   * @param fileFormat format of the file
+   * @param parallelism maximum number of streams to read at the same time
+   * @param destination file to write to
+   * @return the number of rows exported
+   * @throws UserActionableException if the table, a column or the row restriction is invalid, or
+   *     the user doesn't have access to the table
+   */
+  public long export(
+      String billingProjectId,
+      String tablePath,
+      List<String> columns,
+      @Nullable String rowRestriction,
+      FileFormat fileFormat,
+      int parallelism,
+      Path destination) {
+    ReadSession session =
+        createReadSession(
+            billingProjectId, tablePath, columns, rowRestriction, fileFormat, parallelism);
+    logger.debug("Reading {} in {} streams", tablePath, session.getStreamsCount());
+
+    // written to a part file, which is renamed to the destination once it's complete
+    Path partFile = PartTransfers.getPartFile(destination);
+    long numRows;
+    try {
+      try (BqExportWriter writer = createWriter(session, fileFormat, partFile)) {
+        numRows = readStreams(session.getStreamsList(), writer, parallelism);
+      }
+      Files.move(partFile, destination, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing " + destination, ioEx);
+    } finally {
+      try {
+        Files.deleteIfExists(partFile);
+      } catch (IOException ioEx) {
+        logger.warn("Error deleting {}", partFile, ioEx);
+      }
+    }
+    return numRows;
+  }
+
+  @Override
+  public void close() {
+    readClient.close();
+  }
+
+  /**
+   * Create a read session for the table, split into up to {@code parallelism} streams.
+   *
+   * @throws UserActionableException if the server rejects the request
+   */
+  private ReadSession createReadSession(
+      String billingProjectId,
+      String tablePath,
+      List<String> columns,
+      @Nullable String rowRestriction,
+      FileFormat fileFormat,
+      int parallelism) {
+    ReadSession.TableReadOptions.Builder readOptions =
+        ReadSession.TableReadOptions.newBuilder().addAllSelectedFields(columns);
+    if (rowRestriction != null) {
+      readOptions.setRowRestriction(rowRestriction);
+    }
+    CreateReadSessionRequest request =
+        CreateReadSessionRequest.newBuilder()
+            .setParent("projects/" + billingProjectId)
+            .setReadSession(
+                ReadSession.newBuilder()
+                    .setTable(tablePath)
+                    .setDataFormat(fileFormat.dataFormat)
+                    .setReadOptions(readOptions))
+            .setMaxStreamCount(parallelism)
+            .build();
+    try {
+      return readClient.createReadSession(request);
+    } catch (InvalidArgumentException | NotFoundException | PermissionDeniedException ex) {
+      throw new UserActionableException("Error reading " + tablePath + ": " + ex.getMessage(), ex);
+    }
+  }
+
+  /** Create a writer for the file format, which starts the file with the session's schema. */
+  private static BqExportWriter createWriter(
+      ReadSession session, FileFormat fileFormat, Path file) throws IOException {
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), OUTPUT_BUFFER_SIZE);
+    return switch (fileFormat) {
+      case ARROW -> new BqArrowWriter(out, session.getArrowSchema());
+      case CSV -> new BqCsvWriter(out, session.getAvroSchema());
+    };
+  }
+
+  /**
+   * Read every stream to the writer, up to {@code parallelism} at a time. The client resumes a
+   * stream from the last row it received if the connection drops, so rows are never written twice.
+   *
+   * @return the number of rows read
+   */
+  private long readStreams(List<ReadStream> streams, BqExportWriter writer, int parallelism) {
+    if (streams.isEmpty()) {
+      // the table or the rows that match the restriction are empty
+      return 0;
+    }
+    AtomicLong numRows = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, streams.size()));
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (ReadStream stream : streams) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  ReadRowsRequest request =
+                      ReadRowsRequest.newBuilder().setReadStream(stream.getName()).build();
+                  for (ReadRowsResponse response : readClient.readRowsCallable().call(request)) {
+                    writer.write(response);
+                    numRows.addAndGet(response.getRowCount());
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while reading the table", intEx);
+    } catch (ExecutionException execEx) {
+      throw new SystemException("Error reading the table", execEx.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+      executor.shutdownNow();
+    }
+    return numRows.get();
+  }
+}
@@ -0,0 +1,43 @@
+package bio.terra.cli.cloud.gcp;
+
+import com.google.cloud.bigquery.storage.v1.ArrowSchema;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the rows of a BigQuery read session as an Arrow IPC stream.
+ *
+ * <p>The Storage Read API returns the schema and each record batch as serialized, encapsulated IPC
+ * messages, so the stream is those messages written one after another, followed by the
+ * end-of-stream marker. The rows are never decoded, which keeps this as fast as the disk.
+ */
+public class BqArrowWriter implements BqExportWriter {
+  // continuation token followed by a message length of zero
+  private static final byte[] END_OF_STREAM = {-1, -1, -1, -1, 0, 0, 0, 0};
+
+  private final OutputStream out;
+
+  /**
+   * Start a stream with the schema of the read session.
+   *
+   * @param out output to write to, which is closed along with this writer
+   * @param schema Arrow schema of the read session
+   */
+  public BqArrowWriter(OutputStream out, ArrowSchema schema) throws IOException {
+    this.out = out;
+    schema.getSerializedSchema().writeTo(out);
+  }
+
+  @Override
+  public synchronized void write(ReadRowsResponse response) throws IOException {
+    response.getArrowRecordBatch().getSerializedRecordBatch().writeTo(out);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try (out) {
+      out.write(END_OF_STREAM);
+    }
+  }
+}
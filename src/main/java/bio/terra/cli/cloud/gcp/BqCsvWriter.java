@@ -0,0 +1,147 @@
+package bio.terra.cli.cloud.gcp;
+
+import com.google.cloud.bigquery.storage.v1.AvroSchema;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+
+/**
+ * Writes the rows of a BigQuery read session as CSV, with a header line of the column names.
+ *
+ * <p>The Storage Read API returns each block of rows as Avro records. Blocks are converted to CSV
+ * by the thread that read them, and only the write to the file is serialized. Nested and repeated
+ * columns are written as JSON.
+ */
+public class BqCsvWriter implements BqExportWriter {
+  private static final Conversions.DecimalConversion DECIMAL_CONVERSION =
+      new Conversions.DecimalConversion();
+
+  private final OutputStream out;
+  private final Schema schema;
+
+  /**
+   * Start a file with the header line for the schema of the read session.
+   *
+   * @param out output to write to, which is closed along with this writer
+   * @param schema Avro schema of the read session
+   */
+  public BqCsvWriter(OutputStream out, AvroSchema schema) throws IOException {
+    this.out = out;
+    this.schema = new Schema.Parser().parse(schema.getSchema());
+    List<String> columnNames =
+        this.schema.getFields().stream().map(Schema.Field::name).collect(Collectors.toList());
+    out.write(toLine(columnNames).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void write(ReadRowsResponse response) throws IOException {
+    // decode outside the lock, so that the streams convert their rows concurrently
+    byte[] rows = toCsv(response).getBytes(StandardCharsets.UTF_8);
+    synchronized (this) {
+      out.write(rows);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+
+  /** Convert a block of Avro rows to CSV lines. */
+  private String toCsv(ReadRowsResponse response) throws IOException {
+    GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(schema);
+    BinaryDecoder decoder =
+        DecoderFactory.get()
+            .binaryDecoder(response.getAvroRows().getSerializedBinaryRows().toByteArray(), null);
+    StringBuilder csv = new StringBuilder();
+    GenericRecord row = null;
+    while (!decoder.isEnd()) {
+      row = reader.read(row, decoder);
+      GenericRecord currentRow = row;
+      csv.append(
+          toLine(
+              schema.getFields().stream()
+                  .map(field -> formatValue(currentRow.get(field.pos()), field.schema()))
+                  .collect(Collectors.toList())));
+    }
+    return csv.toString();
+  }
+
+  /** Join the values of a row with commas, quoting the ones that need it. */
+  private static String toLine(List<String> values) {
+    return values.stream().map(BqCsvWriter::escape).collect(Collectors.joining(",")) + "\n";
+  }
+
+  /** Quote a value if it contains a comma, quote or line break, doubling any quotes (RFC 4180). */
+  private static String escape(String value) {
+    if (value.indexOf(',') < 0
+        && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * Format a column value as text. Dates and times are ISO-8601, BYTES are base64, and NULL is an
+   * empty value.
+   *
+   * @param value Avro value of a column
+   * @param schema Avro schema of the column, which is a union with null if it's nullable
+   */
+  private static String formatValue(Object value, Schema schema) {
+    if (value == null) {
+      return "";
+    }
+    Schema valueSchema = schema;
+    if (schema.getType() == Schema.Type.UNION) {
+      valueSchema =
+          schema.getTypes().stream()
+              .filter(type -> type.getType() != Schema.Type.NULL)
+              .findFirst()
+              .orElse(schema);
+    }
+
+    LogicalType logicalType = valueSchema.getLogicalType();
+    if (logicalType instanceof LogicalTypes.Decimal) {
+      // NUMERIC and BIGNUMERIC
+      return DECIMAL_CONVERSION
+          .fromBytes(((ByteBuffer) value).duplicate(), valueSchema, logicalType)
+          .toPlainString();
+    } else if (logicalType instanceof LogicalTypes.TimestampMicros) {
+      return Instant.EPOCH.plus((Long) value, ChronoUnit.MICROS).toString();
+    } else if (logicalType instanceof LogicalTypes.Date) {
+      return LocalDate.ofEpochDay((Integer) value).toString();
+    } else if (logicalType instanceof LogicalTypes.TimeMicros) {
+      return LocalTime.ofNanoOfDay((Long) value * 1000).toString();
+    } else if (value instanceof ByteBuffer bytes) {
+      // BYTES
+      return Base64.getEncoder().encodeToString(toByteArray(bytes));
+    }
+    return value.toString();
+  }
+
+  private static byte[] toByteArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
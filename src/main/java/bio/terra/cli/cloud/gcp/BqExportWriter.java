@@ -0,0 +1,19 @@
+package bio.terra.cli.cloud.gcp;
+
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the blocks of rows read from the streams of a BigQuery read session to a local file.
+ * Implementations are called concurrently by the threads reading each stream, so {@link #write}
+ * must be thread-safe. Blocks from different streams may be written in any order.
+ */
+public interface BqExportWriter extends Closeable {
+  /** Write a block of rows read from one of the streams. */
+  void write(ReadRowsResponse response) throws IOException;
+
+  /** Write anything that follows the last block of rows, and close the file. */
+  @Override
+  void close() throws IOException;
+}
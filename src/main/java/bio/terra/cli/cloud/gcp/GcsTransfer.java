@@ -0,0 +1,331 @@
+package bio.terra.cli.cloud.gcp;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.cloud.storage.ByteRange;
+import bio.terra.cli.cloud.storage.Checksums;
+import bio.terra.cli.cloud.storage.PartTransfers;
+import bio.terra.cli.cloud.storage.TransferJournal;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.service.utils.HttpUtils;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import com.google.cloud.storage.StorageOptions;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies files to, from and between GCS buckets. Large files are split into parts that are
+ * transferred concurrently: downloads read byte ranges of the object into the local file, and
+ * uploads write each part to a temporary object and then compose them into the destination.
+ *
+ * <p>Every transfer is verified with a CRC32C checksum. The parts that have completed are recorded
+ * in a {@link TransferJournal}, so an interrupted transfer resumes where it left off when it's run
+ * again.
+ */
+public class GcsTransfer {
+  private static final Logger logger = LoggerFactory.getLogger(GcsTransfer.class);
+  // files at least this large are split into parts. this is the same as gsutil's default
+  // parallel_composite_upload_threshold
+  public static final long PARALLEL_THRESHOLD_BYTES = 150L * 1024 * 1024;
+  // minimum size of each part of a file that is split
+  private static final long MIN_PART_SIZE_BYTES = 32L * 1024 * 1024;
+  // maximum number of source objects in a single compose request
+  private static final int MAX_COMPOSE_SOURCES = 32;
+  // sub-directory of the global context directory for the journal files of uploads
+  private static final String UPLOAD_JOURNAL_DIR = "transfers";
+
+  private final Storage storage;
+  private final ExecutorService partExecutor;
+
+  /**
+   * Constructor for a class that transfers files with GCS.
+   *
+   * @param storage client with access to the buckets
+   * @param partExecutor executor to transfer the parts of large files on, see {@link
+   *     PartTransfers#runParts}
+   */
+  public GcsTransfer(Storage storage, ExecutorService partExecutor) {
+    this.storage = storage;
+    this.partExecutor = partExecutor;
+  }
+
+  /**
+   * Factory method for a class that transfers files with GCS. Uses the pet SA credentials, like
+   * {@link GoogleCloudStorage#fromContextForPetSa}.
+   *
+   * @param partExecutor see {@link #GcsTransfer(Storage, ExecutorService)}
+   */
+  public static GcsTransfer fromContextForPetSa(ExecutorService partExecutor) {
+    Storage storage =
+        StorageOptions.newBuilder()
+            .setCredentials(Context.requireUser().getPetSACredentials())
+            .build()
+            .getService();
+    return new GcsTransfer(storage, partExecutor);
+  }
+
+  /**
+   * Download an object to a local file, replacing the file if it exists.
+   *
+   * <p>The object is downloaded to a temporary file next to the destination, which is renamed once
+   * the checksum has been verified. The generation of the object is pinned, so the download is
+   * consistent even if the object is overwritten while it's in progress.
+   *
+   * @return the number of bytes downloaded
+   * @throws UserActionableException if the object does not exist
+   * @throws SystemException if the checksum of the downloaded file doesn't match the object
+   */
+  public long download(BlobId source, Path destination) {
+    Blob blob = callWithRetries(() -> storage.get(source), "Error looking up object.");
+    if (blob == null) {
+      throw new UserActionableException("Object not found: " + toUrl(source));
+    }
+    long size = blob.getSize();
+    BlobId pinnedSource = BlobId.of(source.getBucket(), source.getName(), blob.getGeneration());
+    Path partFile = PartTransfers.getPartFile(destination);
+    TransferJournal journal =
+        PartTransfers.openDownloadJournal(destination, blob.getGeneration() + ":" + size);
+
+    List<ByteRange> ranges = ByteRange.split(size, getPartSize(size));
+    logger.debug("Downloading {} in {} parts", toUrl(source), ranges.size());
+    try {
+      try (FileChannel channel =
+          FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        PartTransfers.runParts(
+            partExecutor,
+            ranges.size(),
+            index -> {
+              if (journal.isComplete(index)) {
+                return;
+              }
+              callWithRetries(
+                  () -> {
+                    downloadRange(pinnedSource, ranges.get(index), channel);
+                    return null;
+                  },
+                  "Error downloading " + toUrl(source));
+              channel.force(false);
+              journal.markComplete(index);
+            });
+        // a previous attempt for a different generation may have left a larger file
+        channel.truncate(size);
+      }
+
+      String localChecksum = Checksums.toBase64(Checksums.crc32c(partFile));
+      if (blob.getCrc32c() != null && !blob.getCrc32c().equals(localChecksum)) {
+        Files.deleteIfExists(partFile);
+        journal.delete();
+        throw new SystemException(
+            String.format(
+                "Checksum of the download (%s) doesn't match %s (%s). Run the command again.",
+                localChecksum, toUrl(source), blob.getCrc32c()));
+      }
+      Files.move(partFile, destination, StandardCopyOption.REPLACE_EXISTING);
+      journal.delete();
+      return size;
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing " + partFile, ioEx);
+    }
+  }
+
+  /** Download a range of an object into the same range of a local file. */
+  private void downloadRange(BlobId source, ByteRange range, FileChannel channel)
+      throws IOException {
+    try (ReadChannel reader = storage.reader(source)) {
+      reader.seek(range.offset());
+      PartTransfers.readRange(reader, channel, range, null);
+    }
+  }
+
+  /**
+   * Upload a local file to an object, replacing the object if it exists.
+   *
+   * <p>Files smaller than {@link #PARALLEL_THRESHOLD_BYTES} are uploaded in a single request, and
+   * GCS rejects the upload if its checksum doesn't match. Larger files are uploaded as a parallel
+   * composite upload: each part is uploaded to a temporary object next to the destination, and
+   * then they're composed into another temporary object. That is copied over the destination once
+   * its checksum has been verified, so a failed upload never replaces the destination.
+   *
+   * @return the number of bytes uploaded
+   * @throws SystemException if the checksum of the object doesn't match the file
+   */
+  public long upload(Path source, BlobId destination) {
+    long size;
+    String sourceVersion;
+    try {
+      size = Files.size(source);
+      sourceVersion = size + ":" + Files.getLastModifiedTime(source).toMillis();
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading " + source, ioEx);
+    }
+    String checksum = Checksums.toBase64(Checksums.crc32c(source));
+    BlobInfo blobInfo = BlobInfo.newBuilder(destination).setCrc32c(checksum).build();
+
+    if (size < PARALLEL_THRESHOLD_BYTES) {
+      callWithRetries(
+          () -> storage.createFrom(blobInfo, source, Storage.BlobWriteOption.crc32cMatch()),
+          "Error uploading to " + toUrl(destination));
+      return size;
+    }
+
+    String transferId =
+        Hashing.sha256()
+            .hashString(
+                source.toAbsolutePath() + "|" + toUrl(destination) + "|" + sourceVersion,
+                StandardCharsets.UTF_8)
+            .toString()
+            .substring(0, 16);
+    TransferJournal journal =
+        TransferJournal.open(
+            Context.getContextDir().resolve(UPLOAD_JOURNAL_DIR).resolve(transferId),
+            sourceVersion);
+    List<ByteRange> parts = ByteRange.split(size, getPartSize(size));
+    logger.debug("Uploading {} in {} parts with transfer id {}", source, parts.size(), transferId);
+    BlobId composedId =
+        BlobId.of(
+            destination.getBucket(),
+            destination.getName() + PartTransfers.PART_SUFFIX + "-" + transferId);
+    List<BlobId> partIds = new ArrayList<>();
+    for (ByteRange part : parts) {
+      partIds.add(BlobId.of(destination.getBucket(), composedId.getName() + "-" + part.index()));
+    }
+
+    PartTransfers.runParts(
+        partExecutor,
+        parts.size(),
+        index -> {
+          if (journal.isComplete(index)) {
+            return;
+          }
+          uploadPart(source, parts.get(index), partIds.get(index));
+          journal.markComplete(index);
+        });
+
+    Storage.ComposeRequest.Builder composeRequest =
+        Storage.ComposeRequest.newBuilder()
+            .setTarget(BlobInfo.newBuilder(composedId).setCrc32c(checksum).build());
+    partIds.forEach(partId -> composeRequest.addSource(partId.getName()));
+    Blob composed;
+    try {
+      composed =
+          callWithRetries(
+              () -> storage.compose(composeRequest.build()),
+              "Error composing the parts of " + toUrl(destination));
+    } catch (SystemException sysEx) {
+      if (sysEx.getCause() instanceof StorageException storageEx
+          && storageEx.getCode() == HttpStatus.SC_NOT_FOUND) {
+        // a part that the journal recorded was deleted, so start again next time
+        journal.delete();
+        throw new UserActionableException(
+            "Some uploaded parts of " + source + " were deleted. Run the command again.", sysEx);
+      }
+      throw sysEx;
+    }
+
+    boolean checksumMatches = checksum.equals(composed.getCrc32c());
+    if (checksumMatches) {
+      copy(composedId, destination);
+    }
+    List<BlobId> temporaryIds = new ArrayList<>(partIds);
+    temporaryIds.add(composedId);
+    callWithRetries(() -> storage.delete(temporaryIds), "Error deleting the parts of the upload.");
+    journal.delete();
+    if (!checksumMatches) {
+      throw new SystemException(
+          String.format(
+              "Checksum of the composed parts of %s (%s) doesn't match the uploaded file (%s)."
+                  + " Run the command again.",
+              toUrl(destination), composed.getCrc32c(), checksum));
+    }
+    return size;
+  }
+
+  /** Upload a range of a local file to a temporary object, verified by its checksum. */
+  private void uploadPart(Path source, ByteRange part, BlobId partId) {
+    BlobInfo partInfo =
+        BlobInfo.newBuilder(partId)
+            .setCrc32c(
+                Checksums.toBase64(Checksums.crc32c(source, part.offset(), part.length())))
+            .build();
+    callWithRetries(
+        () -> {
+          try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+              WriteChannel writer =
+                  storage.writer(partInfo, Storage.BlobWriteOption.crc32cMatch())) {
+            long position = part.offset();
+            while (position < part.end()) {
+              position += channel.transferTo(position, part.end() - position, writer);
+            }
+          }
+          return null;
+        },
+        "Error uploading part " + part.index() + " of " + source);
+  }
+
+  /**
+   * Copy an object within GCS, without downloading it. GCS preserves the checksum.
+   *
+   * @return the number of bytes copied
+   */
+  public long copy(BlobId source, BlobId destination) {
+    Blob copied =
+        callWithRetries(
+            () ->
+                storage
+                    .copy(
+                        Storage.CopyRequest.newBuilder()
+                            .setSource(source)
+                            .setTarget(destination)
+                            .build())
+                    .getResult(),
+            "Error copying " + toUrl(source) + " to " + toUrl(destination));
+    return copied.getSize();
+  }
+
+  /**
+   * Size of each part of a file. Small files have a single part, and large files have up to {@link
+   * #MAX_COMPOSE_SOURCES} parts, so that an upload can be composed in a single request.
+   */
+  private static long getPartSize(long size) {
+    if (size < PARALLEL_THRESHOLD_BYTES) {
+      return Math.max(size, 1);
+    }
+    return Math.max(MIN_PART_SIZE_BYTES, (size + MAX_COMPOSE_SOURCES - 1) / MAX_COMPOSE_SOURCES);
+  }
+
+  /**
+   * Call GCS with retries for exceptions that are retryable for any GCS request (see {@link
+   * GoogleCloudStorage#isRetryable}), and for I/O errors in the middle of a transfer.
+   */
+  private static <T> T callWithRetries(
+      HttpUtils.SupplierWithCheckedException<T, IOException> makeRequest, String errorMsg) {
+    return PartTransfers.callWithRetries(
+        makeRequest,
+        StorageException.class,
+        GoogleCloudStorage::isRetryable,
+        GoogleCloudStorage.GCS_MAXIMUM_RETRIES,
+        errorMsg);
+  }
+
+  private static String toUrl(BlobId blobId) {
+    return "gs://" + blobId.getBucket() + "/" + blobId.getName();
+  }
+}
@@ -1,7 +1,10 @@
 package bio.terra.cli.cloud.gcp;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.cloud.storage.ObjectLister;
+import bio.terra.cli.cloud.storage.StorageObject;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.utils.CrlUtils;
 import bio.terra.cli.service.utils.HttpUtils;
 import bio.terra.cloudres.google.storage.BlobCow;
@@ -10,10 +13,13 @@ import bio.terra.cloudres.google.storage.StorageCow;
 import com.google.api.gax.paging.Page;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
@@ -23,6 +29,8 @@ import org.slf4j.LoggerFactory;
 public class GoogleCloudStorage {
   // default value for the maximum number of times to retry HTTP requests to GCS
   public static final int GCS_MAXIMUM_RETRIES = 5;
+  // maximum number of objects to return per page when listing, which is also the GCS maximum
+  private static final long LIST_PAGE_SIZE = 1000;
   private static final Logger logger = LoggerFactory.getLogger(GoogleCloudStorage.class);
   private final StorageCow storage;
 
@@ -109,6 +117,61 @@ public class GoogleCloudStorage {
     }
   }
 
+  /**
+   * Get a lister for the objects in a bucket. Listings only request the object fields that are
+   * needed for a {@link StorageObject}, and each page is requested with retries.
+   *
+   * @param bucketName name of the bucket
+   * @throws UserActionableException if the bucket does not exist or the user can't access it
+   */
+  public ObjectLister getObjectLister(String bucketName) {
+    BucketCow bucket =
+        getBucket(bucketName)
+            .orElseThrow(
+                () ->
+                    new UserActionableException(
+                        "Error looking up bucket "
+                            + bucketName
+                            + ", check the name / permissions and retry"));
+    return (prefix, recursive, prefixConsumer, objectConsumer) -> {
+      List<Storage.BlobListOption> options = new ArrayList<>();
+      options.add(Storage.BlobListOption.prefix(prefix));
+      options.add(Storage.BlobListOption.pageSize(LIST_PAGE_SIZE));
+      options.add(
+          Storage.BlobListOption.fields(
+              Storage.BlobField.NAME, Storage.BlobField.SIZE, Storage.BlobField.STORAGE_CLASS));
+      if (!recursive) {
+        options.add(Storage.BlobListOption.currentDirectory());
+      }
+
+      Page<BlobCow> page =
+          callWithRetries(
+              () -> bucket.list(options.toArray(new Storage.BlobListOption[0])),
+              "Error listing objects in bucket.");
+      while (page != null) {
+        for (BlobCow blob : page.getValues()) {
+          BlobInfo blobInfo = blob.getBlobInfo();
+          if (blobInfo.isDirectory()) {
+            prefixConsumer.accept(blobInfo.getName());
+          } else {
+            objectConsumer.accept(
+                new StorageObject(
+                    blobInfo.getName(),
+                    blobInfo.getSize() == null ? 0 : blobInfo.getSize(),
+                    blobInfo.getStorageClass() == null
+                        ? null
+                        : blobInfo.getStorageClass().toString()));
+          }
+        }
+        Page<BlobCow> currentPage = page;
+        page =
+            currentPage.hasNextPage()
+                ? callWithRetries(currentPage::getNextPage, "Error listing objects in bucket.")
+                : null;
+      }
+    };
+  }
+
   /**
    * Execute a function that includes hitting GCS endpoints. Retry if the function throws an {@link
    * #isRetryable} exception. If an exception is thrown by the GCS client or the retries, make sure
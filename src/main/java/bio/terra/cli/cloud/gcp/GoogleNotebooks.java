@@ -32,27 +32,72 @@ public class GoogleNotebooks {
 
   public void start(InstanceName instanceName) {
     try {
-      Operation startOperation = notebooks.instances().start(instanceName).execute();
-      pollForSuccess(startOperation, "Error starting notebook instance: ");
+      pollForSuccess(requestStart(instanceName), "Error starting notebook instance: ");
     } catch (InterruptedException | IOException e) {
-      checkFor409BadState(e);
       throw new SystemException("Error starting notebook instance", e);
     }
   }
 
   public void stop(InstanceName instanceName) {
     try {
-      Operation stopOperation = notebooks.instances().stop(instanceName).execute();
-      pollForSuccess(stopOperation, "Error stopping notebook instance: ");
+      pollForSuccess(requestStop(instanceName), "Error stopping notebook instance: ");
     } catch (InterruptedException | IOException e) {
+      throw new SystemException("Error stopping notebook instance", e);
+    }
+  }
+
+  /**
+   * Request a notebook instance to start, without waiting for it to finish. Use {@link
+   * #pollOperation} to check on the returned operation.
+   */
+  public OperationCow<Operation> requestStart(InstanceName instanceName) {
+    try {
+      return notebooks
+          .operations()
+          .operationCow(notebooks.instances().start(instanceName).execute());
+    } catch (IOException e) {
+      checkFor409BadState(e);
+      throw new SystemException("Error starting notebook instance", e);
+    }
+  }
+
+  /**
+   * Request a notebook instance to stop, without waiting for it to finish. Use {@link
+   * #pollOperation} to check on the returned operation.
+   */
+  public OperationCow<Operation> requestStop(InstanceName instanceName) {
+    try {
+      return notebooks
+          .operations()
+          .operationCow(notebooks.instances().stop(instanceName).execute());
+    } catch (IOException e) {
       checkFor409BadState(e);
       throw new SystemException("Error stopping notebook instance", e);
     }
   }
 
-  private void pollForSuccess(Operation operation, String errorMessage)
+  /**
+   * Get the latest state of a start or stop operation.
+   *
+   * @return the operation, which {@link OperationCow#isDone} once it has finished
+   * @throws SystemException if the operation failed
+   */
+  public OperationCow<Operation> pollOperation(OperationCow<Operation> operation) {
+    OperationCow<Operation> latest;
+    try {
+      latest = operation.getNow();
+    } catch (IOException e) {
+      throw new SystemException("Error getting notebook operation", e);
+    }
+    if (latest.isDone() && latest.getOperation().getError() != null) {
+      throw new SystemException(
+          "Notebook operation failed: " + latest.getOperation().getError().getMessage());
+    }
+    return latest;
+  }
+
+  private void pollForSuccess(OperationCow<Operation> operationCow, String errorMessage)
       throws InterruptedException, IOException {
-    OperationCow<Operation> operationCow = notebooks.operations().operationCow(operation);
     operationCow =
         OperationUtils.pollUntilComplete(
             operationCow, Duration.ofSeconds(5), Duration.ofMinutes(3));
@@ -0,0 +1,35 @@
+package bio.terra.cli.cloud.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of a file or object that is transferred on its own, so that the parts can be transferred
+ * concurrently.
+ *
+ * @param index position of this part in the file, starting at 0
+ * @param offset offset of the first byte of this part
+ * @param length number of bytes in this part
+ */
+public record ByteRange(int index, long offset, long length) {
+  /**
+   * Split a file into parts of the given size. The last part may be smaller. An empty file has a
+   * single empty part.
+   *
+   * @param size size of the file in bytes
+   * @param partSize size of each part in bytes
+   */
+  public static List<ByteRange> split(long size, long partSize) {
+    List<ByteRange> parts = new ArrayList<>();
+    int index = 0;
+    for (long offset = 0; offset < size || index == 0; offset += partSize) {
+      parts.add(new ByteRange(index++, offset, Math.min(partSize, size - offset)));
+    }
+    return parts;
+  }
+
+  /** Offset of the byte after the last byte of this part. */
+  public long end() {
+    return offset + length;
+  }
+}
@@ -0,0 +1,80 @@
+package bio.terra.cli.cloud.storage;
+
+import bio.terra.cli.exception.SystemException;
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/** Utility methods for the checksums that cloud storage uses to verify transfers. */
+public class Checksums {
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  private Checksums() {}
+
+  /**
+   * Compute the CRC32C checksum of part of a local file.
+   *
+   * @param file local file
+   * @param offset offset of the first byte to include
+   * @param length number of bytes to include
+   * @return the checksum, as an unsigned 32-bit value
+   */
+  public static int crc32c(Path file, long offset, long length) {
+    CRC32C crc32c = new CRC32C();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long position = offset;
+      long end = offset + length;
+      while (position < end) {
+        buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+        int numRead = channel.read(buffer, position);
+        if (numRead < 0) {
+          throw new SystemException("Unexpected end of file while computing checksum: " + file);
+        }
+        buffer.flip();
+        crc32c.update(buffer);
+        position += numRead;
+      }
+    } catch (IOException ioEx) {
+      throw new SystemException("Error computing checksum of " + file, ioEx);
+    }
+    return (int) crc32c.getValue();
+  }
+
+  /** Compute the CRC32C checksum of a whole local file. */
+  public static int crc32c(Path file) {
+    try {
+      return crc32c(file, 0, Files.size(file));
+    } catch (IOException ioEx) {
+      throw new SystemException("Error computing checksum of " + file, ioEx);
+    }
+  }
+
+  /**
+   * Encode a CRC32C checksum the way GCS reports it: base64 of the big-endian bytes.
+   *
+   * @param crc32c checksum, as an unsigned 32-bit value
+   */
+  public static String toBase64(int crc32c) {
+    return Base64.getEncoder().encodeToString(Ints.toByteArray(crc32c));
+  }
+
+  /**
+   * Encode the CRC32C checksum of an object uploaded in parts the way S3 reports it: base64 of the
+   * checksum of the parts' big-endian checksums, followed by "-" and the number of parts.
+   *
+   * @param partChecksums checksum of each part in order, as unsigned 32-bit values
+   */
+  public static String toBase64Composite(List<Integer> partChecksums) {
+    CRC32C crc32c = new CRC32C();
+    partChecksums.forEach(partChecksum -> crc32c.update(Ints.toByteArray(partChecksum)));
+    return toBase64((int) crc32c.getValue()) + "-" + partChecksums.size();
+  }
+}
@@ -0,0 +1,53 @@
+package bio.terra.cli.cloud.storage;
+
+import java.util.function.Consumer;
+
+/** Lists the objects in a bucket under a prefix, one page at a time. */
+@FunctionalInterface
+public interface ObjectLister {
+  /**
+   * List the objects under the given prefix. Each page is passed to the consumers as soon as it is
+   * returned, so that callers can stream the results instead of holding them all in memory.
+   *
+   * @param prefix prefix to list under, ending in "/" or empty for the whole bucket
+   * @param recursive true to list every object under the prefix, false to list only the objects
+   *     directly under it and the prefixes of the sub-directories, as with a "/" delimiter
+   * @param prefixConsumer called for each sub-directory prefix, if not recursive
+   * @param objectConsumer called for each object
+   */
+  void list(
+      String prefix,
+      boolean recursive,
+      Consumer<String> prefixConsumer,
+      Consumer<StorageObject> objectConsumer);
+
+  /**
+   * Wrap a lister so that it only returns a single object and the objects under it as a directory,
+   * e.g. "data/file" and "data/file/part-0" but not "data/file2". This is for listing under the
+   * name of an object, which as a prefix also matches other objects that start with the name.
+   *
+   * @param lister lister for the bucket
+   * @param objectName name of the object. If it's empty or ends in "/", it's already a directory
+   *     prefix and the lister is returned as is.
+   */
+  static ObjectLister forObject(ObjectLister lister, String objectName) {
+    if (objectName.isEmpty() || objectName.endsWith("/")) {
+      return lister;
+    }
+    String childPrefix = objectName + "/";
+    return (prefix, recursive, prefixConsumer, objectConsumer) ->
+        lister.list(
+            prefix,
+            recursive,
+            subPrefix -> {
+              if (subPrefix.startsWith(childPrefix)) {
+                prefixConsumer.accept(subPrefix);
+              }
+            },
+            object -> {
+              if (object.name().equals(objectName) || object.name().startsWith(childPrefix)) {
+                objectConsumer.accept(object);
+              }
+            });
+  }
+}
@@ -0,0 +1,157 @@
+package bio.terra.cli.cloud.storage;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.service.utils.HttpUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.Checksum;
+import javax.annotation.Nullable;
+
+/**
+ * Utility methods for transferring a file in parts, shared by the transfers for each cloud
+ * platform.
+ *
+ * <p>A download is written to a temporary part file next to the destination, which is renamed
+ * once it's complete. The parts that have completed are recorded in a {@link TransferJournal} next
+ * to the part file, so an interrupted download resumes where it left off.
+ */
+public class PartTransfers {
+  // suffix for the temporary local file of a download, and for other temporary copies of a file
+  public static final String PART_SUFFIX = ".terra-part";
+  // suffix for the journal file of a download, which is next to the temporary local file
+  private static final String JOURNAL_SUFFIX = ".terra-journal";
+  // size of the buffer for reading each part of a download
+  private static final int DOWNLOAD_BUFFER_SIZE = 1024 * 1024;
+
+  private PartTransfers() {}
+
+  /** Temporary local file that a download to the destination is written to. */
+  public static Path getPartFile(Path destination) {
+    return destination.resolveSibling(destination.getFileName() + PART_SUFFIX);
+  }
+
+  /**
+   * Open the journal for a download to the destination, which is next to the part file.
+   *
+   * @param sourceVersion see {@link TransferJournal#open}
+   */
+  public static TransferJournal openDownloadJournal(Path destination, String sourceVersion) {
+    return TransferJournal.open(
+        destination.resolveSibling(destination.getFileName() + JOURNAL_SUFFIX), sourceVersion);
+  }
+
+  /**
+   * Read a range of bytes into the same range of a local file.
+   *
+   * @param reader channel positioned at the start of the range
+   * @param channel local file to write to
+   * @param range offset and length of the range
+   * @param checksum updated with the bytes that are read, if not null
+   * @throws IOException if the reader ends before the end of the range
+   */
+  public static void readRange(
+      ReadableByteChannel reader, FileChannel channel, ByteRange range, @Nullable Checksum checksum)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(DOWNLOAD_BUFFER_SIZE);
+    long position = range.offset();
+    while (position < range.end()) {
+      buffer.clear().limit((int) Math.min(buffer.capacity(), range.end() - position));
+      if (reader.read(buffer) < 0) {
+        throw new IOException("Unexpected end of object at byte " + position);
+      }
+      buffer.flip();
+      if (checksum != null) {
+        checksum.update(buffer.duplicate());
+      }
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+    }
+  }
+
+  /**
+   * Run a transfer for each part on the part executor, and wait for them all to finish. If a part
+   * fails, the parts that haven't finished are cancelled.
+   *
+   * @param partExecutor executor to transfer the parts on. The caller owns it, and should not
+   *     submit tasks to it that wait for a transfer, because the parts would never run.
+   * @param numParts number of parts, which are passed to the transfer by index
+   * @param partTransfer transfer of a single part
+   */
+  public static void runParts(
+      ExecutorService partExecutor, int numParts, PartTransfer partTransfer) {
+    List<Future<?>> futures = new ArrayList<>();
+    for (int index = 0; index < numParts; index++) {
+      int partIndex = index;
+      futures.add(
+          partExecutor.submit(
+              () -> {
+                partTransfer.run(partIndex);
+                return null;
+              }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted during transfer", intEx);
+    } catch (ExecutionException execEx) {
+      if (execEx.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new SystemException("Error during transfer", execEx.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * Call a storage service with retries for I/O errors in the middle of a transfer, and for the
+   * exceptions that the service considers retryable.
+   *
+   * @param makeRequest function to perform the request
+   * @param serviceExceptionClass type of the unchecked exceptions that the service's client throws
+   * @param isRetryable function to test whether a service exception is retryable
+   * @param maxCalls maximum number of times to try
+   * @param errorMsg message for the exception if the last attempt fails
+   * @throws SystemException if the last attempt throws an I/O or service exception
+   */
+  public static <T> T callWithRetries(
+      HttpUtils.SupplierWithCheckedException<T, IOException> makeRequest,
+      Class<? extends RuntimeException> serviceExceptionClass,
+      Predicate<Exception> isRetryable,
+      int maxCalls,
+      String errorMsg) {
+    try {
+      return HttpUtils.callWithRetries(
+          makeRequest,
+          ex -> ex instanceof IOException || isRetryable.test(ex),
+          maxCalls,
+          HttpUtils.DEFAULT_DURATION_SLEEP_FOR_RETRY);
+    } catch (IOException | InterruptedException ex) {
+      throw new SystemException(errorMsg, ex);
+    } catch (RuntimeException runtimeEx) {
+      if (serviceExceptionClass.isInstance(runtimeEx)) {
+        throw new SystemException(errorMsg, runtimeEx);
+      }
+      throw runtimeEx;
+    }
+  }
+
+  /** Transfer of a single part of a file. */
+  @FunctionalInterface
+  public interface PartTransfer {
+    void run(int index) throws IOException;
+  }
+}
@@ -0,0 +1,13 @@
+package bio.terra.cli.cloud.storage;
+
+import javax.annotation.Nullable;
+
+/**
+ * An object in a GCS bucket or S3 storage folder, with only the properties that are needed to
+ * aggregate {@link StorageStats}.
+ *
+ * @param name full name (key) of the object within its bucket
+ * @param size size of the object in bytes
+ * @param storageClass storage class of the object, or null if the cloud did not return one
+ */
+public record StorageObject(String name, long size, @Nullable String storageClass) {}
@@ -0,0 +1,155 @@
+package bio.terra.cli.cloud.storage;
+
+import bio.terra.cli.exception.SystemException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Number of objects and total bytes under a bucket prefix, with a breakdown by storage class.
+ *
+ * <p>Instances are not thread-safe. {@link #collect} gives each listing its own instance and adds
+ * them together once the listing is done.
+ */
+public class StorageStats {
+  // storage class to report for objects that the cloud did not return a storage class for
+  public static final String UNKNOWN_STORAGE_CLASS = "UNKNOWN";
+  // stop discovering sub-directories once there are this many for each thread to list
+  private static final int SHARDS_PER_THREAD = 4;
+  // maximum number of sub-directory levels to discover before listing everything under them
+  private static final int MAX_SHARD_DEPTH = 3;
+
+  private long numObjects;
+  private long totalBytes;
+  private final Map<String, Long> numObjectsByStorageClass = new TreeMap<>();
+  private final Map<String, Long> totalBytesByStorageClass = new TreeMap<>();
+
+  /**
+   * Count all the objects under a prefix, listing sub-directories concurrently.
+   *
+   * <p>A single listing is paged sequentially, so it is split into shards: the sub-directories
+   * under the prefix are discovered one level at a time by listing with a "/" delimiter, until
+   * there are enough to keep every thread busy or {@link #MAX_SHARD_DEPTH} levels have been
+   * listed. Then everything under each sub-directory is listed recursively. The objects directly
+   * under each listed level are counted as they're discovered, so no object is counted twice.
+   *
+   * @param lister lister for the bucket
+   * @param prefix prefix to count under, ending in "/" or empty for the whole bucket
+   * @param parallelism maximum number of listings to run at the same time
+   * @return the aggregated stats
+   */
+  public static StorageStats collect(ObjectLister lister, String prefix, int parallelism) {
+    StorageStats stats = new StorageStats();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<String> shards = List.of(prefix);
+      for (int depth = 0;
+          depth < MAX_SHARD_DEPTH
+              && !shards.isEmpty()
+              && shards.size() < parallelism * SHARDS_PER_THREAD;
+          depth++) {
+        List<Callable<Level>> levelListings = new ArrayList<>();
+        for (String shard : shards) {
+          levelListings.add(
+              () -> {
+                Level level = new Level(new StorageStats(), new ArrayList<>());
+                lister.list(shard, false, level.subPrefixes::add, level.stats::add);
+                return level;
+              });
+        }
+        List<String> subPrefixes = new ArrayList<>();
+        for (Level level : invokeAll(executor, levelListings)) {
+          stats.add(level.stats);
+          subPrefixes.addAll(level.subPrefixes);
+        }
+        shards = subPrefixes;
+      }
+
+      List<Callable<StorageStats>> shardListings = new ArrayList<>();
+      for (String shard : shards) {
+        shardListings.add(
+            () -> {
+              StorageStats shardStats = new StorageStats();
+              lister.list(shard, true, subPrefix -> {}, shardStats::add);
+              return shardStats;
+            });
+      }
+      invokeAll(executor, shardListings).forEach(stats::add);
+    } finally {
+      executor.shutdownNow();
+    }
+    return stats;
+  }
+
+  /**
+   * Run all the tasks and wait for them to finish.
+   *
+   * @return the result of each task, in the same order as the tasks
+   * @throws RuntimeException the first exception thrown by a task
+   */
+  private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) {
+    List<T> results = new ArrayList<>();
+    try {
+      for (Future<T> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while listing objects", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new SystemException("Error listing objects", e.getCause());
+    }
+    return results;
+  }
+
+  /** Add a single object. */
+  public void add(StorageObject object) {
+    String storageClass =
+        object.storageClass() == null ? UNKNOWN_STORAGE_CLASS : object.storageClass();
+    numObjects++;
+    totalBytes += object.size();
+    numObjectsByStorageClass.merge(storageClass, 1L, Long::sum);
+    totalBytesByStorageClass.merge(storageClass, object.size(), Long::sum);
+  }
+
+  /** Add all the objects counted by another instance. */
+  public void add(StorageStats other) {
+    numObjects += other.numObjects;
+    totalBytes += other.totalBytes;
+    other.numObjectsByStorageClass.forEach(
+        (storageClass, count) -> numObjectsByStorageClass.merge(storageClass, count, Long::sum));
+    other.totalBytesByStorageClass.forEach(
+        (storageClass, bytes) -> totalBytesByStorageClass.merge(storageClass, bytes, Long::sum));
+  }
+
+  public long getNumObjects() {
+    return numObjects;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /** Number of objects in each storage class, sorted by storage class. */
+  public Map<String, Long> getNumObjectsByStorageClass() {
+    return Collections.unmodifiableMap(numObjectsByStorageClass);
+  }
+
+  /** Total bytes in each storage class, sorted by storage class. */
+  public Map<String, Long> getTotalBytesByStorageClass() {
+    return Collections.unmodifiableMap(totalBytesByStorageClass);
+  }
+
+  /** Objects directly under one prefix, and the prefixes of its sub-directories. */
+  private record Level(StorageStats stats, List<String> subPrefixes) {}
+}
@@ -0,0 +1,79 @@
+package bio.terra.cli.cloud.storage;
+
+import bio.terra.cli.exception.UserActionableException;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+/**
+ * Source or destination of a storage transfer: an object (or prefix) in a cloud bucket, or a local
+ * file (or directory).
+ *
+ * @param scheme where the data is
+ * @param bucket bucket name, or null for a local path
+ * @param path object name within the bucket, or the local path
+ */
+public record StorageUrl(Scheme scheme, @Nullable String bucket, String path) {
+  public enum Scheme {
+    LOCAL(""),
+    GCS("gs://"),
+    S3("s3://");
+
+    private final String prefix;
+
+    Scheme(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+      return prefix;
+    }
+  }
+
+  /**
+   * Parse a gs:// or s3:// URL, or a local path.
+   *
+   * @throws UserActionableException if a cloud URL has no bucket name
+   */
+  public static StorageUrl parse(String url) {
+    for (Scheme scheme : new Scheme[] {Scheme.GCS, Scheme.S3}) {
+      if (url.startsWith(scheme.prefix)) {
+        String bucketAndPath = url.substring(scheme.prefix.length());
+        int slash = bucketAndPath.indexOf('/');
+        String bucket = slash < 0 ? bucketAndPath : bucketAndPath.substring(0, slash);
+        if (bucket.isEmpty()) {
+          throw new UserActionableException("No bucket name in " + url + ".");
+        }
+        return new StorageUrl(scheme, bucket, slash < 0 ? "" : bucketAndPath.substring(slash + 1));
+      }
+    }
+    return new StorageUrl(Scheme.LOCAL, null, url);
+  }
+
+  /** Get a local path as a {@link Path}. Only valid for {@link Scheme#LOCAL}. */
+  public Path toLocalPath() {
+    return Path.of(path);
+  }
+
+  /**
+   * Get the object or file under this prefix or directory with the given relative name, which uses
+   * "/" as the separator.
+   */
+  public StorageUrl child(String relativeName) {
+    if (scheme == Scheme.LOCAL) {
+      return new StorageUrl(scheme, null, toLocalPath().resolve(relativeName).toString());
+    }
+    String prefix = path.isEmpty() || path.endsWith("/") ? path : path + "/";
+    return new StorageUrl(scheme, bucket, prefix + relativeName);
+  }
+
+  /** Get the last component of the path, ignoring any trailing "/". */
+  public String getFileName() {
+    String trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+  }
+
+  @Override
+  public String toString() {
+    return scheme == Scheme.LOCAL ? path : scheme.prefix + bucket + "/" + path;
+  }
+}
@@ -0,0 +1,101 @@
+package bio.terra.cli.cloud.storage;
+
+import bio.terra.cli.exception.SystemException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local file that records which parts of a transfer have completed, so that an interrupted transfer
+ * can be resumed by running the same command again.
+ *
+ * <p>The first line identifies the version of the source that the parts were transferred from, and
+ * each following line is the index of a completed part. A journal for a different version of the
+ * source is discarded, so a source that changed between attempts is transferred from scratch.
+ */
+public class TransferJournal {
+  private static final Logger logger = LoggerFactory.getLogger(TransferJournal.class);
+  private static final String VERSION_PREFIX = "version ";
+
+  private final Path file;
+  private final Set<Integer> completedParts;
+
+  private TransferJournal(Path file, Set<Integer> completedParts) {
+    this.file = file;
+    this.completedParts = completedParts;
+  }
+
+  /**
+   * Open the journal for a transfer, creating it if it doesn't exist.
+   *
+   * @param file journal file
+   * @param sourceVersion identifies the contents of the source, e.g. its size and generation
+   */
+  public static TransferJournal open(Path file, String sourceVersion) {
+    String versionLine = VERSION_PREFIX + sourceVersion;
+    try {
+      if (Files.exists(file)) {
+        String contents = Files.readString(file, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>(contents.lines().toList());
+        // every line is written with its newline, so a last line without one was only partly
+        // written, e.g. "12" written as "1" when the previous attempt was killed mid-write
+        boolean partlyWritten = !contents.isEmpty() && !contents.endsWith("\n");
+        if (partlyWritten) {
+          lines.remove(lines.size() - 1);
+        }
+        if (!lines.isEmpty() && lines.get(0).equals(versionLine)) {
+          if (partlyWritten) {
+            // rewrite the journal without that line, so the next part isn't appended to it
+            Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+          }
+          Set<Integer> completedParts = new HashSet<>();
+          lines.stream()
+              .skip(1)
+              .filter(line -> line.matches("\\d+"))
+              .forEach(line -> completedParts.add(Integer.parseInt(line)));
+          logger.debug("Resuming transfer from journal {}: {} parts done", file, completedParts);
+          return new TransferJournal(file, completedParts);
+        }
+        logger.debug("Discarding journal {} for a different source version", file);
+      }
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.writeString(file, versionLine + "\n", StandardCharsets.UTF_8);
+      return new TransferJournal(file, new HashSet<>());
+    } catch (IOException ioEx) {
+      throw new SystemException("Error opening transfer journal " + file, ioEx);
+    }
+  }
+
+  /** Return true if the part was completed by this or a previous attempt. */
+  public synchronized boolean isComplete(int partIndex) {
+    return completedParts.contains(partIndex);
+  }
+
+  /** Record that a part has completed. */
+  public synchronized void markComplete(int partIndex) {
+    try {
+      Files.writeString(
+          file, partIndex + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+      completedParts.add(partIndex);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing transfer journal " + file, ioEx);
+    }
+  }
+
+  /** Delete the journal, once the transfer has completed or can't be resumed. */
+  public void delete() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ioEx) {
+      logger.warn("Error deleting transfer journal {}", file, ioEx);
+    }
+  }
+}
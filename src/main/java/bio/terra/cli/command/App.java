@@ -2,6 +2,7 @@ package bio.terra.cli.command;
 
 import bio.terra.cli.command.app.Execute;
 import bio.terra.cli.command.app.List;
+import bio.terra.cli.command.app.Stop;
 import picocli.CommandLine.Command;
 
 /**
@@ -15,5 +16,5 @@ import picocli.CommandLine.Command;
         "The Terra CLI allows running supported third-party applications within the context of a workspace. "
             + "The `app-launch` config property controls how tools are run: either in a Docker container, or as a child process. \n\n"
             + "Nextflow and the `gcloud` SDK are the first examples of supported third-party applications.",
-    subcommands = {Execute.class, List.class})
+    subcommands = {Execute.class, List.class, Stop.class})
 public class App {}
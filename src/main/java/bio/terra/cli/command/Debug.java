@@ -0,0 +1,14 @@
+package bio.terra.cli.command;
+
+import bio.terra.cli.command.debug.Metrics;
+import picocli.CommandLine.Command;
+
+/**
+ * This class corresponds to the second-level "terra debug" command. This command is not valid by
+ * itself; it is just a grouping keyword for it sub-commands.
+ */
+@Command(
+    name = "debug",
+    description = "Diagnose the performance of the CLI.",
+    subcommands = {Metrics.class})
+public class Debug {}
@@ -1,17 +1,25 @@
 package bio.terra.cli.command;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.RequestMetrics;
 import bio.terra.cli.command.app.passthrough.Bq;
 import bio.terra.cli.command.app.passthrough.Gcloud;
 import bio.terra.cli.command.app.passthrough.Git;
 import bio.terra.cli.command.app.passthrough.Gsutil;
 import bio.terra.cli.command.app.passthrough.Nextflow;
+import bio.terra.cli.command.shared.options.JfrOption;
+import bio.terra.cli.command.shared.options.ProfileOption;
+import bio.terra.cli.command.shared.options.TraceOption;
 import bio.terra.cli.exception.PassthroughException;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.utils.Logger;
+import bio.terra.cli.utils.Tracer;
 import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.jfr.JfrRecording;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -59,7 +67,13 @@ import picocli.CommandLine.ParseResult;
             + "    terra workspace set --id=<workspace-id> \n"
             + "\n"
             + "- Create a Terra-managed bucket for temporary data storage. \n"
-            + "    terra resource create gcs-bucket --name=<name> --bucket-name=<name> \n",
+            + "    terra resource create gcs-bucket --name=<name> --bucket-name=<name> \n"
+            + "\n"
+            + "- Run a command against a separate, named profile (e.g. for parallel jobs). \n"
+            + "    terra --profile=<name> workspace set --id=<workspace-id> \n"
+            + "\n"
+            + "- Record how long each part of a command took, to diagnose a slow command. \n"
+            + "    terra --trace=trace.json workspace list \n",
     subcommands = {
       App.class,
       Auth.class,
@@ -67,6 +81,7 @@ import picocli.CommandLine.ParseResult;
       Cluster.class,
       Config.class,
       Cromwell.class,
+      Debug.class,
       Folder.class,
       Gcloud.class,
       GenerateCompletion.class,
@@ -80,6 +95,7 @@ import picocli.CommandLine.ParseResult;
       Server.class,
       Spend.class,
       Status.class,
+      Storage.class,
       User.class,
       Version.class,
       Workspace.class
@@ -98,9 +114,16 @@ public class Main implements Runnable {
           .stackTraces(CommandLine.Help.Ansi.Style.italic)
           .build();
 
+  // names of the options defined on the top-level command, all of which take a value
+  private static final List<String> TOP_LEVEL_OPTIONS = List.of("--profile", "--trace", "--jfr");
+
   /** List of user input command and arguments. */
   private static List<String> argList = List.of();
 
+  @CommandLine.Mixin ProfileOption profileOption;
+  @CommandLine.Mixin TraceOption traceOption;
+  @CommandLine.Mixin JfrOption jfrOption;
+
   /**
    * Create and execute the top-level command. Tests call this method instead of {@link
    * #main(String...)} so that the process isn't terminated.
@@ -110,15 +133,18 @@ public class Main implements Runnable {
    */
   @VisibleForTesting
   public static int runCommand(String... args) {
-    CommandLine cmd = new CommandLine(new Main());
+    CommandLine cmd = buildCommandLine(args);
     cmd.setExecutionStrategy(new CommandLine.RunLast());
     cmd.setExecutionExceptionHandler(new UserActionableAndSystemExceptionHandler());
     cmd.setColorScheme(colorScheme);
     cmd.setCaseInsensitiveEnumValuesAllowed(true);
 
     // Hide the "generate-completion" subcommand
-    CommandLine gen = cmd.getSubcommands().get("generate-completion");
-    gen.getCommandSpec().usageMessage().hidden(true);
+    Map<String, CommandLine> subcommands = cmd.getSubcommands();
+    CommandLine gen = subcommands.get("generate-completion");
+    if (gen != null) {
+      gen.getCommandSpec().usageMessage().hidden(true);
+    }
 
     // set the output and error streams to the defaults: stdout, stderr
     // save pointers to these streams in a singleton class, so we can access them throughout the
@@ -128,14 +154,36 @@ public class Main implements Runnable {
     // allow mixing options and parameters for all commands except the pass-through app commands.
     // this is because any options that follow the app command name should NOT be interpreted by the
     // Terra CLI, we want to pass those through to the app instead
-    Map<String, CommandLine> subcommands = cmd.getSubcommands();
-    subcommands.get("bq").setStopAtPositional(true);
-    subcommands.get("gsutil").setStopAtPositional(true);
-    subcommands.get("nextflow").setStopAtPositional(true);
-    subcommands.get("app").getSubcommands().get("execute").setStopAtPositional(true);
+    // (only the invoked branch of the command tree may have been built, see buildCommandLine)
+    for (String passthroughCommand : List.of("bq", "gsutil", "nextflow")) {
+      CommandLine passthrough = subcommands.get(passthroughCommand);
+      if (passthrough != null) {
+        passthrough.setStopAtPositional(true);
+      }
+    }
+    CommandLine app = subcommands.get("app");
+    if (app != null) {
+      app.getSubcommands().get("execute").setStopAtPositional(true);
+    }
 
-    // delegate to the appropriate command class, or print the usage if no command was specified
-    int exitCode = cmd.execute(args);
+    // delegate to the appropriate command class, or print the usage if no command was specified.
+    // hold any changes to the context in memory while the command runs, and write them to disk
+    // once at the end, even if the command failed partway through.
+    int exitCode;
+    Context.setProfileOverride(null);
+    Tracer.reset();
+    JfrRecording.startFromEnvironment();
+    Context.beginDeferredWrites();
+    try {
+      exitCode = cmd.execute(args);
+    } finally {
+      try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "context.write")) {
+        Context.endDeferredWrites();
+      }
+    }
+    Tracer.export(getInvokedCommandName(cmd), exitCode);
+    RequestMetrics.flush();
+    JfrRecording.stop();
     if (args.length == 0) {
       cmd.usage(cmd.getOut());
     }
@@ -143,6 +191,85 @@ public class Main implements Runnable {
     return exitCode;
   }
 
+  /**
+   * Get the qualified name of the most specific command that was parsed (e.g. "terra workspace
+   * list"). This doesn't include any option or parameter values.
+   *
+   * @param cmd the top-level command line, after executing
+   * @return the qualified command name
+   */
+  private static String getInvokedCommandName(CommandLine cmd) {
+    ParseResult parseResult = cmd.getParseResult();
+    if (parseResult == null) {
+      return cmd.getCommandSpec().qualifiedName();
+    }
+    List<CommandLine> parsedCommands = parseResult.asCommandLineList();
+    return parsedCommands.get(parsedCommands.size() - 1).getCommandSpec().qualifiedName();
+  }
+
+  /**
+   * Build the command tree for the given arguments. Building the picocli model for all of the
+   * command classes is a large part of the startup time of short commands, so when the top-level
+   * subcommand can be determined from the arguments, only that branch of the tree is built.
+   * Otherwise (e.g. no arguments, top-level options only, an unknown subcommand), the full tree is
+   * built so that usage and error messages list all of the commands.
+   *
+   * @param args command and arguments
+   * @return the top-level command line
+   */
+  private static CommandLine buildCommandLine(String... args) {
+    Optional<Class<?>> subcommandClass = findTopLevelSubcommand(args);
+    if (subcommandClass.isEmpty()) {
+      return new CommandLine(new Main());
+    }
+    CommandLine cmd = new CommandLine(new SingleBranchMain());
+    cmd.addSubcommand(new CommandLine(subcommandClass.get()));
+    return cmd;
+  }
+
+  /**
+   * Find the class of the top-level subcommand named by the first positional argument, skipping
+   * over any top-level options.
+   *
+   * @param args command and arguments
+   * @return the subcommand class, or empty if the full command tree is needed
+   */
+  private static Optional<Class<?>> findTopLevelSubcommand(String... args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (TOP_LEVEL_OPTIONS.contains(arg)) {
+        // skip over the option value
+        i++;
+      } else if (TOP_LEVEL_OPTIONS.stream().noneMatch(option -> arg.startsWith(option + "="))) {
+        if (arg.startsWith("-")) {
+          return Optional.empty();
+        }
+        Class<?> subcommandClass = getTopLevelSubcommands().get(arg);
+        // completion scripts are generated from the full command tree
+        return subcommandClass == null || subcommandClass.equals(GenerateCompletion.class)
+            ? Optional.empty()
+            : Optional.of(subcommandClass);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Get the top-level subcommands declared on this class, keyed by name and alias. This only reads
+   * the {@link Command} annotations, it doesn't build the picocli model for them.
+   */
+  private static Map<String, Class<?>> getTopLevelSubcommands() {
+    Map<String, Class<?>> subcommands = new HashMap<>();
+    for (Class<?> subcommandClass : Main.class.getAnnotation(Command.class).subcommands()) {
+      Command command = subcommandClass.getAnnotation(Command.class);
+      subcommands.put(command.name(), subcommandClass);
+      for (String alias : command.aliases()) {
+        subcommands.put(alias, subcommandClass);
+      }
+    }
+    return subcommands;
+  }
+
   /**
    * Main entry point into the CLI application. This creates and executes the top-level command,
    * sets the exit code and terminates the process.
@@ -156,6 +283,9 @@ public class Main implements Runnable {
     // run the command
     int exitCode = runCommand(args);
 
+    // make sure any buffered log events are written to the log file before exiting
+    Logger.shutdown();
+
     // set the exit code and terminate the process
     System.exit(exitCode);
   }
@@ -169,6 +299,22 @@ public class Main implements Runnable {
   @Override
   public void run() {}
 
+  /**
+   * Top-level command used when only a single branch of the command tree is built. This has the
+   * same name and top-level options as {@link Main}, but no subcommands. See {@link
+   * #buildCommandLine}.
+   */
+  @Command(name = "terra")
+  private static class SingleBranchMain implements Runnable {
+    @CommandLine.Mixin ProfileOption profileOption;
+    @CommandLine.Mixin TraceOption traceOption;
+    @CommandLine.Mixin JfrOption jfrOption;
+
+    /** Required method to implement Runnable, but not actually called by picocli. */
+    @Override
+    public void run() {}
+  }
+
   /**
    * Custom handler class that intercepts all exceptions.
    *
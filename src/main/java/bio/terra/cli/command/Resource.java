@@ -6,12 +6,15 @@ import bio.terra.cli.command.resource.Create;
 import bio.terra.cli.command.resource.Credentials;
 import bio.terra.cli.command.resource.Delete;
 import bio.terra.cli.command.resource.Describe;
+import bio.terra.cli.command.resource.Export;
 import bio.terra.cli.command.resource.List;
 import bio.terra.cli.command.resource.ListTree;
 import bio.terra.cli.command.resource.Mount;
 import bio.terra.cli.command.resource.MoveToFolder;
 import bio.terra.cli.command.resource.OpenConsole;
 import bio.terra.cli.command.resource.Resolve;
+import bio.terra.cli.command.resource.Stats;
+import bio.terra.cli.command.resource.Status;
 import bio.terra.cli.command.resource.Unmount;
 import bio.terra.cli.command.resource.Update;
 import picocli.CommandLine;
@@ -37,12 +40,15 @@ import picocli.CommandLine;
       Create.class,
       Delete.class,
       Describe.class,
+      Export.class,
       List.class,
       ListTree.class,
       Mount.class,
       MoveToFolder.class,
       OpenConsole.class,
       Resolve.class,
+      Stats.class,
+      Status.class,
       Unmount.class,
       Update.class
     })
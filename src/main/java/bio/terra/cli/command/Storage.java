@@ -0,0 +1,19 @@
+package bio.terra.cli.command;
+
+import bio.terra.cli.command.storage.Cp;
+import picocli.CommandLine;
+
+/**
+ * This class corresponds to the second-level "terra storage" command. This command is not valid by
+ * itself; it is just a grouping keyword for it sub-commands.
+ */
+@CommandLine.Command(
+    name = "storage",
+    header = "Transfer data to and from workspace buckets and storage folders.",
+    description =
+        "Copy files to, from and between cloud storage buckets without an external tool. \n\n"
+            + "Buckets can be addressed by URL (e.g. gs://my-bucket/path or "
+            + "s3://my-bucket/folder/path) or by workspace resource name "
+            + "(e.g. my-bucket-resource:/path).",
+    subcommands = {Cp.class})
+public class Storage {}
@@ -2,6 +2,7 @@ package bio.terra.cli.command.app;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.ReferenceScope;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import java.util.List;
 import picocli.CommandLine;
@@ -14,6 +15,7 @@ import picocli.CommandLine.Command;
         "[FOR DEBUG] Execute a command in the application container for the Terra workspace, with no setup.")
 public class Execute extends BaseCommand {
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin ReferenceScope referenceScopeOption;
 
   @CommandLine.Parameters(
       index = "0",
@@ -26,6 +28,9 @@ public class Execute extends BaseCommand {
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
-    Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
+    Context.getConfig()
+        .getCommandRunnerOption()
+        .getRunner()
+        .runToolCommand(command, referenceScopeOption.all);
   }
 }
@@ -0,0 +1,29 @@
+package bio.terra.cli.command.app;
+
+import bio.terra.cli.app.DockerCommandRunner;
+import bio.terra.cli.businessobject.Config.CommandRunnerOption;
+import bio.terra.cli.command.shared.BaseCommand;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra app stop" command. */
+@Command(
+    name = "stop",
+    description =
+        "Stop the Docker containers that are kept running between app commands "
+            + "(see `terra config set app-container-ttl`).")
+public class Stop extends BaseCommand {
+  /** Stop all reusable app containers for this installation. */
+  @Override
+  protected void execute() {
+    DockerCommandRunner dockerCommandRunner =
+        (DockerCommandRunner) CommandRunnerOption.DOCKER_CONTAINER.getRunner();
+    int numStopped = dockerCommandRunner.stopReusableContainers();
+    OUT.println("Stopped " + numStopped + " app container" + (numStopped == 1 ? "" : "s") + ".");
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
@@ -76,6 +76,9 @@ public class Gcloud extends ToolCommand {
       command.addAll(autoCommands);
     }
 
-    Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
+    Context.getConfig()
+        .getCommandRunnerOption()
+        .getRunner()
+        .runToolCommand(command, referenceScopeOption.all);
   }
 }
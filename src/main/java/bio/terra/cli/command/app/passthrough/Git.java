@@ -1,12 +1,26 @@
 package bio.terra.cli.command.app.passthrough;
 
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.exception.PassthroughException;
+import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
-import com.google.common.collect.ImmutableList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -16,8 +30,19 @@ import picocli.CommandLine.Command;
 public class Git extends ToolCommand {
   private static final Logger logger = LoggerFactory.getLogger(Git.class);
 
+  private static final int DEFAULT_PARALLELISM = 4;
+
   private record Repo(String resourceName, String url) {}
 
+  private enum CloneStatus {
+    CLONED,
+    UPDATED,
+    SKIPPED,
+    FAILED
+  }
+
+  private record CloneResult(Repo repo, CloneStatus status, String detail) {}
+
   @CommandLine.Option(
       names = "--resource",
       split = ",",
@@ -31,6 +56,35 @@ public class Git extends ToolCommand {
       description = "clone all the git repo resources in the current workspace")
   public boolean cloneAll;
 
+  // the options below only apply to cloning git repo resources with --all or --resource. they
+  // don't use git's option names, so that git's own options (e.g. --depth, --update) are passed
+  // through unchanged to other git commands.
+  @CommandLine.Option(
+      names = "--clone-parallelism",
+      description =
+          "maximum number of git repo resources to clone at the same time "
+              + "(default: "
+              + DEFAULT_PARALLELISM
+              + ")")
+  public Integer parallelism;
+
+  @CommandLine.Option(
+      names = "--clone-depth",
+      description = "create shallow clones with a history truncated to this many commits")
+  public Integer depth;
+
+  @CommandLine.Option(
+      names = "--clone-filter",
+      description =
+          "create partial clones with this object filter. Example: --clone-filter=blob:none")
+  public String filter;
+
+  @CommandLine.Option(
+      names = "--update-existing",
+      description =
+          "fast-forward git repo resources that are already cloned, instead of skipping them")
+  public boolean update;
+
   @Override
   public String getExecutableName() {
     return "git";
@@ -58,7 +112,15 @@ public class Git extends ToolCommand {
     }
 
     // handle other git commands
-    Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
+    if (parallelism != null || depth != null || filter != null || update) {
+      throw new UserActionableException(
+          "--clone-parallelism, --clone-depth, --clone-filter and --update-existing only apply to "
+              + "cloning git repo resources with --all or --resource.");
+    }
+    Context.getConfig()
+        .getCommandRunnerOption()
+        .getRunner()
+        .runToolCommand(command, referenceScopeOption.all);
   }
 
   private void validateCloneCommand() {
@@ -91,16 +153,145 @@ public class Git extends ToolCommand {
         .toList();
   }
 
+  /**
+   * Clone the given git repos into the current directory, up to --clone-parallelism at a time, and
+   * print a table with the status of each one. Repos that are already cloned are skipped, or
+   * fast-forwarded if --update-existing is specified.
+   *
+   * @throws UserActionableException if any of the repos failed to clone or update
+   */
   private void clone(List<Repo> gitRepos) {
-    gitRepos.forEach(
-        gitRepo -> {
-          List<String> cloneCommands =
-              ImmutableList.of("git", "clone", gitRepo.url, gitRepo.resourceName);
-          try {
-            Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(cloneCommands);
-          } catch (PassthroughException e) {
-            ERR.println("Git clone for " + gitRepo + " failed");
-          }
-        });
+    int parallelism = this.parallelism == null ? DEFAULT_PARALLELISM : this.parallelism;
+    if (parallelism < 1) {
+      throw new UserActionableException("--clone-parallelism must be at least 1.");
+    }
+    if (gitRepos.isEmpty()) {
+      OUT.println("No git repo resources found in the workspace.");
+      return;
+    }
+
+    List<CloneResult> results = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, gitRepos.size()));
+    try {
+      List<Future<CloneResult>> futures = new ArrayList<>();
+      for (Repo gitRepo : gitRepos) {
+        futures.add(executor.submit(() -> cloneOrUpdate(gitRepo, parallelism > 1)));
+      }
+      for (Future<CloneResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while cloning git repos", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new SystemException("Error cloning git repos", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // print the full URLs, since there's no --wide option to ask for them
+    TablePrinter<CloneResult> printer = Columns::values;
+    OUT.println(printer.print(results, true));
+
+    long numFailed = results.stream().filter(r -> r.status == CloneStatus.FAILED).count();
+    if (numFailed > 0) {
+      throw new UserActionableException(
+          String.format(
+              "%d of %d git repos failed to clone or update.", numFailed, results.size()));
+    }
+  }
+
+  /**
+   * Clone a single git repo, or skip or fast-forward it if it's already cloned.
+   *
+   * @param concurrent true if other repos may be cloned at the same time
+   */
+  private CloneResult cloneOrUpdate(Repo gitRepo, boolean concurrent) {
+    // progress output from concurrent commands would be interleaved, and concurrent credential
+    // prompts can't be answered, so fail instead of prompting
+    Map<String, String> envVars = new HashMap<>();
+    if (concurrent) {
+      envVars.put("GIT_TERMINAL_PROMPT", "0");
+    }
+
+    List<String> gitCommand = new ArrayList<>();
+    CloneStatus status;
+    if (Files.exists(Path.of(System.getProperty("user.dir"), gitRepo.resourceName, ".git"))) {
+      if (!update) {
+        return new CloneResult(gitRepo, CloneStatus.SKIPPED, "already cloned");
+      }
+      gitCommand.addAll(List.of("git", "-C", gitRepo.resourceName, "pull", "--ff-only"));
+      status = CloneStatus.UPDATED;
+    } else {
+      gitCommand.addAll(List.of("git", "clone"));
+      if (depth != null) {
+        gitCommand.add("--depth=" + depth);
+      }
+      if (filter != null) {
+        gitCommand.add("--filter=" + filter);
+      }
+      status = CloneStatus.CLONED;
+    }
+    if (concurrent) {
+      gitCommand.add("--quiet");
+    }
+    if (status == CloneStatus.CLONED) {
+      gitCommand.addAll(List.of(gitRepo.url, gitRepo.resourceName));
+    }
+
+    try {
+      Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(gitCommand, envVars);
+      return new CloneResult(gitRepo, status, "");
+    } catch (PassthroughException e) {
+      logger.debug("Git command for {} failed", gitRepo, e);
+      return new CloneResult(gitRepo, CloneStatus.FAILED, "exit code " + e.getExitCode());
+    }
+  }
+
+  /** Column information for the status table printed by `terra git clone`. */
+  private enum Columns implements ColumnDefinition<CloneResult> {
+    NAME("NAME", r -> r.repo.resourceName, 30, LEFT),
+    STATUS("STATUS", r -> r.status.toString(), 8, LEFT),
+    DETAIL("DETAIL", CloneResult::detail, 16, LEFT),
+    URL("URL", r -> r.repo.url, 50, LEFT);
+
+    private final String columnLabel;
+    private final Function<CloneResult, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    Columns(
+        String columnLabel,
+        Function<CloneResult, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<CloneResult, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
   }
 }
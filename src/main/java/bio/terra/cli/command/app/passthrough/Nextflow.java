@@ -37,7 +37,10 @@ public class Nextflow extends ToolCommand {
     addEnvVarIfDefinedInHost("TOWER_ACCESS_TOKEN", envVars);
     addEnvVarIfDefinedInHost("TOWER_WORKSPACE_ID", envVars);
 
-    Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command, envVars);
+    Context.getConfig()
+        .getCommandRunnerOption()
+        .getRunner()
+        .runToolCommand(command, envVars, referenceScopeOption.all);
   }
 
   private void addEnvVarIfDefinedInHost(String envVarName, Map<String, String> envVars) {
@@ -4,6 +4,7 @@ import bio.terra.cli.app.utils.LocalProcessLauncher;
 import bio.terra.cli.businessobject.Config.CommandRunnerOption;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.ReferenceScope;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
@@ -20,6 +21,7 @@ public abstract class ToolCommand extends BaseCommand {
 
   @CommandLine.Unmatched protected final List<String> command = new ArrayList<>();
   @CommandLine.Mixin protected WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin protected ReferenceScope referenceScopeOption;
 
   /** Return the name used to invoke this command in the shell. */
   public abstract String getExecutableName();
@@ -55,7 +57,10 @@ public abstract class ToolCommand extends BaseCommand {
     // no need for any special setup or teardown logic since command is already initialized when the
     // container starts
     command.add(0, getExecutableName());
-    Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
+    Context.getConfig()
+        .getCommandRunnerOption()
+        .getRunner()
+        .runToolCommand(command, referenceScopeOption.all);
   }
 
   /**
@@ -2,8 +2,10 @@ package bio.terra.cli.command.cluster;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.cloud.compute.ComputeFleet.Action;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.DataprocClusterName;
+import bio.terra.cli.command.shared.options.BulkDataprocClusterName;
+import bio.terra.cli.command.shared.options.BulkInstanceOperation;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.AxonServerService;
@@ -18,11 +20,20 @@ import picocli.CommandLine;
     showDefaultValues = true)
 public class Stop extends BaseCommand {
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
-  @CommandLine.Mixin DataprocClusterName dataprocClusterName;
+  @CommandLine.Mixin BulkInstanceOperation bulkOption;
+  @CommandLine.Mixin BulkDataprocClusterName dataprocClusterName;
 
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
+    if (dataprocClusterName.isBulk()) {
+      bulkOption.run(
+          BulkDataprocClusterName.RESOURCE_TYPES,
+          dataprocClusterName.toBulkSelector(),
+          Action.STOP);
+      return;
+    }
+    bulkOption.checkSingleInstance();
     Workspace workspace = Context.requireWorkspace();
 
     if (workspace.getCloudPlatform() == CloudPlatform.GCP) {
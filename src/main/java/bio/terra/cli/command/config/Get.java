@@ -1,5 +1,6 @@
 package bio.terra.cli.command.config;
 
+import bio.terra.cli.command.config.get.AppContainerTtl;
 import bio.terra.cli.command.config.get.AppLaunch;
 import bio.terra.cli.command.config.get.Browser;
 import bio.terra.cli.command.config.get.Format;
@@ -18,6 +19,7 @@ import picocli.CommandLine.Command;
     name = "get",
     description = "Get a configuration property value.",
     subcommands = {
+      AppContainerTtl.class,
       AppLaunch.class,
       Browser.class,
       Format.class,
@@ -7,6 +7,7 @@ import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.serialization.userfacing.UFConfig;
 import bio.terra.cli.serialization.userfacing.UFConfigItem;
 import java.util.function.Function;
@@ -18,12 +19,13 @@ import picocli.CommandLine;
     description = "List all configuration properties and their values.")
 public class List extends BaseCommand {
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   /** Print this command's output in text format. */
-  private static void printText(java.util.List<UFConfigItem> returnValue) {
+  private void printText(java.util.List<UFConfigItem> returnValue) {
     TablePrinter<UFConfigItem> printer =
         bio.terra.cli.command.config.List.UFConfigItemColumns::values;
-    OUT.println(printer.print(returnValue));
+    OUT.println(printer.print(returnValue, tableWidthOption.wide));
   }
 
   /** Print out a list of all the config properties. */
@@ -31,7 +33,7 @@ public class List extends BaseCommand {
   protected void execute() {
     formatOption.printReturnValue(
         new UFConfig(Context.getConfig(), Context.getServer(), Context.getWorkspace()).items,
-        List::printText);
+        this::printText);
   }
 
   /** This command never requires login. */
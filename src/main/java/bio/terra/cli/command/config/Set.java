@@ -1,5 +1,6 @@
 package bio.terra.cli.command.config;
 
+import bio.terra.cli.command.config.set.AppContainerTtl;
 import bio.terra.cli.command.config.set.AppLaunch;
 import bio.terra.cli.command.config.set.Browser;
 import bio.terra.cli.command.config.set.Format;
@@ -18,6 +19,7 @@ import picocli.CommandLine.Command;
     name = "set",
     description = "Set a configuration property value.",
     subcommands = {
+      AppContainerTtl.class,
       AppLaunch.class,
       Browser.class,
       Format.class,
@@ -0,0 +1,28 @@
+package bio.terra.cli.command.config.get;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config get app-container-ttl" command. */
+@Command(
+    name = "app-container-ttl",
+    description =
+        "Get the number of idle minutes before a reused app container stops (0 = not reused).")
+public class AppContainerTtl extends BaseCommand {
+  @CommandLine.Mixin Format formatOption;
+
+  /** Return the app container TTL property of the global context. */
+  @Override
+  protected void execute() {
+    formatOption.printReturnValue(Context.getConfig().getAppContainerTtlMinutes());
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
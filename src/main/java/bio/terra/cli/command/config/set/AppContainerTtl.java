@@ -0,0 +1,48 @@
+package bio.terra.cli.command.config.set;
+
+import bio.terra.cli.businessobject.Config;
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.exception.UserActionableException;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config set app-container-ttl" command. */
+@Command(
+    name = "app-container-ttl",
+    description =
+        "Configure how long a Docker container for apps is kept running between app commands.")
+public class AppContainerTtl extends BaseCommand {
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "minutes",
+      description =
+          "Number of idle minutes before a reused app container stops. Set to 0 to start a new "
+              + "container for each app command. Only applies to the DOCKER_CONTAINER app launch "
+              + "mode.")
+  private int minutes;
+
+  /** Updates the app container TTL property of the global context. */
+  @Override
+  protected void execute() {
+    if (minutes < 0) {
+      throw new UserActionableException("App container TTL cannot be negative.");
+    }
+    Config config = Context.getConfig();
+    int prevMinutes = config.getAppContainerTtlMinutes();
+    config.setAppContainerTtlMinutes(minutes);
+
+    OUT.println(
+        "App container TTL is "
+            + config.getAppContainerTtlMinutes()
+            + " minutes ("
+            + (config.getAppContainerTtlMinutes() == prevMinutes ? "UNCHANGED" : "CHANGED")
+            + ").");
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
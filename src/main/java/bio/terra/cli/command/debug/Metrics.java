@@ -0,0 +1,115 @@
+package bio.terra.cli.command.debug;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.RIGHT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.businessobject.RequestMetrics;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
+import bio.terra.cli.serialization.userfacing.UFEndpointMetrics;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra debug metrics" command. */
+@Command(
+    name = "metrics",
+    description =
+        "Print the latency and retry counts of each server and cloud request, accumulated across "
+            + "all commands run on this machine.")
+public class Metrics extends BaseCommand {
+  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
+
+  @CommandLine.Option(names = "--reset", description = "Clear the accumulated metrics.")
+  private boolean reset;
+
+  /** Print or clear the accumulated request metrics. */
+  @Override
+  protected void execute() {
+    if (reset) {
+      RequestMetrics.reset();
+      OUT.println("Request metrics cleared.");
+      return;
+    }
+    formatOption.printReturnValue(
+        RequestMetrics.list().stream().map(UFEndpointMetrics::new).collect(Collectors.toList()),
+        this::printText);
+  }
+
+  /** Print this command's output in text format. */
+  private void printText(List<UFEndpointMetrics> returnValue) {
+    if (returnValue.isEmpty()) {
+      OUT.println("No requests recorded since the metrics were last cleared.");
+      if (!RequestMetrics.isEnabled()) {
+        OUT.println(
+            "To record them, set the "
+                + RequestMetrics.METRICS_ENV_VAR_NAME
+                + " environment variable to true.");
+      }
+      return;
+    }
+    TablePrinter<UFEndpointMetrics> printer = Columns::values;
+    OUT.println(printer.print(returnValue, tableWidthOption.wide));
+    OUT.println("Metrics file: " + RequestMetrics.getMetricsFile().toAbsolutePath());
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+
+  /** Column information for table output with `terra debug metrics` */
+  private enum Columns implements ColumnDefinition<UFEndpointMetrics> {
+    ENDPOINT("ENDPOINT", m -> m.endpoint, 60, LEFT),
+    CALLS("CALLS", m -> String.valueOf(m.calls), 8, RIGHT),
+    RETRIES("RETRIES", m -> String.valueOf(m.retries), 8, RIGHT),
+    FAILURES("FAILURES", m -> String.valueOf(m.failures), 8, RIGHT),
+    P50("P50 (MS)", m -> String.valueOf(m.p50LatencyMs), 10, RIGHT),
+    P90("P90 (MS)", m -> String.valueOf(m.p90LatencyMs), 10, RIGHT),
+    P99("P99 (MS)", m -> String.valueOf(m.p99LatencyMs), 10, RIGHT),
+    MAX("MAX (MS)", m -> String.valueOf(m.maxLatencyMs), 10, RIGHT);
+
+    private final String columnLabel;
+    private final Function<UFEndpointMetrics, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    Columns(
+        String columnLabel,
+        Function<UFEndpointMetrics, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<UFEndpointMetrics, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
@@ -8,6 +8,7 @@ import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Group;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.serialization.userfacing.UFGroup;
 import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
@@ -19,11 +20,12 @@ import picocli.CommandLine.Command;
 @Command(name = "list", description = "List the groups to which the current user belongs.")
 public class List extends BaseCommand {
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   /** Print this command's output in text format. */
-  private static void printText(java.util.List<UFGroup> returnValue) {
+  private void printText(java.util.List<UFGroup> returnValue) {
     TablePrinter<UFGroup> printer = bio.terra.cli.command.group.List.UFGroupColumns::values;
-    OUT.println(printer.print(returnValue));
+    OUT.println(printer.print(returnValue, tableWidthOption.wide));
   }
 
   /** List the groups to which the current user belongs. */
@@ -31,7 +33,7 @@ public class List extends BaseCommand {
   protected void execute() {
     formatOption.printReturnValue(
         UserIO.sortAndMap(Group.list(), Comparator.comparing(Group::getName), UFGroup::new),
-        List::printText);
+        this::printText);
   }
 
   /** Column information for fields in `resource list` output */
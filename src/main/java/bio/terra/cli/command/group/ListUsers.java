@@ -8,6 +8,7 @@ import bio.terra.cli.businessobject.Group;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
 import bio.terra.cli.command.shared.options.GroupName;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.serialization.userfacing.UFGroupMember;
 import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
@@ -21,11 +22,12 @@ import picocli.CommandLine.Command;
 public class ListUsers extends BaseCommand {
   @CommandLine.Mixin GroupName groupNameOption;
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   /** Print this command's output in text format. */
-  private static void printText(List<UFGroupMember> returnValue) {
+  private void printText(List<UFGroupMember> returnValue) {
     TablePrinter<UFGroupMember> printer = UFGroupMemberColumns::values;
-    OUT.println(printer.print(returnValue));
+    OUT.println(printer.print(returnValue, tableWidthOption.wide));
   }
 
   /** List the users in the given group. */
@@ -36,7 +38,7 @@ public class ListUsers extends BaseCommand {
             Group.get(groupNameOption.name).getMembers(),
             Comparator.comparing(Group.Member::getEmail),
             UFGroupMember::new),
-        ListUsers::printText);
+        this::printText);
   }
 
   /** Column information for fields in `resource list` output */
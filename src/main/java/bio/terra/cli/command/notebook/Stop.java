@@ -3,9 +3,11 @@ package bio.terra.cli.command.notebook;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook;
+import bio.terra.cli.cloud.compute.ComputeFleet.Action;
 import bio.terra.cli.cloud.gcp.GoogleNotebooks;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.NotebookInstance;
+import bio.terra.cli.command.shared.options.BulkInstanceOperation;
+import bio.terra.cli.command.shared.options.BulkNotebookInstance;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.WorkspaceManagerServiceAws;
@@ -19,12 +21,19 @@ import picocli.CommandLine;
     description = "Stop a running Notebook instance within your workspace.",
     showDefaultValues = true)
 public class Stop extends BaseCommand {
-  @CommandLine.Mixin NotebookInstance instanceOption;
+  @CommandLine.Mixin BulkNotebookInstance instanceOption;
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin BulkInstanceOperation bulkOption;
 
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
+    if (instanceOption.isBulk()) {
+      bulkOption.run(
+          BulkNotebookInstance.RESOURCE_TYPES, instanceOption.toBulkSelector(), Action.STOP);
+      return;
+    }
+    bulkOption.checkSingleInstance();
     Workspace workspace = Context.requireWorkspace();
 
     if (workspace.getCloudPlatform() == CloudPlatform.GCP) {
@@ -1,18 +1,23 @@
 package bio.terra.cli.command.resource;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.CredentialsCache;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.command.shared.WsmBaseCommand;
 import bio.terra.cli.command.shared.options.Format;
 import bio.terra.cli.command.shared.options.ResourceName;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Optional;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
 /** This class corresponds to the third-level "terra resource credentials" command. */
 @Command(
     name = "credentials",
-    description = "Retrieve temporary credentials to access a cloud resource.")
+    description =
+        "Retrieve temporary credentials to access a cloud resource. In JSON format, credentials "
+            + "are cached until shortly before they expire.")
 public class Credentials extends WsmBaseCommand {
   @CommandLine.Mixin ResourceName resourceNameOption;
 
@@ -32,12 +37,59 @@ public class Credentials extends WsmBaseCommand {
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
   @CommandLine.Mixin Format formatOption;
 
+  /**
+   * Print cached credentials without checking the server version, loading the user's credentials
+   * or calling WSM, if there are any. AWS profiles run this command every time credentials are
+   * needed, so this is what most calls do. Otherwise run the command as usual.
+   */
+  @Override
+  protected Optional<Integer> tryFastPath() {
+    // the workspace uuid is only known without calling WSM for the current workspace, and the
+    // resource id is only known from the last time credentials for this name were fetched
+    if (!workspaceOption.isSpecified()
+        && formatOption.getEffectiveFormatOption() == Format.FormatOptions.JSON
+        && Context.getUser().isPresent()
+        && Context.getWorkspace().isPresent()) {
+      Optional<JsonNode> cached =
+          CredentialsCache.getByAlias(getCacheKey("name=" + resourceNameOption.name));
+      if (cached.isPresent()) {
+        Format.printJson(cached.get());
+        return Optional.of(0);
+      }
+    }
+    return super.tryFastPath();
+  }
+
   /** Get credentials to access the cloud resource. */
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
     Resource resource = Context.requireWorkspace().getResource(resourceNameOption.name);
-    Object object = resource.getCredentials(scope, duration);
-    formatOption.printReturnValue(object);
+    if (formatOption.getEffectiveFormatOption() == Format.FormatOptions.JSON) {
+      // only JSON is cached, since that's what credential_process reads
+      String cacheKey = getCacheKey("id=" + resource.getId());
+      Format.printJson(
+          CredentialsCache.getOrFetch(cacheKey, () -> resource.getCredentials(scope, duration)));
+      CredentialsCache.putAlias(getCacheKey("name=" + resourceNameOption.name), cacheKey);
+    } else {
+      formatOption.printReturnValue(resource.getCredentials(scope, duration));
+    }
+  }
+
+  /**
+   * Identify the credentials for this user, workspace, resource, scope and duration.
+   *
+   * @param resource "id=<resource id>", or "name=<resource name>" for the alias that the fast path
+   *     looks up
+   */
+  private String getCacheKey(String resource) {
+    return String.join(
+        "\n",
+        Context.requireUser().getEmail(),
+        Context.getServer().getName(),
+        Context.requireWorkspace().getUuid().toString(),
+        resource,
+        scope.name(),
+        String.valueOf(duration));
   }
 }
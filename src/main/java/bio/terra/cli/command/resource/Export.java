@@ -0,0 +1,128 @@
+package bio.terra.cli.command.resource;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.BqTable;
+import bio.terra.cli.cloud.gcp.BigQueryExport;
+import bio.terra.cli.cloud.gcp.BigQueryExport.FileFormat;
+import bio.terra.cli.cloud.gcp.GoogleBigQuery;
+import bio.terra.cli.command.shared.WsmBaseCommand;
+import bio.terra.cli.command.shared.options.ResourceName;
+import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.exception.UserActionableException;
+import com.google.api.services.bigquery.model.Table;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra resource export" command. */
+@Command(
+    name = "export",
+    description =
+        "Export a BigQuery table to a local file. The table is read with the BigQuery Storage "
+            + "Read API in parallel streams, and written to the file as it's read.")
+public class Export extends WsmBaseCommand {
+  private static final int DEFAULT_PARALLELISM = 8;
+  // BigQuery table type for views, which the Storage Read API can't read
+  private static final String VIEW_TABLE_TYPE = "VIEW";
+
+  @CommandLine.Mixin ResourceName resourceNameOption;
+
+  @CommandLine.Option(
+      names = "--format",
+      defaultValue = "CSV",
+      description =
+          "File format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}). ARROW writes an "
+              + "Arrow IPC stream, the fastest format, which tools like pyarrow can convert to "
+              + "Parquet.")
+  private FileFormat fileFormat;
+
+  @CommandLine.Option(
+      names = "--output",
+      description = "File to write to. Defaults to <table id>.<format> in the current directory.")
+  private Path output;
+
+  @CommandLine.Option(
+      names = "--columns",
+      split = ",",
+      description = "Comma-separated list of the columns to export. Defaults to all columns.")
+  private List<String> columns = new ArrayList<>();
+
+  @CommandLine.Option(
+      names = "--filter",
+      description =
+          "Only export the rows that match this SQL condition, e.g. \"year = 2023 AND "
+              + "state = 'CA'\".")
+  private String filter;
+
+  @CommandLine.Option(
+      names = "--parallelism",
+      defaultValue = "" + DEFAULT_PARALLELISM,
+      description =
+          "Maximum number of streams to read the table in at the same time "
+              + "(default: ${DEFAULT-VALUE}).")
+  private int parallelism;
+
+  @CommandLine.Mixin WorkspaceOverride workspaceOption;
+
+  /** Export a BigQuery table. */
+  @Override
+  protected void execute() {
+    workspaceOption.overrideIfSpecified();
+    if (parallelism < 1) {
+      throw new UserActionableException("--parallelism must be at least 1.");
+    }
+    BqTable table =
+        Context.requireWorkspace()
+            .getResource(resourceNameOption.name)
+            .castToType(Resource.Type.BQ_TABLE);
+
+    Table tableInfo =
+        GoogleBigQuery.fromContextForPetSa()
+            .getDataTable(table.getProjectId(), table.getDatasetId(), table.getDataTableId())
+            .orElseThrow(
+                () ->
+                    new UserActionableException(
+                        "Table not found, or you don't have access to it: " + table.resolve()));
+    if (VIEW_TABLE_TYPE.equals(tableInfo.getType())) {
+      throw new UserActionableException(
+          "Views can't be exported. Export a table created from the view's query instead.");
+    }
+
+    String defaultFileName = table.getDataTableId() + "." + fileFormat.getExtension();
+    Path destination = output != null ? output : Path.of(defaultFileName);
+    if (Files.isDirectory(destination)) {
+      destination = destination.resolve(defaultFileName);
+    }
+
+    Instant start = Instant.now();
+    long numRows;
+    try (BigQueryExport export = BigQueryExport.fromContextForPetSa()) {
+      numRows =
+          export.export(
+              Context.requireWorkspace().getRequiredGoogleProjectId(),
+              String.format(
+                  "projects/%s/datasets/%s/tables/%s",
+                  table.getProjectId(), table.getDatasetId(), table.getDataTableId()),
+              columns,
+              filter,
+              fileFormat,
+              parallelism,
+              destination);
+    }
+    double seconds = Math.max(Duration.between(start, Instant.now()).toMillis(), 1) / 1000.0;
+    OUT.println(
+        String.format(
+            "Exported %d rows to %s (%s) in %.1f s.",
+            numRows,
+            destination,
+            FileUtils.byteCountToDisplaySize(FileUtils.sizeOf(destination.toFile())),
+            seconds));
+  }
+}
@@ -8,6 +8,7 @@ import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.command.shared.WsmBaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.serialization.userfacing.UFResource;
 import bio.terra.workspace.model.StewardshipType;
@@ -21,6 +22,7 @@ import picocli.CommandLine;
 public class List extends WsmBaseCommand {
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   @CommandLine.Option(
       names = "--stewardship",
@@ -33,9 +35,9 @@ public class List extends WsmBaseCommand {
   private Resource.Type type;
 
   /** Print this command's output in tabular text format. */
-  private static void printText(java.util.List<UFResource> returnValue) {
+  private void printText(java.util.List<UFResource> returnValue) {
     TablePrinter<UFResource> printer = UFResourceColumns::values;
-    OUT.println(printer.print(returnValue));
+    OUT.println(printer.print(returnValue, tableWidthOption.wide));
   }
 
   /** List the resources in the workspace. */
@@ -54,7 +56,7 @@ public class List extends WsmBaseCommand {
             .sorted(Comparator.comparing(Resource::getName))
             .map(Resource::serializeToCommand)
             .collect(Collectors.toList());
-    formatOption.printReturnValue(resources, List::printText);
+    formatOption.printReturnValue(resources, this::printText);
   }
 
   /** Column information for fields in `resource list` output */
@@ -0,0 +1,162 @@
+package bio.terra.cli.command.resource;
+
+import static bio.terra.cli.businessobject.resource.AwsS3StorageFolder.S3_BUCKET_URL_PREFIX;
+import static bio.terra.cli.businessobject.resource.GcsBucket.GCS_BUCKET_URL_PREFIX;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.AwsS3StorageFolder;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.businessobject.resource.GcsObject;
+import bio.terra.cli.cloud.gcp.GoogleCloudStorage;
+import bio.terra.cli.cloud.storage.ObjectLister;
+import bio.terra.cli.cloud.storage.StorageObject;
+import bio.terra.cli.cloud.storage.StorageStats;
+import bio.terra.cli.command.shared.WsmBaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.ResourceName;
+import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.serialization.userfacing.UFStorageStats;
+import bio.terra.cli.service.WorkspaceManagerServiceAws;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra resource stats" command. */
+@Command(
+    name = "stats",
+    description =
+        "Count the objects and total size of a GCS bucket, GCS object or AWS S3 storage folder, "
+            + "with a breakdown by storage class. Sub-directories are listed concurrently.")
+public class Stats extends WsmBaseCommand {
+  private static final int DEFAULT_PARALLELISM = 16;
+  // size, storage class and URL of each object or sub-directory in --ls mode
+  private static final String LS_FORMAT = "%15s  %-14s  %s";
+
+  @CommandLine.Mixin ResourceName resourceNameOption;
+
+  @CommandLine.Option(
+      names = "--prefix",
+      description = "Only count the objects under this sub-directory of the resource.")
+  private String prefix;
+
+  @CommandLine.Option(
+      names = "--parallelism",
+      defaultValue = "" + DEFAULT_PARALLELISM,
+      description =
+          "Maximum number of sub-directories to list at the same time "
+              + "(default: ${DEFAULT-VALUE}).")
+  private int parallelism;
+
+  @CommandLine.Option(
+      names = "--ls",
+      description =
+          "Instead of counting, list the objects and sub-directories directly under the resource "
+              + "as they're returned. Output is always in TEXT format.")
+  private boolean ls;
+
+  @CommandLine.Mixin WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin Format formatOption;
+
+  /** Count or list the objects in a storage resource. */
+  @Override
+  protected void execute() {
+    workspaceOption.overrideIfSpecified();
+    if (parallelism < 1) {
+      throw new UserActionableException("--parallelism must be at least 1.");
+    }
+
+    Resource resource = Context.requireWorkspace().getResource(resourceNameOption.name);
+    Location location = getLocation(resource);
+    String listPrefix = getListPrefix(location);
+
+    if (ls) {
+      location.lister.list(
+          listPrefix,
+          false,
+          subPrefix -> OUT.println(String.format(LS_FORMAT, "", "", location.url(subPrefix))),
+          object -> printObject(location, object));
+      return;
+    }
+
+    StorageStats stats = StorageStats.collect(location.lister, listPrefix, parallelism);
+    formatOption.printReturnValue(
+        new UFStorageStats(resource.getName(), location.url(listPrefix), stats),
+        UFStorageStats::print);
+  }
+
+  /** Get the prefix to list under, with the --prefix sub-directory appended if specified. */
+  private String getListPrefix(Location location) {
+    if (prefix == null || prefix.isEmpty()) {
+      return location.prefix;
+    }
+    String resourcePrefix =
+        location.prefix.isEmpty() || location.prefix.endsWith("/")
+            ? location.prefix
+            : location.prefix + "/";
+    return resourcePrefix + (prefix.endsWith("/") ? prefix : prefix + "/");
+  }
+
+  /** Print a single object in --ls mode. */
+  private void printObject(Location location, StorageObject object) {
+    OUT.println(
+        String.format(
+            LS_FORMAT,
+            object.size(),
+            object.storageClass() == null ? "" : object.storageClass(),
+            location.url(object.name())));
+  }
+
+  /**
+   * Get the lister and prefix for a storage resource.
+   *
+   * @throws UserActionableException if the resource is not a bucket, object or storage folder
+   */
+  private static Location getLocation(Resource resource) {
+    return switch (resource.getResourceType()) {
+      case GCS_BUCKET -> {
+        String bucketName = ((GcsBucket) resource).getBucketName();
+        yield new Location(
+            GoogleCloudStorage.fromContextForPetSa().getObjectLister(bucketName),
+            GCS_BUCKET_URL_PREFIX + bucketName + "/",
+            "");
+      }
+      case GCS_OBJECT -> {
+        GcsObject gcsObject = (GcsObject) resource;
+        // the object name is listed as a prefix, which would also match its siblings
+        yield new Location(
+            ObjectLister.forObject(
+                GoogleCloudStorage.fromContextForPetSa().getObjectLister(gcsObject.getBucketName()),
+                gcsObject.getObjectName()),
+            GCS_BUCKET_URL_PREFIX + gcsObject.getBucketName() + "/",
+            gcsObject.getObjectName());
+      }
+      case AWS_S3_STORAGE_FOLDER -> {
+        AwsS3StorageFolder storageFolder = (AwsS3StorageFolder) resource;
+        yield new Location(
+            WorkspaceManagerServiceAws.fromContext()
+                .getObjectLister(Context.requireWorkspace().getUuid(), storageFolder),
+            S3_BUCKET_URL_PREFIX + storageFolder.getBucketName() + "/",
+            storageFolder.getPrefix() + "/");
+      }
+      default -> throw new UserActionableException(
+          "Stats are only available for GCS_BUCKET, GCS_OBJECT and AWS_S3_STORAGE_FOLDER "
+              + "resources, not "
+              + resource.getResourceType()
+              + ".");
+    };
+  }
+
+  /**
+   * Where the objects of a storage resource are.
+   *
+   * @param lister lister for the bucket
+   * @param bucketUrl URL of the bucket, ending in "/"
+   * @param prefix prefix of the resource within the bucket
+   */
+  private record Location(ObjectLister lister, String bucketUrl, String prefix) {
+    String url(String name) {
+      return bucketUrl + name;
+    }
+  }
+}
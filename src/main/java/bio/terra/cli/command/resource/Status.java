@@ -0,0 +1,140 @@
+package bio.terra.cli.command.resource;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.cloud.compute.ComputeFleet;
+import bio.terra.cli.command.shared.WsmBaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
+import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.serialization.userfacing.UFInstanceState;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Function;
+import picocli.CommandLine;
+
+/** This class corresponds to the third-level "terra resource status" command. */
+@CommandLine.Command(
+    name = "status",
+    description =
+        "Show the live state of every notebook and Dataproc cluster in the workspace. The states "
+            + "are fetched concurrently, and running instances are marked with a *.")
+public class Status extends WsmBaseCommand {
+  private static final int DEFAULT_PARALLELISM = 16;
+  private static final int DEFAULT_WATCH_INTERVAL_SECONDS = 30;
+
+  @CommandLine.Option(
+      names = "--parallelism",
+      defaultValue = "" + DEFAULT_PARALLELISM,
+      description =
+          "Maximum number of instances to fetch the state of at the same time "
+              + "(default: ${DEFAULT-VALUE}).")
+  private int parallelism;
+
+  @CommandLine.Option(
+      names = "--watch",
+      description =
+          "Fetch the states again every --interval seconds, until interrupted. The list of "
+              + "instances and their credentials are only fetched once.")
+  private boolean watch;
+
+  @CommandLine.Option(
+      names = "--interval",
+      defaultValue = "" + DEFAULT_WATCH_INTERVAL_SECONDS,
+      description = "Seconds between fetches in --watch mode (default: ${DEFAULT-VALUE}).")
+  private int intervalSeconds;
+
+  @CommandLine.Mixin WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
+
+  /** Print this command's output in tabular text format. */
+  private void printText(List<UFInstanceState> returnValue) {
+    TablePrinter<UFInstanceState> printer = UFInstanceStateColumns::values;
+    OUT.println(printer.print(returnValue, state -> state.running, tableWidthOption.wide));
+    long numRunning = returnValue.stream().filter(state -> state.running).count();
+    OUT.println(numRunning + " of " + returnValue.size() + " instances running.");
+  }
+
+  /** Show the state of the compute instances in the workspace. */
+  @Override
+  protected void execute() {
+    workspaceOption.overrideIfSpecified();
+    if (parallelism < 1) {
+      throw new UserActionableException("--parallelism must be at least 1.");
+    }
+    if (intervalSeconds < 1) {
+      throw new UserActionableException("--interval must be at least 1.");
+    }
+
+    try (ComputeFleet fleet = ComputeFleet.fromContext(parallelism)) {
+      while (true) {
+        List<UFInstanceState> states =
+            fleet.fetchStates().stream().map(UFInstanceState::new).toList();
+        if (watch && formatOption.getEffectiveFormatOption() == Format.FormatOptions.TEXT) {
+          OUT.println(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        }
+        formatOption.printReturnValue(states, this::printText);
+        if (!watch) {
+          return;
+        }
+        try {
+          Thread.sleep(intervalSeconds * 1000L);
+        } catch (InterruptedException intEx) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        OUT.println();
+      }
+    }
+  }
+
+  /** Column information for fields in `resource status` output */
+  private enum UFInstanceStateColumns implements ColumnDefinition<UFInstanceState> {
+    NAME("NAME", s -> s.name, 30, LEFT),
+    RESOURCE_TYPE("RESOURCE TYPE", s -> s.resourceType.toString(), 22, LEFT),
+    INSTANCE_ID("INSTANCE ID", s -> s.instanceId, 30, LEFT),
+    REGION("REGION", s -> s.region, 15, LEFT),
+    STATE("STATE", s -> s.state == null ? "(unavailable)" : s.state, 15, LEFT);
+
+    private final String columnLabel;
+    private final Function<UFInstanceState, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    UFInstanceStateColumns(
+        String columnLabel,
+        Function<UFInstanceState, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<UFInstanceState, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
@@ -8,6 +8,7 @@ import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Server;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.serialization.userfacing.UFServer;
 import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
@@ -19,6 +20,7 @@ import picocli.CommandLine.Command;
 @Command(name = "list", description = "List all available Terra servers.")
 public class List extends BaseCommand {
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   /** List all Terra environments. */
   @Override
@@ -33,7 +35,9 @@ public class List extends BaseCommand {
     Server currentServer = Context.getServer();
     TablePrinter<UFServer> printer = Columns::values;
     // print the UFServers, and highlight the current one
-    String text = printer.print(returnValue, s -> currentServer.getName().equals(s.name));
+    String text =
+        printer.print(
+            returnValue, s -> currentServer.getName().equals(s.name), tableWidthOption.wide);
     OUT.println(text);
   }
 
@@ -4,9 +4,11 @@ import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.User;
 import bio.terra.cli.command.Main;
 import bio.terra.cli.utils.Logger;
+import bio.terra.cli.utils.Tracer;
 import bio.terra.cli.utils.UserIO;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.PrintStream;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import org.json.JSONObject;
 import org.slf4j.LoggerFactory;
@@ -47,20 +49,38 @@ public abstract class BaseCommand implements Callable<Integer> {
     ERR = UserIO.getErr();
 
     // read in the global context and setup logging
-    Context.initializeFromDisk();
-    Logger.setupLogging(
-        Context.getConfig().getConsoleLoggingLevel(), Context.getConfig().getFileLoggingLevel());
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "context.read")) {
+      Context.initializeFromDisk();
+    }
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "logging.setup")) {
+      Logger.setupLogging(
+          Context.getConfig().getConsoleLoggingLevel(), Context.getConfig().getFileLoggingLevel());
+    }
+
+    // finish early if the command doesn't need to do anything else
+    Optional<Integer> fastPathExitCode = tryFastPath();
+    if (fastPathExitCode.isPresent()) {
+      return fastPathExitCode.get();
+    }
 
     // do the login flow if required
     if (requiresLogin()) {
-      User.login();
+      try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "user.login")) {
+        User.login();
+      }
     } else if (Context.getUser().isPresent()) {
-      Context.requireUser().loadExistingCredentials();
+      try (Tracer.Span span =
+          Tracer.startSpan(Tracer.CATEGORY_COMMAND, "user.loadExistingCredentials")) {
+        Context.requireUser().loadExistingCredentials();
+      }
     }
 
     // execute the command
-    logger.debug("[COMMAND RUN] terra " + String.join(" ", Main.getArgList()));
-    execute();
+    logger.debug("[COMMAND RUN] terra {}", String.join(" ", Main.getArgList()));
+    try (Tracer.Span span =
+        Tracer.startSpan(Tracer.CATEGORY_COMMAND, getClass().getSimpleName() + ".execute")) {
+      execute();
+    }
 
     // set the command exit code
     return 0;
@@ -74,6 +94,17 @@ public abstract class BaseCommand implements Callable<Integer> {
    */
   protected abstract void execute();
 
+  /**
+   * Hook for finishing the command before logging in, e.g. by printing a cached result. This runs
+   * right after the context is read and logging is setup. Default implementation is to always run
+   * the command as usual.
+   *
+   * @return the command exit code if the command has finished, or empty to continue running it
+   */
+  protected Optional<Integer> tryFastPath() {
+    return Optional.empty();
+  }
+
   /**
    * This method returns true if login is required for the command. Default implementation is to
    * always require login.
@@ -1,10 +1,10 @@
 package bio.terra.cli.command.shared;
 
 import bio.terra.cli.app.utils.VersionCheckUtils;
-import bio.terra.cli.businessobject.Context;
-import bio.terra.cli.utils.Logger;
+import bio.terra.cli.utils.Tracer;
 import bio.terra.cli.utils.UserIO;
 import java.io.PrintStream;
+import java.util.Optional;
 
 /**
  * This class prints a warning if CLI version is too old for WSM version.
@@ -23,20 +23,23 @@ public abstract class WsmBaseCommand extends BaseCommand {
     OUT = UserIO.getOut();
     ERR = UserIO.getErr();
 
-    // read in the global context and setup logging
-    Context.initializeFromDisk();
-    Logger.setupLogging(
-        Context.getConfig().getConsoleLoggingLevel(), Context.getConfig().getFileLoggingLevel());
+    return super.call();
+  }
 
-    // Check if this version of the CLI is out of date
-    if (VersionCheckUtils.isObsolete()) {
+  /** Check if this version of the CLI is out of date, and if so, print a warning and stop. */
+  @Override
+  protected Optional<Integer> tryFastPath() {
+    boolean isObsolete;
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "version.check")) {
+      isObsolete = VersionCheckUtils.isObsolete();
+    }
+    if (isObsolete) {
       ERR.printf(
           "Warning: Version %s of the CLI has expired. Functionality may not work as expected. To install the latest version: curl -L https://github.com/DataBiosphere/terra-cli/releases/latest/download/download-install.sh | bash ./terra\n"
               + "If you have added the CLI to your $PATH, this step will need to be repeated after the installation is complete.%n",
           bio.terra.cli.utils.Version.getVersion());
-      return 0;
+      return Optional.of(0);
     }
-
-    return super.call();
+    return Optional.empty();
   }
 }
@@ -0,0 +1,57 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.businessobject.Resource;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import picocli.CommandLine;
+
+/**
+ * Command helper class for identifying a single Dataproc cluster like {@link
+ * DataprocClusterName}, or selecting any number of them with --all, --folder or a --name pattern,
+ * in `terra cluster start` and `terra cluster stop`.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class BulkDataprocClusterName {
+  /** Types of the resources that cluster commands work on. */
+  public static final Set<Resource.Type> RESOURCE_TYPES = Set.of(Resource.Type.DATAPROC_CLUSTER);
+
+  @CommandLine.ArgGroup(exclusive = true, multiplicity = "1")
+  ArgGroup argGroup;
+
+  public UUID toClusterResourceId() {
+    return DataprocClusterName.toClusterResourceId(argGroup.resourceName, argGroup.clusterId);
+  }
+
+  /** Return true if the options select any number of clusters, instead of a single one. */
+  public boolean isBulk() {
+    return BulkInstanceOperation.isBulk(argGroup.all, argGroup.resourceName, argGroup.folderId);
+  }
+
+  /** Get the selector for the clusters chosen by --all, --folder or a --name pattern. */
+  public Predicate<Resource> toBulkSelector() {
+    return BulkInstanceOperation.getSelector(
+        argGroup.all, argGroup.resourceName, argGroup.folderId);
+  }
+
+  static class ArgGroup {
+    @CommandLine.Option(
+        names = "--name",
+        description =
+            "Name of the cluster resource, scoped to the workspace. Only alphanumeric and underscore characters are permitted. "
+                + "A glob pattern, e.g. 'etl_*', selects all the clusters that match it.")
+    public String resourceName;
+
+    @CommandLine.Option(names = "--cluster-id", description = "The id of the cluster.")
+    public String clusterId;
+
+    @CommandLine.Option(names = "--all", description = "Select all the clusters in the workspace.")
+    public boolean all;
+
+    @CommandLine.Option(
+        names = "--folder",
+        description = "Select the clusters in the folder with this id, and its sub-folders.")
+    public UUID folderId;
+  }
+}
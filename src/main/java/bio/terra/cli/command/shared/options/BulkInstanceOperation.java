@@ -0,0 +1,216 @@
+package bio.terra.cli.command.shared.options;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+import static bio.terra.cli.command.resource.ListTree.TERRA_FOLDER_ID_PROPERTY_KEY;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.cloud.compute.ComputeFleet;
+import bio.terra.cli.cloud.compute.ComputeFleet.Action;
+import bio.terra.cli.cloud.compute.ComputeFleet.OperationResult;
+import bio.terra.cli.cloud.compute.ComputeFleet.Outcome;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.utils.UserIO;
+import bio.terra.workspace.model.Folder;
+import com.google.common.annotations.VisibleForTesting;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import picocli.CommandLine;
+
+/**
+ * Command helper class for starting or stopping many notebooks or clusters at once in `terra
+ * notebook` and `terra cluster` commands, when they're selected with --all, --folder or a --name
+ * pattern. The operations are run concurrently by {@link ComputeFleet}, and a table of their
+ * results is printed.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class BulkInstanceOperation {
+  private static final int DEFAULT_PARALLELISM = 16;
+
+  @CommandLine.Option(
+      names = "--no-wait",
+      description =
+          "With --all, --folder or a --name pattern: return once the operations are requested, "
+              + "instead of waiting for them to finish.")
+  private boolean noWait;
+
+  // no default value, so that it can be rejected when it's specified for a single instance
+  @CommandLine.Option(
+      names = "--parallelism",
+      description =
+          "With --all, --folder or a --name pattern: maximum number of instances to call the "
+              + "cloud for at the same time (default: "
+              + DEFAULT_PARALLELISM
+              + ").")
+  private Integer parallelism;
+
+  @CommandLine.Mixin TableWidth tableWidthOption;
+
+  /**
+   * Return true if the options select any number of instances, instead of a single one.
+   *
+   * @param all --all is specified
+   * @param name --name, which selects several instances if it's a pattern
+   * @param folderId --folder
+   */
+  @VisibleForTesting
+  public static boolean isBulk(boolean all, @Nullable String name, @Nullable UUID folderId) {
+    return all || folderId != null || (name != null && isPattern(name));
+  }
+
+  /**
+   * Get the selector for the instances chosen by the options, for {@link ComputeFleet#fromContext}.
+   * --folder selects the instances in the folder and all its sub-folders.
+   */
+  @VisibleForTesting
+  public static Predicate<Resource> getSelector(
+      boolean all, @Nullable String name, @Nullable UUID folderId) {
+    if (all) {
+      return resource -> true;
+    } else if (folderId != null) {
+      Set<UUID> folderIds =
+          getFolderAndSubFolderIds(folderId, Context.requireWorkspace().listFolders());
+      return resource -> {
+        String resourceFolderId = resource.getProperty(TERRA_FOLDER_ID_PROPERTY_KEY);
+        return resourceFolderId != null && folderIds.contains(UUID.fromString(resourceFolderId));
+      };
+    }
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + name);
+    return resource -> matcher.matches(Path.of(resource.getName()));
+  }
+
+  /**
+   * Start or stop the selected instances, and print a table of the results.
+   *
+   * @param types types of instances the command works on
+   * @param selector selects the instances, see {@link #getSelector}
+   * @param action operation to run
+   * @throws UserActionableException if no instances are selected, or any operation failed
+   */
+  public void run(Set<Resource.Type> types, Predicate<Resource> selector, Action action) {
+    int parallelism = this.parallelism == null ? DEFAULT_PARALLELISM : this.parallelism;
+    if (parallelism < 1) {
+      throw new UserActionableException("--parallelism must be at least 1.");
+    }
+    List<OperationResult> results;
+    try (ComputeFleet fleet = ComputeFleet.fromContext(types, selector, parallelism)) {
+      if (fleet.getInstances().isEmpty()) {
+        throw new UserActionableException("No instances match the selection.");
+      }
+      results = fleet.run(action, !noWait);
+    }
+
+    TablePrinter<OperationResult> printer = OperationResultColumns::values;
+    UserIO.getOut().println(printer.print(results, tableWidthOption.wide));
+
+    long numFailed = results.stream().filter(r -> r.outcome() == Outcome.FAILED).count();
+    if (numFailed > 0) {
+      throw new UserActionableException(
+          String.format(
+              "%d of %d instances failed to %s.", numFailed, results.size(), verb(action)));
+    }
+  }
+
+  /**
+   * Check that the options that only apply to many instances aren't specified, for a command that
+   * starts or stops a single instance.
+   *
+   * @throws UserActionableException if --no-wait or --parallelism is specified
+   */
+  public void checkSingleInstance() {
+    if (noWait || parallelism != null) {
+      throw new UserActionableException(
+          "--no-wait and --parallelism only apply to starting or stopping instances with --all, "
+              + "--folder or a --name pattern.");
+    }
+  }
+
+  private static String verb(Action action) {
+    return action.toString().toLowerCase();
+  }
+
+  /** Return true if a --name value is a glob pattern. Resource names can't contain these. */
+  private static boolean isPattern(String name) {
+    return name.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+  }
+
+  /**
+   * Get the id of a folder, and of all the folders under it.
+   *
+   * @param folderId the folder
+   * @param folders all the folders in the workspace
+   * @throws UserActionableException if the folder isn't in the workspace
+   */
+  @VisibleForTesting
+  public static Set<UUID> getFolderAndSubFolderIds(UUID folderId, List<Folder> folders) {
+    if (folders.stream().noneMatch(folder -> folder.getId().equals(folderId))) {
+      throw new UserActionableException("Folder not found: " + folderId);
+    }
+    Set<UUID> folderIds = new HashSet<>(Set.of(folderId));
+    boolean added = true;
+    while (added) {
+      added =
+          folderIds.addAll(
+              folders.stream()
+                  .filter(folder -> folderIds.contains(folder.getParentFolderId()))
+                  .map(Folder::getId)
+                  .toList());
+    }
+    return folderIds;
+  }
+
+  /** Column information for the table printed after a bulk start or stop. */
+  private enum OperationResultColumns implements ColumnDefinition<OperationResult> {
+    NAME("NAME", r -> r.resource().getName(), 30, LEFT),
+    INSTANCE_ID("INSTANCE ID", r -> ComputeFleet.getInstanceId(r.resource()), 30, LEFT),
+    RESULT("RESULT", r -> r.outcome().toString(), 10, LEFT),
+    DETAIL("DETAIL", r -> r.detail() == null ? "" : r.detail(), 50, LEFT);
+
+    private final String columnLabel;
+    private final Function<OperationResult, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    OperationResultColumns(
+        String columnLabel,
+        Function<OperationResult, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<OperationResult, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook;
+import bio.terra.cloudres.google.notebooks.InstanceName;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import picocli.CommandLine;
+
+/**
+ * Command helper class for identifying a single notebook like {@link NotebookInstance}, or
+ * selecting any number of them with --all, --folder or a --name pattern, in `terra notebook start`
+ * and `terra notebook stop`.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class BulkNotebookInstance {
+  /** Types of the resources that notebook commands work on. */
+  public static final Set<Resource.Type> RESOURCE_TYPES =
+      Set.of(Resource.Type.AI_NOTEBOOK, Resource.Type.AWS_SAGEMAKER_NOTEBOOK);
+
+  @CommandLine.ArgGroup(exclusive = true, multiplicity = "1")
+  ArgGroup argGroup;
+
+  // looks up a single notebook, and remembers its resource name
+  private final NotebookInstance instance = new NotebookInstance();
+
+  public String getResourceName() {
+    return instance.getResourceName();
+  }
+
+  /** Return true if the options select any number of notebooks, instead of a single one. */
+  public boolean isBulk() {
+    return BulkInstanceOperation.isBulk(argGroup.all, argGroup.resourceName, argGroup.folderId);
+  }
+
+  /** Get the selector for the notebooks chosen by --all, --folder or a --name pattern. */
+  public Predicate<Resource> toBulkSelector() {
+    return BulkInstanceOperation.getSelector(
+        argGroup.all, argGroup.resourceName, argGroup.folderId);
+  }
+
+  public InstanceName toGcpNotebookInstanceName() {
+    return instance.toGcpNotebookInstanceName(argGroup.resourceName, argGroup.instanceId);
+  }
+
+  public AwsSageMakerNotebook toAwsNotebookResource() {
+    return instance.toAwsNotebookResource(argGroup.resourceName, argGroup.instanceId);
+  }
+
+  static class ArgGroup {
+    @CommandLine.Option(
+        names = "--name",
+        description =
+            "Name of the resource, scoped to the workspace. Only alphanumeric and underscore characters are permitted. "
+                + "A glob pattern, e.g. 'analysis_*', selects all the notebooks that match it.")
+    public String resourceName;
+
+    @CommandLine.Option(names = "--instance-id", description = "The id of the notebook instance.")
+    public String instanceId;
+
+    @CommandLine.Option(names = "--all", description = "Select all the notebooks in the workspace.")
+    public boolean all;
+
+    @CommandLine.Option(
+        names = "--folder",
+        description = "Select the notebooks in the folder with this id, and its sub-folders.")
+    public UUID folderId;
+  }
+}
@@ -19,11 +19,16 @@ public class DataprocClusterName {
   ArgGroup argGroup;
 
   public UUID toClusterResourceId() {
+    return toClusterResourceId(argGroup.resourceName, argGroup.clusterId);
+  }
+
+  /**
+   * Shared with {@link BulkDataprocClusterName}, which declares the same options in its own group.
+   */
+  static UUID toClusterResourceId(String name, String clusterId) {
     Workspace workspace = Context.requireWorkspace();
     Resource resource =
-        (argGroup.resourceName != null)
-            ? workspace.getResource(argGroup.resourceName)
-            : getClusterResourceFromId(argGroup.clusterId);
+        (name != null) ? workspace.getResource(name) : getClusterResourceFromId(clusterId);
 
     // Ensure that the resource fetched by name is a cluster resource.
     if (resource.getResourceType().equals(Resource.Type.DATAPROC_CLUSTER)) {
@@ -36,7 +41,7 @@ public class DataprocClusterName {
   }
 
   /** Helper method to find the cluster resource in the workspace by the cluster id. */
-  private Resource getClusterResourceFromId(String clusterId) {
+  private static Resource getClusterResourceFromId(String clusterId) {
     return Context.requireWorkspace().listResources().stream()
         .filter(
             r ->
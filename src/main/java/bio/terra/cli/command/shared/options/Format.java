@@ -33,7 +33,7 @@ public class Format {
    */
   public static <T> void printJson(T returnValue) {
     // use Jackson to map the object to a JSON-formatted text block
-    ObjectWriter objectWriter = JacksonMapper.getMapper().writerWithDefaultPrettyPrinter();
+    ObjectWriter objectWriter = JacksonMapper.getPrettyWriter();
     try {
       UserIO.getOut().println(objectWriter.writeValueAsString(returnValue));
     } catch (JsonProcessingException jsonEx) {
@@ -0,0 +1,24 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.utils.jfr.JfrRecording;
+import java.nio.file.Path;
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the top-level --jfr flag for recording this command with JDK
+ * Flight Recorder, to profile where it spends CPU time and allocates memory.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class JfrOption {
+  @CommandLine.Option(
+      names = "--jfr",
+      paramLabel = "<file>",
+      description =
+          "Record this command with JDK Flight Recorder and write the recording to a file, which "
+              + "can be opened with JDK Mission Control or `jfr print`. "
+              + "Defaults to the TERRA_JFR environment variable, if set.")
+  private void setJfr(Path jfrFile) {
+    JfrRecording.start(jfrFile);
+  }
+}
@@ -29,12 +29,21 @@ public class NotebookInstance {
   // function. GCP & AWS COWs would need to extend a base class to avoid returning a generic Object
 
   public InstanceName toGcpNotebookInstanceName() {
+    return toGcpNotebookInstanceName(argGroup.resourceName, argGroup.instanceId);
+  }
+
+  public AwsSageMakerNotebook toAwsNotebookResource() {
+    return toAwsNotebookResource(argGroup.resourceName, argGroup.instanceId);
+  }
+
+  /** Shared with {@link BulkNotebookInstance}, which declares the same options in its own group. */
+  InstanceName toGcpNotebookInstanceName(String name, String instanceId) {
     Workspace workspace = Context.requireWorkspace();
     Resource resource =
-        (argGroup.resourceName != null)
-            ? workspace.getResource(argGroup.resourceName)
+        (name != null)
+            ? workspace.getResource(name)
             // TODO: PF-2952 - Correctly handle instanceId arg to identify the notebook
-            : workspace.getResource(argGroup.instanceId);
+            : workspace.getResource(instanceId);
     this.resourceName = resource.getName();
 
     if (resource.getResourceType().equals(Resource.Type.AI_NOTEBOOK)) {
@@ -51,12 +60,11 @@ public class NotebookInstance {
     }
   }
 
-  public AwsSageMakerNotebook toAwsNotebookResource() {
+  /** Shared with {@link BulkNotebookInstance}, which declares the same options in its own group. */
+  AwsSageMakerNotebook toAwsNotebookResource(String name, String instanceId) {
     Workspace workspace = Context.requireWorkspace();
     Resource resource =
-        (argGroup.resourceName != null)
-            ? workspace.getResource(argGroup.resourceName)
-            : workspace.getResource(argGroup.instanceId);
+        (name != null) ? workspace.getResource(name) : workspace.getResource(instanceId);
     this.resourceName = resource.getName();
 
     if (resource.getResourceType().equals(Resource.Type.AWS_SAGEMAKER_NOTEBOOK)) {
@@ -0,0 +1,22 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.businessobject.Context;
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the top-level --profile flag for selecting a named profile just
+ * for this command. The profile name is validated when the context is first read.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class ProfileOption {
+  @CommandLine.Option(
+      names = "--profile",
+      description =
+          "Named profile to use for this command. Each profile has its own current workspace, "
+              + "server, config and logs, and shares the login with the other profiles. "
+              + "Defaults to the TERRA_PROFILE environment variable, if set.")
+  private void setProfile(String profile) {
+    Context.setProfileOverride(profile);
+  }
+}
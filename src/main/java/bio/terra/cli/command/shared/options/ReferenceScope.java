@@ -0,0 +1,19 @@
+package bio.terra.cli.command.shared.options;
+
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the --all-references flag for commands that run a tool with
+ * the workspace resources set as environment variables.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class ReferenceScope {
+  @CommandLine.Option(
+      names = "--all-references",
+      description =
+          "Set an environment variable for every workspace resource (e.g. TERRA_mybucket). By "
+              + "default, only the resources referenced in the command, or in files it names, are "
+              + "set.")
+  public boolean all;
+}
@@ -0,0 +1,18 @@
+package bio.terra.cli.command.shared.options;
+
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the --wide flag for commands that print a table in text
+ * format.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class TableWidth {
+  @CommandLine.Option(
+      names = "--wide",
+      description =
+          "Print table columns at their full width, instead of truncating them to fit the terminal."
+              + " Only applies to TEXT format.")
+  public boolean wide;
+}
@@ -0,0 +1,24 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.utils.Tracer;
+import java.nio.file.Path;
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the top-level --trace flag for recording how long each part of
+ * this command took (e.g. reading the context, server requests, running a tool) to a local file.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class TraceOption {
+  @CommandLine.Option(
+      names = "--trace",
+      paramLabel = "<file>",
+      description =
+          "Write timing spans for this command to a file in the Chrome trace event format, which "
+              + "can be opened in chrome://tracing or https://ui.perfetto.dev. "
+              + "Defaults to the TERRA_TRACE environment variable, if set.")
+  private void setTrace(Path traceFile) {
+    Tracer.setOutputFile(traceFile);
+  }
+}
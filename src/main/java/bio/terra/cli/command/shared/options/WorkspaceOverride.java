@@ -20,9 +20,14 @@ public class WorkspaceOverride {
   // missing required arguments
   private String id;
 
+  /** Return true if the `--workspace` flag specifies an id. */
+  public boolean isSpecified() {
+    return id != null && !id.isEmpty();
+  }
+
   /** Helper method to override the current workspace if the `--workspace` flag specifies an id. */
   public void overrideIfSpecified() {
-    if (id != null && !id.isEmpty()) {
+    if (isSpecified()) {
       Context.useOverrideWorkspace(id);
     }
   }
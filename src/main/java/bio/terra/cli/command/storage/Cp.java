@@ -0,0 +1,391 @@
+package bio.terra.cli.command.storage;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.AwsS3StorageFolder;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.businessobject.resource.GcsObject;
+import bio.terra.cli.cloud.aws.S3Transfer;
+import bio.terra.cli.cloud.gcp.GcsTransfer;
+import bio.terra.cli.cloud.gcp.GoogleCloudStorage;
+import bio.terra.cli.cloud.storage.ObjectLister;
+import bio.terra.cli.cloud.storage.StorageUrl;
+import bio.terra.cli.cloud.storage.StorageUrl.Scheme;
+import bio.terra.cli.command.shared.WsmBaseCommand;
+import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.service.WorkspaceManagerServiceAws;
+import bio.terra.workspace.model.AwsCredentialAccessScope;
+import com.google.cloud.storage.BlobId;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra storage cp" command. */
+@Command(
+    name = "cp",
+    description =
+        "Copy files to, from or between GCS buckets, or to, from or within AWS S3 storage "
+            + "folders. Large files are transferred in parallel parts, every transfer is "
+            + "verified with a CRC32C checksum, and an interrupted transfer resumes when the same "
+            + "command is run again.")
+public class Cp extends WsmBaseCommand {
+  private static final Logger logger = LoggerFactory.getLogger(Cp.class);
+  private static final int DEFAULT_PARALLELISM = 8;
+  // <resource name>:<path within the resource>
+  private static final Pattern RESOURCE_ADDRESS = Pattern.compile("^([a-zA-Z0-9_-]+):(.*)$");
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "SOURCE",
+      description =
+          "Local path, gs:// or s3:// URL, or workspace resource name and path (resource:/path).")
+  private String sourceArg;
+
+  @CommandLine.Parameters(
+      index = "1",
+      paramLabel = "DESTINATION",
+      description =
+          "Local path, gs:// or s3:// URL, or workspace resource name and path (resource:/path). "
+              + "If it's a directory (or ends in \"/\"), the source is copied into it.")
+  private String destinationArg;
+
+  @CommandLine.Option(
+      names = {"-r", "--recursive"},
+      description =
+          "Copy everything under the SOURCE directory or prefix to the same relative paths under "
+              + "the DESTINATION.")
+  private boolean recursive;
+
+  @CommandLine.Option(
+      names = "--parallelism",
+      defaultValue = "" + DEFAULT_PARALLELISM,
+      description =
+          "Maximum number of files, and of parts of each large file, to transfer at the same time "
+              + "(default: ${DEFAULT-VALUE}).")
+  private int parallelism;
+
+  @CommandLine.Mixin WorkspaceOverride workspaceOption;
+
+  /** Copy the files. */
+  @Override
+  protected void execute() {
+    workspaceOption.overrideIfSpecified();
+    if (parallelism < 1) {
+      throw new UserActionableException("--parallelism must be at least 1.");
+    }
+    StorageUrl source = parseLocation(sourceArg);
+    StorageUrl destination = parseLocation(destinationArg);
+    if (source.scheme() == Scheme.LOCAL && destination.scheme() == Scheme.LOCAL) {
+      throw new UserActionableException(
+          "At least one of the source and destination must be a bucket.");
+    }
+    if (source.scheme() != Scheme.LOCAL
+        && destination.scheme() != Scheme.LOCAL
+        && source.scheme() != destination.scheme()) {
+      throw new UserActionableException(
+          "Copying between GCS and S3 is not supported. Copy to a local file first.");
+    }
+    // S3 is accessed with the credentials of the workspace storage folder
+    AwsS3StorageFolder sourceFolder =
+        source.scheme() == Scheme.S3 ? findStorageFolder(source) : null;
+    AwsS3StorageFolder destinationFolder =
+        destination.scheme() == Scheme.S3 ? findStorageFolder(destination) : null;
+    if (sourceFolder != null
+        && destinationFolder != null
+        && !sourceFolder.getId().equals(destinationFolder.getId())) {
+      throw new UserActionableException(
+          "Copying between different storage folders is not supported. Copy to a local file "
+              + "first.");
+    }
+
+    List<Transfer> transfers = getTransfers(source, destination, sourceFolder);
+    ExecutorService partExecutor = Executors.newFixedThreadPool(parallelism);
+    try {
+      GcsTransfer gcsTransfer =
+          source.scheme() == Scheme.GCS || destination.scheme() == Scheme.GCS
+              ? GcsTransfer.fromContextForPetSa(partExecutor)
+              : null;
+      S3Transfer s3Transfer = null;
+      if (destinationFolder != null) {
+        // this also covers copies within the storage folder
+        s3Transfer =
+            S3Transfer.fromContext(
+                destinationFolder, AwsCredentialAccessScope.WRITE_READ, partExecutor);
+      } else if (sourceFolder != null) {
+        s3Transfer =
+            S3Transfer.fromContext(sourceFolder, AwsCredentialAccessScope.READ_ONLY, partExecutor);
+      }
+      Clients clients = new Clients(gcsTransfer, s3Transfer);
+      if (transfers.size() == 1) {
+        // let any error for a single file propagate as is
+        Transfer transfer = transfers.get(0);
+        Instant start = Instant.now();
+        long numBytes = transfer.run(clients);
+        printSummary(1, numBytes, Duration.between(start, Instant.now()));
+      } else {
+        runAll(transfers, clients);
+      }
+    } finally {
+      partExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Run the transfers up to --parallelism at a time, printing each one as it completes. Files that
+   * fail are reported at the end, after the others have been copied.
+   *
+   * @throws UserActionableException if any of the transfers failed
+   */
+  private void runAll(List<Transfer> transfers, Clients clients) {
+    Instant start = Instant.now();
+    AtomicLong numBytes = new AtomicLong();
+    AtomicInteger numFailed = new AtomicInteger();
+    ExecutorService fileExecutor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Transfer transfer : transfers) {
+        futures.add(
+            fileExecutor.submit(
+                () -> {
+                  try {
+                    numBytes.addAndGet(transfer.run(clients));
+                    OUT.println("Copied " + transfer.source + " to " + transfer.destination);
+                  } catch (RuntimeException ex) {
+                    logger.error("Error copying {}", transfer.source, ex);
+                    ERR.println("Failed to copy " + transfer.source + ": " + ex.getMessage());
+                    numFailed.incrementAndGet();
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while copying files", intEx);
+    } catch (ExecutionException execEx) {
+      throw new SystemException("Error copying files", execEx.getCause());
+    } finally {
+      fileExecutor.shutdownNow();
+    }
+
+    printSummary(
+        transfers.size() - numFailed.get(), numBytes.get(), Duration.between(start, Instant.now()));
+    if (numFailed.get() > 0) {
+      throw new UserActionableException(
+          String.format(
+              "%d of %d files failed to copy. Run the command again to retry them.",
+              numFailed.get(), transfers.size()));
+    }
+  }
+
+  private void printSummary(int numFiles, long numBytes, Duration duration) {
+    double seconds = Math.max(duration.toMillis(), 1) / 1000.0;
+    OUT.println(
+        String.format(
+            "Copied %d file%s (%s) in %.1f s (%s/s).",
+            numFiles,
+            numFiles == 1 ? "" : "s",
+            FileUtils.byteCountToDisplaySize(numBytes),
+            seconds,
+            FileUtils.byteCountToDisplaySize((long) (numBytes / seconds))));
+  }
+
+  /**
+   * Parse a command argument as a URL, a local path, or a workspace resource name followed by ":"
+   * and a path within the resource.
+   *
+   * @throws UserActionableException if the resource is not a GCS bucket or object, or an AWS S3
+   *     storage folder
+   */
+  private static StorageUrl parseLocation(String arg) {
+    StorageUrl url = StorageUrl.parse(arg);
+    Matcher matcher = RESOURCE_ADDRESS.matcher(arg);
+    if (url.scheme() != Scheme.LOCAL || !matcher.matches()) {
+      return url;
+    }
+    Resource resource = Context.requireWorkspace().getResource(matcher.group(1));
+    String path = matcher.group(2).replaceFirst("^/+", "");
+    return switch (resource.getResourceType()) {
+      case GCS_BUCKET -> new StorageUrl(Scheme.GCS, ((GcsBucket) resource).getBucketName(), path);
+      case GCS_OBJECT -> {
+        GcsObject gcsObject = (GcsObject) resource;
+        StorageUrl objectUrl =
+            new StorageUrl(Scheme.GCS, gcsObject.getBucketName(), gcsObject.getObjectName());
+        yield path.isEmpty() ? objectUrl : objectUrl.child(path);
+      }
+      case AWS_S3_STORAGE_FOLDER -> {
+        AwsS3StorageFolder storageFolder = (AwsS3StorageFolder) resource;
+        yield new StorageUrl(
+            Scheme.S3, storageFolder.getBucketName(), storageFolder.getPrefix() + "/" + path);
+      }
+      default -> throw new UserActionableException(
+          "Only GCS_BUCKET, GCS_OBJECT and AWS_S3_STORAGE_FOLDER resources can be copied to or "
+              + "from, not "
+              + resource.getResourceType()
+              + ".");
+    };
+  }
+
+  /**
+   * Find the workspace storage folder that an s3:// URL is in.
+   *
+   * @throws UserActionableException if the URL is not in any of the workspace's storage folders
+   */
+  private static AwsS3StorageFolder findStorageFolder(StorageUrl url) {
+    return Context.requireWorkspace().listResources().stream()
+        .filter(resource -> resource.getResourceType() == Resource.Type.AWS_S3_STORAGE_FOLDER)
+        .map(resource -> (AwsS3StorageFolder) resource)
+        .filter(
+            storageFolder ->
+                storageFolder.getBucketName().equals(url.bucket())
+                    && (url.path() + "/").startsWith(storageFolder.getPrefix() + "/"))
+        .findFirst()
+        .orElseThrow(
+            () ->
+                new UserActionableException(
+                    url + " is not in any of the workspace's AWS S3 storage folders."));
+  }
+
+  /**
+   * Get the files to copy. Without --recursive, this is the single source file or object. With it,
+   * this is every file or object under the source.
+   *
+   * @throws UserActionableException if the source doesn't exist or is a directory without
+   *     --recursive
+   */
+  private List<Transfer> getTransfers(
+      StorageUrl source, StorageUrl destination, @Nullable AwsS3StorageFolder sourceFolder) {
+    List<Transfer> transfers = new ArrayList<>();
+    if (source.scheme() == Scheme.LOCAL) {
+      Path sourcePath = source.toLocalPath();
+      if (!Files.exists(sourcePath)) {
+        throw new UserActionableException("File not found: " + sourcePath);
+      } else if (!Files.isDirectory(sourcePath)) {
+        transfers.add(new Transfer(source, getFileDestination(source, destination)));
+      } else if (!recursive) {
+        throw new UserActionableException(
+            sourcePath + " is a directory. Use --recursive to copy it.");
+      } else {
+        try (Stream<Path> files = Files.walk(sourcePath)) {
+          files
+              .filter(Files::isRegularFile)
+              .forEach(
+                  file ->
+                      transfers.add(
+                          new Transfer(
+                              new StorageUrl(Scheme.LOCAL, null, file.toString()),
+                              destination.child(toObjectName(sourcePath.relativize(file))))));
+        } catch (IOException ioEx) {
+          throw new SystemException("Error listing files under " + sourcePath, ioEx);
+        }
+      }
+    } else if (!recursive) {
+      if (isDirectory(source)) {
+        throw new UserActionableException(
+            source + " is a bucket or prefix. Use --recursive to copy everything under it.");
+      }
+      transfers.add(new Transfer(source, getFileDestination(source, destination)));
+    } else {
+      String prefix = isDirectory(source) ? source.path() : source.path() + "/";
+      ObjectLister lister =
+          source.scheme() == Scheme.S3
+              ? WorkspaceManagerServiceAws.fromContext()
+                  .getObjectLister(Context.requireWorkspace().getUuid(), sourceFolder)
+              : GoogleCloudStorage.fromContextForPetSa().getObjectLister(source.bucket());
+      lister.list(
+              prefix,
+              true,
+              subPrefix -> {},
+              object -> {
+                // skip the placeholder objects that some tools create for directories
+                if (!object.name().endsWith("/")) {
+                  transfers.add(
+                      new Transfer(
+                          new StorageUrl(source.scheme(), source.bucket(), object.name()),
+                          destination.child(object.name().substring(prefix.length()))));
+                }
+              });
+    }
+
+    if (transfers.isEmpty()) {
+      throw new UserActionableException("No files found to copy under " + source + ".");
+    }
+    return transfers;
+  }
+
+  /** Convert a relative local path to an object name, which always uses "/" as the separator. */
+  private static String toObjectName(Path relativePath) {
+    return relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
+  }
+
+  /** Get the destination of a single file, which is inside the destination if it's a directory. */
+  private static StorageUrl getFileDestination(StorageUrl source, StorageUrl destination) {
+    return isDirectory(destination) ? destination.child(source.getFileName()) : destination;
+  }
+
+  /** Return true if the URL is an existing local directory, a bucket, or ends in "/". */
+  private static boolean isDirectory(StorageUrl url) {
+    return url.path().isEmpty()
+        || url.path().endsWith("/")
+        || (url.scheme() == Scheme.LOCAL && Files.isDirectory(url.toLocalPath()));
+  }
+
+  /**
+   * Clients for the clouds that files are copied to or from.
+   *
+   * @param gcs client for GCS, or null if neither the source nor the destination is in GCS
+   * @param s3 client for the storage folder, or null if neither is in S3
+   */
+  private record Clients(@Nullable GcsTransfer gcs, @Nullable S3Transfer s3) {}
+
+  /** A single file or object to copy. */
+  private record Transfer(StorageUrl source, StorageUrl destination) {
+    /**
+     * Copy the file or object.
+     *
+     * @return the number of bytes copied
+     */
+    long run(Clients clients) {
+      if (source.scheme() == Scheme.LOCAL) {
+        return destination.scheme() == Scheme.S3
+            ? clients.s3.upload(source.toLocalPath(), destination.bucket(), destination.path())
+            : clients.gcs.upload(source.toLocalPath(), toBlobId(destination));
+      } else if (destination.scheme() == Scheme.LOCAL) {
+        return source.scheme() == Scheme.S3
+            ? clients.s3.download(source.bucket(), source.path(), destination.toLocalPath())
+            : clients.gcs.download(toBlobId(source), destination.toLocalPath());
+      } else if (source.scheme() == Scheme.S3) {
+        return clients.s3.copy(
+            source.bucket(), source.path(), destination.bucket(), destination.path());
+      } else {
+        return clients.gcs.copy(toBlobId(source), toBlobId(destination));
+      }
+    }
+
+    private static BlobId toBlobId(StorageUrl url) {
+      return BlobId.of(url.bucket(), url.path());
+    }
+  }
+}
@@ -8,6 +8,7 @@ import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.command.shared.WsmBaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableWidth;
 import bio.terra.cli.serialization.userfacing.UFWorkspaceLight;
 import bio.terra.cli.utils.UserIO;
 import bio.terra.workspace.model.WorkspaceDescription;
@@ -24,6 +25,7 @@ import picocli.CommandLine.Command;
     showDefaultValues = true)
 public class List extends WsmBaseCommand {
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableWidth tableWidthOption;
 
   @CommandLine.Option(
       names = "--offset",
@@ -63,7 +65,7 @@ public class List extends WsmBaseCommand {
                     (Predicate<UFWorkspaceLight>) (ufw -> current.getUserFacingId().equals(ufw.id)))
             .orElse(ufw -> false);
     TablePrinter<UFWorkspaceLight> printer = Columns::values;
-    String text = printer.print(returnValue, isHighlighted);
+    String text = printer.print(returnValue, isHighlighted, tableWidthOption.wide);
     OUT.println(text);
   }
 
@@ -21,6 +21,7 @@ public class PDConfig {
   public final BrowserLaunchOption browserLaunchOption;
   public final CommandRunnerOption commandRunnerOption;
   public final String dockerImageId;
+  public final int appContainerTtlMinutes;
   public final int resourcesCacheSize;
   public final Logger.LogLevel fileLoggingLevel;
   public final Logger.LogLevel consoleLoggingLevel;
@@ -31,6 +32,7 @@ public class PDConfig {
     this.browserLaunchOption = internalObj.getBrowserLaunchOption();
     this.commandRunnerOption = internalObj.getCommandRunnerOption();
     this.dockerImageId = internalObj.getDockerImageId();
+    this.appContainerTtlMinutes = internalObj.getAppContainerTtlMinutes();
     this.resourcesCacheSize = internalObj.getResourcesCacheSize();
     this.fileLoggingLevel = internalObj.getFileLoggingLevel();
     this.consoleLoggingLevel = internalObj.getConsoleLoggingLevel();
@@ -41,6 +43,7 @@ public class PDConfig {
     this.browserLaunchOption = builder.browserLaunchOption;
     this.commandRunnerOption = builder.commandRunnerOption;
     this.dockerImageId = builder.dockerImageId;
+    this.appContainerTtlMinutes = builder.appContainerTtlMinutes;
     this.resourcesCacheSize = builder.resourcesCacheSize;
     this.fileLoggingLevel = builder.fileLoggingLevel;
     this.consoleLoggingLevel = builder.consoleLoggingLevel;
@@ -52,6 +55,7 @@ public class PDConfig {
     private BrowserLaunchOption browserLaunchOption;
     private CommandRunnerOption commandRunnerOption;
     private String dockerImageId;
+    private int appContainerTtlMinutes;
     private int resourcesCacheSize;
     private Logger.LogLevel fileLoggingLevel;
     private Logger.LogLevel consoleLoggingLevel;
@@ -75,6 +79,11 @@ public class PDConfig {
       return this;
     }
 
+    public Builder appContainerTtlMinutes(int appContainerTtlMinutes) {
+      this.appContainerTtlMinutes = appContainerTtlMinutes;
+      return this;
+    }
+
     public Builder resourcesCacheSize(int resourcesCacheSize) {
       this.resourcesCacheSize = resourcesCacheSize;
       return this;
@@ -0,0 +1,93 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.EndpointMetrics;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * External representation of the request metrics for a single endpoint for writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link EndpointMetrics} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDEndpointMetrics.Builder.class)
+public class PDEndpointMetrics {
+  public final long calls;
+  public final long attempts;
+  public final long retries;
+  public final long failures;
+  public final long maxLatencyMicros;
+  // latency histogram bucket index -> number of attempts in that bucket
+  public final Map<Integer, Long> latencyBuckets;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDEndpointMetrics(EndpointMetrics internalObj) {
+    this.calls = internalObj.getCalls();
+    this.attempts = internalObj.getAttempts();
+    this.retries = internalObj.getRetries();
+    this.failures = internalObj.getFailures();
+    this.maxLatencyMicros = internalObj.getLatencyMicros().getMax();
+    this.latencyBuckets = internalObj.getLatencyMicros().getBuckets();
+  }
+
+  private PDEndpointMetrics(PDEndpointMetrics.Builder builder) {
+    this.calls = builder.calls;
+    this.attempts = builder.attempts;
+    this.retries = builder.retries;
+    this.failures = builder.failures;
+    this.maxLatencyMicros = builder.maxLatencyMicros;
+    this.latencyBuckets =
+        builder.latencyBuckets != null ? builder.latencyBuckets : Collections.emptyMap();
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private long calls;
+    private long attempts;
+    private long retries;
+    private long failures;
+    private long maxLatencyMicros;
+    private Map<Integer, Long> latencyBuckets;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder calls(long calls) {
+      this.calls = calls;
+      return this;
+    }
+
+    public Builder attempts(long attempts) {
+      this.attempts = attempts;
+      return this;
+    }
+
+    public Builder retries(long retries) {
+      this.retries = retries;
+      return this;
+    }
+
+    public Builder failures(long failures) {
+      this.failures = failures;
+      return this;
+    }
+
+    public Builder maxLatencyMicros(long maxLatencyMicros) {
+      this.maxLatencyMicros = maxLatencyMicros;
+      return this;
+    }
+
+    public Builder latencyBuckets(Map<Integer, Long> latencyBuckets) {
+      this.latencyBuckets = latencyBuckets;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDEndpointMetrics build() {
+      return new PDEndpointMetrics(this);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.EndpointMetrics;
+import bio.terra.cli.businessobject.RequestMetrics;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * External representation of the request metrics accumulated across commands for writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link RequestMetrics} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDRequestMetrics.Builder.class)
+public class PDRequestMetrics {
+  // endpoint name -> metrics for that endpoint
+  public final Map<String, PDEndpointMetrics> endpoints;
+
+  /** Serialize instances of the internal class to the disk format. */
+  public PDRequestMetrics(Collection<EndpointMetrics> internalObjs) {
+    Map<String, PDEndpointMetrics> endpoints = new TreeMap<>();
+    internalObjs.forEach(
+        internalObj ->
+            endpoints.put(internalObj.getEndpoint(), new PDEndpointMetrics(internalObj)));
+    this.endpoints = endpoints;
+  }
+
+  private PDRequestMetrics(PDRequestMetrics.Builder builder) {
+    this.endpoints = builder.endpoints != null ? builder.endpoints : Collections.emptyMap();
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private Map<String, PDEndpointMetrics> endpoints;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder endpoints(Map<String, PDEndpointMetrics> endpoints) {
+      this.endpoints = endpoints;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDRequestMetrics build() {
+      return new PDRequestMetrics(this);
+    }
+  }
+}
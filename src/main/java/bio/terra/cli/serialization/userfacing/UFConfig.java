@@ -24,6 +24,7 @@ public class UFConfig {
   public final Config.BrowserLaunchOption browserLaunchOption;
   public final Config.CommandRunnerOption commandRunnerOption;
   public final String dockerImageId;
+  public final int appContainerTtlMinutes;
   public final int resourcesCacheSize;
   public final Logger.LogLevel fileLoggingLevel;
   public final Logger.LogLevel consoleLoggingLevel;
@@ -40,6 +41,7 @@ public class UFConfig {
     this.browserLaunchOption = internalConfig.getBrowserLaunchOption();
     this.commandRunnerOption = internalConfig.getCommandRunnerOption();
     this.dockerImageId = internalConfig.getDockerImageId();
+    this.appContainerTtlMinutes = internalConfig.getAppContainerTtlMinutes();
     this.resourcesCacheSize = internalConfig.getResourcesCacheSize();
     this.fileLoggingLevel = internalConfig.getFileLoggingLevel();
     this.consoleLoggingLevel = internalConfig.getConsoleLoggingLevel();
@@ -55,6 +57,7 @@ public class UFConfig {
     this.browserLaunchOption = builder.browserLaunchOption;
     this.commandRunnerOption = builder.commandRunnerOption;
     this.dockerImageId = builder.dockerImageId;
+    this.appContainerTtlMinutes = builder.appContainerTtlMinutes;
     this.resourcesCacheSize = builder.resourcesCacheSize;
     this.fileLoggingLevel = builder.fileLoggingLevel;
     this.consoleLoggingLevel = builder.consoleLoggingLevel;
@@ -74,6 +77,10 @@ public class UFConfig {
                 new UFConfigItem(
                     "browser", this.browserLaunchOption.toString(), "browser launch for login"),
                 new UFConfigItem("image", this.dockerImageId, "docker image id"),
+                new UFConfigItem(
+                    "app-container-ttl",
+                    String.valueOf(this.appContainerTtlMinutes),
+                    "minutes to keep an idle app container running (0 = new one per command)"),
                 new UFConfigItem(
                     "resource-limit",
                     String.valueOf(this.resourcesCacheSize),
@@ -96,6 +103,7 @@ public class UFConfig {
     private Config.BrowserLaunchOption browserLaunchOption;
     private Config.CommandRunnerOption commandRunnerOption;
     private String dockerImageId;
+    private int appContainerTtlMinutes;
     private int resourcesCacheSize;
     private Logger.LogLevel fileLoggingLevel;
     private Logger.LogLevel consoleLoggingLevel;
@@ -122,6 +130,11 @@ public class UFConfig {
       return this;
     }
 
+    public Builder appContainerTtlMinutes(int appContainerTtlMinutes) {
+      this.appContainerTtlMinutes = appContainerTtlMinutes;
+      return this;
+    }
+
     public Builder resourcesCacheSize(int resourcesCacheSize) {
       this.resourcesCacheSize = resourcesCacheSize;
       return this;
@@ -0,0 +1,124 @@
+package bio.terra.cli.serialization.userfacing;
+
+import bio.terra.cli.businessobject.EndpointMetrics;
+import bio.terra.cli.utils.LatencyHistogram;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+/**
+ * External representation of the request metrics for a single endpoint for command input/output.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is user-facing.
+ *
+ * <p>See the {@link EndpointMetrics} class for the internal representation.
+ */
+@JsonDeserialize(builder = UFEndpointMetrics.Builder.class)
+public class UFEndpointMetrics {
+  public final String endpoint;
+  public final long calls;
+  public final long attempts;
+  public final long retries;
+  public final long failures;
+  public final double p50LatencyMs;
+  public final double p90LatencyMs;
+  public final double p99LatencyMs;
+  public final double maxLatencyMs;
+
+  /** Serialize an instance of the internal class to the command format. */
+  public UFEndpointMetrics(EndpointMetrics internalObj) {
+    LatencyHistogram latencyMicros = internalObj.getLatencyMicros();
+    this.endpoint = internalObj.getEndpoint();
+    this.calls = internalObj.getCalls();
+    this.attempts = internalObj.getAttempts();
+    this.retries = internalObj.getRetries();
+    this.failures = internalObj.getFailures();
+    this.p50LatencyMs = toMillis(latencyMicros.getValueAtPercentile(50));
+    this.p90LatencyMs = toMillis(latencyMicros.getValueAtPercentile(90));
+    this.p99LatencyMs = toMillis(latencyMicros.getValueAtPercentile(99));
+    this.maxLatencyMs = toMillis(latencyMicros.getMax());
+  }
+
+  /** Constructor for Jackson deserialization during testing. */
+  private UFEndpointMetrics(Builder builder) {
+    this.endpoint = builder.endpoint;
+    this.calls = builder.calls;
+    this.attempts = builder.attempts;
+    this.retries = builder.retries;
+    this.failures = builder.failures;
+    this.p50LatencyMs = builder.p50LatencyMs;
+    this.p90LatencyMs = builder.p90LatencyMs;
+    this.p99LatencyMs = builder.p99LatencyMs;
+    this.maxLatencyMs = builder.maxLatencyMs;
+  }
+
+  /** Convert microseconds to milliseconds, rounded to one decimal place. */
+  private static double toMillis(long micros) {
+    return Math.round(micros / 100.0) / 10.0;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String endpoint;
+    private long calls;
+    private long attempts;
+    private long retries;
+    private long failures;
+    private double p50LatencyMs;
+    private double p90LatencyMs;
+    private double p99LatencyMs;
+    private double maxLatencyMs;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder endpoint(String endpoint) {
+      this.endpoint = endpoint;
+      return this;
+    }
+
+    public Builder calls(long calls) {
+      this.calls = calls;
+      return this;
+    }
+
+    public Builder attempts(long attempts) {
+      this.attempts = attempts;
+      return this;
+    }
+
+    public Builder retries(long retries) {
+      this.retries = retries;
+      return this;
+    }
+
+    public Builder failures(long failures) {
+      this.failures = failures;
+      return this;
+    }
+
+    public Builder p50LatencyMs(double p50LatencyMs) {
+      this.p50LatencyMs = p50LatencyMs;
+      return this;
+    }
+
+    public Builder p90LatencyMs(double p90LatencyMs) {
+      this.p90LatencyMs = p90LatencyMs;
+      return this;
+    }
+
+    public Builder p99LatencyMs(double p99LatencyMs) {
+      this.p99LatencyMs = p99LatencyMs;
+      return this;
+    }
+
+    public Builder maxLatencyMs(double maxLatencyMs) {
+      this.maxLatencyMs = maxLatencyMs;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public UFEndpointMetrics build() {
+      return new UFEndpointMetrics(this);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package bio.terra.cli.serialization.userfacing;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.cloud.compute.ComputeFleet;
+import bio.terra.cli.cloud.compute.ComputeFleet.InstanceState;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+/**
+ * External representation of the live state of a notebook or cluster for command input/output.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is user-facing.
+ *
+ * <p>See the {@link InstanceState} class for the internal representation.
+ */
+@JsonDeserialize(builder = UFInstanceState.Builder.class)
+public class UFInstanceState {
+  public final String name;
+  public final Resource.Type resourceType;
+  public final String instanceId;
+  public final String region;
+  public final String state;
+  public final boolean running;
+
+  /** Serialize an instance of the internal class to the command format. */
+  public UFInstanceState(InstanceState internalObj) {
+    Resource resource = internalObj.resource();
+    this.name = resource.getName();
+    this.resourceType = resource.getResourceType();
+    this.instanceId = ComputeFleet.getInstanceId(resource);
+    this.region = resource.getRegion();
+    this.state = internalObj.state();
+    this.running = internalObj.running();
+  }
+
+  /** Constructor for Jackson deserialization during testing. */
+  private UFInstanceState(Builder builder) {
+    this.name = builder.name;
+    this.resourceType = builder.resourceType;
+    this.instanceId = builder.instanceId;
+    this.region = builder.region;
+    this.state = builder.state;
+    this.running = builder.running;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String name;
+    private Resource.Type resourceType;
+    private String instanceId;
+    private String region;
+    private String state;
+    private boolean running;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Builder resourceType(Resource.Type resourceType) {
+      this.resourceType = resourceType;
+      return this;
+    }
+
+    public Builder instanceId(String instanceId) {
+      this.instanceId = instanceId;
+      return this;
+    }
+
+    public Builder region(String region) {
+      this.region = region;
+      return this;
+    }
+
+    public Builder state(String state) {
+      this.state = state;
+      return this;
+    }
+
+    public Builder running(boolean running) {
+      this.running = running;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public UFInstanceState build() {
+      return new UFInstanceState(this);
+    }
+  }
+}
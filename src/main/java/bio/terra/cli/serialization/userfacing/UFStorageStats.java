@@ -0,0 +1,119 @@
+package bio.terra.cli.serialization.userfacing;
+
+import bio.terra.cli.cloud.storage.StorageStats;
+import bio.terra.cli.utils.UserIO;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.io.PrintStream;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * External representation of the object count and size of a storage resource for command
+ * input/output.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is user-facing.
+ *
+ * <p>See the {@link StorageStats} class for the internal representation.
+ */
+@JsonDeserialize(builder = UFStorageStats.Builder.class)
+public class UFStorageStats {
+  public final String resourceName;
+  public final String path;
+  public final long numObjects;
+  public final long totalBytes;
+  public final Map<String, Long> numObjectsByStorageClass;
+  public final Map<String, Long> totalBytesByStorageClass;
+
+  /** Serialize an instance of the internal class to the command format. */
+  public UFStorageStats(String resourceName, String path, StorageStats internalObj) {
+    this.resourceName = resourceName;
+    this.path = path;
+    this.numObjects = internalObj.getNumObjects();
+    this.totalBytes = internalObj.getTotalBytes();
+    this.numObjectsByStorageClass = internalObj.getNumObjectsByStorageClass();
+    this.totalBytesByStorageClass = internalObj.getTotalBytesByStorageClass();
+  }
+
+  /** Constructor for Jackson deserialization during testing. */
+  private UFStorageStats(Builder builder) {
+    this.resourceName = builder.resourceName;
+    this.path = builder.path;
+    this.numObjects = builder.numObjects;
+    this.totalBytes = builder.totalBytes;
+    this.numObjectsByStorageClass = builder.numObjectsByStorageClass;
+    this.totalBytesByStorageClass = builder.totalBytesByStorageClass;
+  }
+
+  /** Print out this object in text format. */
+  public void print() {
+    PrintStream OUT = UserIO.getOut();
+    OUT.println("Path: " + path);
+    OUT.println("# Objects: " + numObjects);
+    OUT.println("Total size: " + displaySize(totalBytes));
+    if (!numObjectsByStorageClass.isEmpty()) {
+      OUT.println("Storage classes:");
+      numObjectsByStorageClass.forEach(
+          (storageClass, count) ->
+              OUT.println(
+                  "  "
+                      + storageClass
+                      + ": "
+                      + count
+                      + " objects, "
+                      + displaySize(totalBytesByStorageClass.getOrDefault(storageClass, 0L))));
+    }
+  }
+
+  private static String displaySize(long bytes) {
+    return FileUtils.byteCountToDisplaySize(bytes) + " (" + bytes + " bytes)";
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String resourceName;
+    private String path;
+    private long numObjects;
+    private long totalBytes;
+    private Map<String, Long> numObjectsByStorageClass;
+    private Map<String, Long> totalBytesByStorageClass;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder resourceName(String resourceName) {
+      this.resourceName = resourceName;
+      return this;
+    }
+
+    public Builder path(String path) {
+      this.path = path;
+      return this;
+    }
+
+    public Builder numObjects(long numObjects) {
+      this.numObjects = numObjects;
+      return this;
+    }
+
+    public Builder totalBytes(long totalBytes) {
+      this.totalBytes = totalBytes;
+      return this;
+    }
+
+    public Builder numObjectsByStorageClass(Map<String, Long> numObjectsByStorageClass) {
+      this.numObjectsByStorageClass = numObjectsByStorageClass;
+      return this;
+    }
+
+    public Builder totalBytesByStorageClass(Map<String, Long> totalBytesByStorageClass) {
+      this.totalBytesByStorageClass = totalBytesByStorageClass;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public UFStorageStats build() {
+      return new UFStorageStats(this);
+    }
+  }
+}
@@ -145,7 +145,7 @@ public class SamService {
     if (apiExMsg != null)
       try {
         ErrorReport errorReport =
-            JacksonMapper.getMapper().readValue(apiEx.getResponseBody(), ErrorReport.class);
+            JacksonMapper.getReader(ErrorReport.class).readValue(apiEx.getResponseBody());
         apiExMsg = errorReport.getMessage();
       } catch (JsonProcessingException jsonEx) {
         logger.debug("Error deserializing SAM exception ErrorReport: {}", apiEx.getResponseBody());
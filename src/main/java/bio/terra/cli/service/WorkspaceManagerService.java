@@ -978,7 +978,7 @@ public class WorkspaceManagerService {
     if (apiExMsg != null)
       try {
         ErrorReport errorReport =
-            JacksonMapper.getMapper().readValue(apiEx.getResponseBody(), ErrorReport.class);
+            JacksonMapper.getReader(ErrorReport.class).readValue(apiEx.getResponseBody());
         apiExMsg = errorReport.getMessage();
       } catch (JsonProcessingException jsonEx) {
         logger.debug("Error deserializing WSM exception ErrorReport: {}", apiEx.getResponseBody());
@@ -7,6 +7,8 @@ import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.businessobject.resource.AwsS3StorageFolder;
 import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook;
 import bio.terra.cli.businessobject.resource.AwsSageMakerNotebook.ProxyView;
+import bio.terra.cli.cloud.storage.ObjectLister;
+import bio.terra.cli.cloud.storage.StorageObject;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.serialization.userfacing.input.CreateAwsS3StorageFolderParams;
@@ -33,15 +35,19 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.apache.http.client.utils.URIBuilder;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.exception.SdkException;
@@ -64,11 +70,19 @@ import software.amazon.awssdk.services.sagemaker.model.NotebookInstanceStatus;
 import software.amazon.awssdk.services.sagemaker.model.StartNotebookInstanceRequest;
 import software.amazon.awssdk.services.sagemaker.model.StopNotebookInstanceRequest;
 import software.amazon.awssdk.services.sagemaker.waiters.SageMakerWaiter;
+import software.amazon.awssdk.utils.cache.CachedSupplier;
+import software.amazon.awssdk.utils.cache.RefreshResult;
 
 /** Utility methods for calling Workspace Manager's AWS endpoints. */
 public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
   private static final Logger logger = LoggerFactory.getLogger(WorkspaceManagerServiceAws.class);
   private static final int CREDENTIAL_EXPIRATION_SECONDS_DEFAULT = 900;
+  // longest duration that WSM allows, used for transfers that may take a while
+  private static final int CREDENTIAL_EXPIRATION_SECONDS_MAX = 3600;
+  // credentials for a transfer are fetched again in the background this long before they expire
+  private static final Duration CREDENTIAL_PREFETCH_BEFORE_EXPIRY = Duration.ofMinutes(10);
+  // and requests wait for new credentials this long before they expire
+  private static final Duration CREDENTIAL_STALE_BEFORE_EXPIRY = Duration.ofMinutes(2);
   private static final int S3_CLIENT_RESULTS_PER_CALL = 1000;
   private static final Duration SAGEMAKER_CLIENT_WAITER_TIMEOUT = Duration.ofSeconds(1800);
   private static final Integer SAGEMAKER_SESSION_DURATION_SECONDS_MAX = 43200; // 12 hours
@@ -213,15 +227,78 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
         .build();
   }
 
+  /**
+   * Get an S3 client with read-only access to a storage folder.
+   *
+   * @param workspaceId the workspace that contains the resource
+   * @param awsStorageFolder the storage folder resource
+   */
+  private S3Client getReadOnlyS3Client(UUID workspaceId, AwsS3StorageFolder awsStorageFolder) {
+    return getS3Client(
+        getControlledAwsS3StorageFolderCredential(
+            workspaceId,
+            awsStorageFolder.getId(),
+            AwsCredentialAccessScope.READ_ONLY,
+            CREDENTIAL_EXPIRATION_SECONDS_DEFAULT),
+        awsStorageFolder.getRegion());
+  }
+
+  /**
+   * Get an S3 client for transfers to or from a storage folder, which may outlive a single set of
+   * credentials. Credentials are fetched from WSM when the client is first used, and fetched again
+   * shortly before they expire, so requests in the middle of a transfer never use expired ones.
+   *
+   * @param workspaceId the workspace that contains the resource
+   * @param awsStorageFolder the storage folder resource
+   * @param accessScope the access scope (READ_ONLY, WRITE_READ)
+   */
+  public S3Client getS3ClientWithRefreshingCredentials(
+      UUID workspaceId, AwsS3StorageFolder awsStorageFolder, AwsCredentialAccessScope accessScope) {
+    return S3Client.builder()
+        .region(Region.of(awsStorageFolder.getRegion()))
+        .credentialsProvider(
+            getRefreshingCredentialsProvider(
+                () ->
+                    getControlledAwsS3StorageFolderCredential(
+                        workspaceId,
+                        awsStorageFolder.getId(),
+                        accessScope,
+                        CREDENTIAL_EXPIRATION_SECONDS_MAX)))
+        .build();
+  }
+
+  /**
+   * Get a credentials provider that fetches credentials from WSM when they're first used, and
+   * again shortly before they expire.
+   *
+   * @param fetchCredentials fetches credentials that are valid for {@link
+   *     #CREDENTIAL_EXPIRATION_SECONDS_MAX}
+   */
+  private static AwsCredentialsProvider getRefreshingCredentialsProvider(
+      Supplier<AwsCredential> fetchCredentials) {
+    CachedSupplier<AwsCredentials> credentials =
+        CachedSupplier.builder(
+                () -> {
+                  // measure the lifetime from before the request, so it's never overestimated
+                  Instant expiration = Instant.now().plusSeconds(CREDENTIAL_EXPIRATION_SECONDS_MAX);
+                  AwsCredential awsCredential = fetchCredentials.get();
+                  logger.debug("Fetched resource credentials until {}", expiration);
+                  return RefreshResult.builder(
+                          (AwsCredentials)
+                              AwsSessionCredentials.create(
+                                  awsCredential.getAccessKeyId(),
+                                  awsCredential.getSecretAccessKey(),
+                                  awsCredential.getSessionToken()))
+                      .staleTime(expiration.minus(CREDENTIAL_STALE_BEFORE_EXPIRY))
+                      .prefetchTime(expiration.minus(CREDENTIAL_PREFETCH_BEFORE_EXPIRY))
+                      .build();
+                })
+            .build();
+    return credentials::get;
+  }
+
   public Integer getNumObjects(UUID workspaceId, AwsS3StorageFolder awsStorageFolder, long limit) {
-    S3Client s3Client =
-        getS3Client(
-            getControlledAwsS3StorageFolderCredential(
-                workspaceId,
-                awsStorageFolder.getId(),
-                AwsCredentialAccessScope.READ_ONLY,
-                CREDENTIAL_EXPIRATION_SECONDS_DEFAULT),
-            awsStorageFolder.getRegion());
+    S3Client s3Client = getReadOnlyS3Client(workspaceId, awsStorageFolder);
 
     try {
       Iterator<ListObjectsV2Response> listIterator =
@@ -250,6 +327,44 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
     }
   }
 
+  /**
+   * Get a lister for the objects in a storage folder's bucket. Folder marker objects (keys ending
+   * in "/") are not listed as objects.
+   *
+   * @param workspaceId the workspace that contains the resource
+   * @param awsStorageFolder the storage folder resource
+   */
+  public ObjectLister getObjectLister(UUID workspaceId, AwsS3StorageFolder awsStorageFolder) {
+    S3Client s3Client = getReadOnlyS3Client(workspaceId, awsStorageFolder);
+    return (prefix, recursive, prefixConsumer, objectConsumer) -> {
+      ListObjectsV2Request.Builder request =
+          ListObjectsV2Request.builder()
+              .bucket(awsStorageFolder.getBucketName())
+              .prefix(prefix)
+              .maxKeys(S3_CLIENT_RESULTS_PER_CALL);
+      if (!recursive) {
+        request.delimiter("/");
+      }
+      try {
+        for (ListObjectsV2Response response : s3Client.listObjectsV2Paginator(request.build())) {
+          response
+              .commonPrefixes()
+              .forEach(commonPrefix -> prefixConsumer.accept(commonPrefix.prefix()));
+          response.contents().stream()
+              .filter(s3Object -> !s3Object.key().endsWith("/"))
+              .forEach(
+                  s3Object ->
+                      objectConsumer.accept(
+                          new StorageObject(
+                              s3Object.key(), s3Object.size(), s3Object.storageClassAsString())));
+        }
+      } catch (Exception e) {
+        checkS3StorageFolderException(e);
+        throw new SystemException("Error listing objects in S3 storage folder", e);
+      }
+    };
+  }
+
   public static void checkS3StorageFolderException(Exception ex) {
     if (ex instanceof NoSuchKeyException
         || (ex instanceof SdkException && ex.getMessage().contains("Access Denied"))) {
@@ -417,6 +532,29 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
         .build();
   }
 
+  /**
+   * Get a SageMaker client for a notebook that may be used for longer than a single set of
+   * credentials, e.g. to check its status repeatedly. Credentials are fetched and refreshed like
+   * {@link #getS3ClientWithRefreshingCredentials}.
+   *
+   * @param workspaceId the workspace that contains the resource
+   * @param awsNotebook the notebook resource
+   */
+  public SageMakerClient getSageMakerClientWithRefreshingCredentials(
+      UUID workspaceId, AwsSageMakerNotebook awsNotebook) {
+    return SageMakerClient.builder()
+        .region(Region.of(awsNotebook.getRegion()))
+        .credentialsProvider(
+            getRefreshingCredentialsProvider(
+                () ->
+                    getControlledAwsSageMakerNotebookCredential(
+                        workspaceId,
+                        awsNotebook.getId(),
+                        AwsCredentialAccessScope.READ_ONLY,
+                        CREDENTIAL_EXPIRATION_SECONDS_MAX)))
+        .build();
+  }
+
   public NotebookInstanceStatus getSageMakerNotebookInstanceStatus(
       AwsSageMakerNotebook awsNotebook, SageMakerClient sageMakerClient) {
     try {
@@ -490,7 +628,16 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
                 AwsCredentialAccessScope.READ_ONLY,
                 CREDENTIAL_EXPIRATION_SECONDS_DEFAULT),
             awsNotebook.getRegion());
+    return startSageMakerNotebook(awsNotebook, sageMakerClient);
+  }
 
+  /**
+   * Request a notebook to start, without waiting for it to finish.
+   *
+   * @return true if the notebook is already in service, or empty if it's starting
+   */
+  public Optional<Boolean> startSageMakerNotebook(
+      AwsSageMakerNotebook awsNotebook, SageMakerClient sageMakerClient) {
     try {
       NotebookInstanceStatus currentStatus =
           getSageMakerNotebookInstanceStatus(awsNotebook, sageMakerClient);
@@ -529,12 +676,24 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
                 AwsCredentialAccessScope.READ_ONLY,
                 CREDENTIAL_EXPIRATION_SECONDS_DEFAULT),
             awsNotebook.getRegion());
+    if (requestStopSageMakerNotebook(awsNotebook, sageMakerClient)) {
+      // wait for stop to complete
+      waitForSageMakerNotebookStatus(awsNotebook, NotebookInstanceStatus.STOPPED, sageMakerClient);
+    }
+  }
 
+  /**
+   * Request a notebook to stop, without waiting for it to finish.
+   *
+   * @return false if the notebook is already stopped or failed, so there is nothing to stop
+   */
+  public boolean requestStopSageMakerNotebook(
+      AwsSageMakerNotebook awsNotebook, SageMakerClient sageMakerClient) {
     try {
       NotebookInstanceStatus currentStatus =
           getSageMakerNotebookInstanceStatus(awsNotebook, sageMakerClient);
       if (notebookStatusSetCanStart.contains(currentStatus)) {
-        return;
+        return false;
       }
       checkNotebookStatus(notebookStatusSetCanStop, currentStatus, "Cannot stop notebook instance");
 
@@ -550,8 +709,7 @@ public class WorkspaceManagerServiceAws extends WorkspaceManagerService {
             "Error stopping notebook instance, "
                 + httpResponse.statusText().orElse(String.valueOf(httpResponse.statusCode())));
       }
-      // wait for stop to complete
-      waitForSageMakerNotebookStatus(awsNotebook, NotebookInstanceStatus.STOPPED, sageMakerClient);
+      return true;
 
     } catch (SdkException e) {
       checkException(e);
@@ -1,7 +1,11 @@
 package bio.terra.cli.service.utils;
 
+import bio.terra.cli.businessobject.RequestMetrics;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.Tracer;
 import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.jfr.HttpRequestEvent;
+import bio.terra.cli.utils.jfr.JobPollEvent;
 import com.google.api.client.http.HttpStatusCodes;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
@@ -16,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +32,12 @@ public class HttpUtils {
   // default value for the time to sleep between retries
   public static final Duration DEFAULT_DURATION_SLEEP_FOR_RETRY = Duration.ofSeconds(1);
   private static final Logger logger = LoggerFactory.getLogger(HttpUtils.class);
+  // names of the methods in the service classes that wrap the retry helpers in this class. these
+  // are skipped when naming a request for tracing and request metrics.
+  private static final Set<String> RETRY_HELPER_METHOD_NAMES =
+      Set.of("callWithRetries", "callAndHandleOneTimeError", "handleClientExceptions");
+  // name for a request that wasn't named, because nothing records the name
+  private static final String UNNAMED_REQUEST = "request";
 
   private HttpUtils() {}
 
@@ -84,6 +95,9 @@ public class HttpUtils {
       urlStr += "?" + paramsStr;
     }
 
+    HttpRequestEvent requestEvent = new HttpRequestEvent();
+    requestEvent.begin();
+
     // open HTTP connection
     URL url = new URL(urlStr);
     HttpURLConnection con = (HttpURLConnection) url.openConnection();
@@ -127,6 +141,16 @@ public class HttpUtils {
     // close HTTP connection
     con.disconnect();
 
+    requestEvent.end();
+    if (requestEvent.shouldCommit()) {
+      requestEvent.service = url.getHost();
+      requestEvent.endpoint = requestType + " " + url.getPath();
+      requestEvent.attempt = 1;
+      requestEvent.statusCode = statusCode;
+      requestEvent.responseBytes = responseBody.length();
+      requestEvent.commit();
+    }
+
     // return a POJO that includes both the response body and status code
     return new HttpResponse(responseBody.toString(), statusCode);
   }
@@ -292,54 +316,148 @@ public class HttpUtils {
       int maxCalls,
       Duration sleepDuration)
       throws E, InterruptedException {
+    JobPollEvent jobPollEvent = new JobPollEvent();
+    // naming the request walks the call stack, so only do it if something records the name
+    String requestName =
+        RequestMetrics.isEnabled() || Tracer.isEnabled() || jobPollEvent.isEnabled()
+            ? getRequestName()
+            : UNNAMED_REQUEST;
     int numTries = 0;
+    int numRetries = 0;
+    int numPolls = 0;
+    boolean succeeded = false;
     Exception lastRetryableException = null;
-    do {
-      numTries++;
-      try {
-        logger.debug("Request attempt #{}", numTries);
-
-        // Print to STDERR so that terminal command doesn't appear to hang.
-        if (shouldPrintToStderrOnRetry && numTries > 1) {
-          UserIO.getErr()
-              .printf("Encountered error, retrying request (%s/%s)%n", numTries - 1, maxCalls);
+    jobPollEvent.begin();
+    try (Tracer.Span requestSpan = Tracer.startSpan(Tracer.CATEGORY_HTTP, requestName)) {
+      do {
+        numTries++;
+        requestSpan.setAttribute("attempts", numTries);
+        long attemptStartNanos = System.nanoTime();
+        HttpRequestEvent requestEvent = new HttpRequestEvent();
+        requestEvent.begin();
+        try (Tracer.Span attemptSpan = Tracer.startSpan(Tracer.CATEGORY_HTTP, "attempt")) {
+          logger.debug("Request attempt #{}", numTries);
+
+          // Print to STDERR so that terminal command doesn't appear to hang.
+          if (shouldPrintToStderrOnRetry && numTries > 1) {
+            UserIO.getErr()
+                .printf("Encountered error, retrying request (%s/%s)%n", numTries - 1, maxCalls);
+          }
+
+          T result = makeRequest.makeRequest();
+          // the full response can be large (e.g. a page of resources), so only render it at TRACE
+          if (logger.isTraceEnabled()) {
+            logger.trace("Result: {}", result);
+          } else {
+            logger.debug(
+                "Result type: {}", result == null ? null : result.getClass().getSimpleName());
+          }
+
+          boolean jobCompleted = isDone.test(result);
+          boolean timedOut = numTries > maxCalls;
+          if (jobCompleted || timedOut) {
+            // polling is either done (i.e. job completed) or timed out: return the last result
+            logger.debug(
+                "polling with retries completed. jobCompleted = {}, timedOut = {}",
+                jobCompleted,
+                timedOut);
+            // a poll that timed out counts as a failed call
+            succeeded = jobCompleted;
+            jobPollEvent.completed = jobCompleted;
+            return result;
+          }
+          numPolls++;
+        } catch (Exception ex) {
+          requestEvent.error = ex.getClass().getSimpleName();
+          if (!isRetryable.test(ex)) {
+            // the exception is not retryable: re-throw
+            requestSpan.setAttribute("error", ex.getClass().getSimpleName());
+            throw ex;
+          } else {
+            // keep track of the last retryable exception so we can re-throw it in case of a timeout
+            lastRetryableException = ex;
+            requestSpan.setAttribute("lastRetryableError", ex.getClass().getSimpleName());
+            if (numTries <= maxCalls) {
+              numRetries++;
+            }
+          }
+          logger.info("Caught retryable exception: ", ex);
+        } finally {
+          RequestMetrics.recordAttempt(requestName, System.nanoTime() - attemptStartNanos);
+          commitRequestEvent(requestEvent, requestName, numTries);
         }
 
-        T result = makeRequest.makeRequest();
-        logger.debug("Result: {}", result);
-
-        boolean jobCompleted = isDone.test(result);
-        boolean timedOut = numTries > maxCalls;
-        if (jobCompleted || timedOut) {
-          // polling is either done (i.e. job completed) or timed out: return the last result
-          logger.debug(
-              "polling with retries completed. jobCompleted = {}, timedOut = {}",
-              jobCompleted,
-              timedOut);
-          return result;
+        // sleep before retrying, unless this is the last try
+        if (numTries < maxCalls) {
+          try (Tracer.Span sleepSpan = Tracer.startSpan(Tracer.CATEGORY_HTTP, "retry sleep")) {
+            Thread.sleep(sleepDuration.toMillis());
+          }
         }
-      } catch (Exception ex) {
-        if (!isRetryable.test(ex)) {
-          // the exception is not retryable: re-throw
-          throw ex;
-        } else {
-          // keep track of the last retryable exception so we can re-throw it in case of a timeout
-          lastRetryableException = ex;
-        }
-        logger.info("Caught retryable exception: ", ex);
-      }
-
-      // sleep before retrying, unless this is the last try
-      if (numTries < maxCalls) {
-        Thread.sleep(sleepDuration.toMillis());
+      } while (numTries <= maxCalls);
+    } finally {
+      RequestMetrics.recordCall(requestName, numRetries, !succeeded);
+      // only requests that returned a result that was not done (i.e. a job that was still running)
+      // count as polling
+      jobPollEvent.end();
+      if (numPolls > 0 && jobPollEvent.shouldCommit()) {
+        jobPollEvent.endpoint = requestName;
+        jobPollEvent.polls = numTries;
+        jobPollEvent.commit();
       }
-    } while (numTries <= maxCalls);
+    }
 
     // request with retries timed out: re-throw the last exception
     throw new SystemException(
         "Request with retries timed out after " + numTries + " tries.", lastRetryableException);
   }
 
+  /**
+   * Get a name for the request being made, for tracing and request metrics. This is the first
+   * method on the call stack outside of the retry helpers in this class and the service classes
+   * (e.g. "WorkspaceManagerService.getWorkspace").
+   *
+   * @return the request name
+   */
+  private static String getRequestName() {
+    return StackWalker.getInstance()
+        .walk(
+            frames ->
+                frames
+                    .filter(
+                        frame ->
+                            !frame.getClassName().equals(HttpUtils.class.getName())
+                                && !frame.getMethodName().startsWith("lambda$")
+                                && !RETRY_HELPER_METHOD_NAMES.contains(frame.getMethodName()))
+                    .findFirst()
+                    .map(frame -> getSimpleClassName(frame) + "." + frame.getMethodName())
+                    .orElse(UNNAMED_REQUEST));
+  }
+
+  /**
+   * Commit the flight recorder event for an attempt at a request made through the retry helpers.
+   *
+   * @param requestEvent event that was started before the attempt
+   * @param requestName request name (e.g. "WorkspaceManagerService.getWorkspace")
+   * @param attempt attempt number, starting at 1
+   */
+  private static void commitRequestEvent(
+      HttpRequestEvent requestEvent, String requestName, int attempt) {
+    requestEvent.end();
+    if (requestEvent.shouldCommit()) {
+      int separatorIndex = requestName.lastIndexOf('.');
+      requestEvent.service = separatorIndex < 0 ? null : requestName.substring(0, separatorIndex);
+      requestEvent.endpoint = requestName.substring(separatorIndex + 1);
+      requestEvent.attempt = attempt;
+      requestEvent.commit();
+    }
+  }
+
+  /** Get the class name of the stack frame, without the package. */
+  private static String getSimpleClassName(StackWalker.StackFrame frame) {
+    String className = frame.getClassName();
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
   /**
    * Helper method to make a request, handle a possible one-time error, and then retry the request.
    *
@@ -8,8 +8,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -72,6 +78,88 @@ public class FileUtils {
     return Files.writeString(outputFile.toPath(), fileContents == null ? "" : fileContents);
   }
 
+  /**
+   * Write bytes to a file atomically. The contents are first written and flushed to a temporary
+   * file in the same directory, which is then renamed over the target. Readers will see either the
+   * previous contents or the new contents, never a partially written file.
+   *
+   * @param outputFile the file to write to
+   * @param fileContents the bytes to write
+   */
+  public static void writeBytesToFileAtomically(Path outputFile, byte[] fileContents)
+      throws IOException {
+    writeBytesToFileAtomically(outputFile, fileContents, true);
+  }
+
+  /**
+   * Write bytes to a file atomically, like {@link #writeBytesToFileAtomically(Path, byte[])}.
+   *
+   * @param outputFile the file to write to
+   * @param fileContents the bytes to write
+   * @param sync true to flush the temporary file to the storage device before renaming it, so that
+   *     the new contents survive a crash. false skips this for files that can be lost.
+   */
+  public static void writeBytesToFileAtomically(Path outputFile, byte[] fileContents, boolean sync)
+      throws IOException {
+    logger.debug("Atomically writing to file: {}", outputFile.toAbsolutePath());
+    Path parentDir = outputFile.toAbsolutePath().getParent();
+    Files.createDirectories(parentDir);
+
+    Path tempFile = Files.createTempFile(parentDir, outputFile.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        ByteBuffer buffer = ByteBuffer.wrap(fileContents);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        if (sync) {
+          channel.force(true);
+        }
+      }
+      try {
+        Files.move(
+            tempFile,
+            outputFile,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException amnsEx) {
+        // some file systems (e.g. certain network mounts) don't support atomic renames. fall back
+        // on a regular replace, which is still better than truncating the target in place.
+        Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Run an action while holding an exclusive advisory lock on the given lock file. Other CLI
+   * processes calling this method with the same lock file will block until the lock is released.
+   * The lock file is created if it doesn't already exist, and is never deleted.
+   *
+   * <p>Advisory locks are held on behalf of the whole JVM, so this method also serializes callers
+   * within this process.
+   *
+   * @param lockFile the file to lock
+   * @param action the action to run while holding the lock
+   * @return the value returned by the action
+   */
+  public static synchronized <T> T runWithFileLock(Path lockFile, LockedAction<T> action)
+      throws IOException {
+    Files.createDirectories(lockFile.toAbsolutePath().getParent());
+    try (FileChannel channel =
+            FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock ignored = channel.lock()) {
+      return action.run();
+    }
+  }
+
+  /** An action to run while holding a file lock. See {@link #runWithFileLock}. */
+  @FunctionalInterface
+  public interface LockedAction<T> {
+    T run() throws IOException;
+  }
+
   /** Delete the file or directory (recursively) if it exists. */
   public static void delete(Path root) throws IOException {
     walkUpFileTree(root, childPath -> childPath.toFile().delete(), false);
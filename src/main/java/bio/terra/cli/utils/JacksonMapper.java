@@ -3,6 +3,7 @@ package bio.terra.cli.utils;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -11,7 +12,11 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,17 +24,38 @@ import org.slf4j.LoggerFactory;
  * Utility methods for using Jackson to de/serialize JSON. This class maintains a singleton instance
  * of the Jackson {@link ObjectMapper}, to avoid re-loading the modules multiple times for a single
  * CLI command.
+ *
+ * <p>The mapper is configured once, when this class is loaded. Mappers with additional features,
+ * and the {@link ObjectReader}s and {@link ObjectWriter}s built from them, are immutable once built
+ * and are cached, so that each type's (de)serializers are only looked up the first time it's read
+ * or written.
  */
 public class JacksonMapper {
   private static final Logger logger = LoggerFactory.getLogger(JacksonMapper.class);
-  private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private static final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .findAndRegisterModules()
+          .enable(JsonParser.Feature.ALLOW_COMMENTS)
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .enable(SerializationFeature.WRITE_DATES_WITH_ZONE_ID);
+  private static final ObjectWriter writer = objectMapper.writer();
+  private static final ObjectWriter prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
 
-  /** Getter for the singleton instance of the default Jackson {@link ObjectMapper} instance. */
+  // mappers with additional features enabled, keyed by the set of features
+  private static final Map<Set<MapperFeature>, ObjectMapper> mappersWithFeatures =
+      new ConcurrentHashMap<>();
+  private static final Map<ReaderKey, ObjectReader> readers = new ConcurrentHashMap<>();
+
+  /** Key for the reader cache: the type to read and any additional Jackson features enabled. */
+  private record ReaderKey(Class<?> javaObjectClass, Set<MapperFeature> mapperFeatures) {}
+
+  /**
+   * Getter for the singleton instance of the default Jackson {@link ObjectMapper} instance. Prefer
+   * {@link #getReader(Class)}, {@link #getWriter()} or {@link #getPrettyWriter()} for reading and
+   * writing objects.
+   */
   public static ObjectMapper getMapper() {
-    return objectMapper
-        .enable(JsonParser.Feature.ALLOW_COMMENTS)
-        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-        .enable(SerializationFeature.WRITE_DATES_WITH_ZONE_ID);
+    return objectMapper;
   }
 
   /**
@@ -39,18 +65,52 @@ public class JacksonMapper {
    */
   public static ObjectMapper getMapper(List<MapperFeature> mapperFeatures) {
     // if no Jackson features are specified, just return the default mapper object
-    if (mapperFeatures.size() == 0) {
-      return getMapper();
+    if (mapperFeatures.isEmpty()) {
+      return objectMapper;
     }
+    return mappersWithFeatures.computeIfAbsent(
+        EnumSet.copyOf(mapperFeatures), JacksonMapper::buildMapperWithFeatures);
+  }
 
-    // create a copy of the default mapper and enable any Jackson features specified
-    ObjectMapper objectMapperWithFeatures = getMapper().copy();
+  /** Create a copy of the default mapper and enable the specified Jackson features. */
+  private static ObjectMapper buildMapperWithFeatures(Set<MapperFeature> mapperFeatures) {
+    ObjectMapper objectMapperWithFeatures = objectMapper.copy();
     for (MapperFeature mapperFeature : mapperFeatures) {
       objectMapperWithFeatures.enable(mapperFeature);
     }
     return objectMapperWithFeatures;
   }
 
+  /** Get a cached reader for the specified Java object class, using the default mapper. */
+  public static ObjectReader getReader(Class<?> javaObjectClass) {
+    return getReader(javaObjectClass, Collections.emptyList());
+  }
+
+  /**
+   * Get a cached reader for the specified Java object class, with the specified Jackson features
+   * enabled.
+   */
+  public static ObjectReader getReader(
+      Class<?> javaObjectClass, List<MapperFeature> mapperFeatures) {
+    Set<MapperFeature> featureSet =
+        mapperFeatures.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(EnumSet.copyOf(mapperFeatures));
+    return readers.computeIfAbsent(
+        new ReaderKey(javaObjectClass, featureSet),
+        key -> getMapper(mapperFeatures).readerFor(key.javaObjectClass()));
+  }
+
+  /** Get the writer for compact JSON, using the default mapper. */
+  public static ObjectWriter getWriter() {
+    return writer;
+  }
+
+  /** Get the writer for pretty-printed JSON, using the default mapper. */
+  public static ObjectWriter getPrettyWriter() {
+    return prettyWriter;
+  }
+
   /**
    * Read a JSON-formatted file into a Java object using the Jackson object mapper.
    *
@@ -79,15 +139,9 @@ public class JacksonMapper {
       File inputFile, Class<T> javaObjectClass, List<MapperFeature> mapperFeatures)
       throws IOException {
     // use Jackson to map the file contents to an instance of the specified class
-    ObjectMapper objectMapper = getMapper(mapperFeatures);
-
-    // enable any Jackson features specified
-    for (MapperFeature mapperFeature : mapperFeatures) {
-      objectMapper.enable(mapperFeature);
-    }
-
+    ObjectReader objectReader = getReader(javaObjectClass, mapperFeatures);
     try (FileInputStream inputStream = new FileInputStream(inputFile)) {
-      return objectMapper.readValue(inputStream, javaObjectClass);
+      return objectReader.readValue(inputStream);
     }
   }
 
@@ -103,14 +157,10 @@ public class JacksonMapper {
       justification =
           "A file not found exception will be thrown anyway in this same method if the mkdirs or createNewFile calls fail.")
   public static <T> void writeJavaObjectToFile(File outputFile, T javaObject) throws IOException {
-    // use Jackson to map the object to a JSON-formatted text block
-    ObjectMapper objectMapper = getMapper();
-    ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-
     // create the file and any parent directories if they don't already exist
     FileUtils.createFile(outputFile);
 
     logger.debug("Serializing object with Jackson to file: {}", outputFile.getAbsolutePath());
-    objectWriter.writeValue(outputFile, javaObject);
+    prettyWriter.writeValue(outputFile, javaObject);
   }
 }
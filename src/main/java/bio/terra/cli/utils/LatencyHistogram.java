@@ -0,0 +1,122 @@
+package bio.terra.cli.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Histogram of latency values, with log-linear buckets in the style of HdrHistogram. Values are
+ * grouped by their power of two, and each power of two is split into {@link #SUB_BUCKET_COUNT}
+ * linear sub-buckets, so any percentile is accurate to within about 6% of the true value, no matter
+ * how large. Only non-empty buckets are stored, so a histogram of latencies from a single endpoint
+ * typically has a few dozen entries and can be merged cheaply with another one.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class LatencyHistogram {
+  // number of linear sub-buckets per power of two. must be a power of two.
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  // bucket index -> number of values recorded in that bucket
+  private final SortedMap<Integer, Long> buckets;
+  private long count;
+  private long max;
+
+  /** Create an empty histogram. */
+  public LatencyHistogram() {
+    this.buckets = new TreeMap<>();
+  }
+
+  /**
+   * Create a histogram from its stored buckets.
+   *
+   * @param buckets bucket index -> number of values recorded in that bucket
+   * @param max maximum value recorded
+   */
+  public LatencyHistogram(Map<Integer, Long> buckets, long max) {
+    this.buckets = new TreeMap<>(buckets);
+    this.count = buckets.values().stream().mapToLong(Long::longValue).sum();
+    this.max = max;
+  }
+
+  /**
+   * Record a single value.
+   *
+   * @param value latency, in any unit (negative values are recorded as zero)
+   */
+  public void record(long value) {
+    long nonNegativeValue = Math.max(0, value);
+    buckets.merge(getBucketIndex(nonNegativeValue), 1L, Long::sum);
+    count++;
+    max = Math.max(max, nonNegativeValue);
+  }
+
+  /** Add all of the values recorded in another histogram to this one. */
+  public void merge(LatencyHistogram other) {
+    other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+    count += other.count;
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Get the value at the given percentile. This is the upper bound of the bucket that contains the
+   * percentile, capped at the maximum value recorded.
+   *
+   * @param percentile percentile between 0 and 100
+   * @return the value at the percentile, or 0 if nothing has been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long targetCount = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+    long cumulativeCount = 0;
+    for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+      cumulativeCount += bucket.getValue();
+      if (cumulativeCount >= targetCount) {
+        return Math.min(getBucketUpperBound(bucket.getKey()), max);
+      }
+    }
+    return max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  /** Get the non-empty buckets, keyed by bucket index. This is the stored form of the histogram. */
+  public Map<Integer, Long> getBuckets() {
+    return Collections.unmodifiableMap(buckets);
+  }
+
+  /**
+   * Get the index of the bucket that contains the given value. Values below {@link
+   * #SUB_BUCKET_COUNT} each get their own bucket. Larger values are bucketed by their highest set
+   * bit, and then by the next {@link #SUB_BUCKET_BITS} bits.
+   */
+  private static int getBucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /** Get the largest value that falls into the bucket with the given index. */
+  private static long getBucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+    int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    long lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
@@ -3,10 +3,13 @@ package bio.terra.cli.utils;
 import static ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME;
 
 import bio.terra.cli.businessobject.Context;
+import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.filter.ThresholdFilter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.OutputStreamAppender;
 import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
@@ -14,8 +17,10 @@ import ch.qos.logback.core.rolling.RollingFileAppender;
 import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
+import com.google.common.annotations.VisibleForTesting;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
+import java.nio.file.Path;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -28,6 +33,18 @@ public class Logger {
       "%d{yyyy-MM-dd HH:mm:ss.SSS zz} [%thread] %-5level %logger{50} - %msg%n";
   private static final long MAX_FILE_SIZE = 5 * FileSize.MB_COEFFICIENT; // 5 MB
   private static final int MAX_NUM_FILES = 5;
+  // maximum number of events buffered for the background thread that writes the log file
+  private static final int ASYNC_QUEUE_SIZE = 1024;
+  // once the buffer has fewer than this many free slots, INFO and lower events are discarded.
+  // WARN and ERROR events are only discarded once the buffer is completely full.
+  private static final int ASYNC_DISCARDING_THRESHOLD = ASYNC_QUEUE_SIZE / 5;
+  // maximum time to wait for the buffered events to be written to the log file on shutdown
+  private static final int ASYNC_MAX_FLUSH_TIME_MS = 2000;
+
+  // the configuration that the logger context is currently set up with, so that repeated calls to
+  // setupLogging with the same configuration (e.g. multiple commands run in the same JVM during
+  // testing) don't tear down and rebuild the appenders
+  private static LoggingConfiguration currentConfiguration;
 
   /**
    * Setup a file and console appender for the root logger. Each may use a different logging level,
@@ -40,6 +57,12 @@ public class Logger {
               + " and an exception would have been thrown earlier when we first read in the global "
               + "context file anyway.")
   public static void setupLogging(LogLevel consoleLoggingLevel, LogLevel fileLoggingLevel) {
+    LoggingConfiguration configuration =
+        new LoggingConfiguration(consoleLoggingLevel, fileLoggingLevel, Context.getLogFile());
+    if (configuration.equals(currentConfiguration)) {
+      return;
+    }
+
     LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
     loggerContext.reset();
 
@@ -85,24 +108,29 @@ public class Logger {
     triggeringPolicy.start();
     rollingPolicy.start();
 
-    setupEncoderAndFilter(rollingFileAppender, loggerContext, fileLoggingLevel.getLogLevelImpl());
+    setupEncoder(rollingFileAppender, loggerContext);
     rollingFileAppender.start();
 
+    AsyncAppender asyncFileAppender =
+        buildAsyncFileAppender(loggerContext, rollingFileAppender, fileLoggingLevel);
+
     // build the console appender
     ConsoleAppender consoleAppender = new ConsoleAppender();
     consoleAppender.setName("ConsoleAppender");
     consoleAppender.setContext(loggerContext);
-    setupEncoderAndFilter(consoleAppender, loggerContext, consoleLoggingLevel.getLogLevelImpl());
+    setupEncoder(consoleAppender, loggerContext);
+    consoleAppender.addFilter(buildThresholdFilter(consoleLoggingLevel.getLogLevelImpl()));
     consoleAppender.start();
 
     // on the root logger, clear any existing appenders and attach the two created above
-    // also set the root log level to ALL, so that each appender can set its level independently.
-    // if we don't sent the root log level to ALL, then it acts as a second filter for any messages
-    // below its default level DEBUG.
+    // also set the root log level to the more verbose of the two appender levels, so that each
+    // appender can set its level independently. this way, calls below both levels are dropped in
+    // the calling thread without building a logging event or rendering any of the arguments.
     ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(ROOT_LOGGER_NAME);
-    rootLogger.setLevel(Level.ALL);
+    rootLogger.setLevel(
+        mostVerbose(consoleLoggingLevel.getLogLevelImpl(), fileLoggingLevel.getLogLevelImpl()));
     rootLogger.detachAndStopAllAppenders();
-    rootLogger.addAppender(rollingFileAppender);
+    rootLogger.addAppender(asyncFileAppender);
     rootLogger.addAppender(consoleAppender);
 
     // if a process is too short-lived, then the policy may not check if it should rollover.
@@ -114,33 +142,88 @@ public class Logger {
       rollingFileAppender.rollover();
     }
 
+    currentConfiguration = configuration;
     // StatusPrinter.print(loggerContext); // helpful for debugging
   }
 
   /**
-   * Helper method to setup the encoder and filter for the given appender. This setup is common to
-   * all appenders.
+   * Stop the logger context, which waits for the background thread to write any buffered events to
+   * the log file. Call this before the process exits.
+   */
+  public static void shutdown() {
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    loggerContext.stop();
+    currentConfiguration = null;
+  }
+
+  /**
+   * Build an appender that writes to the log file on a background thread, so that file logging
+   * (e.g. of large response objects at DEBUG level) doesn't add latency to the command. If the log
+   * file can't keep up and the buffer fills, events are dropped rather than blocking the command.
+   *
+   * @param loggerContext global logger context object
+   * @param fileAppender appender that writes to the log file
+   * @param fileLoggingLevel events below this level are dropped before they are buffered
+   * @return the started appender
+   */
+  @VisibleForTesting
+  static AsyncAppender buildAsyncFileAppender(
+      LoggerContext loggerContext,
+      Appender<ILoggingEvent> fileAppender,
+      LogLevel fileLoggingLevel) {
+    AsyncAppender asyncFileAppender = new AsyncAppender();
+    asyncFileAppender.setName("AsyncFileAppender");
+    asyncFileAppender.setContext(loggerContext);
+    asyncFileAppender.setQueueSize(ASYNC_QUEUE_SIZE);
+    asyncFileAppender.setDiscardingThreshold(ASYNC_DISCARDING_THRESHOLD);
+    asyncFileAppender.setNeverBlock(true);
+    asyncFileAppender.setMaxFlushTime(ASYNC_MAX_FLUSH_TIME_MS);
+    asyncFileAppender.setIncludeCallerData(false);
+    asyncFileAppender.addAppender(fileAppender);
+    // the threshold filter goes on the async appender, so that filtered-out events are never queued
+    asyncFileAppender.addFilter(buildThresholdFilter(fileLoggingLevel.getLogLevelImpl()));
+    asyncFileAppender.start();
+    return asyncFileAppender;
+  }
+
+  /**
+   * Helper method to setup the encoder for the given appender. This setup is common to all
+   * appenders.
    *
    * @param appender appender object to setup
    * @param loggerContext global logger context object
-   * @param loggingLevel logging level particular to this appender
    */
-  private static void setupEncoderAndFilter(
-      OutputStreamAppender appender, LoggerContext loggerContext, Level loggingLevel) {
+  private static void setupEncoder(OutputStreamAppender appender, LoggerContext loggerContext) {
     PatternLayoutEncoder encoder = new PatternLayoutEncoder();
     encoder.setContext(loggerContext);
     encoder.setPattern(LOG_FORMAT);
     encoder.start();
     appender.setEncoder(encoder);
+  }
 
-    // filter out any logs that are below the logging level specified in the global context
-    appender.clearAllFilters();
+  /**
+   * Helper method to build a filter for any logs that are below the logging level specified in the
+   * global context.
+   *
+   * @param loggingLevel logging level particular to an appender
+   * @return the started filter
+   */
+  private static ThresholdFilter buildThresholdFilter(Level loggingLevel) {
     ThresholdFilter thresholdFilter = new ThresholdFilter();
     thresholdFilter.setLevel(loggingLevel.levelStr);
     thresholdFilter.start();
-    appender.addFilter(thresholdFilter);
+    return thresholdFilter;
   }
 
+  /** Returns the more verbose (i.e. lower) of the two logging levels. */
+  private static Level mostVerbose(Level level1, Level level2) {
+    return level1.isGreaterOrEqual(level2) ? level2 : level1;
+  }
+
+  /** The inputs to {@link #setupLogging} that determine how the logger context is set up. */
+  private record LoggingConfiguration(
+      LogLevel consoleLoggingLevel, LogLevel fileLoggingLevel, Path logFile) {}
+
   /**
    * Wrapper class around the ch.qos.logback.classic.Level class.
    *
@@ -0,0 +1,240 @@
+package bio.terra.cli.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Singleton class for recording timing spans for a single command (e.g. reading the context,
+ * refreshing credentials, each server request and retry, running a tool in a child process or
+ * container), and exporting them to a local file in the Chrome trace event format. The file can be
+ * opened in chrome://tracing or https://ui.perfetto.dev to see where the time went.
+ *
+ * <p>Tracing is off by default, in which case {@link #startSpan} returns a shared no-op span, so
+ * instrumented code doesn't need to check whether tracing is enabled. It is turned on for a single
+ * command by the top-level --trace option or the {@link #TRACE_ENV_VAR_NAME} environment variable.
+ */
+public class Tracer {
+  private static final Logger logger = LoggerFactory.getLogger(Tracer.class);
+
+  // name of the environment variable that turns on tracing, if the --trace option is not specified
+  public static final String TRACE_ENV_VAR_NAME = "TERRA_TRACE";
+
+  // span categories, used to group and filter spans in the trace viewer
+  public static final String CATEGORY_COMMAND = "command";
+  public static final String CATEGORY_HTTP = "http";
+  public static final String CATEGORY_PROCESS = "process";
+
+  // span that is always returned when tracing is disabled
+  private static final Span NO_OP_SPAN = new Span(null, null, 0);
+
+  // trace event timestamps are in microseconds since the epoch. span start and end times are
+  // measured with the monotonic clock, and converted using these anchors.
+  private static final long ANCHOR_EPOCH_MICROS =
+      ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+  private static final long ANCHOR_NANOS = System.nanoTime();
+
+  private static final long PROCESS_ID = ProcessHandle.current().pid();
+
+  // file to write the trace to at the end of the command, null if tracing is disabled
+  private static volatile Path outputFile;
+  private static final Queue<TraceEvent> events = new ConcurrentLinkedQueue<>();
+  // start time of the current command, from the monotonic clock
+  private static long commandStartNanos = ANCHOR_NANOS;
+  // number of commands run in this JVM
+  private static int numCommands;
+
+  private Tracer() {}
+
+  /**
+   * Clear any recorded spans, and turn tracing on or off based on the {@link #TRACE_ENV_VAR_NAME}
+   * environment variable. Call this before each command is parsed.
+   */
+  public static void reset() {
+    events.clear();
+    commandStartNanos = System.nanoTime();
+    numCommands++;
+    String traceFile = System.getenv(TRACE_ENV_VAR_NAME);
+    outputFile = traceFile == null || traceFile.isBlank() ? null : Path.of(traceFile);
+  }
+
+  /**
+   * Turn tracing on for the current command, overriding the environment variable.
+   *
+   * @param traceFile file to write the trace to at the end of the command
+   */
+  public static void setOutputFile(Path traceFile) {
+    outputFile = traceFile;
+  }
+
+  /** Returns true if spans are being recorded for the current command. */
+  public static boolean isEnabled() {
+    return outputFile != null;
+  }
+
+  /**
+   * Start a new span on the current thread. Callers should close the span when the operation
+   * finishes, typically with a try-with-resources block.
+   *
+   * @param category span category, used to group spans in the trace viewer
+   * @param name span name
+   * @return the started span, or a no-op span if tracing is disabled
+   */
+  public static Span startSpan(String category, String name) {
+    if (!isEnabled()) {
+      return NO_OP_SPAN;
+    }
+    return new Span(category, name, System.nanoTime());
+  }
+
+  /**
+   * Write the recorded spans to the output file, if tracing is enabled. This includes a span for
+   * the whole command, from {@link #reset} until now. Failing to write the trace should not fail
+   * the command, so errors are only logged.
+   *
+   * @param commandName qualified name of the command that ran (e.g. "terra workspace list")
+   * @param exitCode process exit code of the command
+   */
+  public static void export(String commandName, int exitCode) {
+    Path traceFile = outputFile;
+    if (traceFile == null) {
+      return;
+    }
+    List<TraceEvent> traceEvents = new ArrayList<>();
+    buildJvmStartupEvent().ifPresent(traceEvents::add);
+    traceEvents.add(
+        new TraceEvent(
+            commandName,
+            CATEGORY_COMMAND,
+            "X",
+            toEpochMicros(commandStartNanos),
+            (System.nanoTime() - commandStartNanos) / 1000,
+            PROCESS_ID,
+            Thread.currentThread().getId(),
+            Map.of("exitCode", exitCode)));
+    traceEvents.addAll(events);
+    try {
+      byte[] traceBytes =
+          JacksonMapper.getWriter().writeValueAsBytes(new TraceFile(traceEvents, "ms"));
+      FileUtils.writeBytesToFileAtomically(traceFile, traceBytes);
+      logger.debug("Wrote {} trace events to {}", traceEvents.size(), traceFile.toAbsolutePath());
+    } catch (IOException ioEx) {
+      logger.error("Error writing trace file: {}", traceFile.toAbsolutePath(), ioEx);
+      UserIO.getErr().println("Error writing trace file: " + ioEx.getMessage());
+    }
+  }
+
+  /**
+   * Build a span from the JVM start time to when this class was loaded, which approximates the time
+   * spent starting the JVM and loading the command classes. This only applies to the first command
+   * run in the JVM (i.e. not to later commands run in the same JVM during testing).
+   */
+  private static Optional<TraceEvent> buildJvmStartupEvent() {
+    Instant jvmStartTime =
+        Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+    long jvmStartEpochMicros = ChronoUnit.MICROS.between(Instant.EPOCH, jvmStartTime);
+    if (numCommands > 1 || jvmStartEpochMicros >= ANCHOR_EPOCH_MICROS) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new TraceEvent(
+            "jvm.startup",
+            CATEGORY_COMMAND,
+            "X",
+            jvmStartEpochMicros,
+            ANCHOR_EPOCH_MICROS - jvmStartEpochMicros,
+            PROCESS_ID,
+            Thread.currentThread().getId(),
+            null));
+  }
+
+  /** Convert a time from the monotonic clock to microseconds since the epoch. */
+  private static long toEpochMicros(long nanos) {
+    return ANCHOR_EPOCH_MICROS + (nanos - ANCHOR_NANOS) / 1000;
+  }
+
+  /**
+   * A timed operation. Spans on the same thread are nested by the trace viewer based on their start
+   * and end times, so there's no explicit parent pointer.
+   */
+  public static final class Span implements AutoCloseable {
+    private final String category;
+    private final String name;
+    private final long startNanos;
+    private final long threadId;
+    private Map<String, Object> attributes;
+    private boolean closed;
+
+    private Span(@Nullable String category, @Nullable String name, long startNanos) {
+      this.category = category;
+      this.name = name;
+      this.startNanos = startNanos;
+      this.threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * Attach a key-value pair to this span (e.g. number of retries, exit code). These are shown in
+     * the trace viewer when the span is selected.
+     *
+     * @return this span, for chaining
+     */
+    public Span setAttribute(String key, Object value) {
+      if (this == NO_OP_SPAN) {
+        return this;
+      }
+      if (attributes == null) {
+        attributes = new LinkedHashMap<>();
+      }
+      attributes.put(key, value);
+      return this;
+    }
+
+    /** End the span and record it. Closing a span more than once has no effect. */
+    @Override
+    public void close() {
+      if (this == NO_OP_SPAN || closed) {
+        return;
+      }
+      closed = true;
+      long endNanos = System.nanoTime();
+      events.add(
+          new TraceEvent(
+              name,
+              category,
+              "X",
+              toEpochMicros(startNanos),
+              (endNanos - startNanos) / 1000,
+              PROCESS_ID,
+              threadId,
+              attributes));
+    }
+  }
+
+  /** A single complete ("X") event in the Chrome trace event format. */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private record TraceEvent(
+      String name,
+      String cat,
+      String ph,
+      long ts,
+      long dur,
+      long pid,
+      long tid,
+      Map<String, Object> args) {}
+
+  /** Top-level object in the Chrome trace event format. */
+  private record TraceFile(List<TraceEvent> traceEvents, String displayTimeUnit) {}
+}
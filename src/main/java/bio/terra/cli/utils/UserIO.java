@@ -118,6 +118,21 @@ public class UserIO {
     return userIO.in;
   }
 
+  /** Returns true if output is written to this process' standard out (i.e. not a test). */
+  public static boolean isStandardOut() {
+    return getOut() == DEFAULT_OUT_STREAM;
+  }
+
+  /** Returns true if errors are written to this process' standard err (i.e. not a test). */
+  public static boolean isStandardErr() {
+    return getErr() == DEFAULT_ERR_STREAM;
+  }
+
+  /** Returns true if input is read from this process' standard in (i.e. not a test). */
+  public static boolean isStandardIn() {
+    return getIn() == DEFAULT_IN_STREAM;
+  }
+
   /** Utility method to get a UTF-8 encoded character output stream from a raw byte stream. */
   private static PrintWriter getPrintWriter(PrintStream printStream) {
     return new PrintWriter(printStream, true, StandardCharsets.UTF_8);
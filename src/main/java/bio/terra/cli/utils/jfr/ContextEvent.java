@@ -0,0 +1,32 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for reading or writing the context file. */
+@Name("bio.terra.cli.Context")
+@Label("Context Read/Write")
+@Category({"Terra CLI", "Context"})
+@Description("Reading or writing the context file")
+@StackTrace(false)
+public class ContextEvent extends Event {
+  public static final String READ = "read";
+  public static final String WRITE = "write";
+
+  @Label("Operation")
+  @Description("read or write")
+  public String operation;
+
+  @Label("Context File")
+  public String file;
+
+  @Label("Size")
+  @Description("Size of the file written, or -1 for a read")
+  @DataAmount
+  public long bytes = -1;
+}
@@ -0,0 +1,22 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for loading the current user's stored credentials, which refreshes the access token if
+ * it has expired.
+ */
+@Name("bio.terra.cli.CredentialRefresh")
+@Label("Credential Refresh")
+@Category({"Terra CLI", "Auth"})
+@Description("Loading the stored credentials, refreshing the access token if needed")
+@StackTrace(false)
+public class CredentialRefreshEvent extends Event {
+  @Label("Log In Mode")
+  public String logInMode;
+}
@@ -0,0 +1,31 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for a step in the lifecycle of a Docker container that runs a tool command. */
+@Name("bio.terra.cli.DockerContainer")
+@Label("Docker Container")
+@Category({"Terra CLI", "Process"})
+@Description("Step in the lifecycle of a tool container")
+@StackTrace(false)
+public class DockerContainerEvent extends Event {
+  public static final String START = "start";
+  public static final String WAIT = "wait";
+  public static final String EXEC = "exec";
+  public static final String DELETE = "delete";
+
+  @Label("Operation")
+  @Description("start, wait, exec or delete")
+  public String operation;
+
+  @Label("Image")
+  public String imageId;
+
+  @Label("Container")
+  public String containerId;
+}
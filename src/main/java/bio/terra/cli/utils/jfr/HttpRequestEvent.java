@@ -0,0 +1,44 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a single attempt at a server or cloud request. Requests made through the retry
+ * helpers in {@link bio.terra.cli.service.utils.HttpUtils} have one event per attempt. The status
+ * code and response size are only known for raw HTTP requests; they are zero and -1 otherwise.
+ */
+@Name("bio.terra.cli.HttpRequest")
+@Label("HTTP Request")
+@Category({"Terra CLI", "HTTP"})
+@Description("Single attempt at a server or cloud request")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+  @Label("Service")
+  @Description("Service class or host the request was made to")
+  public String service;
+
+  @Label("Endpoint")
+  @Description("Service method or path of the request")
+  public String endpoint;
+
+  @Label("Attempt")
+  @Description("Attempt number, starting at 1")
+  public int attempt;
+
+  @Label("Status Code")
+  public int statusCode;
+
+  @Label("Response Size")
+  @DataAmount
+  public long responseBytes = -1;
+
+  @Label("Error")
+  @Description("Class of the exception thrown by the attempt, if any")
+  public String error;
+}
@@ -0,0 +1,92 @@
+package bio.terra.cli.utils.jfr;
+
+import bio.terra.cli.utils.UserIO;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import javax.annotation.Nullable;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Singleton class for recording a single command with JDK Flight Recorder. The recording uses the
+ * JDK's "profile" settings (CPU samples, allocations, locks, I/O), plus the CLI events in this
+ * package, and is written to a local file at the end of the command. Open it with JDK Mission
+ * Control or `jfr print`.
+ *
+ * <p>Recording is turned on for a single command by the top-level --jfr option or the {@link
+ * #JFR_ENV_VAR_NAME} environment variable. The CLI events are cheap to emit when there is no
+ * recording, so they are always emitted.
+ */
+public class JfrRecording {
+  private static final Logger logger = LoggerFactory.getLogger(JfrRecording.class);
+
+  // name of the environment variable that turns on recording, if the --jfr option is not specified
+  public static final String JFR_ENV_VAR_NAME = "TERRA_JFR";
+
+  // name of the JDK settings file to record with
+  private static final String SETTINGS_NAME = "profile";
+
+  // recording for the current command, null if recording is off
+  @Nullable private static Recording recording;
+
+  private JfrRecording() {}
+
+  /**
+   * Start recording if the {@link #JFR_ENV_VAR_NAME} environment variable is set. Call this before
+   * each command is parsed.
+   */
+  public static void startFromEnvironment() {
+    String jfrFile = System.getenv(JFR_ENV_VAR_NAME);
+    if (jfrFile != null && !jfrFile.isBlank()) {
+      start(Path.of(jfrFile));
+    }
+  }
+
+  /**
+   * Start recording, or change where the current recording will be written. Failing to start the
+   * recording should not fail the command, so errors are only logged.
+   *
+   * @param jfrFile file to write the recording to at the end of the command
+   */
+  public static synchronized void start(Path jfrFile) {
+    try {
+      if (recording == null) {
+        Recording newRecording = new Recording(Configuration.getConfiguration(SETTINGS_NAME));
+        newRecording.setName("terra");
+        newRecording.setToDisk(true);
+        newRecording.setDestination(jfrFile);
+        newRecording.start();
+        recording = newRecording;
+      } else {
+        recording.setDestination(jfrFile);
+      }
+    } catch (IOException | ParseException | IllegalStateException | SecurityException ex) {
+      logger.warn("Error starting flight recording.", ex);
+      UserIO.getErr().println("Error starting flight recording: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Stop the recording for the current command, if any, and write it to the destination file.
+   * Failing to write the recording should not fail the command, so errors are only logged.
+   */
+  public static synchronized void stop() {
+    if (recording == null) {
+      return;
+    }
+    try {
+      Path destination = recording.getDestination();
+      recording.stop();
+      logger.debug("Wrote flight recording to {}", destination);
+    } catch (IllegalStateException ex) {
+      logger.warn("Error writing flight recording.", ex);
+      UserIO.getErr().println("Error writing flight recording: " + ex.getMessage());
+    } finally {
+      recording.close();
+      recording = null;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for polling a long-running server job (e.g. a WSM workspace clone) until it is done or
+ * the polling times out. Each poll also has its own {@link HttpRequestEvent}.
+ */
+@Name("bio.terra.cli.JobPoll")
+@Label("Job Poll")
+@Category({"Terra CLI", "HTTP"})
+@Description("Polling a long-running server job until it is done")
+@StackTrace(false)
+public class JobPollEvent extends Event {
+  @Label("Endpoint")
+  @Description("Service method that polls the job")
+  public String endpoint;
+
+  @Label("Polls")
+  @Description("Number of times the job status was fetched")
+  public int polls;
+
+  @Label("Completed")
+  @Description("True if the job finished before the polling timed out")
+  public boolean completed;
+}
@@ -0,0 +1,26 @@
+package bio.terra.cli.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a local child process (e.g. a tool command, or gcsfuse for a mount handler), from
+ * launch until it terminates.
+ */
+@Name("bio.terra.cli.Subprocess")
+@Label("Subprocess")
+@Category({"Terra CLI", "Process"})
+@Description("Local child process, from launch until it terminates")
+@StackTrace(false)
+public class SubprocessEvent extends Event {
+  @Label("Executable")
+  @Description("First token of the command, without any arguments")
+  public String executable;
+
+  @Label("Exit Code")
+  public int exitCode;
+}
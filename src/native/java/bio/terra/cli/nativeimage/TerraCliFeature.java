@@ -0,0 +1,112 @@
+package bio.terra.cli.nativeimage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeReflection;
+
+/**
+ * GraalVM native-image feature that registers the classes the CLI reaches through reflection at
+ * runtime. This is only used when building the native executable (see the nativeImage Gradle task),
+ * it is not part of the regular JVM distribution.
+ *
+ * <p>Listing these classes in a static reflect-config.json would be brittle, because the generated
+ * service clients (WSM, SAM, etc.) add model classes with every version bump. Instead, this feature
+ * scans the image classpath at build time and registers every class under the packages below.
+ *
+ * <p>- Jackson: the persisted (PD*) and user-facing (UF*) serialization classes, including the
+ * polymorphic resource classes and their builders, the trace file events, and the generated
+ * service client models.
+ *
+ * <p>- Logback: the pattern layout converters, which are instantiated by class name.
+ */
+public class TerraCliFeature implements Feature {
+  private static final List<String> REFLECTION_PACKAGE_PREFIXES =
+      List.of(
+          "bio.terra.cli.serialization.",
+          "bio.terra.cli.utils.Tracer$",
+          "bio.terra.axonserver.model.",
+          "bio.terra.datarepo.model.",
+          "bio.terra.externalcreds.model.",
+          "bio.terra.user.model.",
+          "bio.terra.workspace.model.",
+          "org.broadinstitute.dsde.workbench.client.sam.model.",
+          "ch.qos.logback.classic.pattern.",
+          "ch.qos.logback.core.pattern.");
+
+  @Override
+  public void beforeAnalysis(BeforeAnalysisAccess access) {
+    for (Path classpathEntry : access.getApplicationClassPath()) {
+      try (Stream<String> classNames = listClassNames(classpathEntry)) {
+        classNames
+            .filter(
+                className -> REFLECTION_PACKAGE_PREFIXES.stream().anyMatch(className::startsWith))
+            .forEach(className -> registerForReflection(access, className));
+      }
+    }
+  }
+
+  /**
+   * Register a class and all of its constructors, methods and fields for reflection. Classes that
+   * can't be loaded (e.g. optional dependencies that aren't on the classpath) are skipped.
+   */
+  private static void registerForReflection(BeforeAnalysisAccess access, String className) {
+    Class<?> clazz = access.findClassByName(className);
+    if (clazz == null) {
+      return;
+    }
+    try {
+      RuntimeReflection.register(clazz);
+      RuntimeReflection.register(clazz.getDeclaredConstructors());
+      RuntimeReflection.register(clazz.getDeclaredMethods());
+      RuntimeReflection.register(clazz.getDeclaredFields());
+    } catch (LinkageError linkageError) {
+      // a class referenced in a signature isn't on the classpath, so this class can't be used
+    }
+  }
+
+  /** List the names of the classes in a JAR file or classes directory. */
+  private static Stream<String> listClassNames(Path classpathEntry) {
+    try {
+      if (Files.isDirectory(classpathEntry)) {
+        List<String> classNames;
+        try (Stream<Path> paths = Files.walk(classpathEntry)) {
+          classNames =
+              paths
+                  .filter(path -> path.toString().endsWith(".class"))
+                  .map(path -> toClassName(classpathEntry.relativize(path).toString()))
+                  .toList();
+        }
+        return classNames.stream();
+      } else if (classpathEntry.toString().endsWith(".jar")) {
+        List<String> classNames;
+        try (JarFile jarFile = new JarFile(classpathEntry.toFile())) {
+          classNames =
+              jarFile.stream()
+                  .map(JarEntry::getName)
+                  .filter(name -> name.endsWith(".class"))
+                  .map(TerraCliFeature::toClassName)
+                  .toList();
+        }
+        return classNames.stream();
+      }
+      return Stream.empty();
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException("Error listing classes in " + classpathEntry, ioEx);
+    }
+  }
+
+  /** Convert a class file path (e.g. a/b/C$D.class) to a binary class name (e.g. a.b.C$D). */
+  private static String toClassName(String classFilePath) {
+    return classFilePath
+        .substring(0, classFilePath.length() - ".class".length())
+        .replace('/', '.')
+        .replace('\\', '.');
+  }
+}
@@ -0,0 +1,76 @@
+package bio.terra.cli.utils;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the background log file writer built by {@link Logger}. */
+@Tag("unit")
+public class LoggerTest {
+  // many times the size of the buffer, so that it fills up
+  private static final int NUM_EVENTS = 100_000;
+
+  @Test
+  @DisplayName("logging doesn't block when the log file can't keep up")
+  void fullQueueDoesNotBlock() throws Exception {
+    LoggerContext loggerContext = new LoggerContext();
+    StalledAppender fileAppender = new StalledAppender();
+    fileAppender.setContext(loggerContext);
+    fileAppender.start();
+    AsyncAppender asyncFileAppender =
+        Logger.buildAsyncFileAppender(loggerContext, fileAppender, Logger.LogLevel.DEBUG);
+    ch.qos.logback.classic.Logger logger = loggerContext.getLogger(LoggerTest.class);
+    logger.addAppender(asyncFileAppender);
+
+    try {
+      // WARN events are only dropped once the buffer is completely full
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(30),
+          () -> {
+            for (int i = 0; i < NUM_EVENTS; i++) {
+              logger.warn("event {}", i);
+            }
+          },
+          "logging returns while the log file is stalled");
+    } finally {
+      fileAppender.resume();
+      asyncFileAppender.stop();
+    }
+
+    assertTrue(fileAppender.numAppended.get() > 0, "some events are written to the log file");
+    assertTrue(
+        fileAppender.numAppended.get() < NUM_EVENTS,
+        "events that don't fit in the buffer are dropped");
+  }
+
+  /** Appender that stands in for a log file that stops accepting writes until resumed. */
+  private static class StalledAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    private final CountDownLatch resumed = new CountDownLatch(1);
+    private final AtomicInteger numAppended = new AtomicInteger();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+      try {
+        resumed.await(60, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      numAppended.incrementAndGet();
+    }
+
+    void resume() {
+      resumed.countDown();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package harness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.app.CommandRunner;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility methods for running code in another JVM, e.g. to stand in for another CLI process that
+ * shares this test runner's context directory.
+ */
+public class TestProcess {
+  private static final long TIMEOUT_SECONDS = 60;
+
+  private TestProcess() {}
+
+  /**
+   * Run the main method of a class in a new JVM with the same classpath and context directory as
+   * this one, wait for it to finish, and check that it succeeded.
+   *
+   * @param mainClass class with the main method to run
+   * @param envVars environment variables to set, in addition to the ones this JVM has
+   * @param args arguments to pass to the main method
+   * @return the standard out and err of the process
+   */
+  public static String runExpectSuccess(
+      Class<?> mainClass, Map<String, String> envVars, String... args)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    // pass through the properties that select this test runner's context directory. the
+    // context directory override env var is inherited.
+    for (String property : List.of(CommandRunner.IS_TEST, "org.gradle.test.worker")) {
+      if (System.getProperty(property) != null) {
+        command.add("-D" + property + "=" + System.getProperty(property));
+      }
+    }
+    command.add(mainClass.getName());
+    command.addAll(List.of(args));
+
+    ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+    processBuilder.environment().putAll(envVars);
+    Process process = processBuilder.start();
+    String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertTrue(process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS), "other process finished");
+    assertEquals(0, process.exitValue(), "other process succeeded. output: " + output);
+    return output;
+  }
+}
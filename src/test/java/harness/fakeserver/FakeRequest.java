@@ -0,0 +1,56 @@
+package harness.fakeserver;
+
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * A request to the fake server, after it has been matched to a {@link Route}.
+ *
+ * @param pathParams values of the {name} placeholders in the route's path template
+ * @param queryParams query parameters, decoded. Repeated parameters keep the last value.
+ * @param body request body, empty if there is none
+ * @param userEmail email of the user that the bearer token belongs to, null if the request is
+ *     unauthenticated
+ */
+public record FakeRequest(
+    Map<String, String> pathParams,
+    Map<String, String> queryParams,
+    byte[] body,
+    @Nullable String userEmail) {
+
+  /** Get a path parameter. */
+  public String pathParam(String name) {
+    return pathParams.get(name);
+  }
+
+  /** Get a path parameter that holds a UUID, or fail the request with a 400 Bad Request. */
+  public UUID uuidPathParam(String name) {
+    try {
+      return UUID.fromString(pathParams.get(name));
+    } catch (IllegalArgumentException ex) {
+      throw new FakeServerException(400, "Invalid UUID for " + name + ": " + pathParams.get(name));
+    }
+  }
+
+  /** Get an integer query parameter, or the default value if it is not specified. */
+  public int intQueryParam(String name, int defaultValue) {
+    String value = queryParams.get(name);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException ex) {
+      throw new FakeServerException(400, "Invalid integer for " + name + ": " + value);
+    }
+  }
+
+  /** Get the email of the calling user, or fail the request with a 401 Unauthorized. */
+  public String requireUserEmail() {
+    if (userEmail == null) {
+      throw new FakeServerException(401, "Missing or invalid bearer token");
+    }
+    return userEmail;
+  }
+}
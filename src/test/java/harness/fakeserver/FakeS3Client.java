@@ -0,0 +1,390 @@
+package harness.fakeserver;
+
+import bio.terra.cli.cloud.storage.Checksums;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+import javax.annotation.Nullable;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ServiceClientConfiguration;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.paginators.ListMultipartUploadsIterable;
+import software.amazon.awssdk.services.s3.paginators.ListPartsIterable;
+
+/**
+ * In-memory fake of the S3 requests that {@link bio.terra.cli.cloud.aws.S3Transfer} makes, for
+ * testing transfers offline. Objects live in a single bucket, and are keyed by their key only.
+ *
+ * <p>Like S3, the fake rejects a part whose data doesn't match its CRC32C checksum, and a read
+ * that is conditional on an ETag that is no longer current. Uploaded parts are checked and then
+ * only their sizes and checksums are kept, so that large files can be uploaded without holding
+ * them in memory.
+ */
+public class FakeS3Client implements S3Client {
+  private final Map<String, FakeObject> objects = new HashMap<>();
+  private final Map<String, FakeUpload> uploads = new HashMap<>();
+  private final AtomicInteger nextId = new AtomicInteger();
+  private final AtomicInteger numUploadsStarted = new AtomicInteger();
+  // run after each read of an object, e.g. to overwrite the object part-way through a download
+  @Nullable private Runnable afterGetObject;
+
+  /**
+   * Add an object, made of the given parts. An object with more than one part gets a multipart
+   * ETag, and each part can be read by its part number.
+   *
+   * @return the object's ETag
+   */
+  public synchronized String putObject(String key, byte[]... parts) {
+    List<FakePart> fakeParts = new ArrayList<>();
+    for (byte[] data : parts) {
+      fakeParts.add(new FakePart(data, data.length, crc32c(data), newETag()));
+    }
+    FakeObject object = new FakeObject(fakeParts, newETag(parts.length));
+    objects.put(key, object);
+    return object.eTag();
+  }
+
+  /**
+   * Replace the checksum that is reported for a part of an object, so that it no longer matches
+   * the part's data.
+   */
+  public synchronized void corruptPartChecksum(String key, int partNumber) {
+    List<FakePart> parts = new ArrayList<>(objects.get(key).parts());
+    FakePart part = parts.get(partNumber - 1);
+    parts.set(
+        partNumber - 1, new FakePart(part.data(), part.size(), part.crc32c() + 1, part.eTag()));
+    objects.put(key, new FakeObject(parts, objects.get(key).eTag()));
+  }
+
+  /** Get the CRC32C checksum of an object, as S3 reports it. */
+  public synchronized String getChecksum(String key) {
+    return objects.get(key).checksum();
+  }
+
+  /**
+   * Start a multipart upload, as if a previous attempt had been interrupted.
+   *
+   * @return the upload id
+   */
+  public synchronized String startUpload(String key, Instant initiated) {
+    String uploadId = "upload-" + nextId.incrementAndGet();
+    uploads.put(uploadId, new FakeUpload(key, initiated, new TreeMap<>(), new ArrayList<>()));
+    return uploadId;
+  }
+
+  /** Add a part to a multipart upload, as if a previous attempt had uploaded it. */
+  public synchronized void addUploadedPart(String uploadId, int partNumber, long size, int crc32c) {
+    uploads.get(uploadId).parts().put(partNumber, new FakePart(null, size, crc32c, newETag()));
+  }
+
+  /** Get the part numbers that were uploaded to a multipart upload through the client. */
+  public synchronized List<Integer> getPartsUploadedByClient(String uploadId) {
+    return uploads.get(uploadId).partsUploadedByClient().stream().sorted().toList();
+  }
+
+  /** Get the number of multipart uploads that were started through the client. */
+  public int getNumUploadsStarted() {
+    return numUploadsStarted.get();
+  }
+
+  /** Run the given action after each read of an object. */
+  public synchronized void setAfterGetObject(Runnable afterGetObject) {
+    this.afterGetObject = afterGetObject;
+  }
+
+  @Override
+  public synchronized HeadObjectResponse headObject(HeadObjectRequest request) {
+    FakeObject object = findObject(request.key());
+    return HeadObjectResponse.builder()
+        .contentLength(object.size())
+        .eTag(object.eTag())
+        .checksumCRC32C(object.checksum())
+        .build();
+  }
+
+  @Override
+  public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+    byte[] data;
+    String checksum;
+    long start;
+    long objectSize;
+    Runnable afterGet;
+    synchronized (this) {
+      FakeObject object = findObject(request.key());
+      if (request.ifMatch() != null && !request.ifMatch().equals(object.eTag())) {
+        throw s3Exception(412, "At least one of the pre-conditions you specified did not hold");
+      }
+      objectSize = object.size();
+      if (request.partNumber() != null) {
+        FakePart part = object.parts().get(request.partNumber() - 1);
+        data = part.data();
+        checksum = Checksums.toBase64(part.crc32c());
+        start =
+            object.parts().stream()
+                .limit(request.partNumber() - 1)
+                .mapToLong(FakePart::size)
+                .sum();
+      } else {
+        // only a single range is supported: "bytes=<first byte>-<last byte>"
+        String[] range = request.range().substring("bytes=".length()).split("-");
+        start = Long.parseLong(range[0]);
+        long end = Math.min(objectSize, Long.parseLong(range[1]) + 1);
+        data = Arrays.copyOfRange(object.data(), (int) start, (int) end);
+        // S3 returns the whole object's checksum for a range that covers the whole object only
+        checksum = data.length == objectSize ? object.checksum() : null;
+      }
+      afterGet = afterGetObject;
+    }
+    if (afterGet != null) {
+      afterGet.run();
+    }
+    GetObjectResponse response =
+        GetObjectResponse.builder()
+            .contentLength((long) data.length)
+            .contentRange("bytes " + start + "-" + (start + data.length - 1) + "/" + objectSize)
+            .checksumCRC32C(checksum)
+            .build();
+    return new ResponseInputStream<>(
+        response, AbortableInputStream.create(new ByteArrayInputStream(data)));
+  }
+
+  @Override
+  public synchronized PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+    byte[] data = readBody(body);
+    checkChecksum(data, request.checksumCRC32C());
+    putObject(request.key(), data);
+    return PutObjectResponse.builder().eTag(objects.get(request.key()).eTag()).build();
+  }
+
+  @Override
+  public synchronized CreateMultipartUploadResponse createMultipartUpload(
+      CreateMultipartUploadRequest request) {
+    numUploadsStarted.incrementAndGet();
+    return CreateMultipartUploadResponse.builder()
+        .uploadId(startUpload(request.key(), Instant.now()))
+        .build();
+  }
+
+  @Override
+  public ListMultipartUploadsIterable listMultipartUploadsPaginator(
+      ListMultipartUploadsRequest request) {
+    return new ListMultipartUploadsIterable(this, request);
+  }
+
+  @Override
+  public synchronized ListMultipartUploadsResponse listMultipartUploads(
+      ListMultipartUploadsRequest request) {
+    return ListMultipartUploadsResponse.builder()
+        .uploads(
+            uploads.entrySet().stream()
+                .filter(upload -> upload.getValue().key().startsWith(request.prefix()))
+                .map(
+                    upload ->
+                        MultipartUpload.builder()
+                            .uploadId(upload.getKey())
+                            .key(upload.getValue().key())
+                            .initiated(upload.getValue().initiated())
+                            .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)
+                            .build())
+                .toList())
+        .isTruncated(false)
+        .build();
+  }
+
+  @Override
+  public ListPartsIterable listPartsPaginator(ListPartsRequest request) {
+    return new ListPartsIterable(this, request);
+  }
+
+  @Override
+  public synchronized ListPartsResponse listParts(ListPartsRequest request) {
+    return ListPartsResponse.builder()
+        .parts(
+            getUpload(request.uploadId()).parts().entrySet().stream()
+                .map(
+                    part ->
+                        Part.builder()
+                            .partNumber(part.getKey())
+                            .size(part.getValue().size())
+                            .eTag(part.getValue().eTag())
+                            .checksumCRC32C(Checksums.toBase64(part.getValue().crc32c()))
+                            .build())
+                .toList())
+        .isTruncated(false)
+        .build();
+  }
+
+  @Override
+  public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+    // read the body outside the lock, so that parts are uploaded concurrently
+    byte[] data = readBody(body);
+    checkChecksum(data, request.checksumCRC32C());
+    synchronized (this) {
+      FakeUpload upload = getUpload(request.uploadId());
+      FakePart part = new FakePart(null, data.length, crc32c(data), newETag());
+      upload.parts().put(request.partNumber(), part);
+      upload.partsUploadedByClient().add(request.partNumber());
+      return UploadPartResponse.builder()
+          .eTag(part.eTag())
+          .checksumCRC32C(Checksums.toBase64(part.crc32c()))
+          .build();
+    }
+  }
+
+  @Override
+  public synchronized CompleteMultipartUploadResponse completeMultipartUpload(
+      CompleteMultipartUploadRequest request) {
+    FakeUpload upload = getUpload(request.uploadId());
+    List<FakePart> parts = new ArrayList<>();
+    for (CompletedPart completedPart : request.multipartUpload().parts()) {
+      FakePart part = upload.parts().get(completedPart.partNumber());
+      if (part == null || !part.eTag().equals(completedPart.eTag())) {
+        throw s3Exception(400, "One or more of the specified parts could not be found");
+      }
+      parts.add(part);
+    }
+    FakeObject object = new FakeObject(parts, newETag(parts.size()));
+    objects.put(upload.key(), object);
+    uploads.remove(request.uploadId());
+    return CompleteMultipartUploadResponse.builder()
+        .eTag(object.eTag())
+        .checksumCRC32C(object.checksum())
+        .build();
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public S3ServiceClientConfiguration serviceClientConfiguration() {
+    throw new UnsupportedOperationException("Not used by the transfers");
+  }
+
+  @Override
+  public void close() {}
+
+  private FakeObject findObject(String key) {
+    FakeObject object = objects.get(key);
+    if (object == null) {
+      throw NoSuchKeyException.builder().statusCode(404).message("No such key: " + key).build();
+    }
+    return object;
+  }
+
+  private FakeUpload getUpload(String uploadId) {
+    FakeUpload upload = uploads.get(uploadId);
+    if (upload == null) {
+      throw s3Exception(404, "No such upload: " + uploadId);
+    }
+    return upload;
+  }
+
+  private String newETag() {
+    return "\"" + Integer.toHexString(0x10000 + nextId.incrementAndGet()) + "\"";
+  }
+
+  private String newETag(int numParts) {
+    String eTag = newETag();
+    return numParts > 1 ? eTag.replaceFirst("\"$", "-" + numParts + "\"") : eTag;
+  }
+
+  private static byte[] readBody(RequestBody body) {
+    try (InputStream stream = body.contentStreamProvider().newStream()) {
+      return stream.readAllBytes();
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException(ioEx);
+    }
+  }
+
+  /** Reject data that doesn't match its checksum, like S3 does. */
+  private static void checkChecksum(byte[] data, @Nullable String checksum) {
+    if (checksum != null && !checksum.equals(Checksums.toBase64(crc32c(data)))) {
+      throw s3Exception(400, "Value for x-amz-checksum-crc32c header is invalid.");
+    }
+  }
+
+  private static int crc32c(byte[] data) {
+    CRC32C crc32c = new CRC32C();
+    crc32c.update(data);
+    return (int) crc32c.getValue();
+  }
+
+  private static S3Exception s3Exception(int statusCode, String message) {
+    return (S3Exception) S3Exception.builder().statusCode(statusCode).message(message).build();
+  }
+
+  /**
+   * Part of an object or upload.
+   *
+   * @param data contents of the part, null if only the size and checksum are kept
+   */
+  private record FakePart(@Nullable byte[] data, long size, int crc32c, String eTag) {}
+
+  /** Object, made of the parts it was uploaded in. */
+  private record FakeObject(List<FakePart> parts, String eTag) {
+    long size() {
+      return parts.stream().mapToLong(FakePart::size).sum();
+    }
+
+    /** Checksum of the whole object, or of the parts' checksums if there is more than one. */
+    String checksum() {
+      return parts.size() == 1
+          ? Checksums.toBase64(parts.get(0).crc32c())
+          : Checksums.toBase64Composite(parts.stream().map(FakePart::crc32c).toList());
+    }
+
+    /** Contents of the whole object. Fails if only the sizes and checksums of parts were kept. */
+    byte[] data() {
+      byte[] data = new byte[(int) size()];
+      int position = 0;
+      for (FakePart part : parts) {
+        System.arraycopy(part.data(), 0, data, position, part.data().length);
+        position += part.data().length;
+      }
+      return data;
+    }
+  }
+
+  /** Incomplete multipart upload, with its parts by part number. */
+  private record FakeUpload(
+      String key,
+      Instant initiated,
+      Map<Integer, FakePart> parts,
+      List<Integer> partsUploadedByClient) {}
+}
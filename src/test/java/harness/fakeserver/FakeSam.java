@@ -0,0 +1,350 @@
+package harness.fakeserver;
+
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * In-memory fake of the SAM endpoints called by the CLI: user registration and lookup, proxy
+ * groups, pet service accounts, groups and resource policies.
+ *
+ * <p>The SAM client library uses Gson, so responses are built as plain maps with the same field
+ * names as the SAM model classes. Access tokens issued by this fake are "fake-token:" followed by
+ * the user's email. All route handlers and seed methods synchronize on this object.
+ */
+public class FakeSam implements FakeService {
+  public static final String BASE_PATH = "/sam";
+  private static final String TOKEN_PREFIX = "fake-token:";
+
+  private final Gson gson = new Gson();
+
+  // email -> user
+  private final Map<String, FakeUser> users = new LinkedHashMap<>();
+  // group name -> policy name -> member emails
+  private final Map<String, Map<String, Set<String>>> groups = new LinkedHashMap<>();
+  // resource type + id -> policy name -> member emails
+  private final Map<String, Map<String, Set<String>>> resourcePolicies = new HashMap<>();
+
+  /** Build the access token that this fake accepts for the given user. */
+  public static String getAccessToken(String email) {
+    return TOKEN_PREFIX + email.toLowerCase();
+  }
+
+  /** Get the email of the user that an access token belongs to, or null if it's not valid. */
+  @Nullable
+  public synchronized String getUserEmail(@Nullable String accessToken) {
+    if (accessToken == null || !accessToken.startsWith(TOKEN_PREFIX)) {
+      return null;
+    }
+    String email = accessToken.substring(TOKEN_PREFIX.length());
+    return users.containsKey(email) ? email : null;
+  }
+
+  /**
+   * Add a user, so that they can call the fake services. The user is not registered until they
+   * call the register endpoint, which happens the first time they login.
+   */
+  public synchronized void addUser(String email) {
+    users.putIfAbsent(email.toLowerCase(), new FakeUser(email.toLowerCase()));
+  }
+
+  /** Add a user, and register them. */
+  public synchronized void addRegisteredUser(String email) {
+    addUser(email);
+    users.get(email.toLowerCase()).isRegistered = true;
+  }
+
+  /** Get the members of a SAM resource policy, e.g. a workspace role. */
+  public synchronized Set<String> getPolicyMembers(
+      String resourceType, String resourceId, String policyName) {
+    return Set.copyOf(
+        resourcePolicies
+            .getOrDefault(resourceType + "/" + resourceId, Map.of())
+            .getOrDefault(policyName, Set.of()));
+  }
+
+  @Override
+  public String getBasePath() {
+    return BASE_PATH;
+  }
+
+  @Override
+  public byte[] toJson(Object responseBody) {
+    return gson.toJson(responseBody).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public List<Route> getRoutes() {
+    String group = "/api/groups/v1/{groupName}";
+    String policy = "/api/resources/v2/{resourceTypeName}/{resourceId}/policies";
+    String googleUser = "/api/google/v1/user";
+    return List.of(
+        Route.of("GET", "/status", "getSystemStatus", request -> buildSystemStatus()),
+        Route.of(
+            "GET", "/register/user/v2/self/info", "getUserStatusInfo", this::getUserStatusInfo),
+        Route.of("POST", "/register/user/v2/self", "createUserV2", this::createUserV2),
+        Route.of("POST", "/api/users/v1/invite/{inviteeEmail}", "inviteUser", this::inviteUser),
+        Route.of(
+            "GET",
+            "/api/admin/v1/user/email/{email}",
+            "adminGetUserByEmail",
+            this::adminGetUserByEmail),
+        Route.of("GET", googleUser + "/proxyGroup/{email}", "getProxyGroup", this::getProxyGroup),
+        Route.of(
+            "GET",
+            googleUser + "/petServiceAccount/{project}",
+            "getPetServiceAccount",
+            this::getPetServiceAccount),
+        Route.of(
+            "POST",
+            googleUser + "/petServiceAccount/{project}/token",
+            "getPetServiceAccountToken",
+            this::getPetServiceAccountToken),
+        Route.of("GET", "/api/groups/v1", "listGroupMemberships", this::listGroupMemberships),
+        Route.of("POST", group, "postGroup", this::postGroup),
+        Route.of("DELETE", group, "deleteGroup", this::deleteGroup),
+        Route.of("GET", group + "/{policyName}", "getGroupAdminEmails", this::getGroupEmails),
+        Route.of("PUT", group + "/{policyName}/{email}", "addEmailToGroup", this::addToGroup),
+        Route.of(
+            "DELETE",
+            group + "/{policyName}/{email}",
+            "removeEmailFromGroup",
+            this::removeFromGroup),
+        Route.of("GET", policy, "listResourcePolicies", this::listResourcePolicies),
+        Route.of(
+            "PUT",
+            policy + "/{policyName}/memberEmails/{email}",
+            "addUserToPolicy",
+            this::addUserToPolicy),
+        Route.of(
+            "DELETE",
+            policy + "/{policyName}/memberEmails/{email}",
+            "removeUserFromPolicy",
+            this::removeUserFromPolicy));
+  }
+
+  // ====================================================
+  // Users
+
+  private static Map<String, Object> buildSystemStatus() {
+    return Map.of("ok", true, "systems", Map.of());
+  }
+
+  private Map<String, Object> getUserStatusInfo(FakeRequest request) {
+    FakeUser user = requireUser(request.requireUserEmail());
+    if (!user.isRegistered) {
+      throw new FakeServerException(404, "User not registered: " + user.email);
+    }
+    return Map.of(
+        "userSubjectId",
+        user.subjectId,
+        "userEmail",
+        user.email,
+        "enabled",
+        true,
+        "adminEnabled",
+        true);
+  }
+
+  private Map<String, Object> createUserV2(FakeRequest request) {
+    FakeUser user = requireUser(request.requireUserEmail());
+    if (user.isRegistered) {
+      throw new FakeServerException(409, "User already registered: " + user.email);
+    }
+    user.isRegistered = true;
+    return buildUserStatus(user);
+  }
+
+  private Map<String, Object> inviteUser(FakeRequest request) {
+    request.requireUserEmail();
+    String inviteeEmail = request.pathParam("inviteeEmail").toLowerCase();
+    if (users.containsKey(inviteeEmail)) {
+      throw new FakeServerException(409, "User already exists: " + inviteeEmail);
+    }
+    FakeUser invitee = new FakeUser(inviteeEmail);
+    users.put(inviteeEmail, invitee);
+    return Map.of("userSubjectId", invitee.subjectId, "userEmail", inviteeEmail);
+  }
+
+  private Map<String, Object> adminGetUserByEmail(FakeRequest request) {
+    request.requireUserEmail();
+    FakeUser user = users.get(request.pathParam("email").toLowerCase());
+    if (user == null) {
+      throw new FakeServerException(404, "User not found: " + request.pathParam("email"));
+    }
+    return buildUserStatus(user);
+  }
+
+  private String getProxyGroup(FakeRequest request) {
+    request.requireUserEmail();
+    return "PROXY_" + requireUser(request.pathParam("email")).subjectId + "@fake.firecloud.org";
+  }
+
+  private String getPetServiceAccount(FakeRequest request) {
+    FakeUser user = requireUser(request.requireUserEmail());
+    String project = request.pathParam("project");
+    return "pet-" + user.subjectId + "@" + project + ".iam.gserviceaccount.com";
+  }
+
+  private String getPetServiceAccountToken(FakeRequest request) {
+    return "fake-pet-token:" + request.requireUserEmail();
+  }
+
+  private static Map<String, Object> buildUserStatus(FakeUser user) {
+    return Map.of(
+        "userInfo",
+        Map.of("userSubjectId", user.subjectId, "userEmail", user.email),
+        "enabled",
+        Map.of("ldap", user.isRegistered, "allUsersGroup", user.isRegistered, "google", true));
+  }
+
+  // ====================================================
+  // Groups
+
+  private List<Map<String, String>> listGroupMemberships(FakeRequest request) {
+    String userEmail = request.requireUserEmail();
+    List<Map<String, String>> memberships = new ArrayList<>();
+    groups.forEach(
+        (groupName, policies) ->
+            policies.forEach(
+                (policyName, members) -> {
+                  if (members.contains(userEmail)) {
+                    memberships.add(
+                        Map.of(
+                            "groupName",
+                            groupName,
+                            "groupEmail",
+                            groupName + "@fake.firecloud.org",
+                            "role",
+                            policyName));
+                  }
+                }));
+    return memberships;
+  }
+
+  private Object postGroup(FakeRequest request) {
+    String groupName = request.pathParam("groupName");
+    if (groups.containsKey(groupName)) {
+      throw new FakeServerException(409, "Group already exists: " + groupName);
+    }
+    Map<String, Set<String>> policies = new LinkedHashMap<>();
+    policies.put("admin", new LinkedHashSet<>(List.of(request.requireUserEmail())));
+    policies.put("member", new LinkedHashSet<>());
+    groups.put(groupName, policies);
+    return null;
+  }
+
+  private Object deleteGroup(FakeRequest request) {
+    requireGroupPolicy(request, "admin");
+    groups.remove(request.pathParam("groupName"));
+    return null;
+  }
+
+  private List<String> getGroupEmails(FakeRequest request) {
+    return new ArrayList<>(requireGroupPolicy(request, request.pathParam("policyName")));
+  }
+
+  private Object addToGroup(FakeRequest request) {
+    requireGroupPolicy(request, request.pathParam("policyName"))
+        .add(requireUser(request.pathParam("email")).email);
+    return null;
+  }
+
+  private Object removeFromGroup(FakeRequest request) {
+    requireGroupPolicy(request, request.pathParam("policyName"))
+        .remove(request.pathParam("email").toLowerCase());
+    return null;
+  }
+
+  private Set<String> requireGroupPolicy(FakeRequest request, String policyName) {
+    request.requireUserEmail();
+    String groupName = request.pathParam("groupName");
+    Map<String, Set<String>> policies = groups.get(groupName);
+    if (policies == null || !policies.containsKey(policyName)) {
+      throw new FakeServerException(404, "Group or policy not found: " + groupName);
+    }
+    return policies.get(policyName);
+  }
+
+  // ====================================================
+  // Resource policies
+
+  private List<Map<String, Object>> listResourcePolicies(FakeRequest request) {
+    request.requireUserEmail();
+    return getResourcePolicies(request).entrySet().stream()
+        .map(
+            policy ->
+                Map.<String, Object>of(
+                    "policyName",
+                    policy.getKey(),
+                    "email",
+                    policy.getKey() + "@fake.firecloud.org",
+                    "policy",
+                    Map.of(
+                        "memberEmails",
+                        new ArrayList<>(policy.getValue()),
+                        "actions",
+                        List.of(),
+                        "roles",
+                        List.of(policy.getKey()))))
+        .collect(Collectors.toList());
+  }
+
+  private Object addUserToPolicy(FakeRequest request) {
+    request.requireUserEmail();
+    String email = request.pathParam("email").toLowerCase();
+    // the CLI invites the user and retries when the email is not found
+    if (!users.containsKey(email)) {
+      throw new FakeServerException(400, "Email not found: " + email);
+    }
+    getResourcePolicies(request)
+        .computeIfAbsent(request.pathParam("policyName"), name -> new LinkedHashSet<>())
+        .add(email);
+    return null;
+  }
+
+  private Object removeUserFromPolicy(FakeRequest request) {
+    request.requireUserEmail();
+    getResourcePolicies(request)
+        .getOrDefault(request.pathParam("policyName"), new LinkedHashSet<>())
+        .remove(request.pathParam("email").toLowerCase());
+    return null;
+  }
+
+  private Map<String, Set<String>> getResourcePolicies(FakeRequest request) {
+    String key = request.pathParam("resourceTypeName") + "/" + request.pathParam("resourceId");
+    return resourcePolicies.computeIfAbsent(key, k -> new LinkedHashMap<>());
+  }
+
+  // ====================================================
+  // Helpers
+
+  private FakeUser requireUser(String email) {
+    FakeUser user = users.get(email.toLowerCase());
+    if (user == null) {
+      throw new FakeServerException(404, "User not found: " + email);
+    }
+    return user;
+  }
+
+  /** A SAM user, which may or may not have registered yet. */
+  private static class FakeUser {
+    private final String email;
+    private final String subjectId;
+    private boolean isRegistered;
+
+    FakeUser(String email) {
+      this.email = email;
+      this.subjectId = UUID.randomUUID().toString().replace("-", "").substring(0, 21);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package harness.fakeserver;
+
+/**
+ * Thrown by a fake route handler to return an error response. The fake server turns this into an
+ * error report with the given status code, in the same shape the real services return.
+ */
+public class FakeServerException extends RuntimeException {
+  private final int statusCode;
+
+  public FakeServerException(int statusCode, String message) {
+    super(message);
+    this.statusCode = statusCode;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+}
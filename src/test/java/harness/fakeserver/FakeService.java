@@ -0,0 +1,25 @@
+package harness.fakeserver;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One of the Terra services hosted by the {@link FakeTerraServer}. Each service is served under its
+ * own base path, and serializes its responses the same way as the real service, so that the
+ * generated client library for the service can read them.
+ */
+public interface FakeService {
+  /** Path prefix that this service is served under (e.g. /wsm). */
+  String getBasePath();
+
+  /** Endpoints of this service, relative to the base path. */
+  List<Route> getRoutes();
+
+  /** Serialize a response body to JSON. */
+  byte[] toJson(Object responseBody);
+
+  /** Build the body of an error response. */
+  default Map<String, Object> buildErrorReport(int statusCode, String message) {
+    return Map.of("message", message, "statusCode", statusCode, "causes", List.of());
+  }
+}
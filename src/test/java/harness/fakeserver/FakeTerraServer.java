@@ -0,0 +1,410 @@
+package harness.fakeserver;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.User;
+import bio.terra.cli.cloud.auth.Oauth;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.workspace.model.CloudPlatform;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.api.client.auth.oauth2.StoredCredential;
+import com.google.api.client.util.store.DataStore;
+import com.google.api.client.util.store.FileDataStoreFactory;
+import com.google.auth.oauth2.IdToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process fake of the Terra services that the CLI talks to (Workspace Manager and SAM), for
+ * running commands offline: load testing, benchmarking, and tests of client-side behavior like
+ * paging and retries that don't need real cloud resources.
+ *
+ * <p>The fake listens on a random port on the loopback interface, using the JDK's built-in HTTP
+ * server. WSM is served under {@link FakeWorkspaceManager#BASE_PATH} and SAM under {@link
+ * FakeSam#BASE_PATH}. Use {@link #writeServerFile} to write a server definition that points the CLI
+ * at the fake, and {@link #login} to login a user without the OAuth flow.
+ *
+ * <p>State is held in memory and discarded when the fake is closed. Latency and errors can be
+ * injected per request, to see how the CLI behaves against a slow or flaky server.
+ *
+ * <p>Example usage:
+ *
+ * <pre>
+ * try (FakeTerraServer fakeServer = FakeTerraServer.start()) {
+ *   Path serverFile = fakeServer.writeServerFile(tempDir);
+ *   TestCommand.runCommandExpectSuccess("server", "set", "--name=" + serverFile, "--quiet");
+ *   fakeServer.login("user@example.com");
+ *   UUID workspaceId = fakeServer.getWorkspaceManager().addWorkspace("ws", "user@example.com");
+ *   ...
+ * }
+ * </pre>
+ */
+public class FakeTerraServer implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(FakeTerraServer.class);
+
+  public static final String SERVER_NAME = "fake-terra";
+
+  private final HttpServer httpServer;
+  private final ExecutorService executor;
+  private final FakeWorkspaceManager workspaceManager = new FakeWorkspaceManager();
+  private final FakeSam sam = new FakeSam();
+  private final List<FakeService> services = List.of(workspaceManager, sam);
+
+  // route name -> number of requests received, including ones that failed
+  private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+  // route name -> [status code, number of requests left to fail]
+  private final Map<String, int[]> injectedFailures = new HashMap<>();
+
+  private volatile Duration minLatency = Duration.ZERO;
+  private volatile Duration maxLatency = Duration.ZERO;
+  private volatile double errorRate;
+  private volatile int errorRateStatusCode = 503;
+
+  private FakeTerraServer(HttpServer httpServer, ExecutorService executor) {
+    this.httpServer = httpServer;
+    this.executor = executor;
+  }
+
+  /** Start a fake server on a random port on the loopback interface. */
+  public static FakeTerraServer start() throws IOException {
+    HttpServer httpServer =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    ExecutorService executor = Executors.newCachedThreadPool();
+    httpServer.setExecutor(executor);
+
+    FakeTerraServer fakeServer = new FakeTerraServer(httpServer, executor);
+    httpServer.createContext("/", fakeServer::handle);
+    httpServer.start();
+    logger.info("Started fake Terra server at {}", fakeServer.getUri());
+    return fakeServer;
+  }
+
+  /** Stop the server and discard all state. */
+  @Override
+  public void close() {
+    httpServer.stop(0);
+    executor.shutdownNow();
+  }
+
+  /** Base URI of the fake server, e.g. http://127.0.0.1:12345. */
+  public URI getUri() {
+    InetSocketAddress address = httpServer.getAddress();
+    return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+  }
+
+  public FakeWorkspaceManager getWorkspaceManager() {
+    return workspaceManager;
+  }
+
+  public FakeSam getSam() {
+    return sam;
+  }
+
+  // ====================================================
+  // Latency and error injection
+
+  /** Delay every response by a fixed amount. */
+  public void setLatency(Duration latency) {
+    setLatency(latency, latency);
+  }
+
+  /** Delay every response by a random amount between the min and max, inclusive. */
+  public void setLatency(Duration min, Duration max) {
+    if (min.compareTo(max) > 0) {
+      throw new IllegalArgumentException("Minimum latency is greater than the maximum");
+    }
+    this.minLatency = min;
+    this.maxLatency = max;
+  }
+
+  /**
+   * Fail the next requests to an endpoint.
+   *
+   * @param routeName name of the endpoint (e.g. enumerateResources)
+   * @param statusCode HTTP status code to return
+   * @param count number of requests to fail
+   */
+  public void failNextRequests(String routeName, int statusCode, int count) {
+    synchronized (injectedFailures) {
+      injectedFailures.put(routeName, new int[] {statusCode, count});
+    }
+  }
+
+  /**
+   * Fail a random fraction of all requests, on top of any failures set up with {@link
+   * #failNextRequests}.
+   *
+   * @param rate fraction of requests to fail, between 0 and 1
+   * @param statusCode HTTP status code to return
+   */
+  public void setErrorRate(double rate, int statusCode) {
+    this.errorRate = rate;
+    this.errorRateStatusCode = statusCode;
+  }
+
+  /** Number of requests received by an endpoint (e.g. enumerateResources), including failures. */
+  public int getRequestCount(String routeName) {
+    AtomicInteger count = requestCounts.get(routeName);
+    return count == null ? 0 : count.get();
+  }
+
+  /** Reset the request counts for all endpoints. */
+  public void resetRequestCounts() {
+    requestCounts.clear();
+  }
+
+  // ====================================================
+  // CLI setup
+
+  /**
+   * Write a server definition that points at this fake, for use with `terra server set
+   * --name=[file]`.
+   *
+   * @param dir directory to write the file to
+   * @return path to the server file
+   */
+  public Path writeServerFile(Path dir) throws IOException {
+    ObjectNode server = JacksonMapper.getMapper().createObjectNode();
+    server.put("name", SERVER_NAME);
+    server.put("description", "In-process fake of the Terra services, for offline testing.");
+    server.put("clientCredentialsFile", "broad_secret.json");
+    server.put("samUri", getUri() + FakeSam.BASE_PATH);
+    server.put("samInviteRequiresAdmin", false);
+    server.put("workspaceManagerUri", getUri() + FakeWorkspaceManager.BASE_PATH);
+    server.put("wsmDefaultSpendProfile", "wm-default-spend-profile");
+    server.put("cloudBuildEnabled", false);
+    server.put("auth0Enabled", false);
+    server.put("supportsIdToken", false);
+    server
+        .putArray("supportedCloudPlatforms")
+        .add(CloudPlatform.GCP.toString())
+        .add(CloudPlatform.AWS.toString());
+
+    Path serverFile = dir.resolve(SERVER_NAME + ".json");
+    JacksonMapper.getMapper()
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(serverFile.toFile(), server);
+    return serverFile;
+  }
+
+  /**
+   * Login a user to the CLI, without the OAuth flow. This writes an access token and ID token that
+   * only this fake accepts to the global context directory, then does the usual CLI login, which
+   * registers the user in the fake SAM the first time.
+   *
+   * <p>The server must already be set to this fake (see {@link #writeServerFile}).
+   */
+  public void login(String email) throws IOException {
+    sam.addUser(email);
+    Instant expiration = Instant.now().plus(Duration.ofDays(1));
+
+    // no refresh token, so that the CLI doesn't try to refresh the access token with Google
+    StoredCredential storedCredential = new StoredCredential();
+    storedCredential.setAccessToken(FakeSam.getAccessToken(email));
+    storedCredential.setExpirationTimeMilliseconds(expiration.toEpochMilli());
+
+    FileDataStoreFactory dataStoreFactory =
+        new FileDataStoreFactory(Context.getContextDir().toFile());
+    DataStore<StoredCredential> credentialStore =
+        dataStoreFactory.getDataStore(StoredCredential.DEFAULT_DATA_STORE_ID);
+    credentialStore.set(Oauth.CREDENTIAL_STORE_KEY, storedCredential);
+    DataStore<IdToken> idTokenStore =
+        dataStoreFactory.getDataStore(StoredCredential.DEFAULT_DATA_STORE_ID);
+    idTokenStore.set(Oauth.ID_TOKEN_STORE_KEY, IdToken.create(buildIdToken(email, expiration)));
+
+    Context.setUser(null);
+    User.login();
+  }
+
+  /** Build an unsigned JWT with the claims that the CLI reads from an ID token. */
+  private static String buildIdToken(String email, Instant expiration) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\"}";
+    String payload =
+        String.format(
+            "{\"iss\":\"%s\",\"sub\":\"%s\",\"email\":\"%s\",\"iat\":%d,\"exp\":%d}",
+            SERVER_NAME,
+            email,
+            email,
+            Instant.now().getEpochSecond(),
+            expiration.getEpochSecond());
+    return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+        + "."
+        + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+        + "."
+        + encoder.encodeToString("fake-signature".getBytes(StandardCharsets.UTF_8));
+  }
+
+  // ====================================================
+  // Request handling
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String path = exchange.getRequestURI().getRawPath();
+      String method = exchange.getRequestMethod();
+      for (FakeService service : services) {
+        if (!path.startsWith(service.getBasePath() + "/")) {
+          continue;
+        }
+        String servicePath = path.substring(service.getBasePath().length());
+        for (Route route : service.getRoutes()) {
+          Matcher matcher = route.pathPattern().matcher(servicePath);
+          if (route.method().equals(method) && matcher.matches()) {
+            handleRoute(exchange, service, route, matcher);
+            return;
+          }
+        }
+        logger.warn("No fake route for {} {}", method, path);
+        sendError(exchange, service, 404, "No fake route for " + method + " " + servicePath);
+        return;
+      }
+      logger.warn("No fake service for {} {}", method, path);
+      exchange.sendResponseHeaders(404, -1);
+    }
+  }
+
+  private void handleRoute(HttpExchange exchange, FakeService service, Route route, Matcher matcher)
+      throws IOException {
+    requestCounts.computeIfAbsent(route.name(), name -> new AtomicInteger()).incrementAndGet();
+    sleepForLatency();
+
+    Integer injectedStatusCode = nextInjectedFailure(route.name());
+    if (injectedStatusCode != null) {
+      sendError(exchange, service, injectedStatusCode, "Injected failure for " + route.name());
+      return;
+    }
+
+    Map<String, String> pathParams = new HashMap<>();
+    for (String name : route.pathParamNames()) {
+      pathParams.put(name, decode(matcher.group(name)));
+    }
+    byte[] body;
+    try (InputStream requestBody = exchange.getRequestBody()) {
+      body = requestBody.readAllBytes();
+    }
+    FakeRequest request =
+        new FakeRequest(
+            pathParams,
+            parseQuery(exchange.getRequestURI().getRawQuery()),
+            body,
+            sam.getUserEmail(getBearerToken(exchange)));
+
+    byte[] responseBody;
+    try {
+      // services are not thread-safe, so handle one request at a time per service
+      synchronized (service) {
+        Object response = route.handler().handle(request);
+        responseBody = response == null ? null : service.toJson(response);
+      }
+    } catch (FakeServerException fakeEx) {
+      sendError(exchange, service, fakeEx.getStatusCode(), fakeEx.getMessage());
+      return;
+    } catch (RuntimeException ex) {
+      logger.error("Error handling fake request for {}", route.name(), ex);
+      sendError(exchange, service, 500, ex.getMessage());
+      return;
+    }
+
+    if (responseBody == null) {
+      exchange.sendResponseHeaders(204, -1);
+    } else {
+      sendJson(exchange, 200, responseBody);
+    }
+  }
+
+  /** Get the status code of the next failure to inject for an endpoint, or null for no failure. */
+  @Nullable
+  private Integer nextInjectedFailure(String routeName) {
+    synchronized (injectedFailures) {
+      int[] failure = injectedFailures.get(routeName);
+      if (failure != null && failure[1] > 0) {
+        failure[1]--;
+        return failure[0];
+      }
+    }
+    if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+      return errorRateStatusCode;
+    }
+    return null;
+  }
+
+  private void sleepForLatency() {
+    long minMillis = minLatency.toMillis();
+    long maxMillis = maxLatency.toMillis();
+    if (maxMillis == 0) {
+      return;
+    }
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1));
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sendError(
+      HttpExchange exchange, FakeService service, int statusCode, String message)
+      throws IOException {
+    sendJson(exchange, statusCode, service.toJson(service.buildErrorReport(statusCode, message)));
+  }
+
+  private static void sendJson(HttpExchange exchange, int statusCode, byte[] body)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(statusCode, body.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(body);
+    }
+  }
+
+  @Nullable
+  private static String getBearerToken(HttpExchange exchange) {
+    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+    if (authorization == null || !authorization.startsWith("Bearer ")) {
+      return null;
+    }
+    return authorization.substring("Bearer ".length());
+  }
+
+  private static Map<String, String> parseQuery(@Nullable String rawQuery) {
+    Map<String, String> queryParams = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return queryParams;
+    }
+    for (String param : rawQuery.split("&")) {
+      int equals = param.indexOf('=');
+      if (equals < 0) {
+        queryParams.put(decode(param), "");
+      } else {
+        queryParams.put(decode(param.substring(0, equals)), decode(param.substring(equals + 1)));
+      }
+    }
+    return queryParams;
+  }
+
+  private static String decode(String value) {
+    return URLDecoder.decode(value, StandardCharsets.UTF_8);
+  }
+}
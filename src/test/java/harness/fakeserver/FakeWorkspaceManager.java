@@ -0,0 +1,794 @@
+package harness.fakeserver;
+
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.PropertiesUtils;
+import bio.terra.workspace.model.AwsContext;
+import bio.terra.workspace.model.CloningInstructionsEnum;
+import bio.terra.workspace.model.CloudPlatform;
+import bio.terra.workspace.model.CreateFolderRequestBody;
+import bio.terra.workspace.model.CreateGcpGcsBucketReferenceRequestBody;
+import bio.terra.workspace.model.CreateGitRepoReferenceRequestBody;
+import bio.terra.workspace.model.CreateWorkspaceV2Request;
+import bio.terra.workspace.model.CreateWorkspaceV2Result;
+import bio.terra.workspace.model.DeleteWorkspaceV2Request;
+import bio.terra.workspace.model.Folder;
+import bio.terra.workspace.model.FolderList;
+import bio.terra.workspace.model.GcpContext;
+import bio.terra.workspace.model.GcpGcsBucketAttributes;
+import bio.terra.workspace.model.GcpGcsBucketResource;
+import bio.terra.workspace.model.GitRepoAttributes;
+import bio.terra.workspace.model.GitRepoResource;
+import bio.terra.workspace.model.GrantRoleRequestBody;
+import bio.terra.workspace.model.IamRole;
+import bio.terra.workspace.model.JobReport;
+import bio.terra.workspace.model.JobResult;
+import bio.terra.workspace.model.Properties;
+import bio.terra.workspace.model.Property;
+import bio.terra.workspace.model.ReferenceResourceCommonFields;
+import bio.terra.workspace.model.ResourceAttributesUnion;
+import bio.terra.workspace.model.ResourceDescription;
+import bio.terra.workspace.model.ResourceList;
+import bio.terra.workspace.model.ResourceMetadata;
+import bio.terra.workspace.model.ResourceType;
+import bio.terra.workspace.model.RoleBinding;
+import bio.terra.workspace.model.RoleBindingList;
+import bio.terra.workspace.model.StewardshipType;
+import bio.terra.workspace.model.SystemVersion;
+import bio.terra.workspace.model.UpdateFolderRequestBody;
+import bio.terra.workspace.model.UpdateWorkspaceRequestBody;
+import bio.terra.workspace.model.WorkspaceDescription;
+import bio.terra.workspace.model.WorkspaceDescriptionList;
+import bio.terra.workspace.model.WorkspaceStageModel;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+
+/**
+ * In-memory fake of the Workspace Manager endpoints called by the CLI: workspaces, resource
+ * enumeration, referenced Git repos and GCS buckets, folders, roles and the async job endpoints.
+ *
+ * <p>Responses are built from the WSM client library model classes and serialized with Jackson,
+ * the same as the real service, so that the client library can read them. State is held in memory
+ * for the lifetime of the fake. All route handlers and seed methods synchronize on this object.
+ */
+public class FakeWorkspaceManager implements FakeService {
+  public static final String BASE_PATH = "/wsm";
+  // enumerate requests without a limit get at most this many resources
+  private static final int DEFAULT_ENUMERATE_LIMIT = 10;
+
+  private final ObjectMapper objectMapper =
+      JacksonMapper.getMapper()
+          .copy()
+          .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  // workspace id -> workspace
+  private final Map<UUID, FakeWorkspace> workspaces = new LinkedHashMap<>();
+  // job id -> job
+  private final Map<String, FakeJob> jobs = new HashMap<>();
+
+  private int maxPageSize = Integer.MAX_VALUE;
+  private int jobPollsUntilDone;
+  @Nullable private String oldestSupportedCliVersion;
+
+  /**
+   * Cap the number of resources returned by a single enumerate request, regardless of the limit
+   * requested by the client. Defaults to no cap.
+   */
+  public synchronized void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  /**
+   * Number of times the result of an async job (e.g. workspace create or delete) is polled while
+   * still RUNNING, before it is reported as SUCCEEDED. Defaults to 0, so that jobs complete
+   * immediately. Note that the CLI waits a while between polls.
+   */
+  public synchronized void setJobPollsUntilDone(int jobPollsUntilDone) {
+    this.jobPollsUntilDone = jobPollsUntilDone;
+  }
+
+  /** Set the oldest CLI version reported by the /version endpoint. Defaults to none. */
+  public synchronized void setOldestSupportedCliVersion(@Nullable String version) {
+    this.oldestSupportedCliVersion = version;
+  }
+
+  /**
+   * Add a GCP workspace, with the given user as the owner.
+   *
+   * @return the workspace id
+   */
+  public synchronized UUID addWorkspace(String userFacingId, String ownerEmail) {
+    return createWorkspace(
+            new CreateWorkspaceV2Request()
+                .id(UUID.randomUUID())
+                .userFacingId(userFacingId)
+                .displayName(userFacingId)
+                .cloudPlatform(CloudPlatform.GCP),
+            ownerEmail)
+        .getId();
+  }
+
+  /** Add a resource to a workspace, as if it had been created with the CLI. */
+  public synchronized void addResource(UUID workspaceId, ResourceDescription resource) {
+    requireWorkspace(workspaceId).resources.put(resource.getMetadata().getResourceId(), resource);
+  }
+
+  /** Add a number of referenced Git repos to a workspace, named repo-0, repo-1, etc. */
+  public synchronized void addGitRepos(UUID workspaceId, int count, String createdBy) {
+    IntStream.range(0, count)
+        .forEach(
+            index ->
+                addResource(
+                    workspaceId,
+                    new ResourceDescription()
+                        .metadata(
+                            buildReferencedMetadata(
+                                workspaceId,
+                                "repo-" + index,
+                                null,
+                                ResourceType.GIT_REPO,
+                                createdBy))
+                        .resourceAttributes(
+                            new ResourceAttributesUnion()
+                                .gitRepo(
+                                    new GitRepoAttributes()
+                                        .gitRepoUrl(
+                                            "https://github.com/DataBiosphere/repo-"
+                                                + index
+                                                + ".git")))));
+  }
+
+  /** Get the resources in a workspace, in the order they were created. */
+  public synchronized List<ResourceDescription> getResources(UUID workspaceId) {
+    return new ArrayList<>(requireWorkspace(workspaceId).resources.values());
+  }
+
+  /** Get the ids of all workspaces. */
+  public synchronized List<UUID> getWorkspaceIds() {
+    return new ArrayList<>(workspaces.keySet());
+  }
+
+  @Override
+  public String getBasePath() {
+    return BASE_PATH;
+  }
+
+  @Override
+  public byte[] toJson(Object responseBody) {
+    try {
+      return objectMapper.writeValueAsBytes(responseBody);
+    } catch (JsonProcessingException jsonEx) {
+      throw new UncheckedIOException(jsonEx);
+    }
+  }
+
+  @Override
+  public List<Route> getRoutes() {
+    String workspace = "/api/workspaces/v1/{workspaceId}";
+    return List.of(
+        Route.of("GET", "/version", "serviceVersion", request -> getVersion()),
+        Route.of("GET", "/status", "serviceStatus", request -> Map.of("ok", true)),
+        Route.of("GET", "/api/workspaces/v1", "listWorkspaces", this::listWorkspaces),
+        Route.of("POST", "/api/workspaces/v2", "createWorkspaceV2", this::createWorkspaceV2),
+        Route.of(
+            "GET",
+            "/api/workspaces/v2/result/{jobId}",
+            "getCreateWorkspaceV2Result",
+            this::pollJob),
+        Route.of(
+            "GET",
+            "/api/workspaces/v1/workspaceByUserFacingId/{userFacingId}",
+            "getWorkspaceByUserFacingId",
+            this::getWorkspaceByUserFacingId),
+        Route.of("GET", workspace, "getWorkspace", this::getWorkspace),
+        Route.of("PATCH", workspace, "updateWorkspace", this::updateWorkspace),
+        Route.of(
+            "POST",
+            "/api/workspaces/v2/{workspaceId}/delete",
+            "deleteWorkspaceV2",
+            this::deleteWorkspaceV2),
+        Route.of(
+            "GET",
+            "/api/workspaces/v2/{workspaceId}/delete-result/{jobId}",
+            "getDeleteWorkspaceV2Result",
+            this::pollJob),
+        Route.of(
+            "POST",
+            workspace + "/properties",
+            "updateWorkspaceProperties",
+            this::updateWorkspaceProperties),
+        Route.of(
+            "PATCH",
+            workspace + "/properties",
+            "deleteWorkspaceProperties",
+            this::deleteWorkspaceProperties),
+        Route.of("POST", workspace + "/gcp/enablepet", "enablePet", this::enablePet),
+        Route.of("GET", workspace + "/roles", "getRoles", this::getRoles),
+        Route.of("POST", workspace + "/roles/{role}/members", "grantRole", this::grantRole),
+        Route.of(
+            "DELETE",
+            workspace + "/roles/{role}/members/{memberEmail}",
+            "removeRole",
+            this::removeRole),
+        Route.of("GET", workspace + "/resources", "enumerateResources", this::enumerateResources),
+        Route.of(
+            "POST",
+            workspace + "/resources/{resourceId}/properties",
+            "updateResourceProperties",
+            this::updateResourceProperties),
+        Route.of(
+            "GET",
+            workspace + "/resources/referenced/{resourceId}/access",
+            "checkReferenceAccess",
+            this::checkReferenceAccess),
+        Route.of(
+            "POST",
+            workspace + "/resources/referenced/gitrepos",
+            "createGitRepoReference",
+            this::createGitRepoReference),
+        Route.of(
+            "DELETE",
+            workspace + "/resources/referenced/gitrepos/{resourceId}",
+            "deleteGitRepoReference",
+            this::deleteResource),
+        Route.of(
+            "POST",
+            workspace + "/resources/referenced/gcp/buckets",
+            "createBucketReference",
+            this::createBucketReference),
+        Route.of(
+            "DELETE",
+            workspace + "/resources/referenced/gcp/buckets/{resourceId}",
+            "deleteBucketReference",
+            this::deleteResource),
+        Route.of("GET", workspace + "/folders", "listFolders", this::listFolders),
+        Route.of("POST", workspace + "/folders", "createFolder", this::createFolder),
+        Route.of("GET", workspace + "/folders/{folderId}", "getFolder", this::getFolder),
+        Route.of("PATCH", workspace + "/folders/{folderId}", "updateFolder", this::updateFolder),
+        Route.of(
+            "POST",
+            workspace + "/folders/{folderId}/properties",
+            "updateFolderProperties",
+            this::updateFolderProperties),
+        Route.of(
+            "POST", workspace + "/folders/{folderId}", "deleteFolderAsync", this::deleteFolder),
+        Route.of(
+            "GET",
+            workspace + "/folders/{folderId}/result/{jobId}",
+            "getDeleteFolderResult",
+            this::pollJob));
+  }
+
+  // ====================================================
+  // Workspaces
+
+  private SystemVersion getVersion() {
+    return new SystemVersion()
+        .gitTag("fake")
+        .gitHash("fake")
+        .build("fake")
+        .oldestSupportedCliVersion(oldestSupportedCliVersion);
+  }
+
+  private WorkspaceDescriptionList listWorkspaces(FakeRequest request) {
+    String userEmail = request.requireUserEmail();
+    List<WorkspaceDescription> userWorkspaces =
+        workspaces.values().stream()
+            .filter(workspace -> workspace.getHighestRole(userEmail) != null)
+            .skip(request.intQueryParam("offset", 0))
+            .limit(request.intQueryParam("limit", DEFAULT_ENUMERATE_LIMIT))
+            .map(workspace -> workspace.describe(userEmail))
+            .collect(Collectors.toList());
+    return new WorkspaceDescriptionList().workspaces(userWorkspaces);
+  }
+
+  private CreateWorkspaceV2Result createWorkspaceV2(FakeRequest request) {
+    CreateWorkspaceV2Request createRequest = readBody(request, CreateWorkspaceV2Request.class);
+    String jobId = createRequest.getJobControl().getId();
+    UUID workspaceId = createRequest.getId();
+    if (workspaces.containsKey(workspaceId)) {
+      throw new FakeServerException(409, "Workspace already exists: " + workspaceId);
+    }
+    createWorkspace(createRequest, request.requireUserEmail());
+    return startJob(
+        jobId,
+        jobReport -> new CreateWorkspaceV2Result().workspaceId(workspaceId).jobReport(jobReport));
+  }
+
+  private FakeWorkspace createWorkspace(CreateWorkspaceV2Request createRequest, String ownerEmail) {
+    String userFacingId = createRequest.getUserFacingId();
+    boolean userFacingIdTaken =
+        workspaces.values().stream()
+            .anyMatch(workspace -> workspace.description.getUserFacingId().equals(userFacingId));
+    if (userFacingIdTaken) {
+      throw new FakeServerException(
+          409, "Workspace with user-facing id already exists: " + userFacingId);
+    }
+
+    String shortId = createRequest.getId().toString().substring(0, 8);
+    WorkspaceDescription description =
+        new WorkspaceDescription()
+            .id(createRequest.getId())
+            .userFacingId(userFacingId)
+            .displayName(createRequest.getDisplayName())
+            .description(createRequest.getDescription())
+            .properties(
+                createRequest.getProperties() == null
+                    ? new Properties()
+                    : createRequest.getProperties())
+            .spendProfile(createRequest.getSpendProfile())
+            .stage(WorkspaceStageModel.MC_WORKSPACE)
+            .createdDate(OffsetDateTime.now())
+            .lastUpdatedDate(OffsetDateTime.now());
+    if (createRequest.getCloudPlatform() == CloudPlatform.AWS) {
+      description.awsContext(
+          new AwsContext()
+              .majorVersion("v0.5.8")
+              .organizationId("o-fake")
+              .accountId("123456789012")
+              .tenantAlias("fake-tenant")
+              .environmentAlias("fake-environment"));
+    } else {
+      description.gcpContext(new GcpContext().projectId("fake-project-" + shortId));
+    }
+
+    FakeWorkspace workspace = new FakeWorkspace(description);
+    workspace.roles.get(IamRole.OWNER).add(ownerEmail);
+    workspaces.put(description.getId(), workspace);
+    return workspace;
+  }
+
+  private WorkspaceDescription getWorkspace(FakeRequest request) {
+    return requireWorkspace(request).describe(request.requireUserEmail());
+  }
+
+  private WorkspaceDescription getWorkspaceByUserFacingId(FakeRequest request) {
+    String userFacingId = request.pathParam("userFacingId");
+    FakeWorkspace workspace =
+        workspaces.values().stream()
+            .filter(candidate -> candidate.description.getUserFacingId().equals(userFacingId))
+            .findFirst()
+            .orElseThrow(
+                () -> new FakeServerException(404, "Workspace not found: " + userFacingId));
+    return requireAccess(workspace, request.requireUserEmail()).describe(request.userEmail());
+  }
+
+  private WorkspaceDescription updateWorkspace(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    UpdateWorkspaceRequestBody updateRequest = readBody(request, UpdateWorkspaceRequestBody.class);
+    if (updateRequest.getUserFacingId() != null) {
+      workspace.description.userFacingId(updateRequest.getUserFacingId());
+    }
+    if (updateRequest.getDisplayName() != null) {
+      workspace.description.displayName(updateRequest.getDisplayName());
+    }
+    if (updateRequest.getDescription() != null) {
+      workspace.description.description(updateRequest.getDescription());
+    }
+    workspace.description.lastUpdatedDate(OffsetDateTime.now());
+    return workspace.describe(request.userEmail());
+  }
+
+  private JobResult deleteWorkspaceV2(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    String jobId = readBody(request, DeleteWorkspaceV2Request.class).getJobControl().getId();
+    workspaces.remove(workspace.description.getId());
+    return startJob(jobId, jobReport -> new JobResult().jobReport(jobReport));
+  }
+
+  private Object updateWorkspaceProperties(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    workspace.description.properties(
+        mergeProperties(workspace.description.getProperties(), readProperties(request)));
+    return null;
+  }
+
+  private Object deleteWorkspaceProperties(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    List<String> keys = readBody(request, new TypeReference<>() {});
+    workspace.description.getProperties().removeIf(property -> keys.contains(property.getKey()));
+    return null;
+  }
+
+  private Object enablePet(FakeRequest request) {
+    requireWorkspace(request);
+    return null;
+  }
+
+  // ====================================================
+  // Roles
+
+  private RoleBindingList getRoles(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    RoleBindingList roleBindings = new RoleBindingList();
+    workspace.roles.forEach(
+        (role, members) ->
+            roleBindings.add(new RoleBinding().role(role).members(new ArrayList<>(members))));
+    return roleBindings;
+  }
+
+  private Object grantRole(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    String memberEmail = readBody(request, GrantRoleRequestBody.class).getMemberEmail();
+    workspace.roles.get(parseRole(request)).add(memberEmail.toLowerCase());
+    return null;
+  }
+
+  private Object removeRole(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    workspace.roles.get(parseRole(request)).remove(request.pathParam("memberEmail").toLowerCase());
+    return null;
+  }
+
+  private static IamRole parseRole(FakeRequest request) {
+    try {
+      return IamRole.valueOf(request.pathParam("role"));
+    } catch (IllegalArgumentException ex) {
+      throw new FakeServerException(400, "Invalid role: " + request.pathParam("role"));
+    }
+  }
+
+  // ====================================================
+  // Resources
+
+  private ResourceList enumerateResources(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    String resourceType = request.queryParams().get("resource");
+    String stewardshipType = request.queryParams().get("stewardship");
+    int limit = Math.min(request.intQueryParam("limit", DEFAULT_ENUMERATE_LIMIT), maxPageSize);
+    List<ResourceDescription> page =
+        workspace.resources.values().stream()
+            .filter(
+                resource ->
+                    resourceType == null
+                        || resource.getMetadata().getResourceType().toString().equals(resourceType))
+            .filter(
+                resource ->
+                    stewardshipType == null
+                        || resource
+                            .getMetadata()
+                            .getStewardshipType()
+                            .toString()
+                            .equals(stewardshipType))
+            .skip(request.intQueryParam("offset", 0))
+            .limit(limit)
+            .collect(Collectors.toList());
+    return new ResourceList().resources(page);
+  }
+
+  private Object updateResourceProperties(FakeRequest request) {
+    ResourceMetadata metadata = requireResource(request).getMetadata();
+    metadata.properties(mergeProperties(metadata.getProperties(), readProperties(request)));
+    return null;
+  }
+
+  private Boolean checkReferenceAccess(FakeRequest request) {
+    requireResource(request);
+    return true;
+  }
+
+  private GitRepoResource createGitRepoReference(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    CreateGitRepoReferenceRequestBody createRequest =
+        readBody(request, CreateGitRepoReferenceRequestBody.class);
+    ResourceMetadata metadata =
+        buildReferencedMetadata(
+            workspace, createRequest.getMetadata(), ResourceType.GIT_REPO, request.userEmail());
+    workspace.resources.put(
+        metadata.getResourceId(),
+        new ResourceDescription()
+            .metadata(metadata)
+            .resourceAttributes(new ResourceAttributesUnion().gitRepo(createRequest.getGitrepo())));
+    return new GitRepoResource().metadata(metadata).attributes(createRequest.getGitrepo());
+  }
+
+  private GcpGcsBucketResource createBucketReference(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    CreateGcpGcsBucketReferenceRequestBody createRequest =
+        readBody(request, CreateGcpGcsBucketReferenceRequestBody.class);
+    ResourceMetadata metadata =
+        buildReferencedMetadata(
+            workspace, createRequest.getMetadata(), ResourceType.GCS_BUCKET, request.userEmail());
+    GcpGcsBucketAttributes attributes = createRequest.getBucket();
+    workspace.resources.put(
+        metadata.getResourceId(),
+        new ResourceDescription()
+            .metadata(metadata)
+            .resourceAttributes(new ResourceAttributesUnion().gcpGcsBucket(attributes)));
+    return new GcpGcsBucketResource().metadata(metadata).attributes(attributes);
+  }
+
+  private Object deleteResource(FakeRequest request) {
+    requireResource(request);
+    requireWorkspace(request).resources.remove(request.uuidPathParam("resourceId"));
+    return null;
+  }
+
+  private ResourceMetadata buildReferencedMetadata(
+      FakeWorkspace workspace,
+      ReferenceResourceCommonFields commonFields,
+      ResourceType resourceType,
+      String createdBy) {
+    boolean nameTaken =
+        workspace.resources.values().stream()
+            .anyMatch(resource -> resource.getMetadata().getName().equals(commonFields.getName()));
+    if (nameTaken) {
+      throw new FakeServerException(
+          409, "A resource with matching name already exists: " + commonFields.getName());
+    }
+    return buildReferencedMetadata(
+            workspace.description.getId(),
+            commonFields.getName(),
+            commonFields.getDescription(),
+            resourceType,
+            createdBy)
+        .properties(commonFields.getProperties());
+  }
+
+  private static ResourceMetadata buildReferencedMetadata(
+      UUID workspaceId,
+      String name,
+      @Nullable String description,
+      ResourceType resourceType,
+      String createdBy) {
+    return new ResourceMetadata()
+        .workspaceId(workspaceId)
+        .resourceId(UUID.randomUUID())
+        .name(name)
+        .description(description)
+        .resourceType(resourceType)
+        .stewardshipType(StewardshipType.REFERENCED)
+        .cloningInstructions(CloningInstructionsEnum.REFERENCE)
+        .properties(new Properties())
+        .createdBy(createdBy);
+  }
+
+  // ====================================================
+  // Folders
+
+  private FolderList listFolders(FakeRequest request) {
+    return new FolderList().folders(new ArrayList<>(requireWorkspace(request).folders.values()));
+  }
+
+  private Folder createFolder(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    CreateFolderRequestBody createRequest = readBody(request, CreateFolderRequestBody.class);
+    Folder folder =
+        new Folder()
+            .id(UUID.randomUUID())
+            .displayName(createRequest.getDisplayName())
+            .description(createRequest.getDescription())
+            .parentFolderId(createRequest.getParentFolderId())
+            .properties(
+                createRequest.getProperties() == null
+                    ? new Properties()
+                    : createRequest.getProperties());
+    workspace.folders.put(folder.getId(), folder);
+    return folder;
+  }
+
+  private Folder getFolder(FakeRequest request) {
+    return requireFolder(request);
+  }
+
+  private Folder updateFolder(FakeRequest request) {
+    Folder folder = requireFolder(request);
+    UpdateFolderRequestBody updateRequest = readBody(request, UpdateFolderRequestBody.class);
+    if (updateRequest.getDisplayName() != null) {
+      folder.displayName(updateRequest.getDisplayName());
+    }
+    if (updateRequest.getDescription() != null) {
+      folder.description(updateRequest.getDescription());
+    }
+    if (Boolean.TRUE.equals(updateRequest.getUpdateParent())) {
+      folder.parentFolderId(updateRequest.getParentFolderId());
+    }
+    return folder;
+  }
+
+  private Object updateFolderProperties(FakeRequest request) {
+    Folder folder = requireFolder(request);
+    folder.properties(mergeProperties(folder.getProperties(), readProperties(request)));
+    return null;
+  }
+
+  private JobResult deleteFolder(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request);
+    Folder folder = requireFolder(request);
+
+    // delete the folder and all of its sub-folders
+    Set<UUID> deletedIds = new LinkedHashSet<>(List.of(folder.getId()));
+    int numDeleted = 0;
+    while (numDeleted < deletedIds.size()) {
+      numDeleted = deletedIds.size();
+      workspace.folders.values().stream()
+          .filter(candidate -> deletedIds.contains(candidate.getParentFolderId()))
+          .forEach(candidate -> deletedIds.add(candidate.getId()));
+    }
+    deletedIds.forEach(workspace.folders::remove);
+    String jobId = UUID.randomUUID().toString();
+    return startJob(jobId, jobReport -> new JobResult().jobReport(jobReport));
+  }
+
+  // ====================================================
+  // Jobs
+
+  /**
+   * Start an async job. The job's work has already been done, but it is reported as RUNNING for the
+   * configured number of polls.
+   *
+   * @param resultBuilder builds the job result from the current job report
+   * @return the initial job result
+   */
+  private <T> T startJob(String jobId, Function<JobReport, T> resultBuilder) {
+    FakeJob job = new FakeJob(jobId, resultBuilder, jobPollsUntilDone);
+    jobs.put(jobId, job);
+    @SuppressWarnings("unchecked")
+    T initialResult = (T) job.buildResult(false);
+    return initialResult;
+  }
+
+  private Object pollJob(FakeRequest request) {
+    FakeJob job = jobs.get(request.pathParam("jobId"));
+    if (job == null) {
+      throw new FakeServerException(404, "Job not found: " + request.pathParam("jobId"));
+    }
+    return job.buildResult(true);
+  }
+
+  // ====================================================
+  // Helpers
+
+  private FakeWorkspace requireWorkspace(FakeRequest request) {
+    FakeWorkspace workspace = requireWorkspace(request.uuidPathParam("workspaceId"));
+    return requireAccess(workspace, request.requireUserEmail());
+  }
+
+  private FakeWorkspace requireWorkspace(UUID workspaceId) {
+    FakeWorkspace workspace = workspaces.get(workspaceId);
+    if (workspace == null) {
+      throw new FakeServerException(404, "Workspace not found: " + workspaceId);
+    }
+    return workspace;
+  }
+
+  private static FakeWorkspace requireAccess(FakeWorkspace workspace, String userEmail) {
+    if (workspace.getHighestRole(userEmail) == null) {
+      throw new FakeServerException(
+          403, "User " + userEmail + " does not have access to the workspace");
+    }
+    return workspace;
+  }
+
+  private ResourceDescription requireResource(FakeRequest request) {
+    UUID resourceId = request.uuidPathParam("resourceId");
+    ResourceDescription resource = requireWorkspace(request).resources.get(resourceId);
+    if (resource == null) {
+      throw new FakeServerException(404, "Resource not found: " + resourceId);
+    }
+    return resource;
+  }
+
+  private Folder requireFolder(FakeRequest request) {
+    UUID folderId = request.uuidPathParam("folderId");
+    Folder folder = requireWorkspace(request).folders.get(folderId);
+    if (folder == null) {
+      throw new FakeServerException(404, "Folder not found: " + folderId);
+    }
+    return folder;
+  }
+
+  private List<Property> readProperties(FakeRequest request) {
+    return readBody(request, new TypeReference<>() {});
+  }
+
+  /** Merge the updated properties into the existing ones, overwriting any existing keys. */
+  private static Properties mergeProperties(
+      @Nullable Properties existing, List<Property> updates) {
+    Map<String, String> merged =
+        new LinkedHashMap<>(PropertiesUtils.propertiesToStringMap(existing));
+    updates.forEach(property -> merged.put(property.getKey(), property.getValue()));
+    return PropertiesUtils.stringMapToProperties(merged);
+  }
+
+  private <T> T readBody(FakeRequest request, Class<T> bodyClass) {
+    try {
+      return objectMapper.readValue(request.body(), bodyClass);
+    } catch (IOException ioEx) {
+      throw new FakeServerException(400, "Invalid request body: " + ioEx.getMessage());
+    }
+  }
+
+  private <T> T readBody(FakeRequest request, TypeReference<T> bodyType) {
+    try {
+      return objectMapper.readValue(request.body(), bodyType);
+    } catch (IOException ioEx) {
+      throw new FakeServerException(400, "Invalid request body: " + ioEx.getMessage());
+    }
+  }
+
+  /** A workspace and everything in it. */
+  private static class FakeWorkspace {
+    private final WorkspaceDescription description;
+    // resource id -> resource, in creation order
+    private final Map<UUID, ResourceDescription> resources = new LinkedHashMap<>();
+    // folder id -> folder, in creation order
+    private final Map<UUID, Folder> folders = new LinkedHashMap<>();
+    // role -> member emails
+    private final Map<IamRole, Set<String>> roles = new EnumMap<>(IamRole.class);
+
+    FakeWorkspace(WorkspaceDescription description) {
+      this.description = description;
+      for (IamRole role : IamRole.values()) {
+        roles.put(role, new LinkedHashSet<>());
+      }
+    }
+
+    /** Get the user's highest role on this workspace, or null if they don't have one. */
+    @Nullable
+    IamRole getHighestRole(String userEmail) {
+      String email = userEmail.toLowerCase();
+      for (IamRole role : List.of(IamRole.OWNER, IamRole.WRITER, IamRole.READER)) {
+        if (roles.get(role).contains(email)) {
+          return role;
+        }
+      }
+      return null;
+    }
+
+    /** Describe this workspace, as seen by the given user. */
+    WorkspaceDescription describe(@Nullable String userEmail) {
+      return description.highestRole(userEmail == null ? null : getHighestRole(userEmail));
+    }
+  }
+
+  /** An async job that has a fixed number of polls left before it completes. */
+  private static class FakeJob {
+    private final String id;
+    private final Function<JobReport, ?> resultBuilder;
+    private int pollsUntilDone;
+
+    FakeJob(String id, Function<JobReport, ?> resultBuilder, int pollsUntilDone) {
+      this.id = id;
+      this.resultBuilder = resultBuilder;
+      this.pollsUntilDone = pollsUntilDone;
+    }
+
+    /**
+     * Build the current job result.
+     *
+     * @param isPoll true if this is a poll of the result endpoint, which counts down the polls left
+     */
+    Object buildResult(boolean isPoll) {
+      if (isPoll && pollsUntilDone > 0) {
+        pollsUntilDone--;
+      }
+      boolean isDone = pollsUntilDone == 0;
+      JobReport jobReport =
+          new JobReport()
+              .id(id)
+              .status(isDone ? JobReport.StatusEnum.SUCCEEDED : JobReport.StatusEnum.RUNNING)
+              .statusCode(isDone ? 200 : 202);
+      return resultBuilder.apply(jobReport);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package harness.fakeserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single endpoint of a fake service, matched on the HTTP method and a path template like
+ * "/api/workspaces/v1/{workspaceId}/resources".
+ *
+ * @param method HTTP method (e.g. GET)
+ * @param pathPattern regex compiled from the path template, with a named group per placeholder
+ * @param pathParamNames names of the placeholders in the path template, in order
+ * @param name endpoint name, used for request counts and error injection. This is the name of the
+ *     client library method that calls the endpoint (e.g. enumerateResources).
+ * @param handler handler that builds the response body
+ */
+public record Route(
+    String method, Pattern pathPattern, List<String> pathParamNames, String name, Handler handler) {
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z0-9]+)}");
+
+  /** Build a route from a path template. */
+  public static Route of(String method, String pathTemplate, String name, Handler handler) {
+    List<String> pathParamNames = new ArrayList<>();
+    Matcher placeholders = PLACEHOLDER.matcher(pathTemplate);
+    StringBuilder regex = new StringBuilder();
+    int literalStart = 0;
+    while (placeholders.find()) {
+      regex.append(Pattern.quote(pathTemplate.substring(literalStart, placeholders.start())));
+      regex.append("(?<").append(placeholders.group(1)).append(">[^/]+)");
+      pathParamNames.add(placeholders.group(1));
+      literalStart = placeholders.end();
+    }
+    regex.append(Pattern.quote(pathTemplate.substring(literalStart)));
+    return new Route(method, Pattern.compile(regex.toString()), pathParamNames, name, handler);
+  }
+
+  /** Builds the response body for a request. */
+  @FunctionalInterface
+  public interface Handler {
+    /**
+     * Handle a request.
+     *
+     * @return the response body, which is serialized to JSON by the service, or null for a 204 No
+     *     Content response
+     * @throws FakeServerException to return an error response
+     */
+    Object handle(FakeRequest request);
+  }
+}
@@ -0,0 +1,349 @@
+package harness.utils;
+
+import bio.terra.cli.utils.JacksonMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import harness.TestCommand;
+import harness.TestContext;
+import harness.fakeserver.FakeTerraServer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * This class implements a script to measure the cold-start latency of common commands, as users
+ * feel it: the wall-clock time from launching a new process with the installed `terra` script to
+ * the process exiting. Each command is run many times against an in-process {@link
+ * FakeTerraServer}, so the numbers don't depend on the network or on the real services.
+ *
+ * <p>For each run, this records the wall-clock time, the number of classes the JVM loaded (and how
+ * many of those came from the class data sharing archive), and the peak resident set size. The
+ * results are written to a JSON file. If a baseline results file is specified, then the script
+ * fails when the median time for any command is slower than the baseline by more than the
+ * threshold.
+ *
+ * <p>This is run by the startupBenchmark Gradle task, which passes the options below as system
+ * properties. See CONTRIBUTING.md for usage.
+ */
+public class StartupBenchmark {
+  private static final String USER_EMAIL = "startup.benchmark@example.com";
+  private static final String WORKSPACE_ID = "startup-benchmark";
+  private static final String RESOURCE_NAME = "repo-0";
+
+  /** Commands to measure, from cheapest to most expensive. */
+  private static final List<BenchmarkCommand> COMMANDS =
+      List.of(
+          new BenchmarkCommand("version", List.of("version")),
+          new BenchmarkCommand("config get server", List.of("config", "get", "server")),
+          new BenchmarkCommand("status", List.of("status")),
+          new BenchmarkCommand(
+              "resource resolve", List.of("resource", "resolve", "--name=" + RESOURCE_NAME)));
+
+  // peak RSS, as reported by GNU time (-v, kilobytes) and BSD time (-l, bytes)
+  private static final Pattern GNU_TIME_RSS =
+      Pattern.compile("Maximum resident set size \\(kbytes\\): (\\d+)");
+  private static final Pattern BSD_TIME_RSS =
+      Pattern.compile("(\\d+)\\s+maximum resident set size");
+  private static final String TIME_EXECUTABLE = "/usr/bin/time";
+
+  private final Path launcher;
+  private final Path workingDir;
+  private final int iterations;
+  private final int warmupIterations;
+  private final boolean measureRss;
+
+  private StartupBenchmark(Path launcher, Path workingDir, int iterations, int warmupIterations) {
+    this.launcher = launcher;
+    this.workingDir = workingDir;
+    this.iterations = iterations;
+    this.warmupIterations = warmupIterations;
+    this.measureRss = new File(TIME_EXECUTABLE).canExecute();
+  }
+
+  /**
+   * Run the benchmark.
+   *
+   * <p>System properties:
+   *
+   * <ul>
+   *   <li>STARTUP_LAUNCHER: path to the installed `terra` script
+   *   <li>STARTUP_WORKING_DIR: directory for the server file and JVM logs
+   *   <li>STARTUP_RESULTS_FILE: file to write the results to
+   *   <li>STARTUP_ITERATIONS: number of measured runs per command
+   *   <li>STARTUP_WARMUP_ITERATIONS: number of unmeasured runs per command, before measuring
+   *   <li>STARTUP_BASELINE_FILE: [optional] results file from an earlier run to compare against
+   *   <li>STARTUP_THRESHOLD: fraction by which the median may be slower than the baseline
+   * </ul>
+   */
+  public static void main(String... args) throws IOException, InterruptedException {
+    Path launcher = Paths.get(System.getProperty("STARTUP_LAUNCHER"));
+    Path workingDir = Paths.get(System.getProperty("STARTUP_WORKING_DIR"));
+    Path resultsFile = Paths.get(System.getProperty("STARTUP_RESULTS_FILE"));
+    int iterations = Integer.parseInt(System.getProperty("STARTUP_ITERATIONS", "20"));
+    int warmupIterations = Integer.parseInt(System.getProperty("STARTUP_WARMUP_ITERATIONS", "3"));
+    String baselineFile = System.getProperty("STARTUP_BASELINE_FILE", "");
+    double threshold = Double.parseDouble(System.getProperty("STARTUP_THRESHOLD", "0.10"));
+
+    if (!Files.isExecutable(launcher)) {
+      throw new IllegalArgumentException("Launcher script is not executable: " + launcher);
+    }
+    Files.createDirectories(workingDir);
+    StartupBenchmark benchmark =
+        new StartupBenchmark(launcher, workingDir, iterations, warmupIterations);
+
+    ObjectNode results;
+    try (FakeTerraServer fakeServer = FakeTerraServer.start()) {
+      setupContext(fakeServer, workingDir);
+      results = benchmark.runAll();
+    }
+    Files.createDirectories(resultsFile.getParent());
+    JacksonMapper.getMapper()
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(resultsFile.toFile(), results);
+    System.out.println("Wrote results to " + resultsFile);
+
+    if (!baselineFile.isEmpty()) {
+      JsonNode baseline = JacksonMapper.getMapper().readTree(new File(baselineFile));
+      List<String> regressions = compareToBaseline(results, baseline, threshold);
+      if (!regressions.isEmpty()) {
+        System.out.println("Startup time regressed by more than " + formatPercent(threshold));
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        System.exit(1);
+      }
+      System.out.println("No startup time regressions compared to " + baselineFile);
+    }
+    // the fake server's HTTP threads and the CLI's thread pools are not daemon threads
+    System.exit(0);
+  }
+
+  /**
+   * Point the context at the fake server, login, and set a workspace with one resource in it. The
+   * CLI processes launched by the benchmark share this context, because the Gradle task sets the
+   * context directory override for both this process and its children.
+   */
+  private static void setupContext(FakeTerraServer fakeServer, Path workingDir)
+      throws IOException {
+    TestContext.clearGlobalContextDir();
+    Path serverFile = fakeServer.writeServerFile(workingDir);
+    TestCommand.runCommandExpectSuccess("server", "set", "--name=" + serverFile, "--quiet");
+    TestCommand.runCommandExpectSuccess("config", "set", "app-launch", "LOCAL_PROCESS");
+    fakeServer.login(USER_EMAIL);
+
+    UUID workspaceId = fakeServer.getWorkspaceManager().addWorkspace(WORKSPACE_ID, USER_EMAIL);
+    fakeServer.getWorkspaceManager().addGitRepos(workspaceId, 1, USER_EMAIL);
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + WORKSPACE_ID);
+  }
+
+  /** Run each command, print a summary table, and return the results. */
+  private ObjectNode runAll() throws IOException, InterruptedException {
+    ObjectNode results = JacksonMapper.getMapper().createObjectNode();
+    results.put("launcher", launcher.toString());
+    results.put("timestamp", OffsetDateTime.now().toString());
+    results.put("iterations", iterations);
+    results.put("warmupIterations", warmupIterations);
+    results.put("javaVersion", System.getProperty("java.version"));
+    results.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+    ArrayNode commandResults = results.putArray("commands");
+
+    System.out.printf(
+        "%-20s %9s %9s %9s %9s %9s %9s %9s%n",
+        "COMMAND", "MIN ms", "MEDIAN ms", "P90 ms", "MAX ms", "CLASSES", "FROM CDS", "RSS MB");
+    for (BenchmarkCommand benchmarkCommand : COMMANDS) {
+      String name = benchmarkCommand.name();
+      for (int iteration = 0; iteration < warmupIterations; iteration++) {
+        runOnce(name, benchmarkCommand.args(), -1 - iteration);
+      }
+      List<Sample> samples = new ArrayList<>();
+      for (int iteration = 0; iteration < iterations; iteration++) {
+        samples.add(runOnce(name, benchmarkCommand.args(), iteration));
+      }
+      ObjectNode commandResult = summarize(name, samples);
+      commandResults.add(commandResult);
+      System.out.printf(
+          "%-20s %9d %9d %9d %9d %9d %9d %9s%n",
+          name,
+          commandResult.get("wallMillis").get("min").asLong(),
+          commandResult.get("wallMillis").get("median").asLong(),
+          commandResult.get("wallMillis").get("p90").asLong(),
+          commandResult.get("wallMillis").get("max").asLong(),
+          commandResult.get("classesLoaded").asLong(),
+          commandResult.get("classesFromCds").asLong(),
+          commandResult.has("maxRssMb") ? commandResult.get("maxRssMb").asText() : "-");
+    }
+    return results;
+  }
+
+  /**
+   * Launch the installed `terra` script once and wait for it to exit.
+   *
+   * @param iteration index of this run, negative for warmup runs
+   */
+  private Sample runOnce(String name, List<String> args, int iteration)
+      throws IOException, InterruptedException {
+    String filePrefix = name.replace(' ', '-') + "-" + iteration;
+    Path classLoadLog = workingDir.resolve(filePrefix + "-classload.log");
+    Path timeLog = workingDir.resolve(filePrefix + "-time.log");
+    Files.deleteIfExists(classLoadLog);
+
+    List<String> command = new ArrayList<>();
+    if (measureRss) {
+      command.addAll(List.of(TIME_EXECUTABLE, isMac() ? "-l" : "-v"));
+    }
+    command.add(launcher.toString());
+    command.addAll(args);
+
+    ProcessBuilder processBuilder =
+        new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(timeLog.toFile());
+    String javaOpts = System.getenv().getOrDefault("JAVA_OPTS", "");
+    processBuilder
+        .environment()
+        .put("JAVA_OPTS", javaOpts + " -Xlog:class+load=info:file=" + classLoadLog);
+
+    long start = System.nanoTime();
+    Process process = processBuilder.start();
+    if (!process.waitFor(5, TimeUnit.MINUTES)) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Command timed out: terra " + String.join(" ", args));
+    }
+    long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    String stdErr = Files.readString(timeLog, StandardCharsets.UTF_8);
+    if (process.exitValue() != 0) {
+      throw new IllegalStateException(
+          "Command failed: terra " + String.join(" ", args) + System.lineSeparator() + stdErr);
+    }
+
+    int classesLoaded = 0;
+    int classesFromCds = 0;
+    if (Files.exists(classLoadLog)) {
+      try (Stream<String> lines = Files.lines(classLoadLog, StandardCharsets.UTF_8)) {
+        for (String line : (Iterable<String>) lines::iterator) {
+          classesLoaded++;
+          if (line.contains("shared objects file")) {
+            classesFromCds++;
+          }
+        }
+      }
+    }
+    return new Sample(wallMillis, classesLoaded, classesFromCds, parseMaxRssKb(stdErr));
+  }
+
+  /** Get the peak RSS in kilobytes from the output of /usr/bin/time, or null if not found. */
+  @Nullable
+  private static Long parseMaxRssKb(String timeOutput) {
+    Matcher gnuMatcher = GNU_TIME_RSS.matcher(timeOutput);
+    if (gnuMatcher.find()) {
+      return Long.parseLong(gnuMatcher.group(1));
+    }
+    Matcher bsdMatcher = BSD_TIME_RSS.matcher(timeOutput);
+    if (bsdMatcher.find()) {
+      return Long.parseLong(bsdMatcher.group(1)) / 1024;
+    }
+    return null;
+  }
+
+  private static ObjectNode summarize(String name, List<Sample> samples) {
+    List<Long> wallMillis = new ArrayList<>();
+    List<Long> classesLoaded = new ArrayList<>();
+    List<Long> classesFromCds = new ArrayList<>();
+    List<Long> maxRssKb = new ArrayList<>();
+    for (Sample sample : samples) {
+      wallMillis.add(sample.wallMillis());
+      classesLoaded.add((long) sample.classesLoaded());
+      classesFromCds.add((long) sample.classesFromCds());
+      if (sample.maxRssKb() != null) {
+        maxRssKb.add(sample.maxRssKb());
+      }
+    }
+
+    ObjectNode result = JacksonMapper.getMapper().createObjectNode();
+    result.put("command", name);
+    ObjectNode wallMillisNode = result.putObject("wallMillis");
+    wallMillisNode.put("min", percentile(wallMillis, 0));
+    wallMillisNode.put("median", percentile(wallMillis, 50));
+    wallMillisNode.put("p90", percentile(wallMillis, 90));
+    wallMillisNode.put("max", percentile(wallMillis, 100));
+    result.put("classesLoaded", percentile(classesLoaded, 50));
+    result.put("classesFromCds", percentile(classesFromCds, 50));
+    if (!maxRssKb.isEmpty()) {
+      result.put("maxRssMb", percentile(maxRssKb, 50) / 1024);
+    }
+    ArrayNode samplesNode = result.putArray("samplesWallMillis");
+    wallMillis.forEach(samplesNode::add);
+    return result;
+  }
+
+  /**
+   * Compare the median time for each command to the baseline.
+   *
+   * @return a description of each command that regressed by more than the threshold
+   */
+  private static List<String> compareToBaseline(
+      JsonNode results, JsonNode baseline, double threshold) {
+    List<String> regressions = new ArrayList<>();
+    for (JsonNode commandResult : results.get("commands")) {
+      String name = commandResult.get("command").asText();
+      JsonNode baselineResult = null;
+      for (JsonNode candidate : baseline.get("commands")) {
+        if (candidate.get("command").asText().equals(name)) {
+          baselineResult = candidate;
+        }
+      }
+      if (baselineResult == null) {
+        System.out.println("No baseline for command, skipping comparison: " + name);
+        continue;
+      }
+      long median = commandResult.get("wallMillis").get("median").asLong();
+      long baselineMedian = baselineResult.get("wallMillis").get("median").asLong();
+      double change = baselineMedian == 0 ? 0 : (double) (median - baselineMedian) / baselineMedian;
+      System.out.printf(
+          "%-20s median %d ms, baseline %d ms (%s)%n",
+          name, median, baselineMedian, formatPercent(change));
+      if (change > threshold) {
+        regressions.add(
+            String.format(
+                "%s: median %d ms, baseline %d ms (%s)",
+                name, median, baselineMedian, formatPercent(change)));
+      }
+    }
+    return regressions;
+  }
+
+  /** Get a percentile of a list of values, using the nearest-rank method. */
+  private static long percentile(List<Long> values, int percentile) {
+    List<Long> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+    return sorted.get(Math.max(rank - 1, 0));
+  }
+
+  private static String formatPercent(double fraction) {
+    return String.format("%+.1f%%", fraction * 100);
+  }
+
+  private static boolean isMac() {
+    return System.getProperty("os.name").toLowerCase().contains("mac");
+  }
+
+  /** A command to measure, with the arguments to pass to the `terra` script. */
+  private record BenchmarkCommand(String name, List<String> args) {}
+
+  /** Measurements from a single run of a command. */
+  private record Sample(
+      long wallMillis, int classesLoaded, int classesFromCds, @Nullable Long maxRssKb) {}
+}
@@ -0,0 +1,112 @@
+package integration;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyOrNullString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke tests for the GraalVM native executable (see the nativeSmokeTest Gradle task). These run
+ * commands that don't require login or network access, and check that the reflection and resource
+ * configuration covers picocli, Jackson, Logback and the bundled server definitions.
+ */
+@Tag("native")
+public class NativeImageSmoke {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static String nativeBinary;
+
+  @BeforeAll
+  static void findNativeBinary() {
+    nativeBinary = System.getProperty("TERRA_NATIVE_BINARY");
+    assertThat("native binary is defined", nativeBinary, not(emptyOrNullString()));
+  }
+
+  @Test
+  @DisplayName("usage help lists the top-level commands")
+  void usage() throws Exception {
+    Result result = run();
+    assertEquals(0, result.exitCode, "no-args invocation succeeds");
+    assertThat(result.stdOut, containsString("workspace"));
+    assertThat(result.stdOut, containsString("resource"));
+  }
+
+  @Test
+  @DisplayName("version prints the CLI version")
+  void version() throws Exception {
+    Result result = run("version");
+    assertEquals(0, result.exitCode, "version succeeds");
+    assertThat("version is printed", result.stdOut.trim(), not(emptyOrNullString()));
+  }
+
+  @Test
+  @DisplayName("config list serializes the config with Jackson")
+  void configListJson() throws Exception {
+    Result result = run("config", "list", "--format=json");
+    assertEquals(0, result.exitCode, "config list succeeds");
+    JsonNode config = OBJECT_MAPPER.readTree(result.stdOut);
+    assertThat("config includes the server", config.get("serverName").asText(), not(""));
+  }
+
+  @Test
+  @DisplayName("server list reads the bundled server definitions")
+  void serverListJson() throws Exception {
+    Result result = run("server", "list", "--format=json");
+    assertEquals(0, result.exitCode, "server list succeeds");
+    JsonNode servers = OBJECT_MAPPER.readTree(result.stdOut);
+    assertThat("servers are listed", servers.size() > 0);
+  }
+
+  @Test
+  @DisplayName("config set persists the context and writes the log file")
+  void configSet() throws Exception {
+    assertEquals(0, run("config", "set", "logging", "--file", "--level=DEBUG").exitCode);
+    assertEquals(0, run("config", "set", "format", "JSON").exitCode);
+    Result result = run("config", "get", "format");
+    assertThat(result.stdOut, containsString("JSON"));
+    assertEquals(0, run("config", "set", "format", "TEXT").exitCode);
+  }
+
+  /** Run the native executable with the given arguments and wait for it to finish. */
+  private static Result run(String... args) throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    command.add(nativeBinary);
+    command.addAll(List.of(args));
+    // stderr goes to a file, so that a full stderr pipe can't block the process while stdout is
+    // being read
+    Path stdErrFile = Files.createTempFile("terra-native-stderr", ".txt");
+    String stdOut;
+    String stdErr;
+    int exitCode;
+    try {
+      Process process =
+          new ProcessBuilder(command)
+              .redirectError(ProcessBuilder.Redirect.to(stdErrFile.toFile()))
+              .start();
+      stdOut = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+      exitCode = process.waitFor();
+      stdErr = new String(Files.readAllBytes(stdErrFile), StandardCharsets.UTF_8);
+    } finally {
+      Files.deleteIfExists(stdErrFile);
+    }
+    System.out.println("COMMAND: terra " + String.join(" ", args));
+    System.out.println("STDOUT --------------\n" + stdOut);
+    System.out.println("STDERR --------------\n" + stdErr);
+    return new Result(exitCode, stdOut, stdErr);
+  }
+
+  private record Result(int exitCode, String stdOut, String stdErr) {}
+}
@@ -0,0 +1,122 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.cloud.gcp.BqArrowWriter;
+import bio.terra.cli.cloud.gcp.BqCsvWriter;
+import com.google.cloud.bigquery.storage.v1.ArrowRecordBatch;
+import com.google.cloud.bigquery.storage.v1.ArrowSchema;
+import com.google.cloud.bigquery.storage.v1.AvroRows;
+import com.google.cloud.bigquery.storage.v1.AvroSchema;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import com.google.protobuf.ByteString;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for writing the rows read from the BigQuery Storage Read API to local files. */
+@Tag("unit")
+public class BqExportWriterTest {
+  // schema in the form the Storage Read API returns it for a table with NULLABLE columns
+  private static final String AVRO_SCHEMA =
+      "{\"type\": \"record\", \"name\": \"__root__\", \"fields\": ["
+          + "{\"name\": \"name\", \"type\": [\"null\", \"string\"]},"
+          + "{\"name\": \"amount\", \"type\": [\"null\", {\"type\": \"bytes\", "
+          + "\"logicalType\": \"decimal\", \"precision\": 38, \"scale\": 9}]},"
+          + "{\"name\": \"created\", \"type\": [\"null\", {\"type\": \"long\", "
+          + "\"logicalType\": \"timestamp-micros\"}]}]}";
+
+  @Test
+  @DisplayName("CSV has a header line and quotes the values that need it")
+  void writesCsv() throws IOException {
+    Schema schema = new Schema.Parser().parse(AVRO_SCHEMA);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (BqCsvWriter writer =
+        new BqCsvWriter(out, AvroSchema.newBuilder().setSchema(AVRO_SCHEMA).build())) {
+      writer.write(
+          toAvroResponse(
+              schema,
+              List.of(
+                  row(schema, "plain", new BigDecimal("1.500000000"), 0L),
+                  row(schema, "with, comma and \"quotes\"", null, 1_500_000L))));
+      writer.write(toAvroResponse(schema, List.of(row(schema, null, null, null))));
+    }
+
+    assertEquals(
+        "name,amount,created\n"
+            + "plain,1.500000000,1970-01-01T00:00:00Z\n"
+            + "\"with, comma and \"\"quotes\"\"\",,1970-01-01T00:00:01.500Z\n"
+            + ",,\n",
+        out.toString(StandardCharsets.UTF_8),
+        "rows are written as CSV");
+  }
+
+  @Test
+  @DisplayName("Arrow stream is the schema, then the record batches, then the end marker")
+  void writesArrowStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (BqArrowWriter writer =
+        new BqArrowWriter(
+            out,
+            ArrowSchema.newBuilder()
+                .setSerializedSchema(ByteString.copyFrom(new byte[] {1, 2}))
+                .build())) {
+      writer.write(
+          ReadRowsResponse.newBuilder()
+              .setArrowRecordBatch(
+                  ArrowRecordBatch.newBuilder()
+                      .setSerializedRecordBatch(ByteString.copyFrom(new byte[] {3, 4, 5})))
+              .build());
+    }
+
+    assertArrayEquals(
+        new byte[] {1, 2, 3, 4, 5, -1, -1, -1, -1, 0, 0, 0, 0},
+        out.toByteArray(),
+        "messages are written as is");
+  }
+
+  private static GenericRecord row(
+      Schema schema, String name, BigDecimal amount, Long createdMicros) {
+    GenericRecord row = new GenericData.Record(schema);
+    row.put("name", name);
+    if (amount != null) {
+      Schema amountSchema = schema.getField("amount").schema().getTypes().get(1);
+      row.put(
+          "amount",
+          new Conversions.DecimalConversion()
+              .toBytes(amount, amountSchema, amountSchema.getLogicalType()));
+    }
+    row.put("created", createdMicros);
+    return row;
+  }
+
+  private static ReadRowsResponse toAvroResponse(Schema schema, List<GenericRecord> rows)
+      throws IOException {
+    ByteArrayOutputStream serializedRows = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(serializedRows, null);
+    GenericDatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
+    for (GenericRecord row : rows) {
+      datumWriter.write(row, encoder);
+    }
+    encoder.flush();
+    return ReadRowsResponse.newBuilder()
+        .setAvroRows(
+            AvroRows.newBuilder()
+                .setSerializedBinaryRows(ByteString.copyFrom(serializedRows.toByteArray())))
+        .setRowCount(rows.size())
+        .build();
+  }
+}
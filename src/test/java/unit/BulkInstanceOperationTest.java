@@ -0,0 +1,128 @@
+package unit;
+
+import static bio.terra.cli.command.resource.ListTree.TERRA_FOLDER_ID_PROPERTY_KEY;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.command.shared.options.BulkInstanceOperation;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.workspace.model.Folder;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import picocli.CommandLine;
+
+/** Tests for selecting the instances to start or stop with {@link BulkInstanceOperation}. */
+@Tag("unit")
+public class BulkInstanceOperationTest {
+  // root -> child -> grandchild, and a sibling of root
+  private static final Folder ROOT = new Folder().id(UUID.randomUUID());
+  private static final Folder CHILD =
+      new Folder().id(UUID.randomUUID()).parentFolderId(ROOT.getId());
+  private static final Folder GRANDCHILD =
+      new Folder().id(UUID.randomUUID()).parentFolderId(CHILD.getId());
+  private static final Folder SIBLING = new Folder().id(UUID.randomUUID());
+  // listed out of order, so a sub-folder comes before its parent
+  private static final ImmutableList<Folder> FOLDERS =
+      ImmutableList.of(GRANDCHILD, SIBLING, CHILD, ROOT);
+
+  @Test
+  @DisplayName("--all, --folder and a --name pattern select many instances")
+  void isBulk() {
+    UUID folderId = UUID.randomUUID();
+    assertTrue(BulkInstanceOperation.isBulk(true, null, null), "--all is bulk");
+    assertTrue(BulkInstanceOperation.isBulk(false, null, folderId), "--folder is bulk");
+    for (String pattern : List.of("nb-*", "nb-?", "nb-[12]", "nb-{a,b}")) {
+      assertTrue(BulkInstanceOperation.isBulk(false, pattern, null), pattern + " is bulk");
+    }
+    assertFalse(BulkInstanceOperation.isBulk(false, "nb-1", null), "plain name isn't bulk");
+    assertFalse(BulkInstanceOperation.isBulk(false, null, null), "nothing isn't bulk");
+  }
+
+  @Test
+  @DisplayName("a --name pattern selects instances by glob")
+  void globSelector() {
+    Predicate<Resource> selector = BulkInstanceOperation.getSelector(false, "nb-{a,b}*", null);
+
+    assertTrue(selector.test(instance("nb-a", null)), "first alternative matches");
+    assertTrue(selector.test(instance("nb-b2", null)), "second alternative matches");
+    assertFalse(selector.test(instance("nb-c", null)), "other name doesn't match");
+    assertFalse(selector.test(instance("my-nb-a", null)), "pattern matches the whole name");
+  }
+
+  @Test
+  @DisplayName("a folder includes all the folders under it, and no others")
+  void folderAndSubFolders() {
+    assertEquals(
+        Set.of(ROOT.getId(), CHILD.getId(), GRANDCHILD.getId()),
+        BulkInstanceOperation.getFolderAndSubFolderIds(ROOT.getId(), FOLDERS),
+        "root includes every level under it");
+    assertEquals(
+        Set.of(CHILD.getId(), GRANDCHILD.getId()),
+        BulkInstanceOperation.getFolderAndSubFolderIds(CHILD.getId(), FOLDERS),
+        "child excludes its parent");
+    assertEquals(
+        Set.of(SIBLING.getId()),
+        BulkInstanceOperation.getFolderAndSubFolderIds(SIBLING.getId(), FOLDERS),
+        "folder without sub-folders is only itself");
+    assertThrows(
+        UserActionableException.class,
+        () -> BulkInstanceOperation.getFolderAndSubFolderIds(UUID.randomUUID(), FOLDERS),
+        "unknown folder is rejected");
+  }
+
+  @Test
+  @DisplayName("--folder selects instances in the folder and its sub-folders")
+  void folderSelector() {
+    Workspace workspace = mock(Workspace.class);
+    when(workspace.listFolders()).thenReturn(FOLDERS);
+    try (MockedStatic<Context> context = mockStatic(Context.class)) {
+      context.when(Context::requireWorkspace).thenReturn(workspace);
+      Predicate<Resource> selector = BulkInstanceOperation.getSelector(false, null, CHILD.getId());
+
+      assertTrue(selector.test(instance("in-child", CHILD.getId())), "folder is selected");
+      assertTrue(
+          selector.test(instance("in-grandchild", GRANDCHILD.getId())), "sub-folder is selected");
+      assertFalse(selector.test(instance("in-root", ROOT.getId())), "parent isn't selected");
+      assertFalse(selector.test(instance("top-level", null)), "top level isn't selected");
+    }
+  }
+
+  @Test
+  @DisplayName("--no-wait and --parallelism are rejected for a single instance")
+  void bulkOnlyOptionsRejected() {
+    for (String option : List.of("--no-wait", "--parallelism=4")) {
+      BulkInstanceOperation bulkOption =
+          CommandLine.populateCommand(new BulkInstanceOperation(), option);
+      assertThrows(
+          UserActionableException.class, bulkOption::checkSingleInstance, option + " is rejected");
+    }
+    assertDoesNotThrow(
+        () -> CommandLine.populateCommand(new BulkInstanceOperation()).checkSingleInstance(),
+        "no bulk options is accepted");
+  }
+
+  private static Resource instance(String name, @Nullable UUID folderId) {
+    Resource instance = mock(Resource.class);
+    when(instance.getName()).thenReturn(name);
+    when(instance.getProperty(TERRA_FOLDER_ID_PROPERTY_KEY))
+        .thenReturn(folderId == null ? null : folderId.toString());
+    return instance;
+  }
+}
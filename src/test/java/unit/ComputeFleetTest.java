@@ -0,0 +1,232 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.cloud.compute.ComputeFleet;
+import bio.terra.cli.cloud.compute.ComputeFleet.Action;
+import bio.terra.cli.cloud.compute.ComputeFleet.OperationResult;
+import bio.terra.cli.cloud.compute.ComputeFleet.Outcome;
+import bio.terra.cli.cloud.compute.InstanceClient;
+import bio.terra.cli.exception.SystemException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for starting and stopping many instances at once with {@link ComputeFleet}. */
+@Tag("unit")
+public class ComputeFleetTest {
+  private final FakeClock clock = new FakeClock();
+
+  @Test
+  @DisplayName("instances already in the target state are skipped")
+  void skipsUnchangedInstances() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource running = client.addInstance("running", "RUNNING");
+    Resource stopped = client.addInstance("stopped", "STOPPED");
+
+    List<OperationResult> results = run(client, Action.START, true, running, stopped);
+
+    assertEquals(Outcome.UNCHANGED, results.get(0).outcome(), "running instance is unchanged");
+    assertEquals(Outcome.STARTED, results.get(1).outcome(), "stopped instance is started");
+    assertEquals(Set.of("stopped"), client.requested.keySet(), "only stopped instance requested");
+  }
+
+  @Test
+  @DisplayName("unfinished operations are polled until they finish")
+  void pollsUntilDone() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource fast = client.addInstance("fast", "RUNNING");
+    Resource slow = client.addInstance("slow", "RUNNING");
+    client.pollsUntilDone.put("fast", 1);
+    client.pollsUntilDone.put("slow", 4);
+
+    List<OperationResult> results = run(client, Action.STOP, true, fast, slow);
+
+    assertEquals(Outcome.STOPPED, results.get(0).outcome(), "fast instance is stopped");
+    assertEquals(Outcome.STOPPED, results.get(1).outcome(), "slow instance is stopped");
+    assertEquals(1, client.polls.get("fast").get(), "finished operation isn't polled again");
+    assertEquals(4, client.polls.get("slow").get(), "slow operation is polled until done");
+  }
+
+  @Test
+  @DisplayName("without wait, operations are requested and not polled")
+  void noWaitDoesNotPoll() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource instance = client.addInstance("instance", "STOPPED");
+
+    List<OperationResult> results = run(client, Action.START, false, instance);
+
+    assertEquals(Outcome.STARTING, results.get(0).outcome(), "instance is starting");
+    assertTrue(client.polls.isEmpty(), "operation isn't polled");
+  }
+
+  @Test
+  @DisplayName("operations that don't finish within the timeout fail")
+  void timesOut() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource stuck = client.addInstance("stuck", "STOPPED");
+    client.pollsUntilDone.put("stuck", Integer.MAX_VALUE);
+    client.clockStepPerPoll = Duration.ofMinutes(10);
+
+    List<OperationResult> results = run(client, Action.START, true, stuck);
+
+    assertEquals(Outcome.FAILED, results.get(0).outcome(), "stuck instance fails");
+    assertEquals(
+        "Not finished after " + ComputeFleet.OPERATION_TIMEOUT.toMinutes() + " minutes",
+        results.get(0).detail(),
+        "detail says the operation timed out");
+    assertEquals(5, client.polls.get("stuck").get(), "polled until the timeout passed");
+  }
+
+  @Test
+  @DisplayName("an instance that fails doesn't affect the others")
+  void isolatesErrors() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource badRequest = client.addInstance("bad-request", "STOPPED");
+    Resource badPoll = client.addInstance("bad-poll", "STOPPED");
+    Resource badState = client.addInstance("bad-state", "STOPPED");
+    Resource good = client.addInstance("good", "STOPPED");
+    client.failRequest.add("bad-request");
+    client.failPoll.add("bad-poll");
+    client.failState.add("bad-state");
+    client.pollsUntilDone.put("good", 2);
+
+    List<OperationResult> results =
+        run(client, Action.START, true, badRequest, badPoll, badState, good);
+
+    assertEquals(Outcome.FAILED, results.get(0).outcome(), "failed request is reported");
+    assertEquals("request failed", results.get(0).detail(), "request error is the detail");
+    assertEquals(Outcome.FAILED, results.get(1).outcome(), "failed operation is reported");
+    assertEquals("operation failed", results.get(1).detail(), "operation error is the detail");
+    assertEquals(Outcome.FAILED, results.get(2).outcome(), "failed state fetch is reported");
+    assertEquals(Outcome.STARTED, results.get(3).outcome(), "other instance is started");
+  }
+
+  @Test
+  @DisplayName("instances whose state is unavailable fail without being sent the operation")
+  void nullStateFailsWithoutRequest() {
+    FakeInstanceClient client = new FakeInstanceClient();
+    Resource unknown = client.addInstance("unknown", null);
+
+    List<OperationResult> results = run(client, Action.STOP, true, unknown);
+
+    assertEquals(Outcome.FAILED, results.get(0).outcome(), "instance fails");
+    assertTrue(client.requested.isEmpty(), "operation isn't requested");
+  }
+
+  private List<OperationResult> run(
+      FakeInstanceClient client, Action action, boolean wait, Resource... instances) {
+    client.clock = clock;
+    try (ComputeFleet fleet =
+        new ComputeFleet(
+            List.of(instances),
+            2,
+            Map.of(Resource.Type.AI_NOTEBOOK, client),
+            Duration.ZERO,
+            clock)) {
+      return fleet.run(action, wait);
+    }
+  }
+
+  /**
+   * Instances whose states are kept in memory. An operation moves an instance to its target state
+   * once it's been polled a set number of times, advancing the clock by a set step on each poll.
+   */
+  private static class FakeInstanceClient implements InstanceClient {
+    final Map<String, String> states = new HashMap<>();
+    final Map<String, Integer> pollsUntilDone = new HashMap<>();
+    final Set<String> failRequest = ConcurrentHashMap.newKeySet();
+    final Set<String> failPoll = ConcurrentHashMap.newKeySet();
+    final Set<String> failState = ConcurrentHashMap.newKeySet();
+    final Map<String, Action> requested = new ConcurrentHashMap<>();
+    final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    Duration clockStepPerPoll = Duration.ZERO;
+    FakeClock clock;
+
+    Resource addInstance(String name, @Nullable String state) {
+      Resource instance = mock(Resource.class);
+      when(instance.getName()).thenReturn(name);
+      when(instance.getResourceType()).thenReturn(Resource.Type.AI_NOTEBOOK);
+      states.put(name, state);
+      return instance;
+    }
+
+    @Override
+    @Nullable
+    public String fetchState(Resource instance) {
+      if (failState.contains(instance.getName())) {
+        throw new SystemException("state failed");
+      }
+      return states.get(instance.getName());
+    }
+
+    @Override
+    public boolean isRunning(@Nullable String state) {
+      return "RUNNING".equals(state);
+    }
+
+    @Override
+    public boolean isStopped(@Nullable String state) {
+      return "STOPPED".equals(state);
+    }
+
+    @Override
+    public PendingOperation request(Action action, Resource instance) {
+      String name = instance.getName();
+      if (failRequest.contains(name)) {
+        throw new SystemException("request failed");
+      }
+      requested.put(name, action);
+      AtomicInteger numPolls = polls.computeIfAbsent(name, n -> new AtomicInteger());
+      int numPollsUntilDone = pollsUntilDone.getOrDefault(name, 1);
+      return () -> {
+        clock.advance(clockStepPerPoll);
+        if (failPoll.contains(name)) {
+          throw new SystemException("operation failed");
+        }
+        return numPolls.incrementAndGet() >= numPollsUntilDone;
+      };
+    }
+  }
+
+  /** Clock that only moves when it's told to. */
+  private static class FakeClock extends Clock {
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.EPOCH);
+
+    void advance(Duration duration) {
+      now.updateAndGet(instant -> instant.plus(duration));
+    }
+
+    @Override
+    public Instant instant() {
+      return now.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
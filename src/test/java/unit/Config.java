@@ -219,6 +219,20 @@ public class Config extends SingleWorkspaceUnit {
     assertEquals(
         imageId, getTableFormatValue(configItemList, "image"), "list reflects set for image");
 
+    // `terra config set app-container-ttl 30`
+    TestCommand.runCommandExpectSuccess("config", "set", "app-container-ttl", "30");
+    // `terra config get app-container-ttl`
+    int appContainerTtl =
+        TestCommand.runAndParseCommandExpectSuccess(
+            Integer.class, "config", "get", "app-container-ttl");
+    assertEquals(30, appContainerTtl, "get reflects set for app-container-ttl");
+    // `terra config list`
+    configItemList = TestCommand.runAndParseCommandExpectSuccess(ArrayList.class, "config", "list");
+    assertEquals(
+        "30",
+        getTableFormatValue(configItemList, "app-container-ttl"),
+        "list reflects set for app-container-ttl");
+
     // `terra config set resource-limit --max=3`
     TestCommand.runCommandExpectSuccess("config", "set", "resource-limit", "--max=3");
     // `terra config get resource-limit`
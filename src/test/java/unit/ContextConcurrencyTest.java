@@ -0,0 +1,85 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.VersionCheck;
+import harness.TestContext;
+import harness.TestProcess;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for writing the context file while another CLI process changes it. The other process is a
+ * separate JVM that shares this one's context directory.
+ */
+@Tag("unit")
+public class ContextConcurrencyTest {
+  private static final int OTHER_PROCESS_CACHE_SIZE = 123;
+
+  @BeforeEach
+  void clearContext() throws IOException {
+    TestContext.clearGlobalContextDir();
+  }
+
+  @Test
+  @DisplayName("writing the context keeps another process's change to a different part")
+  void keepsOtherProcessChange() throws Exception {
+    // this process reads the context, then another process changes the config before this one
+    // writes its own change
+    Context.initializeFromDisk();
+    Context.beginDeferredWrites();
+    try {
+      changeCacheSizeInOtherProcess(OTHER_PROCESS_CACHE_SIZE);
+      Context.setVersionCheck(new VersionCheck(OffsetDateTime.now()));
+    } finally {
+      Context.endDeferredWrites();
+    }
+
+    Context.initializeFromDisk();
+    assertEquals(
+        OTHER_PROCESS_CACHE_SIZE,
+        Context.getConfig().getResourcesCacheSize(),
+        "other process's config change is kept");
+    assertTrue(Context.getVersionCheck().isPresent(), "this process's change is written");
+  }
+
+  @Test
+  @DisplayName("writing the context replaces another process's change to the same part")
+  void lastWriteWinsForSamePart() throws Exception {
+    Context.initializeFromDisk();
+    Context.beginDeferredWrites();
+    try {
+      changeCacheSizeInOtherProcess(OTHER_PROCESS_CACHE_SIZE);
+      Context.getConfig().setResourcesCacheSize(OTHER_PROCESS_CACHE_SIZE + 1);
+    } finally {
+      Context.endDeferredWrites();
+    }
+
+    Context.initializeFromDisk();
+    assertEquals(
+        OTHER_PROCESS_CACHE_SIZE + 1,
+        Context.getConfig().getResourcesCacheSize(),
+        "last write to the config wins");
+  }
+
+  /** Run {@link OtherProcess} in a new JVM, and wait for it to finish. */
+  private static void changeCacheSizeInOtherProcess(int resourcesCacheSize)
+      throws IOException, InterruptedException {
+    TestProcess.runExpectSuccess(OtherProcess.class, Map.of(), String.valueOf(resourcesCacheSize));
+  }
+
+  /** Another CLI process, which changes the resources cache size in the context. */
+  public static class OtherProcess {
+    public static void main(String... args) {
+      Context.initializeFromDisk();
+      Context.getConfig().setResourcesCacheSize(Integer.parseInt(args[0]));
+    }
+  }
+}
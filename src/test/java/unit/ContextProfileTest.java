@@ -0,0 +1,161 @@
+package unit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.exception.UserActionableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import harness.TestCommand;
+import harness.TestContext;
+import harness.TestProcess;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for named profiles, selected with the --profile option or the TERRA_PROFILE env var. */
+@Tag("unit")
+public class ContextProfileTest {
+  private static final String PROFILE = "dev";
+
+  @BeforeEach
+  void clearContext() throws IOException {
+    TestContext.clearGlobalContextDir();
+    Context.setProfileOverride(null);
+    Context.initializeFromDisk();
+  }
+
+  @AfterEach
+  void resetProfile() {
+    Context.setProfileOverride(null);
+    Context.initializeFromDisk();
+  }
+
+  @Test
+  @DisplayName("a profile has its own context and log files")
+  void separateFiles() {
+    Path defaultContextFile = Context.getContextFile();
+    Path defaultLogFile = Context.getLogFile();
+
+    Context.setProfileOverride(PROFILE);
+    Path profileDir = Context.getContextDir().resolve("profiles").resolve(PROFILE);
+    assertEquals(profileDir, Context.getProfileDir(), "profile directory");
+    assertEquals(profileDir.resolve("context.json"), Context.getContextFile(), "context file");
+    assertTrue(Context.getLogFile().startsWith(profileDir), "log file is in the profile directory");
+    assertNotEquals(defaultContextFile, Context.getContextFile(), "context file is separate");
+    assertNotEquals(defaultLogFile, Context.getLogFile(), "log file is separate");
+  }
+
+  @Test
+  @DisplayName("changes made with --profile don't affect the default profile")
+  void profileOptionKeepsChangesSeparate() throws JsonProcessingException {
+    TestCommand.runCommandExpectSuccess("config", "set", "resource-limit", "--max=10");
+    TestCommand.runCommandExpectSuccess(
+        "--profile=" + PROFILE, "config", "set", "resource-limit", "--max=20");
+
+    assertEquals(10, getResourceLimit(), "default profile keeps its value");
+    assertEquals(20, getResourceLimit("--profile=" + PROFILE), "profile has its own value");
+    assertTrue(
+        Context.getContextDir()
+            .resolve("profiles")
+            .resolve(PROFILE)
+            .resolve("context.json")
+            .toFile()
+            .exists(),
+        "profile context file is written");
+  }
+
+  @Test
+  @DisplayName("a new profile is seeded from the default profile")
+  void newProfileSeededFromDefault() throws JsonProcessingException {
+    TestCommand.runCommandExpectSuccess("config", "set", "resource-limit", "--max=30");
+
+    assertEquals(30, getResourceLimit("--profile=" + PROFILE), "new profile copies the config");
+
+    // once the profile exists, it doesn't follow the default profile
+    TestCommand.runCommandExpectSuccess(
+        "--profile=" + PROFILE, "config", "set", "resource-limit", "--max=40");
+    TestCommand.runCommandExpectSuccess("config", "set", "resource-limit", "--max=50");
+    assertEquals(40, getResourceLimit("--profile=" + PROFILE), "existing profile is unchanged");
+  }
+
+  @Test
+  @DisplayName("invalid profile names are rejected")
+  void invalidNamesRejected() {
+    for (String name : List.of("../escape", "a/b", "with space", "-dash-first", "dot.name")) {
+      Context.setProfileOverride(name);
+      assertThrows(UserActionableException.class, Context::getProfile, name + " is rejected");
+    }
+    Context.setProfileOverride(null);
+
+    String stdErr =
+        TestCommand.runCommandExpectExitCode(
+            1, "--profile=../escape", "config", "get", "resource-limit");
+    assertThat(stdErr, containsString("Invalid profile name"));
+    assertFalse(
+        Context.getContextDir().resolve("escape").toFile().exists(),
+        "nothing is written outside the context directory");
+  }
+
+  @Test
+  @DisplayName("TERRA_PROFILE selects a profile, and --profile overrides it")
+  void envVarSelectsProfile() throws Exception {
+    runInOtherProcess("from-env", null, 60);
+    runInOtherProcess("from-env", "from-option", 70);
+
+    assertEquals(60, getResourceLimit("--profile=from-env"), "env var selects the profile");
+    assertEquals(70, getResourceLimit("--profile=from-option"), "option overrides the env var");
+    assertNotEquals(60, getResourceLimit(), "default profile is unchanged");
+  }
+
+  /** Run `terra config get resource-limit` with the given top-level options. */
+  private static int getResourceLimit(String... topLevelOptions) throws JsonProcessingException {
+    List<String> args = new ArrayList<>(List.of(topLevelOptions));
+    args.addAll(List.of("config", "get", "resource-limit"));
+    return TestCommand.runAndParseCommandExpectSuccess(Integer.class, args.toArray(new String[0]));
+  }
+
+  /**
+   * Run {@link OtherProcess} in a new JVM with the TERRA_PROFILE env var set, and wait for it to
+   * finish.
+   */
+  private static void runInOtherProcess(
+      String envProfile, @Nullable String optionProfile, int resourcesCacheSize)
+      throws IOException, InterruptedException {
+    List<String> args = new ArrayList<>(List.of(String.valueOf(resourcesCacheSize)));
+    if (optionProfile != null) {
+      args.add(optionProfile);
+    }
+    TestProcess.runExpectSuccess(
+        OtherProcess.class,
+        Map.of(Context.PROFILE_ENV_VAR_NAME, envProfile),
+        args.toArray(new String[0]));
+  }
+
+  /**
+   * Another CLI process, which changes the resources cache size in the context of the profile
+   * selected by the env var, or by the optional second argument.
+   */
+  public static class OtherProcess {
+    public static void main(String... args) {
+      if (args.length > 1) {
+        Context.setProfileOverride(args[1]);
+      }
+      Context.initializeFromDisk();
+      Context.getConfig().setResourcesCacheSize(Integer.parseInt(args[0]));
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mockStatic;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.CredentialsCache;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+/** Tests for caching the credentials returned by `terra resource credentials`. */
+@Tag("unit")
+public class CredentialsCacheTest {
+  @TempDir Path contextDir;
+  private MockedStatic<Context> context;
+
+  @BeforeEach
+  void mockContextDir() {
+    context = mockStatic(Context.class);
+    context.when(Context::getContextDir).thenReturn(contextDir);
+  }
+
+  @AfterEach
+  void closeMock() {
+    context.close();
+  }
+
+  @Test
+  @DisplayName("credentials are fetched once and then read from the cache")
+  void cachesUntilExpiry() throws IOException {
+    AtomicInteger numFetches = new AtomicInteger();
+    Map<String, String> credentials = credentialsExpiringIn(Duration.ofHours(1));
+    for (int i = 0; i < 3; i++) {
+      CredentialsCache.getOrFetch(
+          "key",
+          () -> {
+            numFetches.incrementAndGet();
+            return credentials;
+          });
+    }
+
+    assertEquals(1, numFetches.get(), "credentials are only fetched once");
+    assertEquals(
+        credentials.get("SecretAccessKey"),
+        CredentialsCache.get("key").orElseThrow().get("SecretAccessKey").asText(),
+        "cached credentials are returned");
+    assertTrue(CredentialsCache.get("other key").isEmpty(), "other keys are not cached");
+    try (Stream<Path> cacheFiles = Files.list(contextDir.resolve("credentials-cache"))) {
+      for (Path cacheFile : cacheFiles.toList()) {
+        assertFalse(
+            Files.readString(cacheFile, StandardCharsets.ISO_8859_1)
+                .contains(credentials.get("SecretAccessKey")),
+            "credentials are encrypted at rest: " + cacheFile);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("credentials that are about to expire, or have no expiration, are not returned")
+  void refetchesNearExpiry() {
+    CredentialsCache.getOrFetch(
+        "expiring", () -> credentialsExpiringIn(CredentialsCache.EXPIRY_MARGIN.minusSeconds(1)));
+    CredentialsCache.getOrFetch("no expiration", () -> Map.of("AccessKeyId", "id"));
+
+    assertTrue(CredentialsCache.get("expiring").isEmpty(), "expiring credentials are a miss");
+    assertTrue(
+        CredentialsCache.get("no expiration").isEmpty(), "credentials without expiry are a miss");
+  }
+
+  @Test
+  @DisplayName("an alias returns the entry it was last recorded for")
+  void aliasFollowsLatestEntry() {
+    assertTrue(CredentialsCache.getByAlias("name").isEmpty(), "unrecorded alias is a miss");
+
+    CredentialsCache.getOrFetch("old id", () -> credentialsExpiringIn(Duration.ofHours(1)));
+    CredentialsCache.putAlias("name", "old id");
+    assertEquals(
+        CredentialsCache.get("old id").orElseThrow(),
+        CredentialsCache.getByAlias("name").orElseThrow(),
+        "alias returns the entry it refers to");
+
+    // e.g. the resource was replaced by another with the same name
+    CredentialsCache.getOrFetch("new id", () -> credentialsExpiringIn(Duration.ofHours(2)));
+    CredentialsCache.putAlias("name", "new id");
+    assertEquals(
+        CredentialsCache.get("new id").orElseThrow(),
+        CredentialsCache.getByAlias("name").orElseThrow(),
+        "alias returns the entry it was last recorded for");
+  }
+
+  @Test
+  @DisplayName("clearing the cache removes all entries")
+  void clearRemovesEntries() {
+    CredentialsCache.getOrFetch("key", () -> credentialsExpiringIn(Duration.ofHours(1)));
+    CredentialsCache.clear();
+
+    assertTrue(CredentialsCache.get("key").isEmpty(), "cleared credentials are a miss");
+    assertFalse(Files.exists(contextDir.resolve("credentials-cache")), "cache dir is deleted");
+  }
+
+  private static Map<String, String> credentialsExpiringIn(Duration duration) {
+    return Map.of(
+        "Version", "1",
+        "AccessKeyId", "id",
+        "SecretAccessKey", "secret-" + duration,
+        "Expiration", Instant.now().plus(duration).toString());
+  }
+}
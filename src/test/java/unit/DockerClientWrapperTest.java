@@ -0,0 +1,226 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.cli.app.utils.DockerClientWrapper;
+import bio.terra.cli.utils.UserIO;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmd;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for finding and starting reusable containers in {@link DockerClientWrapper}, and for
+ * writing their output to the CLI streams.
+ */
+@Tag("unit")
+public class DockerClientWrapperTest {
+  private static final String CONTAINER_NAME = "terra-app-0123456789abcdef";
+  private static final String CONTAINER_ID = "container-id";
+  private static final String IMAGE_ID = "image-id";
+  private static final String EXEC_ID = "exec-id";
+  // not valid UTF-8, so that any decoding and re-encoding would change them
+  private static final byte[] STDOUT_BYTES = {(byte) 0xff, (byte) 0xfe, 0x00, 'o', (byte) 0x80};
+  private static final byte[] RAW_BYTES = {(byte) 0xc3, 0x28, '\n', (byte) 0xa0};
+  private static final byte[] STDERR_BYTES = {(byte) 0xe2, (byte) 0x82, 'e', (byte) 0xfd};
+
+  @Test
+  @DisplayName("concurrent first use waits for the container that the other caller is starting")
+  void concurrentFirstUseWaitsForCreatedContainer() throws Exception {
+    DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+    InspectContainerResponse created = inspectResponse("created");
+    InspectContainerResponse running = inspectResponse("running");
+    AtomicBoolean started = new AtomicBoolean();
+    CountDownLatch inspectedWhileCreated = new CountDownLatch(1);
+    when(dockerClient.inspectContainerCmd(CONTAINER_NAME).exec())
+        .thenAnswer(
+            invocation -> {
+              if (started.get()) {
+                return running;
+              }
+              inspectedWhileCreated.countDown();
+              return created;
+            });
+
+    // the first caller creates the container, and only starts it once the second caller has
+    // seen it in the created state
+    CreateContainerCmd createContainerCmd = mock(CreateContainerCmd.class, RETURNS_SELF);
+    CreateContainerResponse createResponse = mock(CreateContainerResponse.class);
+    when(createResponse.getId()).thenReturn(CONTAINER_ID);
+    when(createContainerCmd.exec()).thenReturn(createResponse);
+    when(dockerClient.createContainerCmd(IMAGE_ID)).thenReturn(createContainerCmd);
+    when(dockerClient.startContainerCmd(CONTAINER_ID).exec())
+        .thenAnswer(
+            invocation -> {
+              assertTrue(
+                  inspectedWhileCreated.await(10, TimeUnit.SECONDS),
+                  "second caller inspected the container before it started");
+              started.set(true);
+              return null;
+            });
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> firstCaller =
+          executor.submit(
+              () ->
+                  new DockerClientWrapper(dockerClient)
+                      .startReusableContainer(
+                          IMAGE_ID, CONTAINER_NAME, Map.of(), "sleep 60", Map.of(), Map.of()));
+      boolean secondCallerFoundContainer =
+          new DockerClientWrapper(dockerClient).useRunningContainer(CONTAINER_NAME);
+
+      assertTrue(firstCaller.get(30, TimeUnit.SECONDS), "first caller started a new container");
+      assertTrue(secondCallerFoundContainer, "second caller uses the same container");
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(dockerClient, never()).removeContainerCmd(anyString());
+  }
+
+  @Test
+  @DisplayName("an exited container is deleted so that a new one can take its name")
+  void exitedContainerIsDeleted() {
+    DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+    InspectContainerResponse exited = inspectResponse("exited");
+    when(dockerClient.inspectContainerCmd(CONTAINER_NAME).exec()).thenReturn(exited);
+
+    assertFalse(
+        new DockerClientWrapper(dockerClient).useRunningContainer(CONTAINER_NAME),
+        "exited container is not used");
+    verify(dockerClient).removeContainerCmd(CONTAINER_ID);
+  }
+
+  @Test
+  @DisplayName("a missing container is not used")
+  void missingContainerIsNotUsed() {
+    DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+    when(dockerClient.inspectContainerCmd(CONTAINER_NAME).exec())
+        .thenThrow(new NotFoundException("No such container"));
+
+    assertFalse(
+        new DockerClientWrapper(dockerClient).useRunningContainer(CONTAINER_NAME),
+        "missing container is not used");
+    verify(dockerClient, never()).removeContainerCmd(anyString());
+  }
+
+  @Test
+  @DisplayName("container output is written to its own stream, byte for byte")
+  void outputIsDemultiplexedUnchanged() {
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+    UserIO.initialize(new PrintStream(stdOut), new PrintStream(stdErr), null);
+    DockerClient dockerClient =
+        mockExec(
+            callback -> {
+              callback.onNext(new Frame(StreamType.STDOUT, STDOUT_BYTES));
+              callback.onNext(new Frame(StreamType.STDERR, STDERR_BYTES));
+              callback.onNext(new Frame(StreamType.RAW, RAW_BYTES));
+              // standard out is buffered until the output ends, standard err isn't
+              assertEquals(0, stdOut.size(), "standard out is buffered");
+              assertArrayEquals(STDERR_BYTES, stdErr.toByteArray(), "standard err is written");
+              callback.onComplete();
+            });
+
+    Long exitCode =
+        new DockerClientWrapper(dockerClient).execInContainer("cmd", "/", Map.of(), null);
+
+    assertEquals(0L, exitCode, "exit code of the command");
+    assertArrayEquals(
+        concat(STDOUT_BYTES, RAW_BYTES), stdOut.toByteArray(), "standard out is flushed");
+    assertArrayEquals(STDERR_BYTES, stdErr.toByteArray(), "standard err is unchanged");
+  }
+
+  @Test
+  @DisplayName("buffered standard out is flushed when the output fails")
+  void outputIsFlushedOnError() {
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    UserIO.initialize(new PrintStream(stdOut), new PrintStream(new ByteArrayOutputStream()), null);
+    DockerClient dockerClient =
+        mockExec(
+            callback -> {
+              callback.onNext(new Frame(StreamType.STDOUT, STDOUT_BYTES));
+              callback.onError(new IllegalStateException("connection closed"));
+            });
+
+    assertThrows(
+        RuntimeException.class,
+        () -> new DockerClientWrapper(dockerClient).execInContainer("cmd", "/", Map.of(), null),
+        "output error is thrown");
+    assertArrayEquals(STDOUT_BYTES, stdOut.toByteArray(), "standard out is flushed");
+  }
+
+  /**
+   * Build a Docker client that runs a command in the container by passing its output callback to
+   * the given function.
+   */
+  private static DockerClient mockExec(Consumer<ResultCallback<Frame>> output) {
+    DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+    ExecCreateCmd execCreateCmd = mock(ExecCreateCmd.class, RETURNS_SELF);
+    ExecCreateCmdResponse execCreateResponse = mock(ExecCreateCmdResponse.class);
+    when(execCreateResponse.getId()).thenReturn(EXEC_ID);
+    when(execCreateCmd.exec()).thenReturn(execCreateResponse);
+    when(dockerClient.execCreateCmd(any())).thenReturn(execCreateCmd);
+
+    ExecStartCmd execStartCmd = mock(ExecStartCmd.class, RETURNS_SELF);
+    when(execStartCmd.exec(any()))
+        .thenAnswer(
+            invocation -> {
+              ResultCallback<Frame> callback = invocation.getArgument(0);
+              output.accept(callback);
+              return callback;
+            });
+    when(dockerClient.execStartCmd(EXEC_ID)).thenReturn(execStartCmd);
+    when(dockerClient.inspectExecCmd(EXEC_ID).exec().getExitCodeLong()).thenReturn(0L);
+    return dockerClient;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.writeBytes(first);
+    bytes.writeBytes(second);
+    return bytes.toByteArray();
+  }
+
+  /** Build a response to inspecting the container, with the given status. */
+  private static InspectContainerResponse inspectResponse(String status) {
+    InspectContainerResponse response = mock(InspectContainerResponse.class, RETURNS_DEEP_STUBS);
+    when(response.getId()).thenReturn(CONTAINER_ID);
+    when(response.getState().getRunning()).thenReturn(status.equals("running"));
+    when(response.getState().getStatus()).thenReturn(status);
+    when(response.getConfig().getImage()).thenReturn(IMAGE_ID);
+    return response;
+  }
+}
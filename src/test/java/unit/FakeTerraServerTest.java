@@ -0,0 +1,84 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.serialization.userfacing.UFResource;
+import com.fasterxml.jackson.core.type.TypeReference;
+import harness.TestCommand;
+import harness.TestContext;
+import harness.fakeserver.FakeTerraServer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for running commands against the in-process {@link FakeTerraServer}. These don't talk to
+ * any real Terra services, so they don't need a test user or a spend profile.
+ */
+@Tag("unit")
+public class FakeTerraServerTest {
+  private static final String USER_EMAIL = "fake.user@example.com";
+
+  @TempDir Path tempDir;
+  private FakeTerraServer fakeServer;
+
+  @BeforeEach
+  void startFakeServer() throws IOException {
+    fakeServer = FakeTerraServer.start();
+    TestContext.clearGlobalContextDir();
+    Path serverFile = fakeServer.writeServerFile(tempDir);
+    TestCommand.runCommandExpectSuccess("server", "set", "--name=" + serverFile, "--quiet");
+    fakeServer.login(USER_EMAIL);
+  }
+
+  @AfterEach
+  void stopFakeServer() throws IOException {
+    fakeServer.close();
+    TestContext.clearGlobalContextDir();
+  }
+
+  @Test
+  @DisplayName("resource list pages through all resources in the workspace")
+  void listPagesThroughResources() throws IOException {
+    UUID workspaceId = fakeServer.getWorkspaceManager().addWorkspace("fake-workspace", USER_EMAIL);
+    fakeServer.getWorkspaceManager().addGitRepos(workspaceId, 250, USER_EMAIL);
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=fake-workspace");
+
+    // `terra resource list --format=json`
+    fakeServer.resetRequestCounts();
+    List<UFResource> resources =
+        TestCommand.runAndParseCommandExpectSuccess(new TypeReference<>() {}, "resource", "list");
+
+    assertEquals(250, resources.size(), "all resources are listed");
+    assertEquals("repo-249", resources.get(249).name, "resources are listed in order");
+    assertEquals(
+        3,
+        fakeServer.getRequestCount("enumerateResources"),
+        "resources are fetched in pages of 100");
+  }
+
+  @Test
+  @DisplayName("resource list retries a failed page")
+  void listRetriesFailedPage() throws IOException {
+    UUID workspaceId = fakeServer.getWorkspaceManager().addWorkspace("fake-workspace", USER_EMAIL);
+    fakeServer.getWorkspaceManager().addGitRepos(workspaceId, 10, USER_EMAIL);
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=fake-workspace");
+
+    // `terra resource list --format=json`
+    fakeServer.resetRequestCounts();
+    fakeServer.failNextRequests("enumerateResources", 503, 1);
+    List<UFResource> resources =
+        TestCommand.runAndParseCommandExpectSuccess(new TypeReference<>() {}, "resource", "list");
+
+    assertEquals(10, resources.size(), "all resources are listed");
+    assertEquals(
+        2, fakeServer.getRequestCount("enumerateResources"), "failed request is retried once");
+  }
+}
@@ -0,0 +1,78 @@
+package unit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.utils.FileUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the atomic write and file locking helpers in {@link FileUtils}. */
+@Tag("unit")
+public class FileUtilsTest {
+  @TempDir Path tempDir;
+
+  @Test
+  @DisplayName("atomic write replaces the file contents and leaves no temporary files behind")
+  void atomicWriteReplacesContents() throws IOException {
+    Path target = tempDir.resolve("sub").resolve("context.json");
+    FileUtils.writeBytesToFileAtomically(target, "first".getBytes(StandardCharsets.UTF_8));
+    FileUtils.writeBytesToFileAtomically(target, "second".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("second", Files.readString(target), "file contains the latest contents");
+    try (Stream<Path> siblings = Files.list(target.getParent())) {
+      assertThat(
+          "no temporary files are left behind",
+          siblings.filter(path -> !path.equals(target)).collect(Collectors.toList()),
+          empty());
+    }
+  }
+
+  @Test
+  @DisplayName("file lock serializes concurrent actions")
+  void fileLockSerializesActions() throws Exception {
+    Path lockFile = tempDir.resolve("test.lock");
+    AtomicInteger activeHolders = new AtomicInteger();
+    AtomicInteger maxActiveHolders = new AtomicInteger();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> futures =
+          IntStream.range(0, 20)
+              .mapToObj(
+                  i ->
+                      executor.submit(
+                          () ->
+                              FileUtils.runWithFileLock(
+                                  lockFile,
+                                  () -> {
+                                    int active = activeHolders.incrementAndGet();
+                                    maxActiveHolders.accumulateAndGet(active, Math::max);
+                                    activeHolders.decrementAndGet();
+                                    return i;
+                                  })))
+              .collect(Collectors.toList());
+      for (int i = 0; i < futures.size(); i++) {
+        assertEquals(i, futures.get(i).get(), "action return value is passed through");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, maxActiveHolders.get(), "only one action holds the lock at a time");
+  }
+}
@@ -283,15 +283,31 @@ public class GcpPassthroughApps extends SingleWorkspaceUnitGcp {
         "--repo-url=https://github.com/DataBiosphere/terra-example-notebooks.git");
     String resource2Name = createAGitRepoReferenceByCallingWsmEndpoint();
 
-    // `terra git clone --all`
-    TestCommand.runCommandExpectSuccess("git", "clone", "--all");
+    // `terra git clone --all --clone-depth=1`
+    TestCommand.Result cmd =
+        TestCommand.runCommandExpectSuccess("git", "clone", "--all", "--clone-depth=1");
 
     assertTrue(Files.exists(Paths.get(System.getProperty("user.dir"), resource1Name, ".git")));
     assertTrue(Files.exists(Paths.get(System.getProperty("user.dir"), resource2Name, ".git")));
+    assertThat(
+        "status table lists cloned repos", cmd.stdOut, CoreMatchers.containsString("CLONED"));
+
+    // `terra git clone --all` again skips the repos that are already cloned
+    cmd = TestCommand.runCommandExpectSuccess("git", "clone", "--all");
+    assertThat(
+        "status table lists skipped repos", cmd.stdOut, CoreMatchers.containsString("SKIPPED"));
     FileUtils.deleteQuietly(new File(System.getProperty("user.dir") + "/" + resource1Name));
     FileUtils.deleteQuietly(new File(System.getProperty("user.dir") + "/" + resource2Name));
     TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource1Name, "--quiet");
     TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource2Name, "--quiet");
+
+    // `terra git status --clone-parallelism=2` rejects the clone-only option
+    String stdErr =
+        TestCommand.runCommandExpectExitCode(1, "git", "status", "--clone-parallelism=2");
+    assertThat(
+        "clone options are rejected for other git commands",
+        stdErr,
+        CoreMatchers.containsString("only apply to cloning"));
   }
 
   @Test
@@ -458,7 +474,8 @@ public class GcpPassthroughApps extends SingleWorkspaceUnitGcp {
         CoreMatchers.containsString(workspace2.googleProjectId));
 
     String gitResourceName = createAGitRepoReferenceByCallingWsmEndpoint();
-    TestCommand.Result gitCommand = TestCommand.runCommand("app", "execute", "env");
+    TestCommand.Result gitCommand =
+        TestCommand.runCommand("app", "execute", "--all-references", "env");
 
     assertThat(
         gitCommand.stdOut,
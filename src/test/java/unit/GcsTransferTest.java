@@ -0,0 +1,369 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import bio.terra.cli.cloud.gcp.GcsTransfer;
+import bio.terra.cli.cloud.storage.Checksums;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.RestorableState;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.CopyWriter;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import harness.TestContext;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for resuming and verifying transfers with {@link GcsTransfer}, against a fake GCS. */
+@Tag("unit")
+public class GcsTransferTest {
+  private static final BlobId OBJECT = BlobId.of("my-bucket", "dir/file.bin");
+  // large enough to be transferred in parts
+  private static final long SIZE = GcsTransfer.PARALLEL_THRESHOLD_BYTES;
+  // size of each part of a file of SIZE bytes
+  private static final long PART_SIZE = 32L * 1024 * 1024;
+
+  @TempDir Path tempDir;
+
+  private FakeGcs fakeGcs;
+  private ExecutorService partExecutor;
+  private GcsTransfer gcsTransfer;
+
+  @BeforeEach
+  void setup() throws IOException {
+    // uploads keep their journals in the context directory
+    TestContext.clearGlobalContextDir();
+    fakeGcs = new FakeGcs();
+    // transfer one part at a time, so that the order of requests is predictable
+    partExecutor = Executors.newSingleThreadExecutor();
+    gcsTransfer = new GcsTransfer(fakeGcs.storage, partExecutor);
+  }
+
+  @AfterEach
+  void cleanup() {
+    partExecutor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("an interrupted composite upload resumes without uploading the finished parts again")
+  void compositeUploadResumes() throws IOException {
+    Path file = createFile();
+    fakeGcs.failingPartIndex = 2;
+    assertThrows(
+        SystemException.class, () -> gcsTransfer.upload(file, OBJECT), "first attempt fails");
+    assertTrue(
+        fakeGcs.uploadedParts.containsAll(List.of(0, 1)), "parts before the failure are uploaded");
+
+    fakeGcs.failingPartIndex = -1;
+    fakeGcs.uploadedParts.clear();
+    assertEquals(SIZE, gcsTransfer.upload(file, OBJECT), "second attempt uploads the file");
+    assertFalse(fakeGcs.uploadedParts.contains(0), "finished part is not uploaded again");
+    assertFalse(fakeGcs.uploadedParts.contains(1), "finished part is not uploaded again");
+    assertTrue(fakeGcs.uploadedParts.contains(2), "failed part is uploaded");
+    assertEquals(List.of(0, 1, 2, 3, 4), fakeGcs.composedParts, "all parts are composed, in order");
+    assertTrue(fakeGcs.parts.isEmpty(), "parts are deleted once they're composed");
+    assertEquals(
+        Set.of(OBJECT.getName()),
+        fakeGcs.objects.keySet(),
+        "composed object is copied to the destination and deleted");
+  }
+
+  @Test
+  @DisplayName("a composite upload whose checksum doesn't match leaves the destination unchanged")
+  void composeChecksumMismatch() throws IOException {
+    Path file = createFile();
+    fakeGcs.objects.put(OBJECT.getName(), "previous-checksum");
+    fakeGcs.corruptCompose = true;
+    assertThrows(
+        SystemException.class, () -> gcsTransfer.upload(file, OBJECT), "checksum mismatch fails");
+    assertEquals(
+        Map.of(OBJECT.getName(), "previous-checksum"),
+        fakeGcs.objects,
+        "destination is unchanged, and the composed object is deleted");
+    assertTrue(fakeGcs.parts.isEmpty(), "parts are deleted");
+  }
+
+  @Test
+  @DisplayName("a composite upload starts again if its uploaded parts were deleted")
+  void composeMissingPartRestarts() throws IOException {
+    Path file = createFile();
+    // e.g. a lifecycle rule deletes a part between the upload and the compose
+    fakeGcs.deletePartBeforeCompose = true;
+    assertThrows(
+        UserActionableException.class,
+        () -> gcsTransfer.upload(file, OBJECT),
+        "missing part fails the compose");
+
+    fakeGcs.deletePartBeforeCompose = false;
+    fakeGcs.uploadedParts.clear();
+    assertEquals(SIZE, gcsTransfer.upload(file, OBJECT), "second attempt uploads the file");
+    assertEquals(
+        List.of(0, 1, 2, 3, 4),
+        fakeGcs.uploadedParts.stream().sorted().toList(),
+        "all parts are uploaded again");
+  }
+
+  @Test
+  @DisplayName("an interrupted download resumes without downloading the finished ranges again")
+  void rangedDownloadResumes() throws IOException {
+    Path destination = tempDir.resolve("file.bin");
+    fakeGcs.failingPartIndex = 2;
+    assertThrows(
+        SystemException.class,
+        () -> gcsTransfer.download(OBJECT, destination),
+        "first attempt fails");
+    assertFalse(Files.exists(destination), "partial download is not moved into place");
+
+    fakeGcs.failingPartIndex = -1;
+    fakeGcs.readOffsets.clear();
+    assertEquals(SIZE, gcsTransfer.download(OBJECT, destination), "second attempt downloads");
+    assertFalse(fakeGcs.readOffsets.contains(0L), "finished range is not downloaded again");
+    assertFalse(fakeGcs.readOffsets.contains(PART_SIZE), "finished range is not downloaded again");
+    assertTrue(fakeGcs.readOffsets.contains(2 * PART_SIZE), "failed range is downloaded");
+    assertEquals(
+        FakeGcs.OBJECT_CHECKSUM,
+        Checksums.toBase64(Checksums.crc32c(destination)),
+        "downloaded file matches the object");
+  }
+
+  /** Create a sparse local file of SIZE bytes, with some data in it. */
+  private Path createFile() throws IOException {
+    Path file = tempDir.resolve("upload.bin");
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+      randomAccessFile.setLength(SIZE);
+      randomAccessFile.write("first part".getBytes(StandardCharsets.UTF_8));
+      randomAccessFile.seek(3 * PART_SIZE);
+      randomAccessFile.write("fourth part".getBytes(StandardCharsets.UTF_8));
+    }
+    return file;
+  }
+
+  /**
+   * Fake of the GCS requests that {@link GcsTransfer} makes. Uploaded parts are checked against
+   * their checksums, and then only their checksums are kept. A composed object reports the
+   * checksum that the compose request asked for, since the data of its parts isn't kept, and a
+   * copy keeps the checksum of its source.
+   *
+   * <p>{@link #OBJECT} can be downloaded, and its contents are computed from the offset.
+   */
+  private static class FakeGcs {
+    static final String OBJECT_CHECKSUM = computeObjectChecksum();
+
+    final Storage storage = mock(Storage.class);
+    // checksum of each uploaded part, by name
+    final Map<String, String> parts = new HashMap<>();
+    // checksum of each composed or copied object, by name
+    final Map<String, String> objects = new HashMap<>();
+    // index of each part that was uploaded, in the order they finished
+    final List<Integer> uploadedParts = new ArrayList<>();
+    // index of each part that was composed, in order
+    final List<Integer> composedParts = new ArrayList<>();
+    // offset of each range that was read
+    final Set<Long> readOffsets = new HashSet<>();
+    // uploading or reading this part fails, or -1 for none
+    volatile int failingPartIndex = -1;
+    volatile boolean deletePartBeforeCompose;
+    // composed objects get a checksum that doesn't match the one asked for
+    volatile boolean corruptCompose;
+
+    FakeGcs() {
+      Blob blob = mock(Blob.class);
+      when(blob.getSize()).thenReturn(SIZE);
+      when(blob.getGeneration()).thenReturn(1L);
+      when(blob.getCrc32c()).thenReturn(OBJECT_CHECKSUM);
+      when(storage.get(OBJECT)).thenReturn(blob);
+      when(storage.reader(any(BlobId.class))).thenAnswer(invocation -> new FakeReader());
+      when(storage.writer(any(BlobInfo.class), any(Storage.BlobWriteOption.class)))
+          .thenAnswer(invocation -> new FakeWriter(invocation.getArgument(0)));
+      when(storage.compose(any(Storage.ComposeRequest.class)))
+          .thenAnswer(invocation -> compose(invocation.getArgument(0)));
+      when(storage.copy(any(Storage.CopyRequest.class)))
+          .thenAnswer(invocation -> copy(invocation.getArgument(0)));
+      when(storage.delete(any(Iterable.class)))
+          .thenAnswer(
+              invocation -> {
+                synchronized (this) {
+                  List<Boolean> deleted = new ArrayList<>();
+                  for (Object blobId : (Iterable<?>) invocation.getArgument(0)) {
+                    String name = ((BlobId) blobId).getName();
+                    deleted.add(parts.remove(name) != null | objects.remove(name) != null);
+                  }
+                  return deleted;
+                }
+              });
+    }
+
+    private synchronized Blob compose(Storage.ComposeRequest request) {
+      if (deletePartBeforeCompose) {
+        parts.remove(request.getSourceBlobs().get(0).getName());
+      }
+      composedParts.clear();
+      for (Storage.ComposeRequest.SourceBlob source : request.getSourceBlobs()) {
+        if (!parts.containsKey(source.getName())) {
+          throw new StorageException(404, "Object not found: " + source.getName());
+        }
+        composedParts.add(getPartIndex(source.getName()));
+      }
+      String checksum = corruptCompose ? "corrupt-checksum" : request.getTarget().getCrc32c();
+      objects.put(request.getTarget().getName(), checksum);
+      Blob composed = mock(Blob.class);
+      when(composed.getCrc32c()).thenReturn(checksum);
+      return composed;
+    }
+
+    private synchronized CopyWriter copy(Storage.CopyRequest request) {
+      String checksum = objects.get(request.getSource().getName());
+      if (checksum == null) {
+        throw new StorageException(404, "Object not found: " + request.getSource().getName());
+      }
+      objects.put(request.getTarget().getName(), checksum);
+      Blob copied = mock(Blob.class);
+      when(copied.getSize()).thenReturn(SIZE);
+      CopyWriter copyWriter = mock(CopyWriter.class);
+      when(copyWriter.getResult()).thenReturn(copied);
+      return copyWriter;
+    }
+
+    /** Temporary objects for the parts of an upload are named "...-<part index>". */
+    private static int getPartIndex(String name) {
+      return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1));
+    }
+
+    /** Byte of {@link #OBJECT} at the given offset. */
+    private static byte objectByte(long offset) {
+      return (byte) (offset * 31 + offset / 4096);
+    }
+
+    private static String computeObjectChecksum() {
+      CRC32C crc32c = new CRC32C();
+      byte[] buffer = new byte[1024 * 1024];
+      for (long offset = 0; offset < SIZE; offset += buffer.length) {
+        int length = (int) Math.min(buffer.length, SIZE - offset);
+        for (int i = 0; i < length; i++) {
+          buffer[i] = objectByte(offset + i);
+        }
+        crc32c.update(buffer, 0, length);
+      }
+      return Checksums.toBase64((int) crc32c.getValue());
+    }
+
+    /** Reads {@link #OBJECT} from the position it's seeked to. */
+    private class FakeReader implements ReadChannel {
+      private long position;
+
+      @Override
+      public void seek(long position) {
+        this.position = position;
+        synchronized (FakeGcs.this) {
+          readOffsets.add(position);
+        }
+      }
+
+      @Override
+      public int read(ByteBuffer buffer) {
+        if (position == failingPartIndex * PART_SIZE) {
+          throw new StorageException(400, "Injected failure");
+        }
+        if (position >= SIZE) {
+          return -1;
+        }
+        int length = (int) Math.min(buffer.remaining(), SIZE - position);
+        for (int i = 0; i < length; i++) {
+          buffer.put(objectByte(position++));
+        }
+        return length;
+      }
+
+      @Override
+      public void setChunkSize(int chunkSize) {}
+
+      @Override
+      public RestorableState<ReadChannel> capture() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    }
+
+    /** Uploads a part, and checks it against its checksum when it's closed. */
+    private class FakeWriter implements WriteChannel {
+      private final BlobInfo partInfo;
+      private final CRC32C crc32c = new CRC32C();
+
+      FakeWriter(BlobInfo partInfo) {
+        this.partInfo = partInfo;
+      }
+
+      @Override
+      public int write(ByteBuffer buffer) {
+        if (getPartIndex(partInfo.getName()) == failingPartIndex) {
+          throw new StorageException(400, "Injected failure");
+        }
+        int length = buffer.remaining();
+        crc32c.update(buffer);
+        return length;
+      }
+
+      @Override
+      public void close() {
+        String checksum = Checksums.toBase64((int) crc32c.getValue());
+        if (!checksum.equals(partInfo.getCrc32c())) {
+          throw new StorageException(400, "Checksum mismatch for " + partInfo.getName());
+        }
+        synchronized (FakeGcs.this) {
+          parts.put(partInfo.getName(), checksum);
+          uploadedParts.add(getPartIndex(partInfo.getName()));
+        }
+      }
+
+      @Override
+      public void setChunkSize(int chunkSize) {}
+
+      @Override
+      public RestorableState<WriteChannel> capture() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+    }
+  }
+}
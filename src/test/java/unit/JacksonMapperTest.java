@@ -0,0 +1,57 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.cli.utils.JacksonMapper;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the cached readers and writers in {@link JacksonMapper}. */
+@Tag("unit")
+public class JacksonMapperTest {
+  @Test
+  @DisplayName("readers are cached per type and set of features")
+  void readersAreCached() {
+    List<MapperFeature> caseInsensitive = List.of(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS);
+
+    assertSame(
+        JacksonMapper.getReader(Color.class),
+        JacksonMapper.getReader(Color.class),
+        "default reader is reused");
+    assertSame(
+        JacksonMapper.getReader(Color.class, caseInsensitive),
+        JacksonMapper.getReader(Color.class, List.copyOf(caseInsensitive)),
+        "reader with features is reused");
+    assertSame(
+        JacksonMapper.getMapper(caseInsensitive),
+        JacksonMapper.getMapper(caseInsensitive),
+        "mapper with features is reused");
+  }
+
+  @Test
+  @DisplayName("features only apply to the readers they're requested for")
+  void featuresAreNotShared() throws IOException {
+    String json = "// comments are allowed\n\"red\"";
+
+    assertEquals(
+        Color.RED,
+        JacksonMapper.getReader(Color.class, List.of(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS))
+            .readValue(json),
+        "reader with features accepts lower case");
+    assertThrows(
+        InvalidFormatException.class,
+        () -> JacksonMapper.getReader(Color.class).readValue(json),
+        "default reader does not accept lower case");
+  }
+
+  enum Color {
+    RED
+  }
+}
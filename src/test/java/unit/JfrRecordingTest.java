@@ -0,0 +1,44 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.app.utils.LocalProcessLauncher;
+import bio.terra.cli.utils.jfr.JfrRecording;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for recording CLI events with {@link JfrRecording}. */
+@Tag("unit")
+public class JfrRecordingTest {
+  @TempDir Path tempDir;
+
+  @Test
+  @DisplayName("recording includes the CLI events emitted while it was running")
+  void recordingIncludesCliEvents() throws IOException {
+    Path jfrFile = tempDir.resolve("recording.jfr");
+    JfrRecording.start(jfrFile);
+    LocalProcessLauncher localProcessLauncher = LocalProcessLauncher.create();
+    localProcessLauncher.launchProcess(List.of("bash", "-c", "exit 3"), null);
+    localProcessLauncher.waitForTerminate();
+    JfrRecording.stop();
+
+    assertTrue(Files.exists(jfrFile), "recording is written to the file");
+    List<RecordedEvent> subprocessEvents =
+        RecordingFile.readAllEvents(jfrFile).stream()
+            .filter(event -> event.getEventType().getName().equals("bio.terra.cli.Subprocess"))
+            .collect(Collectors.toList());
+    assertEquals(1, subprocessEvents.size(), "one subprocess event is recorded");
+    assertEquals("bash", subprocessEvents.get(0).getString("executable"), "executable recorded");
+    assertEquals(3, subprocessEvents.get(0).getInt("exitCode"), "exit code recorded");
+  }
+}
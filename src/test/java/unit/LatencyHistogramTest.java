@@ -0,0 +1,72 @@
+package unit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.utils.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for recording, merging and storing latencies with {@link LatencyHistogram}. */
+@Tag("unit")
+public class LatencyHistogramTest {
+  @Test
+  @DisplayName("percentiles are accurate to within the bucket resolution")
+  void percentilesAreAccurate() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value);
+    }
+
+    assertEquals(100_000, histogram.getCount(), "all values are counted");
+    assertEquals(100_000, histogram.getMax(), "max is exact");
+    assertWithinResolution(50_000, histogram.getValueAtPercentile(50));
+    assertWithinResolution(99_000, histogram.getValueAtPercentile(99));
+    assertEquals(100_000, histogram.getValueAtPercentile(100), "p100 is the max");
+  }
+
+  @Test
+  @DisplayName("small values are recorded exactly")
+  void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(3);
+    histogram.record(7);
+    histogram.record(-1);
+
+    assertEquals(0, histogram.getValueAtPercentile(0), "negative values are recorded as zero");
+    assertEquals(3, histogram.getValueAtPercentile(50), "p50 is exact");
+    assertEquals(7, histogram.getValueAtPercentile(100), "p100 is exact");
+  }
+
+  @Test
+  @DisplayName("merging and restoring from stored buckets preserves the distribution")
+  void mergeAndRestore() {
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    for (long value = 1; value <= 1000; value++) {
+      (value % 2 == 0 ? first : second).record(value * 1000);
+    }
+    first.merge(second);
+    LatencyHistogram restored = new LatencyHistogram(first.getBuckets(), first.getMax());
+
+    assertEquals(1000, restored.getCount(), "count is restored from the buckets");
+    assertEquals(1_000_000, restored.getMax(), "max is restored");
+    assertEquals(
+        first.getValueAtPercentile(90),
+        restored.getValueAtPercentile(90),
+        "percentiles match after restoring");
+    assertWithinResolution(900_000, restored.getValueAtPercentile(90));
+  }
+
+  /** Assert that a percentile is no more than 1/16 (the sub-bucket resolution) above the truth. */
+  private static void assertWithinResolution(long expected, long actual) {
+    assertThat(
+        "percentile is within the bucket resolution",
+        actual,
+        allOf(greaterThanOrEqualTo(expected), lessThanOrEqualTo(expected + expected / 16)));
+  }
+}
@@ -0,0 +1,56 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.app.utils.LocalProcessLauncher;
+import bio.terra.cli.utils.UserIO;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for connecting child processes to the CLI streams with {@link LocalProcessLauncher}. */
+@Tag("unit")
+public class LocalProcessLauncherTest {
+  @Test
+  @DisplayName("binary standard in and out are passed through unchanged")
+  void binaryDataIsUnchanged() {
+    // random bytes, which include newlines, carriage returns and invalid UTF-8 sequences
+    byte[] data = new byte[1024 * 1024];
+    new Random(0).nextBytes(data);
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+    UserIO.initialize(
+        new PrintStream(stdOut, true),
+        new PrintStream(stdErr, true),
+        new ByteArrayInputStream(data));
+
+    LocalProcessLauncher localProcessLauncher = LocalProcessLauncher.create();
+    localProcessLauncher.launchProcessWithUserIO(
+        List.of("bash", "-c", "cat; printf 'no newline' >&2"), null);
+    int exitCode = localProcessLauncher.waitForTerminate();
+
+    assertEquals(0, exitCode, "process exits successfully");
+    assertArrayEquals(data, stdOut.toByteArray(), "standard out matches standard in");
+    assertEquals("no newline", stdErr.toString(), "standard err is complete, without a newline");
+  }
+
+  @Test
+  @DisplayName("a process that reads standard in gets end-of-file if there is no input")
+  void noStandardIn() {
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    UserIO.initialize(new PrintStream(stdOut, true), new PrintStream(stdOut, true), null);
+
+    LocalProcessLauncher localProcessLauncher = LocalProcessLauncher.create();
+    localProcessLauncher.launchProcessWithUserIO(List.of("bash", "-c", "wc -c"), null);
+    int exitCode = localProcessLauncher.waitForTerminate();
+
+    assertEquals(0, exitCode, "process exits successfully");
+    assertEquals("0", stdOut.toString().trim(), "process reads no input");
+  }
+}
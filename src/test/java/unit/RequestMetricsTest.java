@@ -0,0 +1,119 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.EndpointMetrics;
+import bio.terra.cli.businessobject.RequestMetrics;
+import bio.terra.cli.service.utils.HttpUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+/**
+ * Tests for accumulating request metrics across commands with {@link RequestMetrics}, in a
+ * temporary context directory.
+ */
+@Tag("unit")
+public class RequestMetricsTest {
+  private static final String ENDPOINT = "WorkspaceManagerService.getWorkspace";
+
+  @TempDir Path contextDir;
+
+  private MockedStatic<Context> context;
+  private MockedStatic<RequestMetrics> requestMetrics;
+
+  @BeforeEach
+  void setup() {
+    context = mockStatic(Context.class);
+    context.when(Context::getContextDir).thenReturn(contextDir);
+    // recording is turned on by an env var, which a test can't set
+    requestMetrics = mockStatic(RequestMetrics.class, CALLS_REAL_METHODS);
+    requestMetrics.when(RequestMetrics::isEnabled).thenReturn(true);
+  }
+
+  @AfterEach
+  void cleanup() {
+    RequestMetrics.reset();
+    requestMetrics.close();
+    context.close();
+  }
+
+  @Test
+  @DisplayName("each flush merges the command's metrics into the file")
+  void flushesMerge() {
+    // first command
+    RequestMetrics.recordAttempt(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(10));
+    RequestMetrics.recordAttempt(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(20));
+    RequestMetrics.recordCall(ENDPOINT, 1, false);
+    RequestMetrics.flush();
+    // second command
+    RequestMetrics.recordAttempt(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(30));
+    RequestMetrics.recordCall(ENDPOINT, 0, true);
+    RequestMetrics.recordAttempt("SamService.getUser", TimeUnit.MILLISECONDS.toNanos(5));
+    RequestMetrics.recordCall("SamService.getUser", 0, false);
+    RequestMetrics.flush();
+
+    assertTrue(
+        Files.exists(contextDir.resolve("request-metrics.json")),
+        "metrics file is in the context directory");
+    List<EndpointMetrics> metrics = RequestMetrics.list();
+    assertEquals(
+        List.of("SamService.getUser", ENDPOINT),
+        metrics.stream().map(EndpointMetrics::getEndpoint).toList(),
+        "endpoints are listed by name");
+    EndpointMetrics endpointMetrics = metrics.get(1);
+    assertEquals(2, endpointMetrics.getCalls(), "calls are summed");
+    assertEquals(3, endpointMetrics.getAttempts(), "attempts are summed");
+    assertEquals(1, endpointMetrics.getRetries(), "retries are summed");
+    assertEquals(1, endpointMetrics.getFailures(), "failures are summed");
+    assertEquals(3, endpointMetrics.getLatencyMicros().getCount(), "latencies are merged");
+    assertEquals(1, metrics.get(0).getCalls(), "other endpoint is counted separately");
+  }
+
+  @Test
+  @DisplayName("a poll that times out counts as a failed call")
+  void pollTimeoutIsFailure() throws InterruptedException {
+    HttpUtils.pollWithRetries(
+        () -> "still running",
+        result -> false,
+        ex -> false,
+        /* shouldPrintToStderrOnRetry */ false,
+        2,
+        Duration.ZERO);
+    RequestMetrics.flush();
+
+    List<EndpointMetrics> metrics = RequestMetrics.list();
+    assertEquals(1, metrics.size(), "the poll is recorded");
+    assertEquals(1, metrics.get(0).getCalls(), "the poll is a single call");
+    assertEquals(3, metrics.get(0).getAttempts(), "each poll is an attempt");
+    assertEquals(0, metrics.get(0).getRetries(), "polls aren't retries");
+    assertEquals(1, metrics.get(0).getFailures(), "the timed out poll is a failure");
+  }
+
+  @Test
+  @DisplayName("nothing is recorded or written when recording is off")
+  void disabledRecordsNothing() {
+    requestMetrics.when(RequestMetrics::isEnabled).thenReturn(false);
+    RequestMetrics.recordAttempt(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(10));
+    RequestMetrics.recordCall(ENDPOINT, 0, false);
+    RequestMetrics.flush();
+
+    assertFalse(
+        Files.exists(contextDir.resolve("request-metrics.json")), "metrics file isn't written");
+    assertTrue(RequestMetrics.list().isEmpty(), "nothing is recorded");
+  }
+}
@@ -0,0 +1,141 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.cli.cloud.aws.S3Transfer;
+import bio.terra.cli.cloud.storage.Checksums;
+import bio.terra.cli.exception.SystemException;
+import harness.fakeserver.FakeS3Client;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for resuming and verifying transfers with {@link S3Transfer}, against a fake S3. */
+@Tag("unit")
+public class S3TransferTest {
+  private static final String BUCKET = "my-bucket";
+  private static final String KEY = "dir/file.bin";
+  // size of each part of a file that is just large enough to be uploaded in parts
+  private static final long PART_SIZE = S3Transfer.MULTIPART_THRESHOLD_BYTES / 4;
+
+  @TempDir Path tempDir;
+
+  private FakeS3Client fakeS3;
+  private ExecutorService partExecutor;
+  private S3Transfer s3Transfer;
+
+  @BeforeEach
+  void setup() {
+    fakeS3 = new FakeS3Client();
+    // transfer one part at a time, so that the order of requests is predictable
+    partExecutor = Executors.newSingleThreadExecutor();
+    s3Transfer = new S3Transfer(fakeS3, partExecutor);
+  }
+
+  @AfterEach
+  void cleanup() {
+    partExecutor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("an interrupted upload resumes, and re-uploads parts that don't match the file")
+  void uploadResumesIncompleteUpload() throws IOException {
+    Path file = tempDir.resolve("file.bin");
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+      randomAccessFile.setLength(S3Transfer.MULTIPART_THRESHOLD_BYTES);
+      randomAccessFile.write("first part".getBytes(StandardCharsets.UTF_8));
+      randomAccessFile.seek(2 * PART_SIZE);
+      randomAccessFile.write("third part".getBytes(StandardCharsets.UTF_8));
+    }
+    List<Integer> partChecksums =
+        List.of(0, 1, 2, 3).stream()
+            .map(index -> Checksums.crc32c(file, index * PART_SIZE, PART_SIZE))
+            .toList();
+
+    // a previous attempt uploaded the first two parts, and a third part from a different version
+    // of the file
+    String uploadId = fakeS3.startUpload(KEY, Instant.now().minusSeconds(60));
+    fakeS3.addUploadedPart(uploadId, 1, PART_SIZE, partChecksums.get(0));
+    fakeS3.addUploadedPart(uploadId, 2, PART_SIZE, partChecksums.get(1));
+    fakeS3.addUploadedPart(uploadId, 3, PART_SIZE, partChecksums.get(2) + 1);
+
+    assertEquals(
+        S3Transfer.MULTIPART_THRESHOLD_BYTES,
+        s3Transfer.upload(file, BUCKET, KEY),
+        "whole file is uploaded");
+    assertEquals(0, fakeS3.getNumUploadsStarted(), "incomplete upload is resumed");
+    assertEquals(
+        List.of(3, 4),
+        fakeS3.getPartsUploadedByClient(uploadId),
+        "only the missing and mismatched parts are uploaded");
+    assertEquals(
+        Checksums.toBase64Composite(partChecksums),
+        fakeS3.getChecksum(KEY),
+        "object is made of the file's parts");
+  }
+
+  @Test
+  @DisplayName("a download fails if a part doesn't match its checksum")
+  void downloadFailsOnPartChecksumMismatch() {
+    fakeS3.putObject(KEY, bytes("first part"), bytes("second part"));
+    fakeS3.corruptPartChecksum(KEY, 2);
+    Path destination = tempDir.resolve("file.bin");
+
+    assertThrows(
+        SystemException.class,
+        () -> s3Transfer.download(BUCKET, KEY, destination),
+        "mismatched part fails the download");
+    assertFalse(Files.exists(destination), "unverified download is not moved into place");
+  }
+
+  @Test
+  @DisplayName("a download of an object that changed doesn't mix the old and new versions")
+  void downloadRestartsWhenETagChanges() throws IOException {
+    fakeS3.putObject(KEY, bytes("old first part"), bytes("old second part"));
+    // overwrite the object after the first part has been downloaded
+    AtomicBoolean overwritten = new AtomicBoolean();
+    fakeS3.setAfterGetObject(
+        () -> {
+          if (!overwritten.getAndSet(true)) {
+            fakeS3.putObject(KEY, bytes("new first part"), bytes("new second part"));
+          }
+        });
+    Path destination = tempDir.resolve("file.bin");
+
+    assertThrows(
+        SystemException.class,
+        () -> s3Transfer.download(BUCKET, KEY, destination),
+        "download fails once the object changes");
+    assertFalse(Files.exists(destination), "partial download is not moved into place");
+
+    // running the command again downloads the new version from scratch, rather than resuming
+    // from the part of the old version that was downloaded
+    s3Transfer.download(BUCKET, KEY, destination);
+    assertArrayEquals(
+        bytes("new first partnew second part"),
+        Files.readAllBytes(destination),
+        "new version is downloaded");
+    assertFalse(
+        Files.exists(tempDir.resolve("file.bin.terra-journal")), "journal is deleted when done");
+  }
+
+  private static byte[] bytes(String contents) {
+    return contents.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,132 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.cloud.storage.ObjectLister;
+import bio.terra.cli.cloud.storage.StorageObject;
+import bio.terra.cli.cloud.storage.StorageStats;
+import bio.terra.cli.exception.SystemException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for counting objects under a prefix concurrently with {@link StorageStats}. */
+@Tag("unit")
+public class StorageStatsTest {
+  private static final List<StorageObject> OBJECTS =
+      List.of(
+          new StorageObject("top.txt", 1, "STANDARD"),
+          new StorageObject("a/1.txt", 10, "STANDARD"),
+          new StorageObject("a/b/2.txt", 100, "NEARLINE"),
+          new StorageObject("a/b/c/d/3.txt", 1000, "NEARLINE"),
+          new StorageObject("e/4.txt", 10000, null),
+          new StorageObject("e/f/5.txt", 100000, "STANDARD"));
+
+  @Test
+  @DisplayName("every object is counted once, at any parallelism")
+  void countsEveryObjectOnce() {
+    for (int parallelism : List.of(1, 2, 16)) {
+      InMemoryLister lister = new InMemoryLister();
+      StorageStats stats = StorageStats.collect(lister, "", parallelism);
+
+      assertEquals(6, stats.getNumObjects(), "number of objects, parallelism " + parallelism);
+      assertEquals(111111, stats.getTotalBytes(), "total bytes, parallelism " + parallelism);
+      assertEquals(
+          Map.of("NEARLINE", 2L, "STANDARD", 3L, StorageStats.UNKNOWN_STORAGE_CLASS, 1L),
+          stats.getNumObjectsByStorageClass(),
+          "objects by storage class, parallelism " + parallelism);
+      assertEquals(
+          Map.of(
+              "NEARLINE", 1100L, "STANDARD", 100011L, StorageStats.UNKNOWN_STORAGE_CLASS, 10000L),
+          stats.getTotalBytesByStorageClass(),
+          "bytes by storage class, parallelism " + parallelism);
+    }
+  }
+
+  @Test
+  @DisplayName("sub-directories are listed separately")
+  void listsSubDirectoriesSeparately() {
+    InMemoryLister lister = new InMemoryLister();
+    StorageStats stats = StorageStats.collect(lister, "a/", 4);
+
+    assertEquals(3, stats.getNumObjects(), "only objects under the prefix are counted");
+    assertTrue(lister.listedPrefixes.size() > 1, "the prefix is split into several listings");
+  }
+
+  @Test
+  @DisplayName("an object is counted with the objects under it, but not its siblings")
+  void countsOnlyObjectAndChildren() {
+    InMemoryLister lister =
+        new InMemoryLister(
+            List.of(
+                new StorageObject("data/file", 1, "STANDARD"),
+                new StorageObject("data/file/part-0", 10, "STANDARD"),
+                new StorageObject("data/file/sub/part-1", 100, "STANDARD"),
+                new StorageObject("data/file2", 1000, "STANDARD"),
+                new StorageObject("data/file2/part-0", 10000, "STANDARD"),
+                new StorageObject("data/file.bak", 100000, "STANDARD")));
+    StorageStats stats =
+        StorageStats.collect(ObjectLister.forObject(lister, "data/file"), "data/file", 4);
+
+    assertEquals(3, stats.getNumObjects(), "object and the objects under it are counted");
+    assertEquals(111, stats.getTotalBytes(), "siblings that start with the name are not counted");
+  }
+
+  @Test
+  @DisplayName("listing errors are thrown to the caller")
+  void listingErrorsAreThrown() {
+    ObjectLister failingLister =
+        (prefix, recursive, prefixConsumer, objectConsumer) -> {
+          throw new SystemException("listing failed");
+        };
+
+    assertThrows(SystemException.class, () -> StorageStats.collect(failingLister, "", 4));
+  }
+
+  /** Lister for a fixed set of objects, that records the prefixes it was called with. */
+  private static class InMemoryLister implements ObjectLister {
+    private final List<StorageObject> objects;
+    private final Set<String> listedPrefixes = ConcurrentHashMap.newKeySet();
+
+    InMemoryLister() {
+      this(OBJECTS);
+    }
+
+    InMemoryLister(List<StorageObject> objects) {
+      this.objects = objects;
+    }
+
+    @Override
+    public void list(
+        String prefix,
+        boolean recursive,
+        Consumer<String> prefixConsumer,
+        Consumer<StorageObject> objectConsumer) {
+      listedPrefixes.add(prefix);
+      Set<String> subPrefixes = new LinkedHashSet<>();
+      List<StorageObject> listedObjects = new ArrayList<>();
+      for (StorageObject object : objects) {
+        if (!object.name().startsWith(prefix)) {
+          continue;
+        }
+        int delimiterIndex = object.name().indexOf('/', prefix.length());
+        if (!recursive && delimiterIndex >= 0) {
+          subPrefixes.add(object.name().substring(0, delimiterIndex + 1));
+        } else {
+          listedObjects.add(object);
+        }
+      }
+      subPrefixes.forEach(prefixConsumer);
+      listedObjects.forEach(objectConsumer);
+    }
+  }
+}
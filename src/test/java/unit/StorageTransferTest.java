@@ -0,0 +1,98 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.cloud.storage.ByteRange;
+import bio.terra.cli.cloud.storage.Checksums;
+import bio.terra.cli.cloud.storage.StorageUrl;
+import bio.terra.cli.cloud.storage.TransferJournal;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the building blocks of `terra storage cp` that don't talk to the cloud. */
+@Tag("unit")
+public class StorageTransferTest {
+  @TempDir Path tempDir;
+
+  @Test
+  @DisplayName("cloud URLs and local paths are parsed")
+  void parseUrls() {
+    StorageUrl object = StorageUrl.parse("gs://my-bucket/dir/file.txt");
+    assertEquals(StorageUrl.Scheme.GCS, object.scheme(), "gs:// scheme");
+    assertEquals("my-bucket", object.bucket(), "bucket name");
+    assertEquals("dir/file.txt", object.path(), "object name");
+    assertEquals("file.txt", object.getFileName(), "file name");
+
+    StorageUrl bucket = StorageUrl.parse("s3://my-bucket");
+    assertEquals(StorageUrl.Scheme.S3, bucket.scheme(), "s3:// scheme");
+    assertEquals("", bucket.path(), "bucket with no path");
+    assertEquals("s3://my-bucket/a/b", bucket.child("a/b").toString(), "child of a bucket");
+
+    StorageUrl local = StorageUrl.parse("data/file.txt");
+    assertEquals(StorageUrl.Scheme.LOCAL, local.scheme(), "local path");
+    assertEquals(Path.of("data/file.txt"), local.toLocalPath(), "local path is unchanged");
+  }
+
+  @Test
+  @DisplayName("files are split into parts that cover every byte")
+  void splitIntoParts() {
+    assertEquals(
+        List.of(new ByteRange(0, 0, 4), new ByteRange(1, 4, 4), new ByteRange(2, 8, 2)),
+        ByteRange.split(10, 4),
+        "last part is smaller");
+    assertEquals(
+        List.of(new ByteRange(0, 0, 0)), ByteRange.split(0, 4), "empty file has one empty part");
+  }
+
+  @Test
+  @DisplayName("checksums are encoded the way GCS reports them")
+  void crc32cChecksum() throws IOException {
+    Path file = tempDir.resolve("hello.txt");
+    Files.writeString(file, "say hello world", StandardCharsets.UTF_8);
+
+    assertEquals(
+        "yZRlqg==", Checksums.toBase64(Checksums.crc32c(file, 4, 11)), "checksum of a range");
+  }
+
+  @Test
+  @DisplayName("checksums of multipart uploads are encoded the way S3 reports them")
+  void compositeChecksum() throws IOException {
+    Path file = tempDir.resolve("hello.txt");
+    Files.writeString(file, "hello world", StandardCharsets.UTF_8);
+
+    assertEquals(
+        "vUZpoA==-2",
+        Checksums.toBase64Composite(
+            List.of(Checksums.crc32c(file, 0, 6), Checksums.crc32c(file, 6, 5))),
+        "checksum of the parts' checksums, and the number of parts");
+  }
+
+  @Test
+  @DisplayName("the journal resumes for the same source version only")
+  void journalResumes() {
+    Path journalFile = tempDir.resolve("transfer.journal");
+    TransferJournal journal = TransferJournal.open(journalFile, "v1");
+    journal.markComplete(0);
+    journal.markComplete(2);
+
+    TransferJournal resumed = TransferJournal.open(journalFile, "v1");
+    assertTrue(resumed.isComplete(0), "completed part is resumed");
+    assertFalse(resumed.isComplete(1), "incomplete part is not resumed");
+    assertTrue(resumed.isComplete(2), "completed part is resumed");
+
+    TransferJournal changed = TransferJournal.open(journalFile, "v2");
+    assertFalse(changed.isComplete(0), "journal for a different version is discarded");
+
+    changed.delete();
+    assertFalse(Files.exists(journalFile), "journal is deleted");
+  }
+}
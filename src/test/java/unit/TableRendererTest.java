@@ -0,0 +1,104 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TableRenderer;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for sizing, truncating and highlighting table columns with {@link TableRenderer}. */
+@Tag("unit")
+public class TableRendererTest {
+  private static final TableRenderer<String[]> RENDERER = TableRenderer.of(Columns.values());
+
+  @Test
+  @DisplayName("columns are sized to fit their content")
+  void columnsFitContent() {
+    List<String[]> rows = List.of(new String[] {"alpha", "1"}, new String[] {"b", ""});
+
+    assertEquals(
+        "NAME   COUNT\n" + "alpha        1\n" + "b      (unset)",
+        render(rows, OptionalInt.empty()),
+        "columns are padded to the widest value, and empty values are replaced");
+  }
+
+  @Test
+  @DisplayName("the widest column is truncated to fit the maximum width")
+  void widestColumnIsTruncated() {
+    List<String[]> rows = List.of(new String[] {"a-very-long-resource-name", "12"});
+
+    assertEquals(
+        "NAME            COUNT\n" + "a-very-long...     12",
+        render(rows, OptionalInt.of(21)),
+        "the name column is shrunk and its value truncated");
+    assertEquals(
+        "NAME                       COUNT\n" + "a-very-long-resource-name     12",
+        render(rows, OptionalInt.empty()),
+        "no maximum width means no truncation");
+  }
+
+  @Test
+  @DisplayName("highlighted rows are marked")
+  void highlightedRows() {
+    List<String[]> rows = List.of(new String[] {"a", "1"}, new String[] {"b", "2"});
+    StringBuilder table = new StringBuilder();
+    RENDERER.render(rows, row -> row[0].equals("b"), OptionalInt.empty(), table);
+
+    assertEquals(
+        "   NAME  COUNT\n" + "   a         1\n" + " ✓ b         2",
+        table.toString(),
+        "only the matching row is marked");
+  }
+
+  private static String render(List<String[]> rows, OptionalInt maxTableWidth) {
+    StringBuilder table = new StringBuilder();
+    RENDERER.render(rows, null, maxTableWidth, table);
+    return table.toString();
+  }
+
+  private enum Columns implements ColumnDefinition<String[]> {
+    NAME("NAME", row -> row[0], 10, Alignment.LEFT),
+    COUNT("COUNT", row -> row[1], 5, Alignment.RIGHT);
+
+    private final String label;
+    private final Function<String[], String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    Columns(
+        String label,
+        Function<String[], String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.label = label;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return label;
+    }
+
+    @Override
+    public Function<String[], String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
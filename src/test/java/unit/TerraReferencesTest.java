@@ -0,0 +1,96 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.app.CommandRunner;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for finding the workspace resources that an app command references. */
+@Tag("unit")
+public class TerraReferencesTest {
+  @TempDir Path workingDir;
+
+  @Test
+  @DisplayName("a command with no references references no resources")
+  void noReferences() {
+    assertEquals(
+        Set.of(),
+        CommandRunner.findTerraReferences(List.of("gcloud", "config", "list"), workingDir),
+        "no references found");
+  }
+
+  @Test
+  @DisplayName("references in arguments are found")
+  void referencesInArguments() {
+    assertEquals(
+        Set.of("TERRA_my_bucket", "TERRA_other"),
+        CommandRunner.findTerraReferences(
+            List.of("gsutil", "cp", "$TERRA_my_bucket/file", "${TERRA_other}/dir"), workingDir),
+        "references in arguments found");
+  }
+
+  @Test
+  @DisplayName("references in named files and implicit config files are found")
+  void referencesInFiles() throws IOException {
+    Files.writeString(workingDir.resolve("script.sh"), "gsutil ls $TERRA_from_script\n");
+    Files.writeString(workingDir.resolve("custom.config"), "workDir = \"$TERRA_from_option\"\n");
+    Files.writeString(workingDir.resolve("nextflow.config"), "workDir = \"$TERRA_implicit\"\n");
+    Path pipelineDir = Files.createDirectory(workingDir.resolve("pipeline"));
+    Files.writeString(pipelineDir.resolve("nextflow.config"), "workDir = \"$TERRA_pipeline\"\n");
+
+    assertEquals(
+        Set.of("TERRA_from_script", "TERRA_implicit"),
+        CommandRunner.findTerraReferences(List.of("bash", "script.sh"), workingDir),
+        "references in script and working directory config found");
+    assertEquals(
+        Set.of("TERRA_from_option", "TERRA_implicit", "TERRA_pipeline"),
+        CommandRunner.findTerraReferences(
+            List.of("nextflow", "run", "pipeline", "--config=custom.config"), workingDir),
+        "references in option file, working directory config and pipeline config found");
+  }
+
+  @Test
+  @DisplayName("references in the Nextflow files of a pipeline directory are found")
+  void referencesInPipelineFiles() throws IOException {
+    Path pipelineDir = Files.createDirectory(workingDir.resolve("pipeline"));
+    Files.writeString(pipelineDir.resolve("main.nf"), "params.input = \"$TERRA_main\"\n");
+    Path moduleDir = Files.createDirectories(pipelineDir.resolve("modules").resolve("align"));
+    Files.writeString(moduleDir.resolve("align.nf"), "ref = \"$TERRA_module\"\n");
+    Files.writeString(moduleDir.resolve("notes.txt"), "$TERRA_not_a_pipeline_file\n");
+    Path otherDir = Files.createDirectory(workingDir.resolve("other"));
+    Files.writeString(otherDir.resolve("lib.nf"), "x = \"$TERRA_not_a_pipeline\"\n");
+
+    assertEquals(
+        Set.of("TERRA_main", "TERRA_module"),
+        CommandRunner.findTerraReferences(List.of("nextflow", "run", "pipeline"), workingDir),
+        "references in main.nf and modules found");
+    assertEquals(
+        Set.of(),
+        CommandRunner.findTerraReferences(List.of("ls", "other"), workingDir),
+        "directory without a main.nf or nextflow.config isn't searched");
+  }
+
+  @Test
+  @DisplayName("references in files that a script sources are found")
+  void referencesInSourcedFiles() throws IOException {
+    Path libDir = Files.createDirectory(workingDir.resolve("lib"));
+    Files.writeString(
+        workingDir.resolve("script.sh"), "source lib/env.sh\ngsutil ls $TERRA_script\n");
+    Files.writeString(libDir.resolve("env.sh"), ". ./common.sh\nBUCKET=$TERRA_env\n");
+    // sources the first file again, which isn't scanned twice
+    Files.writeString(libDir.resolve("common.sh"), "source ../script.sh\nX=$TERRA_common\n");
+
+    assertEquals(
+        Set.of("TERRA_script", "TERRA_env", "TERRA_common"),
+        CommandRunner.findTerraReferences(List.of("bash", "script.sh"), workingDir),
+        "references in sourced files found");
+  }
+}
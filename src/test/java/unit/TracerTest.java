@@ -0,0 +1,90 @@
+package unit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.Tracer;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for recording and exporting timing spans with {@link Tracer}. */
+@Tag("unit")
+public class TracerTest {
+  @TempDir Path tempDir;
+
+  @AfterEach
+  void resetTracer() {
+    Tracer.reset();
+    Tracer.setOutputFile(null);
+  }
+
+  @Test
+  @DisplayName("spans are exported as complete events in the Chrome trace format")
+  void exportsSpans() throws IOException {
+    Path traceFile = tempDir.resolve("trace.json");
+    Tracer.reset();
+    Tracer.setOutputFile(traceFile);
+
+    try (Tracer.Span outer = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "outer")) {
+      try (Tracer.Span inner = Tracer.startSpan(Tracer.CATEGORY_HTTP, "inner")) {
+        inner.setAttribute("attempts", 2);
+      }
+    }
+    Tracer.export("terra workspace list", 0);
+
+    JsonNode traceEvents =
+        JacksonMapper.getMapper().readTree(traceFile.toFile()).get("traceEvents");
+    List<String> names = new ArrayList<>();
+    traceEvents.forEach(event -> names.add(event.get("name").asText()));
+    // the inner span closes first, so it is recorded first. these may be preceded by the JVM
+    // startup span, if this is the first command traced in this JVM.
+    assertThat(
+        "spans are exported in the order they ended",
+        names.subList(names.size() - 3, names.size()),
+        contains("terra workspace list", "inner", "outer"));
+
+    JsonNode inner = traceEvents.get(traceEvents.size() - 2);
+    assertEquals("X", inner.get("ph").asText(), "span is a complete event");
+    assertEquals(Tracer.CATEGORY_HTTP, inner.get("cat").asText(), "span category is exported");
+    assertEquals(2, inner.get("args").get("attempts").asInt(), "span attributes are exported");
+
+    JsonNode outer = traceEvents.get(traceEvents.size() - 1);
+    assertThat(
+        "outer span starts before the inner span",
+        inner.get("ts").asLong(),
+        greaterThanOrEqualTo(outer.get("ts").asLong()));
+    assertThat(
+        "outer span ends after the inner span",
+        outer.get("ts").asLong() + outer.get("dur").asLong(),
+        greaterThanOrEqualTo(inner.get("ts").asLong() + inner.get("dur").asLong()));
+  }
+
+  @Test
+  @DisplayName("tracing is disabled for the next command, unless it is turned on again")
+  void resetDisablesTracing() {
+    Path traceFile = tempDir.resolve("trace.json");
+    Tracer.setOutputFile(traceFile);
+    Tracer.reset();
+
+    try (Tracer.Span span = Tracer.startSpan(Tracer.CATEGORY_COMMAND, "span")) {
+      span.setAttribute("key", "value");
+    }
+    Tracer.export("terra status", 0);
+
+    assertFalse(Tracer.isEnabled(), "tracing is disabled");
+    assertFalse(Files.exists(traceFile), "no trace file is written");
+  }
+}
@@ -0,0 +1,68 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.cloud.storage.TransferJournal;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for resuming a transfer from a {@link TransferJournal}. */
+@Tag("unit")
+public class TransferJournalTest {
+  private static final String VERSION = "1:100";
+
+  @TempDir Path tempDir;
+
+  @Test
+  @DisplayName("completed parts are read back by the next attempt")
+  void completedPartsResume() {
+    Path file = tempDir.resolve("journal");
+    TransferJournal journal = TransferJournal.open(file, VERSION);
+    journal.markComplete(0);
+    journal.markComplete(12);
+
+    TransferJournal resumed = TransferJournal.open(file, VERSION);
+    assertTrue(resumed.isComplete(0), "first part is complete");
+    assertTrue(resumed.isComplete(12), "second part is complete");
+    assertFalse(resumed.isComplete(1), "other part isn't complete");
+  }
+
+  @Test
+  @DisplayName("a partly written last line is dropped")
+  void partlyWrittenLineDropped() throws IOException {
+    Path file = tempDir.resolve("journal");
+    // "12\n" was being written when the previous attempt was killed
+    Files.writeString(file, "version " + VERSION + "\n0\n1", StandardCharsets.UTF_8);
+
+    TransferJournal journal = TransferJournal.open(file, VERSION);
+    assertTrue(journal.isComplete(0), "complete line is kept");
+    assertFalse(journal.isComplete(1), "partly written line is dropped");
+
+    journal.markComplete(5);
+    TransferJournal resumed = TransferJournal.open(file, VERSION);
+    assertTrue(resumed.isComplete(5), "next part is recorded on its own line");
+    assertFalse(resumed.isComplete(15), "next part isn't appended to the dropped line");
+    assertEquals(
+        "version " + VERSION + "\n0\n5\n",
+        Files.readString(file, StandardCharsets.UTF_8),
+        "journal is rewritten without the dropped line");
+  }
+
+  @Test
+  @DisplayName("a journal for a different source version is discarded")
+  void otherVersionDiscarded() {
+    Path file = tempDir.resolve("journal");
+    TransferJournal.open(file, VERSION).markComplete(0);
+
+    assertFalse(TransferJournal.open(file, "2:100").isComplete(0), "other version starts again");
+    assertFalse(TransferJournal.open(file, VERSION).isComplete(0), "old journal was replaced");
+  }
+}
@@ -0,0 +1,60 @@
+#!/bin/bash
+set -e
+## This script generates a class data sharing (CDS) archive for an installed Terra CLI, to speed up
+## JVM startup. It runs a set of training commands, records the classes each one loads, and dumps
+## the union of those classes into a static archive. The start script uses the archive when it is
+## present in the lib directory, next to the JARs.
+## The archive is specific to the Java installation that generated it, so this is run at install
+## time (see install.sh and the generateCdsArchive Gradle task), instead of shipping the archive.
+## Dependencies: none, beyond the Java installation that runs the CLI
+## Usage: ./generate-cds-archive.sh path/to/terra path/to/lib/terra.jsa
+
+terraLauncher=$1
+cdsArchive=$2
+if [[ -z "$terraLauncher" ]] || [[ -z "$cdsArchive" ]]; then
+  >&2 echo "ERROR: Usage: ./generate-cds-archive.sh path/to/terra path/to/lib/terra.jsa"
+  exit 1
+fi
+
+# The training commands. Main only builds the picocli command tree for the invoked top-level
+# subcommand, so each branch that users run often needs its own command here. These must not need
+# login or network access, because they run during install: commands that need login are trained
+# with --help, which loads their branch of the command tree without running them.
+trainingCommands=(
+  "version"
+  "status"
+  "config list"
+  "--format=json config list"
+  "config get server"
+  "auth status"
+  "resource list --help"
+  "resource resolve --help"
+  "workspace describe --help"
+  "notebook list --help"
+  "cluster list --help"
+)
+
+# The start script uses the archive if it exists, so remove any old one before training.
+rm -f "$cdsArchive"
+classListDir=$(mktemp -d)
+# Train against a throwaway context directory, so that the training commands don't read or change
+# the installing user's context and logs.
+trainingContextDir=$(mktemp -d)
+trap 'rm -rf "$classListDir" "$trainingContextDir"' EXIT
+
+# Record the classes that each command loads. A command may fail, e.g. because no workspace is
+# set, but it has still loaded the classes it needed to get that far.
+for i in "${!trainingCommands[@]}"; do
+  # shellcheck disable=SC2086
+  TERRA_CONTEXT_PARENT_DIR="$trainingContextDir" \
+    JAVA_OPTS="-XX:DumpLoadedClassList=${classListDir}/${i}.classlist" \
+    "$terraLauncher" ${trainingCommands[$i]} > /dev/null 2>&1 || true
+done
+
+# Merge the class lists, keeping the first occurrence of each line in load order.
+cat "$classListDir"/*.classlist | awk '!seen[$0]++' > "$classListDir/merged"
+
+# Dump the archive through the start script, so that the classpath matches the one used at run time.
+JAVA_OPTS="-Xshare:dump -XX:SharedClassListFile=${classListDir}/merged -XX:SharedArchiveFile=${cdsArchive}" \
+  "$terraLauncher" > /dev/null 2>&1
+[[ -f "$cdsArchive" ]]
@@ -43,6 +43,15 @@ echo "--  Moving run script and README out of archive directory"
 cp "$archiveDir"/bin/terra "$archiveDir"/../terra
 cp "$archiveDir"/README.md "$archiveDir"/../README.md
 
+echo "--  Generating the class data sharing archive to speed up startup"
+cdsArchive="${applicationDir}/lib/terra.jsa"
+if "$archiveDir"/generate-cds-archive.sh "$archiveDir"/../terra "$cdsArchive"; then
+  echo "Wrote ${cdsArchive}"
+else
+  rm -f "$cdsArchive"
+  echo "Skipping the class data sharing archive, it is not supported by this Java installation"
+fi
+
 echo "--  Deleting the archive directory"
 cd "$archiveDir"/..
 rm -R "$archiveDir"